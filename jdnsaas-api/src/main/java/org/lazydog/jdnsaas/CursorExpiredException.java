@@ -0,0 +1,68 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas;
+
+import java.io.Serializable;
+
+/**
+ * Cursor expired exception.
+ * 
+ * The zone snapshot a record cursor points into is no longer retained, so the paging has to start over.
+ * 
+ * @author  Ron Rickard
+ */
+public class CursorExpiredException extends Exception implements Serializable {
+    
+    public static final long serialVersionUID = 1L;
+    
+    /**
+     * Constructs a new exception with no message.
+     */
+    public CursorExpiredException() {
+        super();
+    }
+
+    /**
+     * Constructs a new exception with the specified message.
+     *
+     * @param  message  the message.
+     */
+    public CursorExpiredException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new exception with the specified message and cause.
+     *
+     * @param  message  the message.
+     * @param  cause    the cause.
+     */
+    public CursorExpiredException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Constructs a new exception with the specified cause.
+     *
+     * @param  cause  the cause.
+     */
+    public CursorExpiredException(final Throwable cause) {
+        super(cause);
+    }
+}
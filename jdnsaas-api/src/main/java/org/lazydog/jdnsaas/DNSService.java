@@ -18,13 +18,22 @@
  */
 package org.lazydog.jdnsaas;
 
+import java.io.Writer;
 import java.util.List;
+import java.util.Map;
+import org.lazydog.jdnsaas.model.Operation;
 import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.RecordPage;
 import org.lazydog.jdnsaas.model.Resolver;
+import org.lazydog.jdnsaas.model.SOARecord;
 import org.lazydog.jdnsaas.model.TSIGKey;
 import org.lazydog.jdnsaas.model.View;
 import org.lazydog.jdnsaas.model.Zone;
+import org.lazydog.jdnsaas.model.ZoneUpdateMetrics;
+import org.lazydog.jdnsaas.utility.RecordCursor;
 import org.lazydog.jdnsaas.utility.RecordFilter;
+import org.lazydog.jdnsaas.utility.Subnet;
 
 /**
  * DNS service.
@@ -33,6 +42,47 @@ import org.lazydog.jdnsaas.utility.RecordFilter;
  */
 public interface DNSService {
 
+    /**
+     * Find the SOA record of the zone in the zone cache.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * 
+     * @return  the SOA record, or null if the zone cache is unavailable or the zone is not in the zone cache.
+     * 
+     * @throws  DNSServiceException        if unable to find the SOA record due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    SOARecord findCachedSOARecord(String viewName, String zoneName) throws DNSServiceException, ResourceNotFoundException;
+
+    /**
+     * Find the free addresses in the range of the IPv4 reverse zone.
+     * An address is free if no zone of the view has a PTR record or A record for it and it is not reserved.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the IPv4 reverse zone name.
+     * @param  range     the range, or null for the subnet of the zone.
+     * @param  count     the maximum number of free addresses.
+     * 
+     * @return  the free addresses in address order.
+     * 
+     * @throws  DNSServiceException        if unable to find the free addresses due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    List<String> findFreeAddresses(String viewName, String zoneName, Subnet range, int count) throws DNSServiceException, ResourceNotFoundException;
+
+    /**
+     * Find the operation.
+     * 
+     * @param  operationId  the operation ID.
+     * 
+     * @return  the operation.
+     * 
+     * @throws  DNSServiceException        if unable to find the operation due to an exception.
+     * @throws  ResourceNotFoundException  if the operation is not found.
+     */
+    Operation findOperation(String operationId) throws DNSServiceException, ResourceNotFoundException;
+
     /**
      * Find the records.
      * 
@@ -47,6 +97,70 @@ public interface DNSService {
      * @throws  ResourceNotFoundException  if the zone is not found.
      */
     List<Record> findRecords(String viewName, String zoneName, RecordFilter recordFilter, boolean useCache) throws DNSServiceException, ResourceNotFoundException;
+
+    /**
+     * Find the records.
+     * 
+     * @param  viewName        the view name.
+     * @param  zoneName        the zone name.
+     * @param  recordFilter    the record filter.
+     * @param  useCache        true if the zone cache should be used, otherwise false. 
+     * @param  useLookupCache  true if the lookup cache should be used when the zone cache is not, otherwise false.
+     * 
+     * @return  the records.
+     * 
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    List<Record> findRecords(String viewName, String zoneName, RecordFilter recordFilter, boolean useCache, boolean useLookupCache) throws DNSServiceException, ResourceNotFoundException;
+    
+    /**
+     * Find a page of the records.
+     * The records are found in a snapshot of the zone in the zone cache.  The cursor for the next page is tied to 
+     * the snapshot, so the pages stay consistent while the zone is updated.
+     * 
+     * @param  viewName      the view name.
+     * @param  zoneName      the zone name.
+     * @param  recordFilter  the record filter.
+     * @param  cursor        the cursor from the previous page, or null for the first page.
+     * @param  limit         the maximum number of records in the page.
+     * 
+     * @return  the page of records.
+     * 
+     * @throws  CursorExpiredException     if the snapshot of the cursor is no longer retained.
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    RecordPage findRecords(String viewName, String zoneName, RecordFilter recordFilter, RecordCursor cursor, int limit) throws CursorExpiredException, DNSServiceException, ResourceNotFoundException;
+    
+    /**
+     * Find the records in the subnet in each zone of the view.
+     * These are the A and AAAA records with an IP address in the subnet, and the PTR records of reverse zones 
+     * whose names stand for an IP address in the subnet.
+     * 
+     * @param  viewName  the view name.
+     * @param  subnet    the subnet.
+     * 
+     * @return  the records in the subnet in address order, by zone name.
+     * 
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the view is not found.
+     */
+    Map<String,List<Record>> findRecordsInSubnet(String viewName, Subnet subnet) throws DNSServiceException, ResourceNotFoundException;
+    
+    /**
+     * Find the records pointing at the data in each zone of the view.
+     * These are the A and AAAA records with the IP address, or the CNAME, MX, NS, PTR and SRV records with the target.
+     * 
+     * @param  viewName  the view name.
+     * @param  data      the IP (v4 or v6) address or the target.  A relative target is relative to each zone.
+     * 
+     * @return  the records pointing at the data, by zone name.
+     * 
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the view is not found.
+     */
+    Map<String,List<Record>> findReferringRecords(String viewName, String data) throws DNSServiceException, ResourceNotFoundException;
     
     /**
      * Find the resolvers.
@@ -111,6 +225,15 @@ public interface DNSService {
      * @throws  ResourceNotFoundException  if the view is not found.
      */
     List<String> findZoneNames(String viewName) throws DNSServiceException, ResourceNotFoundException;
+
+    /**
+     * Find the zone update metrics.
+     * 
+     * @return  the zone update metrics.
+     * 
+     * @throws  DNSServiceException  if unable to find the zone update metrics due to an exception.
+     */
+    List<ZoneUpdateMetrics> findZoneUpdateMetrics() throws DNSServiceException;
         
     /**
      * Process the record operations.
@@ -119,10 +242,69 @@ public interface DNSService {
      * @param  zoneName  the zone name.
      * @param  records   the records.
      * 
-     * @return  true if the record operations are processed successfully, otherwise false.
+     * @return  the record operation results, one for each record in the order of the records.
      * 
      * @throws  DNSServiceException        if unable to process the record operations due to an exception.
      * @throws  ResourceNotFoundException  if the zone is not found.
      */
-    boolean processRecordOperations(String viewName, String zoneName, List<Record> records) throws DNSServiceException, ResourceNotFoundException;
-}
\ No newline at end of file
+    List<RecordOperationResult> processRecordOperations(String viewName, String zoneName, List<Record> records) throws DNSServiceException, ResourceNotFoundException;
+
+    /**
+     * Process the record operations of many zones.
+     * The record operations of the zones are processed in parallel.  A zone that is not found, or whose record 
+     * operations could not be processed, has an unsuccessful record operation result for each of its records.
+     * 
+     * @param  viewZoneRecords  the records, by zone name, by view name.
+     * 
+     * @return  the record operation results, one for each record in the order of the records, by zone name, by view name.
+     * 
+     * @throws  DNSServiceException  if unable to process the record operations due to an exception.
+     */
+    Map<String,Map<String,List<RecordOperationResult>>> processRecordOperations(Map<String,Map<String,List<Record>>> viewZoneRecords) throws DNSServiceException;
+
+    /**
+     * Reserve the free addresses in the range of the IPv4 reverse zone by adding a PTR record for each of them.
+     * The free addresses are found and the PTR records are added atomically with respect to other reservations.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the IPv4 reverse zone name.
+     * @param  range     the range, or null for the subnet of the zone.
+     * @param  count     the maximum number of free addresses.
+     * @param  target    the target of the PTR records.
+     * 
+     * @return  the record operation results, one for each reserved address in address order.
+     * 
+     * @throws  DNSServiceException        if unable to reserve the free addresses due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    List<RecordOperationResult> reserveFreeAddresses(String viewName, String zoneName, Subnet range, int count, String target) throws DNSServiceException, ResourceNotFoundException;
+
+    /**
+     * Submit the record operations to be processed asynchronously.
+     * The record operations are written to the operation log before this method returns.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     * 
+     * @return  the pending operation.
+     * 
+     * @throws  DNSServiceException        if unable to submit the record operations due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    Operation submitRecordOperations(String viewName, String zoneName, List<Record> records) throws DNSServiceException, ResourceNotFoundException;
+
+    /**
+     * Write the records of the zone as a zone file in the master file format of RFC 1035.
+     * The SOA record is written first, and each record is written on its own line as it is converted.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * @param  useCache  true if the zone cache should be used, otherwise false.
+     * @param  writer    the writer.
+     * 
+     * @throws  DNSServiceException        if unable to write the zone file due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    void writeZoneFile(String viewName, String zoneName, boolean useCache, Writer writer) throws DNSServiceException, ResourceNotFoundException;
+}
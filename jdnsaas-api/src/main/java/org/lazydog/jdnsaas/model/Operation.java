@@ -0,0 +1,187 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Operation.
+ * 
+ * An operation tracks record operations that are processed asynchronously.
+ * 
+ * @author  Ron Rickard
+ */
+public class Operation extends Model {
+
+    private static final long serialVersionUID = 1L;
+    private Date completeDate;
+    private String id;
+    private String message;
+    private List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+    private OperationState state;
+    private Date submitDate;
+    private String viewName;
+    private String zoneName;
+
+    /**
+     * Get the complete date.
+     * 
+     * @return  the complete date.
+     */
+    public Date getCompleteDate() {
+        return this.completeDate;
+    }
+
+    /**
+     * Get the ID.
+     * 
+     * @return  the ID.
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Get the message.
+     * 
+     * @return  the message.
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Get the record operation results.
+     * 
+     * @return  the record operation results.
+     */
+    public List<RecordOperationResult> getRecordOperationResults() {
+        return this.recordOperationResults;
+    }
+
+    /**
+     * Get the state.
+     * 
+     * @return  the state.
+     */
+    public OperationState getState() {
+        return this.state;
+    }
+
+    /**
+     * Get the submit date.
+     * 
+     * @return  the submit date.
+     */
+    public Date getSubmitDate() {
+        return this.submitDate;
+    }
+
+    /**
+     * Get the view name.
+     * 
+     * @return  the view name.
+     */
+    public String getViewName() {
+        return this.viewName;
+    }
+
+    /**
+     * Get the zone name.
+     * 
+     * @return  the zone name.
+     */
+    public String getZoneName() {
+        return this.zoneName;
+    }
+
+    /**
+     * Set the complete date.
+     * 
+     * @param  completeDate  the complete date.
+     */
+    public void setCompleteDate(final Date completeDate) {
+        this.completeDate = completeDate;
+    }
+
+    /**
+     * Set the ID.
+     * 
+     * @param  id  the ID.
+     */
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    /**
+     * Set the message.
+     * 
+     * @param  message  the message.
+     */
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+
+    /**
+     * Set the record operation results.
+     * 
+     * @param  recordOperationResults  the record operation results.
+     */
+    public void setRecordOperationResults(final List<RecordOperationResult> recordOperationResults) {
+        this.recordOperationResults = recordOperationResults;
+    }
+
+    /**
+     * Set the state.
+     * 
+     * @param  state  the state.
+     */
+    public void setState(final OperationState state) {
+        this.state = state;
+    }
+
+    /**
+     * Set the submit date.
+     * 
+     * @param  submitDate  the submit date.
+     */
+    public void setSubmitDate(final Date submitDate) {
+        this.submitDate = submitDate;
+    }
+
+    /**
+     * Set the view name.
+     * 
+     * @param  viewName  the view name.
+     */
+    public void setViewName(final String viewName) {
+        this.viewName = viewName;
+    }
+
+    /**
+     * Set the zone name.
+     * 
+     * @param  zoneName  the zone name.
+     */
+    public void setZoneName(final String zoneName) {
+        this.zoneName = zoneName;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.model;
+
+/**
+ * Operation state.
+ * 
+ * @author  Ron Rickard
+ */
+public enum OperationState {
+    COMPLETED,
+    FAILED,
+    PENDING;
+
+    /**
+     * Get the operation state from the string.
+     * 
+     * @param  asString  the operation state as a string.
+     * 
+     * @return  the operation state.
+     * 
+     * @throws  IllegalArgumentException  if the desired operation state is invalid.
+     */
+    public static OperationState fromString(final String asString) {
+        
+        for (OperationState state: OperationState.values()) {
+            if(state.toString().equalsIgnoreCase(asString)) {
+                return state;
+            }
+        }
+        
+        throw new IllegalArgumentException("The operation state, " + asString + ", is invalid.");
+    }
+}
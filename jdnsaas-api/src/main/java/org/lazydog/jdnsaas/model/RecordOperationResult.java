@@ -0,0 +1,103 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.model;
+
+/**
+ * Record operation result.
+ * 
+ * @author  Ron Rickard
+ */
+public class RecordOperationResult extends Model {
+
+    private static final long serialVersionUID = 1L;
+    private String message;
+    private Record record;
+    private boolean success;
+
+    /**
+     * Get the message.
+     * 
+     * @return  the message.
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Get the record.
+     * 
+     * @return  the record.
+     */
+    public Record getRecord() {
+        return this.record;
+    }
+
+    /**
+     * Is the record operation successful?
+     * 
+     * @return  true if the record operation is successful, otherwise false.
+     */
+    public boolean isSuccess() {
+        return this.success;
+    }
+
+    /**
+     * Create a new instance of the record operation result class.
+     * 
+     * @param  record   the record.
+     * @param  success  true if the record operation is successful, otherwise false.
+     * @param  message  the message.
+     * 
+     * @return  a new instance of the record operation result class.
+     */
+    public static RecordOperationResult newInstance(final Record record, final boolean success, final String message) {
+        RecordOperationResult recordOperationResult = new RecordOperationResult();
+        recordOperationResult.setMessage(message);
+        recordOperationResult.setRecord(record);
+        recordOperationResult.setSuccess(success);
+        return recordOperationResult;
+    }
+
+    /**
+     * Set the message.
+     * 
+     * @param  message  the message.
+     */
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+
+    /**
+     * Set the record.
+     * 
+     * @param  record  the record.
+     */
+    public void setRecord(final Record record) {
+        this.record = record;
+    }
+
+    /**
+     * Set the success.
+     * 
+     * @param  success  true if the record operation is successful, otherwise false.
+     */
+    public void setSuccess(final boolean success) {
+        this.success = success;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.lazydog.jdnsaas.utility.RecordCursor;
+
+/**
+ * Record page.
+ * 
+ * A record page is one page of the records found in a cached zone snapshot with the cursor for the next page.
+ * 
+ * @author  Ron Rickard
+ */
+public class RecordPage extends Model {
+
+    private static final long serialVersionUID = 1L;
+    private RecordCursor nextCursor;
+    private List<Record> records = new ArrayList<Record>();
+
+    /**
+     * Get the cursor for the next page.
+     * 
+     * @return  the cursor for the next page, or null if this is the last page.
+     */
+    public RecordCursor getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Get the records.
+     * 
+     * @return  the records.
+     */
+    public List<Record> getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Create a new instance of the record page class.
+     * 
+     * @param  records     the records.
+     * @param  nextCursor  the cursor for the next page, or null if this is the last page.
+     * 
+     * @return  a new instance of the record page class.
+     */
+    public static RecordPage newInstance(final List<Record> records, final RecordCursor nextCursor) {
+        RecordPage recordPage = new RecordPage();
+        recordPage.setNextCursor(nextCursor);
+        recordPage.setRecords(records);
+        return recordPage;
+    }
+
+    /**
+     * Set the cursor for the next page.
+     * 
+     * @param  nextCursor  the cursor for the next page, or null if this is the last page.
+     */
+    public void setNextCursor(final RecordCursor nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Set the records.
+     * 
+     * @param  records  the records.
+     */
+    public void setRecords(final List<Record> records) {
+        this.records = records;
+    }
+}
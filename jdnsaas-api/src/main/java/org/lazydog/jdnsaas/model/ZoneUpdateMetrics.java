@@ -0,0 +1,162 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.model;
+
+/**
+ * Zone update metrics.
+ * 
+ * @author  Ron Rickard
+ */
+public class ZoneUpdateMetrics extends Model {
+
+    private static final long serialVersionUID = 1L;
+    private Long averageWaitTime;
+    private Integer maximumQueueDepth;
+    private Long maximumWaitTime;
+    private Long processedCount;
+    private Integer queueDepth;
+    private String viewName;
+    private String zoneName;
+
+    /**
+     * Get the average wait time.
+     * 
+     * @return  the average time, in milliseconds, the record operations waited in the queue.
+     */
+    public Long getAverageWaitTime() {
+        return this.averageWaitTime;
+    }
+
+    /**
+     * Get the maximum queue depth.
+     * 
+     * @return  the maximum queue depth.
+     */
+    public Integer getMaximumQueueDepth() {
+        return this.maximumQueueDepth;
+    }
+
+    /**
+     * Get the maximum wait time.
+     * 
+     * @return  the maximum time, in milliseconds, the record operations waited in the queue.
+     */
+    public Long getMaximumWaitTime() {
+        return this.maximumWaitTime;
+    }
+
+    /**
+     * Get the processed count.
+     * 
+     * @return  the number of record operation requests processed.
+     */
+    public Long getProcessedCount() {
+        return this.processedCount;
+    }
+
+    /**
+     * Get the queue depth.
+     * 
+     * @return  the number of record operation requests waiting in the queue.
+     */
+    public Integer getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    /**
+     * Get the view name.
+     * 
+     * @return  the view name.
+     */
+    public String getViewName() {
+        return this.viewName;
+    }
+
+    /**
+     * Get the zone name.
+     * 
+     * @return  the zone name.
+     */
+    public String getZoneName() {
+        return this.zoneName;
+    }
+
+    /**
+     * Set the average wait time.
+     * 
+     * @param  averageWaitTime  the average time, in milliseconds, the record operations waited in the queue.
+     */
+    public void setAverageWaitTime(final Long averageWaitTime) {
+        this.averageWaitTime = averageWaitTime;
+    }
+
+    /**
+     * Set the maximum queue depth.
+     * 
+     * @param  maximumQueueDepth  the maximum queue depth.
+     */
+    public void setMaximumQueueDepth(final Integer maximumQueueDepth) {
+        this.maximumQueueDepth = maximumQueueDepth;
+    }
+
+    /**
+     * Set the maximum wait time.
+     * 
+     * @param  maximumWaitTime  the maximum time, in milliseconds, the record operations waited in the queue.
+     */
+    public void setMaximumWaitTime(final Long maximumWaitTime) {
+        this.maximumWaitTime = maximumWaitTime;
+    }
+
+    /**
+     * Set the processed count.
+     * 
+     * @param  processedCount  the number of record operation requests processed.
+     */
+    public void setProcessedCount(final Long processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    /**
+     * Set the queue depth.
+     * 
+     * @param  queueDepth  the number of record operation requests waiting in the queue.
+     */
+    public void setQueueDepth(final Integer queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Set the view name.
+     * 
+     * @param  viewName  the view name.
+     */
+    public void setViewName(final String viewName) {
+        this.viewName = viewName;
+    }
+
+    /**
+     * Set the zone name.
+     * 
+     * @param  zoneName  the zone name.
+     */
+    public void setZoneName(final String zoneName) {
+        this.zoneName = zoneName;
+    }
+}
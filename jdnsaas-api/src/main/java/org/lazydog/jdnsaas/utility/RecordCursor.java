@@ -0,0 +1,142 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import org.apache.commons.lang3.StringUtils;
+import org.lazydog.jdnsaas.model.Model;
+
+/**
+ * Record cursor.
+ * 
+ * A record cursor marks the position in a cached zone snapshot where the next page of records starts.  The 
+ * snapshot is identified by the SOA serial number of the zone, so the pages stay consistent while the zone 
+ * is updated.  The cursor also carries the fingerprint of the record filter that produced it, since its offset 
+ * means nothing to another record filter.  The cursor is opaque to clients.
+ * 
+ * @author  Ron Rickard
+ */
+public final class RecordCursor extends Model {
+
+    private static final long serialVersionUID = 1L;
+    private static final long FINGERPRINT_MASK = 0xFFFFFFFFL;
+    private static final int RADIX = 36;
+    private static final String SEPARATOR = "-";
+    private int fingerprint;
+    private int offset;
+    private long serialNumber;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  serialNumber  the serial number of the zone snapshot.
+     * @param  offset        the offset of the next record in the zone snapshot.
+     * @param  fingerprint   the fingerprint of the record filter.
+     */
+    private RecordCursor(final long serialNumber, final int offset, final int fingerprint) {
+        this.fingerprint = fingerprint;
+        this.offset = offset;
+        this.serialNumber = serialNumber;
+    }
+
+    /**
+     * Get the fingerprint of the record filter.
+     * 
+     * @return  the fingerprint.
+     */
+    public int getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Get the offset of the next record in the zone snapshot.
+     * 
+     * @return  the offset.
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Get the serial number of the zone snapshot.
+     * 
+     * @return  the serial number.
+     */
+    public long getSerialNumber() {
+        return this.serialNumber;
+    }
+
+    /**
+     * Create a new instance of the record cursor class.
+     * 
+     * @param  serialNumber  the serial number of the zone snapshot.
+     * @param  offset        the offset of the next record in the zone snapshot.
+     * @param  recordFilter  the record filter.
+     * 
+     * @return  a new instance of the record cursor class.
+     */
+    public static RecordCursor newInstance(final long serialNumber, final int offset, final RecordFilter recordFilter) {
+        return new RecordCursor(serialNumber, offset, recordFilter.getFingerprint());
+    }
+
+    /**
+     * Parse the record cursor.
+     * 
+     * @param  cursor        the cursor.
+     * @param  recordFilter  the record filter.
+     * 
+     * @return  the record cursor.
+     * 
+     * @throws  IllegalArgumentException  if the cursor is invalid or was not created for the record filter.
+     */
+    public static RecordCursor parse(final String cursor, final RecordFilter recordFilter) {
+        
+        RecordCursor recordCursor;
+        
+        try {
+            
+            String[] parts = StringUtils.split(cursor, SEPARATOR);
+            if (parts == null || parts.length != 3) {
+                throw new NumberFormatException();
+            }
+            recordCursor = new RecordCursor(Long.parseLong(parts[0], RADIX), Integer.parseInt(parts[1], RADIX), (int)Long.parseLong(parts[2], RADIX));
+            if (recordCursor.serialNumber < 0 || recordCursor.offset < 0) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The cursor " + cursor + " is invalid.", e);
+        }
+        
+        // Check if the cursor was created for another record filter.
+        if (recordCursor.fingerprint != recordFilter.getFingerprint()) {
+            throw new IllegalArgumentException("The cursor " + cursor + " does not match the query.");
+        }
+        
+        return recordCursor;
+    }
+
+    /**
+     * Get the record cursor as a string.
+     * 
+     * @return  the record cursor as a string.
+     */
+    @Override
+    public String toString() {
+        return Long.toString(this.serialNumber, RADIX) + SEPARATOR + Integer.toString(this.offset, RADIX) + SEPARATOR + Long.toString(this.fingerprint & FINGERPRINT_MASK, RADIX);
+    }
+}
@@ -18,10 +18,16 @@
  */
 package org.lazydog.jdnsaas.utility;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import org.apache.commons.lang3.StringUtils;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.lazydog.jdnsaas.model.AAAARecord;
 import org.lazydog.jdnsaas.model.ARecord;
 import org.lazydog.jdnsaas.model.CNAMERecord;
@@ -38,14 +44,27 @@ import org.lazydog.jdnsaas.model.TXTRecord;
 /**
  * Record filter.
  * 
+ * By default, the search string is matched as a case-insensitive substring, with wildcards, against the record name 
+ * and the record data.  If the exact name is requested, the search string must instead equal the record name, 
+ * ignoring case, once both are absolutized.  The search string is compiled once, when the record filter is created 
+ * or deserialized, and record names are compared against their absolute form without building it.  The record filter holds no 
+ * mutable state, so chunks of a large list of records may be filtered concurrently.
+ * 
+ * If a subnet is given, only the records with an address in the subnet match.
+ * 
  * @author  Ron Rickard
  */
 public class RecordFilter extends Model {
     
     private static final long serialVersionUID = 1L;
     private static final String SEARCH_STRING_WILDCARD = "*";
+    private transient String absoluteName;
+    private transient boolean anyRecordType;
+    private boolean exactName;
     private List<RecordType> recordTypes = new ArrayList<RecordType>(Arrays.asList(RecordType.ANY));
     private String searchString;
+    private transient SearchStringMatcher searchStringMatcher;
+    private Subnet subnet;
     private ZoneUtility zoneUtility;
 
     /**
@@ -54,11 +73,43 @@ public class RecordFilter extends Model {
      * @param  zoneName      the zone name.
      * @param  recordTypes   the record types.
      * @param  searchString  the search string.
+     * @param  exactName     true if the search string must equal the record name, otherwise false.
+     * @param  subnet        the subnet, or null if the records are not filtered by subnet.
      */
-    private RecordFilter(final String zoneName, final List<RecordType> recordTypes, final String searchString) {
+    private RecordFilter(final String zoneName, final List<RecordType> recordTypes, final String searchString, final boolean exactName, final Subnet subnet) {
+        this.exactName = exactName;
+        this.subnet = subnet;
         this.zoneUtility = ZoneUtility.newInstance(zoneName);
         this.recordTypes = replaceNull(recordTypes, new ArrayList<RecordType>(Arrays.asList(RecordType.ANY)));
         this.searchString = replaceNull(searchString, SEARCH_STRING_WILDCARD);
+        this.compile();
+    }
+    
+    /**
+     * Compile the search string and record types.
+     * The compiled fields are transient, so they are compiled again when the record filter is deserialized.
+     */
+    private void compile() {
+        this.absoluteName = this.zoneUtility.absolutize(this.searchString);
+        this.anyRecordType = this.recordTypes.isEmpty() || this.recordTypes.contains(RecordType.ANY);
+        this.searchStringMatcher = SearchStringMatcher.newInstance(this.searchString);
+    }
+    
+    /**
+     * Does the absolute name equal the search string as an absolute name, ignoring case?
+     * 
+     * @param  name  the name.
+     * 
+     * @return  true if the absolute name equals the search string as an absolute name, otherwise false.
+     */
+    private boolean equalsAbsoluteName(final String name) {
+        
+        String head = (this.zoneUtility.isApex(name)) ? "" : name;
+        String tail = this.zoneUtility.getAbsoluteNameSuffix(name);
+        
+        return head.length() + tail.length() == this.absoluteName.length()
+                && this.absoluteName.regionMatches(true, 0, head, 0, head.length())
+                && this.absoluteName.regionMatches(true, head.length(), tail, 0, tail.length());
     }
     
     /**
@@ -84,6 +135,224 @@ public class RecordFilter extends Model {
         return filteredRecords;
     }
     
+    /**
+     * Filter the records starting at the offset until the limit is reached.
+     * Only the records up to the last match are examined, so a page is filtered without filtering the rest of the records.
+     * 
+     * @param  records          the records.
+     * @param  offset           the offset of the first record to examine.
+     * @param  limit            the maximum number of filtered records.
+     * @param  filteredRecords  the filtered records.
+     * 
+     * @return  the offset of the next record to examine, or the number of records if all the records are examined.
+     */
+    public int filter(final List<Record> records, final int offset, final int limit, final List<Record> filteredRecords) {
+        
+        int index = offset;
+        int count = 0;
+        
+        // Loop through the records until the limit is reached.
+        while (index < records.size() && count < limit) {
+            
+            // Add the record to the filtered records if it matches.
+            Record record = records.get(index++);
+            if (this.matchRecord(record)) {
+                filteredRecords.add(record);
+                count++;
+            }
+        }
+        
+        return index;
+    }
+    
+    /**
+     * Filter the records in parallel.
+     * The records are split into chunks that are filtered on the executor service, 
+     * and the filtered chunks are merged in the original order.
+     * 
+     * @param  records          the records.
+     * @param  executorService  the executor service.
+     * @param  chunkCount       the number of chunks.
+     * 
+     * @return  the filtered records.
+     * 
+     * @throws  ExecutionException    if unable to filter a chunk due to an exception.
+     * @throws  InterruptedException  if interrupted while waiting for a chunk to be filtered.
+     */
+    public List<Record> filter(final List<Record> records, final ExecutorService executorService, final int chunkCount) throws ExecutionException, InterruptedException {
+
+        List<Record> filteredRecords = new ArrayList<Record>();
+        List<Future<List<Record>>> futures = new ArrayList<Future<List<Record>>>();
+        int chunkSize = (records.size() + Math.max(1, chunkCount) - 1) / Math.max(1, chunkCount);
+
+        try {
+
+            // Loop through the chunks.
+            for (int fromIndex = 0; fromIndex < records.size(); fromIndex += chunkSize) {
+
+                final List<Record> chunk = records.subList(fromIndex, Math.min(fromIndex + chunkSize, records.size()));
+
+                // Filter the chunk.
+                futures.add(executorService.submit(new Callable<List<Record>>() {
+                    @Override
+                    public List<Record> call() {
+                        return RecordFilter.this.filter(chunk);
+                    }
+                }));
+            }
+
+            // Merge the filtered chunks in order.
+            for (Future<List<Record>> future : futures) {
+                filteredRecords.addAll(future.get());
+            }
+        } finally {
+
+            // Cancel the chunks that are still running, if any.
+            for (Future<List<Record>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return filteredRecords;
+    }
+    
+    /**
+     * Get the absolute name.
+     * 
+     * @return  the search string as an absolute name.
+     */
+    public String getAbsoluteName() {
+        return this.absoluteName;
+    }
+    
+    /**
+     * Get the fingerprint of the record filter.
+     * Unlike the hash code, the fingerprint is the same in every JVM, so it can be handed to clients in a record cursor.
+     * 
+     * @return  the fingerprint.
+     */
+    public int getFingerprint() {
+        
+        // Join the criteria of the record filter.
+        StringBuilder criteria = new StringBuilder()
+                .append(this.zoneUtility.getAbsoluteZoneName()).append(' ')
+                .append(this.recordTypes).append(' ')
+                .append(this.searchString).append(' ')
+                .append(this.exactName).append(' ')
+                .append(this.subnet);
+        
+        return criteria.toString().hashCode();
+    }
+    
+    /**
+     * Get the record types.
+     * 
+     * @return  the record types.
+     */
+    public List<RecordType> getRecordTypes() {
+        return this.recordTypes;
+    }
+    
+    /**
+     * Get the search tokens.
+     * A record can only match if each search token appears in one of its search values, ignoring case.
+     * 
+     * @return  the search tokens.
+     */
+    public List<String> getSearchTokens() {
+        
+        List<String> searchTokens;
+        
+        if (SEARCH_STRING_WILDCARD.equals(this.searchString)) {
+            searchTokens = Collections.<String>emptyList();
+        } else if (this.exactName) {
+            searchTokens = Collections.singletonList(this.absoluteName);
+        } else {
+            searchTokens = this.searchStringMatcher.getSearchTokens();
+        }
+        
+        return searchTokens;
+    }
+    
+    /**
+     * Get the search values of the record.
+     * These are the values that the search string is matched against, with the names absolutized as they are when matching.
+     * 
+     * @param  zoneUtility  the zone utility for the zone of the record.
+     * @param  record       the record.
+     * 
+     * @return  the search values of the record.
+     */
+    public static List<String> getSearchValues(final ZoneUtility zoneUtility, final Record record) {
+
+        List<String> searchValues = new ArrayList<String>();
+        
+        // Record names are absolutized, except that the search string is matched against PTR record names as they are.
+        searchValues.add(zoneUtility.absolutize(record.getName()));
+        
+        switch(record.getType()) {
+            
+            case A:
+                searchValues.add(((ARecord)record).getIpAddress());
+                break;
+            case AAAA:
+                searchValues.add(((AAAARecord)record).getIpv6Address());
+                break;
+            case CNAME:
+                searchValues.add(zoneUtility.absolutize(((CNAMERecord)record).getTarget()));
+                break;
+            case MX:
+                searchValues.add(zoneUtility.absolutize(((MXRecord)record).getTarget()));
+                break;
+            case NS:
+                searchValues.add(zoneUtility.absolutize(((NSRecord)record).getTarget()));
+                break;
+            case PTR:
+                searchValues.add(record.getName());
+                searchValues.add(zoneUtility.absolutize(((PTRRecord)record).getTarget()));
+                break;
+            case SRV:
+                searchValues.add(zoneUtility.absolutize(((SRVRecord)record).getTarget()));
+                break;
+            case TXT:
+                searchValues.addAll(((TXTRecord)record).getValues());
+                break;
+        }
+        
+        return searchValues;
+    }
+    
+    /**
+     * Get the subnet.
+     * 
+     * @return  the subnet, or null if the records are not filtered by subnet.
+     */
+    public Subnet getSubnet() {
+        return this.subnet;
+    }
+    
+    /**
+     * Is the exact name requested?
+     * 
+     * @return  true if the search string must equal the record name, otherwise false.
+     */
+    public boolean isExactName() {
+        return this.exactName;
+    }
+    
+    /**
+     * Can the records be found with point queries?
+     * The records can be found with point queries if the exact name is requested, 
+     * the search string does not contain a wildcard, and concrete record types are requested.
+     * 
+     * @return  true if the records can be found with point queries, otherwise false.
+     */
+    public boolean isPointQuery() {
+        return this.exactName 
+                && !this.searchString.contains(SEARCH_STRING_WILDCARD)
+                && !this.anyRecordType;
+    }
+    
     /**
      * Does the AAAA record match the search string?
      * 
@@ -114,7 +383,9 @@ public class RecordFilter extends Model {
      * @return  true if the absolute name matches, otherwise false.
      */
     private boolean matchAbsoluteName(final String name) {
-        return this.matchString(this.zoneUtility.absolutize(name));
+        return (this.zoneUtility.isApex(name)) 
+                ? this.searchStringMatcher.matches(this.zoneUtility.getAbsoluteZoneName())
+                : this.searchStringMatcher.matches(name, this.zoneUtility.getAbsoluteNameSuffix(name));
     }
     
     /**
@@ -172,37 +443,43 @@ public class RecordFilter extends Model {
         boolean match = false;
         
         // Check if the record types contains any record type or the record types contains the record type.
-        if (this.recordTypes.isEmpty() || this.recordTypes.contains(RecordType.ANY) || this.recordTypes.contains(record.getType())) {
+        if ((this.anyRecordType || this.recordTypes.contains(record.getType())) && this.matchSubnet(record)) {
             
-            switch(record.getType()) {
+            // Check if the exact name is requested.
+            if (this.exactName) {
+                match = SEARCH_STRING_WILDCARD.equals(this.searchString) || this.equalsAbsoluteName(record.getName());
+            } else {
+                
+                switch(record.getType()) {
                 
-                case A:
-                    match = this.matchARecord((ARecord)record);
-                    break;
-                case AAAA:
-                    match = this.matchAAAARecord((AAAARecord)record);
-                    break;
-                case CNAME:
-                    match = this.matchCNAMERecord((CNAMERecord)record);
-                    break;
-                case MX:
-                    match = this.matchMXRecord((MXRecord)record);
-                    break;
-                case NS:
-                    match = this.matchNSRecord((NSRecord)record);
-                    break;
-                case PTR:
-                    match = this.matchPTRRecord((PTRRecord)record);
-                    break;
-                case SOA:
-                    match = this.matchSOARecord((SOARecord)record);
-                    break;
-                case SRV:
-                    match = this.matchSRVRecord((SRVRecord)record);
-                    break;
-                case TXT:
-                    match = this.matchTXTRecord((TXTRecord)record);
-                    break;
+                    case A:
+                        match = this.matchARecord((ARecord)record);
+                        break;
+                    case AAAA:
+                        match = this.matchAAAARecord((AAAARecord)record);
+                        break;
+                    case CNAME:
+                        match = this.matchCNAMERecord((CNAMERecord)record);
+                        break;
+                    case MX:
+                        match = this.matchMXRecord((MXRecord)record);
+                        break;
+                    case NS:
+                        match = this.matchNSRecord((NSRecord)record);
+                        break;
+                    case PTR:
+                        match = this.matchPTRRecord((PTRRecord)record);
+                        break;
+                    case SOA:
+                        match = this.matchSOARecord((SOARecord)record);
+                        break;
+                    case SRV:
+                        match = this.matchSRVRecord((SRVRecord)record);
+                        break;
+                    case TXT:
+                        match = this.matchTXTRecord((TXTRecord)record);
+                        break;
+                }
             }
         }
         
@@ -231,6 +508,17 @@ public class RecordFilter extends Model {
         return (this.matchAbsoluteName(record.getName()) || this.matchAbsoluteName(record.getTarget()));
     }
 
+    /**
+     * Does the address of the record match the subnet?
+     * 
+     * @param  record  the record.
+     * 
+     * @return  true if there is no subnet or the subnet contains the address of the record, otherwise false.
+     */
+    private boolean matchSubnet(final Record record) {
+        return (this.subnet == null || this.subnet.contains(Subnet.getAddress(this.zoneUtility, record)));
+    }
+    
     /**
      * Does the value match the search string?
      * 
@@ -239,18 +527,7 @@ public class RecordFilter extends Model {
      * @return  true if the value matches, otherwise false.
      */
     private boolean matchString(final String value) {
-        boolean match = true;
-        String[] searchTokens = StringUtils.split(this.searchString, SEARCH_STRING_WILDCARD);
-        String stringValue = value;
-        for (String searchToken : searchTokens) {
-            if (StringUtils.indexOfIgnoreCase(stringValue, searchToken) != -1) {
-                stringValue = StringUtils.substringAfter(stringValue, searchToken);
-            } else {
-                match = false;
-                break;
-            }
-        }
-        return match;
+        return this.searchStringMatcher.matches(value);
     }
      
     /**
@@ -292,6 +569,48 @@ public class RecordFilter extends Model {
      * @return  a new instance of the record filter class.
      */
     public static RecordFilter newInstance(final String zoneName, final List<RecordType> recordTypes, final String searchString) {
-        return new RecordFilter(zoneName, recordTypes, searchString);
+        return new RecordFilter(zoneName, recordTypes, searchString, false, null);
+    }
+
+    /**
+     * Create a new instance of the record filter class.
+     * 
+     * @param  zoneName      the zone name.
+     * @param  recordTypes   the record types.
+     * @param  searchString  the search string.
+     * @param  exactName     true if the search string must equal the record name, otherwise false.
+     * 
+     * @return  a new instance of the record filter class.
+     */
+    public static RecordFilter newInstance(final String zoneName, final List<RecordType> recordTypes, final String searchString, final boolean exactName) {
+        return new RecordFilter(zoneName, recordTypes, searchString, exactName, null);
+    }
+
+    /**
+     * Create a new instance of the record filter class.
+     * 
+     * @param  zoneName      the zone name.
+     * @param  recordTypes   the record types.
+     * @param  searchString  the search string.
+     * @param  exactName     true if the search string must equal the record name, otherwise false.
+     * @param  subnet        the subnet, or null if the records are not filtered by subnet.
+     * 
+     * @return  a new instance of the record filter class.
+     */
+    public static RecordFilter newInstance(final String zoneName, final List<RecordType> recordTypes, final String searchString, final boolean exactName, final Subnet subnet) {
+        return new RecordFilter(zoneName, recordTypes, searchString, exactName, subnet);
+    }
+
+    /**
+     * Read the record filter and compile the search string and record types.
+     * 
+     * @param  input  the object input stream.
+     * 
+     * @throws  ClassNotFoundException  if the class of a serialized object cannot be found.
+     * @throws  IOException             if unable to read the record filter.
+     */
+    private void readObject(final ObjectInputStream input) throws ClassNotFoundException, IOException {
+        input.defaultReadObject();
+        this.compile();
     }
 }
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Search string matcher.
+ * 
+ * The search string is split on the wildcard once, when the matcher is created.  A value matches if the search 
+ * tokens appear in the value, in order and ignoring case.  Matching does not allocate, and a value may be given 
+ * as a head and a tail so that the concatenation never has to be built.
+ * 
+ * @author  Ron Rickard
+ */
+public final class SearchStringMatcher {
+
+    private static final String EMPTY_STRING = "";
+    private static final String SEARCH_STRING_WILDCARD = "*";
+    private String[] searchTokens;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  searchString  the search string.
+     */
+    private SearchStringMatcher(final String searchString) {
+        this.searchTokens = StringUtils.split(searchString, SEARCH_STRING_WILDCARD);
+    }
+
+    /**
+     * Get the search tokens.
+     * The search tokens are the parts of the search string between the wildcards.
+     * 
+     * @return  the search tokens.
+     */
+    public List<String> getSearchTokens() {
+        return Collections.unmodifiableList(Arrays.asList(this.searchTokens));
+    }
+
+    /**
+     * Get the index of the search token in the head and tail.
+     * 
+     * @param  head         the head of the value.
+     * @param  tail         the tail of the value.
+     * @param  searchToken  the search token.
+     * @param  fromIndex    the index to start from.
+     * 
+     * @return  the index of the search token, or -1 if the search token is not found.
+     */
+    private static int indexOf(final String head, final String tail, final String searchToken, final int fromIndex) {
+
+        int index = -1;
+        int lastIndex = head.length() + tail.length() - searchToken.length();
+
+        // Loop through the candidate indexes.
+        for (int candidateIndex = fromIndex; candidateIndex <= lastIndex; candidateIndex++) {
+
+            if (regionMatches(head, tail, candidateIndex, searchToken)) {
+                index = candidateIndex;
+                break;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Does the value match the search string?
+     * 
+     * @param  value  the value.
+     * 
+     * @return  true if the value matches, otherwise false.
+     */
+    public boolean matches(final String value) {
+        return this.matches(value, EMPTY_STRING);
+    }
+
+    /**
+     * Does the head followed by the tail match the search string?
+     * 
+     * @param  head  the head of the value.
+     * @param  tail  the tail of the value.
+     * 
+     * @return  true if the head followed by the tail matches, otherwise false.
+     */
+    public boolean matches(final String head, final String tail) {
+
+        boolean match = true;
+
+        // Check if there is no value.
+        if (head == null || tail == null) {
+            match = (this.searchTokens.length == 0);
+        } else {
+
+            int index = 0;
+
+            // Loop through the search tokens.
+            for (String searchToken : this.searchTokens) {
+
+                index = indexOf(head, tail, searchToken, index);
+
+                if (index == -1) {
+                    match = false;
+                    break;
+                }
+
+                index += searchToken.length();
+            }
+        }
+
+        return match;
+    }
+
+    /**
+     * Create a new instance of the search string matcher class.
+     * 
+     * @param  searchString  the search string.
+     * 
+     * @return  a new instance of the search string matcher class.
+     */
+    public static SearchStringMatcher newInstance(final String searchString) {
+        return new SearchStringMatcher(searchString);
+    }
+
+    /**
+     * Does the search token match the head and tail at the index, ignoring case?
+     * 
+     * @param  head         the head of the value.
+     * @param  tail         the tail of the value.
+     * @param  index        the index.
+     * @param  searchToken  the search token.
+     * 
+     * @return  true if the search token matches at the index, otherwise false.
+     */
+    private static boolean regionMatches(final String head, final String tail, final int index, final String searchToken) {
+
+        boolean match;
+        int headLength = head.length();
+        int searchTokenLength = searchToken.length();
+
+        // Check if the search token is in the head, the tail, or both.
+        if (index + searchTokenLength <= headLength) {
+            match = head.regionMatches(true, index, searchToken, 0, searchTokenLength);
+        } else if (index >= headLength) {
+            match = tail.regionMatches(true, index - headLength, searchToken, 0, searchTokenLength);
+        } else {
+            int headPartLength = headLength - index;
+            match = head.regionMatches(true, index, searchToken, 0, headPartLength)
+                    && tail.regionMatches(true, 0, searchToken, headPartLength, searchTokenLength - headPartLength);
+        }
+
+        return match;
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.lazydog.jdnsaas.model.AAAARecord;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Model;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordType;
+
+/**
+ * Subnet.
+ * 
+ * The subnet is given in CIDR notation, such as 10.4.0.0/16 or 2001:db8::/32, and addresses are compared 
+ * numerically.  The address of a record is the IP address of an A or AAAA record, or the IP address 
+ * that the name of a PTR record in a reverse zone stands for.
+ * 
+ * @author  Ron Rickard
+ */
+public final class Subnet extends Model {
+
+    private static final long serialVersionUID = 1L;
+    private static final String APEX = "@";
+    private static final int BITS_PER_BYTE = 8;
+    private static final int IPV6_HEXTET_LENGTH = 4;
+    private static final int IPV6_NIBBLES = 32;
+    private static final Pattern IPV4_ADDRESS_PATTERN = Pattern.compile("(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)(\\.(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)){3}");
+    private static final String IPV6_ADDRESS_SEPARATOR = ":";
+    private static final String LABEL_SEPARATOR = ".";
+    private static final String PREFIX_LENGTH_SEPARATOR = "/";
+    private byte[] address;
+    private String cidr;
+    private int prefixLength;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  cidr  the subnet in CIDR notation.
+     * 
+     * @throws  IllegalArgumentException  if the subnet is invalid.
+     */
+    private Subnet(final String cidr) {
+
+        String addressPart = StringUtils.substringBefore(cidr, PREFIX_LENGTH_SEPARATOR).trim();
+        this.address = toAddress(addressPart);
+        if (this.address == null) {
+            throw new IllegalArgumentException("The subnet " + cidr + " does not have a valid IP address.");
+        }
+        
+        // The prefix length defaults to the whole address.
+        int bits = this.address.length * BITS_PER_BYTE;
+        try {
+            this.prefixLength = (cidr.contains(PREFIX_LENGTH_SEPARATOR)) ? Integer.parseInt(StringUtils.substringAfter(cidr, PREFIX_LENGTH_SEPARATOR).trim()) : bits;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The subnet " + cidr + " does not have a valid prefix length.", e);
+        }
+        if (this.prefixLength < 0 || this.prefixLength > bits) {
+            throw new IllegalArgumentException("The subnet " + cidr + " prefix length must be between 0 and " + bits + ".");
+        }
+        
+        // Clear the host bits.
+        for (int index = this.prefixLength; index < bits; index++) {
+            this.address[index / BITS_PER_BYTE] &= ~(1 << (BITS_PER_BYTE - 1 - index % BITS_PER_BYTE));
+        }
+        
+        this.cidr = cidr.trim();
+    }
+
+    /**
+     * Does the subnet contain the address?
+     * 
+     * @param  address  the address, or null if there is no address.
+     * 
+     * @return  true if the subnet contains the address, otherwise false.
+     */
+    public boolean contains(final byte[] address) {
+
+        boolean contains = (address != null && address.length == this.address.length);
+
+        // Compare the prefix bits.
+        for (int index = 0; contains && index < this.prefixLength; index++) {
+            contains = (getBit(address, index) == getBit(this.address, index));
+        }
+
+        return contains;
+    }
+
+    /**
+     * Does the subnet contain the other subnet?
+     * 
+     * @param  subnet  the other subnet.
+     * 
+     * @return  true if the subnet contains the other subnet, otherwise false.
+     */
+    public boolean contains(final Subnet subnet) {
+        return (subnet.prefixLength >= this.prefixLength && this.contains(subnet.address));
+    }
+
+    /**
+     * Get the network address.
+     * 
+     * @return  the network address, four bytes for IPv4 and sixteen bytes for IPv6.
+     */
+    public byte[] getAddress() {
+        return Arrays.copyOf(this.address, this.address.length);
+    }
+
+    /**
+     * Get the address of the record.
+     * 
+     * @param  zoneUtility  the zone utility for the zone of the record.
+     * @param  record       the record.
+     * 
+     * @return  the address of the record, or null if the record does not have an address.
+     */
+    public static byte[] getAddress(final ZoneUtility zoneUtility, final Record record) {
+
+        byte[] recordAddress = null;
+
+        if (record.getType() == RecordType.A) {
+            recordAddress = toAddress(((ARecord)record).getIpAddress());
+        } else if (record.getType() == RecordType.AAAA) {
+            recordAddress = toAddress(((AAAARecord)record).getIpv6Address());
+        } else if (record.getType() == RecordType.PTR && zoneUtility.isReverseZone()) {
+
+            String relativeName = zoneUtility.relativize(record.getName());
+
+            // Check if the name stands for an address.
+            if (!APEX.equals(relativeName)) {
+
+                String ipAddress = zoneUtility.getIpAddress(relativeName);
+
+                if (zoneUtility.isIpv4ReverseZone()) {
+                    recordAddress = toAddress(ipAddress);
+                } else {
+
+                    // Turn the nibbles into hextets.
+                    String nibbles = StringUtils.remove(ipAddress, LABEL_SEPARATOR);
+                    if (nibbles.length() == IPV6_NIBBLES) {
+                        StringBuilder ipv6Address = new StringBuilder();
+                        for (int index = 0; index < IPV6_NIBBLES; index += IPV6_HEXTET_LENGTH) {
+                            ipv6Address.append((index > 0) ? IPV6_ADDRESS_SEPARATOR : "").append(nibbles, index, index + IPV6_HEXTET_LENGTH);
+                        }
+                        recordAddress = toAddress(ipv6Address.toString());
+                    }
+                }
+            }
+        }
+
+        return recordAddress;
+    }
+
+    /**
+     * Get the bit of the address.
+     * 
+     * @param  address  the address.
+     * @param  index    the index of the bit, starting from the most significant bit.
+     * 
+     * @return  the bit, 0 or 1.
+     */
+    public static int getBit(final byte[] address, final int index) {
+        return (address[index / BITS_PER_BYTE] >> (BITS_PER_BYTE - 1 - index % BITS_PER_BYTE)) & 1;
+    }
+
+    /**
+     * Get the prefix length.
+     * 
+     * @return  the prefix length.
+     */
+    public int getPrefixLength() {
+        return this.prefixLength;
+    }
+
+    /**
+     * Create a new instance of the subnet class.
+     * 
+     * @param  cidr  the subnet in CIDR notation.
+     * 
+     * @return  a new instance of the subnet class.
+     * 
+     * @throws  IllegalArgumentException  if the subnet is invalid.
+     */
+    public static Subnet newInstance(final String cidr) {
+        return new Subnet(cidr);
+    }
+
+    /**
+     * Convert the IP (v4 or v6) address to bytes.
+     * Only address literals are converted, so there is never a DNS lookup.
+     * 
+     * @param  ipAddress  the IP (v4 or v6) address.
+     * 
+     * @return  the address, four bytes for IPv4 and sixteen bytes for IPv6, or null if the IP address is invalid.
+     */
+    public static byte[] toAddress(final String ipAddress) {
+
+        byte[] address = null;
+
+        if (ipAddress != null && (ipAddress.contains(IPV6_ADDRESS_SEPARATOR) || IPV4_ADDRESS_PATTERN.matcher(ipAddress).matches())) {
+            try {
+                address = InetAddress.getByName(ipAddress).getAddress();
+            } catch (UnknownHostException e) {
+                address = null;
+            }
+        }
+
+        return address;
+    }
+
+    /**
+     * Convert the address to an IP (v4 or v6) address.
+     * 
+     * @param  address  the address, four bytes for IPv4 and sixteen bytes for IPv6.
+     * 
+     * @return  the IP (v4 or v6) address.
+     * 
+     * @throws  IllegalArgumentException  if the address is invalid.
+     */
+    public static String toIpAddress(final byte[] address) {
+        try {
+            return InetAddress.getByAddress(address).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("The address must be four or sixteen bytes.", e);
+        }
+    }
+
+    /**
+     * Get the subnet in CIDR notation.
+     * 
+     * @return  the subnet in CIDR notation.
+     */
+    @Override
+    public String toString() {
+        return this.cidr;
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.lazydog.jdnsaas.utility;
 
+import java.io.Serializable;
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -25,12 +27,17 @@ import org.apache.commons.lang3.StringUtils;
  * 
  * @author  Ron Rickard
  */
-public final class ZoneUtility {
+public final class ZoneUtility implements Serializable {
 
+    private static final long serialVersionUID = 1L;
     private static final String APEX = "@";
+    private static final int BITS_PER_OCTET = 8;
+    private static final int IPV4_OCTETS = 4;
     private static final String IPV4_REVERSE_DOMAIN = "in-addr.arpa";
     private static final String IPV6_REVERSE_DOMAIN = "ip6.arpa";
     private static final String LABEL_SEPARATOR = ".";
+    private String absoluteZoneName;
+    private String absoluteZoneSuffix;
     private String relativeZoneName;
    
     /**
@@ -40,6 +47,8 @@ public final class ZoneUtility {
      */
     private ZoneUtility(final String zoneName) {
         this.relativeZoneName = (zoneName.endsWith(LABEL_SEPARATOR)) ? StringUtils.removeEnd(zoneName, LABEL_SEPARATOR) : zoneName;
+        this.absoluteZoneName = this.relativeZoneName + LABEL_SEPARATOR;
+        this.absoluteZoneSuffix = LABEL_SEPARATOR + this.absoluteZoneName;
     }
 
     /**
@@ -59,12 +68,36 @@ public final class ZoneUtility {
         } else if (!name.endsWith(LABEL_SEPARATOR) && name.endsWith(this.relativeZoneName)) {
             absoluteName = name + LABEL_SEPARATOR;
         } else if (!name.endsWith(LABEL_SEPARATOR)) {
-            absoluteName = name + LABEL_SEPARATOR + this.getAbsoluteZoneName();
+            absoluteName = name + this.absoluteZoneSuffix;
         }
         
         return absoluteName;
     }
 
+    /**
+     * Get the absolute name suffix.
+     * The absolute name suffix is what absolutizing appends to the name, or replaces the apex with, 
+     * so the absolute name can be compared without being built.
+     * 
+     * @param  name  the name.
+     * 
+     * @return  the absolute name suffix.
+     */
+    public String getAbsoluteNameSuffix(final String name) {
+
+        String absoluteNameSuffix = "";
+
+        if (name.equals(APEX)) {
+            absoluteNameSuffix = this.absoluteZoneName;
+        } else if (!name.endsWith(LABEL_SEPARATOR) && name.endsWith(this.relativeZoneName)) {
+            absoluteNameSuffix = LABEL_SEPARATOR;
+        } else if (!name.endsWith(LABEL_SEPARATOR)) {
+            absoluteNameSuffix = this.absoluteZoneSuffix;
+        }
+        
+        return absoluteNameSuffix;
+    }
+
     /**
      * Get the absolute zone name.  
      * The absolute zone name includes the trailing dot.
@@ -72,7 +105,7 @@ public final class ZoneUtility {
      * @return  the absolute zone name.
      */
     public String getAbsoluteZoneName() {
-        return this.relativeZoneName + LABEL_SEPARATOR;
+        return this.absoluteZoneName;
     }
         
     /**
@@ -110,6 +143,51 @@ public final class ZoneUtility {
         return StringUtils.removeEnd(StringUtils.reverseDelimited(ipAddress, LABEL_SEPARATOR.charAt(0)), LABEL_SEPARATOR + StringUtils.removeEnd(this.relativeZoneName, LABEL_SEPARATOR + reverseDomain));
     }
     
+    /**
+     * Get the subnet of the IPv4 reverse zone.
+     * The subnet of 16.172.in-addr.arpa, for example, is 172.16.0.0/16.
+     * 
+     * @return  the subnet, or null if the zone is not an IPv4 reverse zone for whole octets.
+     */
+    public Subnet getReverseZoneSubnet() {
+        
+        Subnet subnet = null;
+        
+        if (this.isIpv4ReverseZone()) {
+            
+            String[] octets = StringUtils.split(StringUtils.removeEnd(this.relativeZoneName, IPV4_REVERSE_DOMAIN), LABEL_SEPARATOR);
+            ArrayUtils.reverse(octets);
+            
+            // Check if the zone is for whole octets.
+            if (octets.length > 0 && octets.length < IPV4_OCTETS && StringUtils.isNumeric(StringUtils.join(octets))) {
+                
+                String[] address = new String[IPV4_OCTETS];
+                for (int index = 0; index < IPV4_OCTETS; index++) {
+                    address[index] = (index < octets.length) ? octets[index] : "0";
+                }
+                
+                try {
+                    subnet = Subnet.newInstance(StringUtils.join(address, LABEL_SEPARATOR) + "/" + (octets.length * BITS_PER_OCTET));
+                } catch (IllegalArgumentException e) {
+                    subnet = null;
+                }
+            }
+        }
+        
+        return subnet;
+    }
+    
+    /**
+     * Is the name the apex?
+     * 
+     * @param  name  the name.
+     * 
+     * @return  true if the name is the apex, otherwise false.
+     */
+    public boolean isApex(final String name) {
+        return APEX.equals(name);
+    }
+    
     /**
      * Is the zone a forward zone?
      * 
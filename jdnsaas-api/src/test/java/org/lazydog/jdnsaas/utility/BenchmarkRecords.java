@@ -0,0 +1,66 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.Record;
+
+/**
+ * Benchmark records.
+ * 
+ * The records shared by the benchmarks, so the benchmarks of the different modules measure the same zone.
+ * 
+ * @author  Ron Rickard
+ */
+public final class BenchmarkRecords {
+
+    /**
+     * Hide the constructor.
+     */
+    private BenchmarkRecords() {
+    }
+
+    /**
+     * Create the records with one CNAME record for every nine A records.
+     * 
+     * @param  count  the number of records.
+     * 
+     * @return  the records.
+     * 
+     * @throws  Exception  if unable to create the records.
+     */
+    public static List<Record> newRecords(final int count) throws Exception {
+
+        List<Record> records = new ArrayList<Record>(count);
+
+        for (int index = 0; index < count; index++) {
+
+            if (index % 10 == 9) {
+                records.add(Record.newInstance(CNAMERecord.class, "alias" + index, new Long(0), "host" + (index - 1)));
+            } else {
+                records.add(Record.newInstance(ARecord.class, "host" + index, new Long(0), "10." + (index >> 16 & 255) + "." + (index >> 8 & 255) + "." + (index & 255)));
+            }
+        }
+
+        return records;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.RecordType;
+
+/**
+ * Record cursor test.
+ * 
+ * @author  Ron Rickard
+ */
+public class RecordCursorTest {
+
+    private static final RecordFilter RECORD_FILTER = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "db");
+
+    @Test
+    public void testParse() {
+        RecordCursor recordCursor = RecordCursor.newInstance(2013061501L, 1000, RECORD_FILTER);
+        assertEquals(recordCursor, RecordCursor.parse(recordCursor.toString(), RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "db")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalid() {
+        RecordCursor.parse("not a cursor", RECORD_FILTER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseOtherRecordFilter() {
+        RecordCursor recordCursor = RecordCursor.newInstance(2013061501L, 1000, RECORD_FILTER);
+        RecordCursor.parse(recordCursor.toString(), RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "web"));
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Record filter benchmark.
+ * 
+ * The parallel benchmarks filter with one chunk per processor; comparing them with the sequential benchmarks 
+ * across the zone sizes shows where the record filter parallel threshold should be set.
+ * 
+ * Run with "java -cp target/test-classes:&lt;test classpath&gt; org.openjdk.jmh.Main RecordFilterBenchmark".
+ * 
+ * @author  Ron Rickard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+public class RecordFilterBenchmark {
+
+    private static final String ZONE_NAME = "example.com";
+    private RecordFilter exactNameRecordFilter;
+    private ExecutorService executorService;
+    private int processors;
+    private List<Record> records;
+    private RecordFilter substringRecordFilter;
+    private RecordFilter wildcardRecordFilter;
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int zoneSize;
+
+    @Benchmark
+    public List<Record> filterExactName() {
+        return this.exactNameRecordFilter.filter(this.records);
+    }
+
+    @Benchmark
+    public List<Record> filterSubstring() {
+        return this.substringRecordFilter.filter(this.records);
+    }
+
+    @Benchmark
+    public List<Record> filterSubstringParallel() throws Exception {
+        return this.substringRecordFilter.filter(this.records, this.executorService, this.processors);
+    }
+
+    @Benchmark
+    public List<Record> filterWildcard() {
+        return this.wildcardRecordFilter.filter(this.records);
+    }
+
+    @Benchmark
+    public List<Record> filterWildcardParallel() throws Exception {
+        return this.wildcardRecordFilter.filter(this.records, this.executorService, this.processors);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+
+        this.records = BenchmarkRecords.newRecords(this.zoneSize);
+
+        this.exactNameRecordFilter = RecordFilter.newInstance(ZONE_NAME, Arrays.asList(RecordType.ANY), "HOST42", true);
+        this.substringRecordFilter = RecordFilter.newInstance(ZONE_NAME, Arrays.asList(RecordType.ANY), "host42");
+        this.wildcardRecordFilter = RecordFilter.newInstance(ZONE_NAME, Arrays.asList(RecordType.A, RecordType.CNAME), "HOST*2.EXAMPLE*");
+        this.processors = Runtime.getRuntime().availableProcessors();
+        this.executorService = Executors.newFixedThreadPool(this.processors);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+}
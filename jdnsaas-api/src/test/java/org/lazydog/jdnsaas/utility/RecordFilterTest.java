@@ -0,0 +1,145 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordType;
+
+/**
+ * Record filter test.
+ * 
+ * @author  Ron Rickard
+ */
+public class RecordFilterTest {
+
+    private static List<Record> records;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        records = Arrays.<Record>asList(
+                Record.newInstance(ARecord.class, "www", new Long(0), "192.168.0.1"),
+                Record.newInstance(ARecord.class, "www2", new Long(0), "192.168.0.2"),
+                Record.newInstance(ARecord.class, "mail.example.com.", new Long(0), "192.168.0.3"),
+                Record.newInstance(CNAMERecord.class, "web", new Long(0), "www"));
+    }
+
+    @Test
+    public void testFilterSubstring() {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "www");
+        assertEquals(Arrays.asList(records.get(0), records.get(1), records.get(3)), recordFilter.filter(records));
+    }
+
+    @Test
+    public void testFilterSubstringRecordType() {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "www");
+        assertEquals(Arrays.asList(records.get(0), records.get(1)), recordFilter.filter(records));
+    }
+
+    @Test
+    public void testFilterParallel() throws Exception {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "www");
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            assertEquals(recordFilter.filter(records), recordFilter.filter(records, executorService, 3));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFilterDeserialized() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "WWW"));
+        output.close();
+        RecordFilter recordFilter = (RecordFilter)new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(Arrays.asList(records.get(0), records.get(1), records.get(3)), recordFilter.filter(records));
+    }
+
+    @Test
+    public void testFilterPage() {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "www");
+        List<Record> page = new ArrayList<Record>();
+        assertEquals(2, recordFilter.filter(records, 0, 2, page));
+        assertEquals(Arrays.asList(records.get(0), records.get(1)), page);
+        page.clear();
+        assertEquals(records.size(), recordFilter.filter(records, 2, 2, page));
+        assertEquals(Arrays.asList(records.get(3)), page);
+    }
+
+    @Test
+    public void testFilterWildcard() {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "*");
+        assertEquals(records, recordFilter.filter(records));
+    }
+
+    @Test
+    public void testFilterWildcardAcrossZoneName() {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "WWW.EX*COM.");
+        assertEquals(Arrays.asList(records.get(0), records.get(3)), recordFilter.filter(records));
+    }
+
+    @Test
+    public void testFilterExactName() {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "WWW", true);
+        assertEquals(Arrays.asList(records.get(0)), recordFilter.filter(records));
+    }
+
+    @Test
+    public void testFilterExactNameAbsolute() {
+        RecordFilter recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "mail.example.com", true);
+        assertEquals(Arrays.asList(records.get(2)), recordFilter.filter(records));
+    }
+
+    @Test
+    public void testIsPointQuery() {
+        assertTrue(RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A, RecordType.AAAA), "www", true).isPointQuery());
+    }
+
+    @Test
+    public void testIsPointQueryNotExactName() {
+        assertFalse(RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "www").isPointQuery());
+    }
+
+    @Test
+    public void testIsPointQueryWildcard() {
+        assertFalse(RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "ww*", true).isPointQuery());
+    }
+
+    @Test
+    public void testIsPointQueryAnyRecordType() {
+        assertFalse(RecordFilter.newInstance("example.com", Arrays.asList(RecordType.ANY), "www", true).isPointQuery());
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.PTRRecord;
+import org.lazydog.jdnsaas.model.Record;
+
+/**
+ * Subnet test.
+ * 
+ * @author  Ron Rickard
+ */
+public class SubnetTest {
+
+    @Test
+    public void testContainsIpv4() {
+        Subnet subnet = Subnet.newInstance("10.4.7.9/16");
+        assertTrue(subnet.contains(Subnet.toAddress("10.4.255.1")));
+        assertFalse(subnet.contains(Subnet.toAddress("10.5.0.1")));
+    }
+
+    @Test
+    public void testContainsIpv6() {
+        Subnet subnet = Subnet.newInstance("2001:db8::/32");
+        assertTrue(subnet.contains(Subnet.toAddress("2001:DB8:0:1::1")));
+        assertFalse(subnet.contains(Subnet.toAddress("10.4.0.1")));
+    }
+
+    @Test
+    public void testGetAddressPTRRecord() throws Exception {
+        PTRRecord record = Record.newInstance(PTRRecord.class, "9.7", new Long(0), "host.example.com.");
+        assertArrayEquals(Subnet.toAddress("10.4.7.9"), Subnet.getAddress(ZoneUtility.newInstance("4.10.in-addr.arpa"), record));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewInstanceInvalidPrefixLength() {
+        Subnet.newInstance("10.4.0.0/33");
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.ws.rs.core.StreamingOutput;
+import org.lazydog.jdnsaas.rest.provider.ContextProvider;
+
+/**
+ * Caching streaming output.
+ * 
+ * The response entity is written to the client and copied at the same time, so the response entity is serialized 
+ * only once.  If the body is no larger than the maximum body size of the response cache, the copy is cached once the 
+ * body is written.
+ * 
+ * @author  Ron Rickard
+ */
+public final class CachingStreamingOutput implements StreamingOutput {
+
+    private Object entity;
+    private String key;
+    private ResponseCache responseCache;
+    private long serialNumber;
+    private String zoneKey;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  entity           the response entity, which is a streaming output or is written by the JSON writer for its class.
+     * @param  responseCache    the response cache.
+     * @param  key              the key.
+     * @param  zoneKey          the key of the zone.
+     * @param  serialNumber     the serial number of the zone.
+     */
+    private CachingStreamingOutput(final Object entity, final ResponseCache responseCache, final String key, final String zoneKey, final long serialNumber) {
+        this.entity = entity;
+        this.key = key;
+        this.responseCache = responseCache;
+        this.serialNumber = serialNumber;
+        this.zoneKey = zoneKey;
+    }
+
+    /**
+     * Create a new instance of the caching streaming output class.
+     * 
+     * @param  entity           the response entity, which is a streaming output or is written by the JSON writer for its class.
+     * @param  responseCache    the response cache.
+     * @param  key              the key.
+     * @param  zoneKey          the key of the zone.
+     * @param  serialNumber     the serial number of the zone.
+     * 
+     * @return  a new instance of the caching streaming output class.
+     */
+    public static CachingStreamingOutput newInstance(final Object entity, final ResponseCache responseCache, final String key, final String zoneKey, final long serialNumber) {
+        return new CachingStreamingOutput(entity, responseCache, key, zoneKey, serialNumber);
+    }
+
+    /**
+     * Write the response entity to the output stream and cache the body.
+     * 
+     * @param  outputStream  the output stream.
+     * 
+     * @throws  IOException  if unable to write the body.
+     */
+    @Override
+    public void write(final OutputStream outputStream) throws IOException {
+        
+        CopyingOutputStream copyingOutputStream = new CopyingOutputStream(outputStream, this.responseCache.getMaximumBodySize());
+        if (this.entity instanceof StreamingOutput) {
+            ((StreamingOutput)this.entity).write(copyingOutputStream);
+        } else {
+            ContextProvider.getWriter(this.entity.getClass()).writeValue(copyingOutputStream, this.entity);
+        }
+        copyingOutputStream.flush();
+        
+        // Check if the whole body is copied.
+        if (!copyingOutputStream.overflowed) {
+            this.responseCache.put(this.key, this.zoneKey, this.serialNumber, copyingOutputStream.copy.toByteArray());
+        }
+    }
+    
+    /**
+     * Copying output stream.
+     * The bytes are written to the output stream and copied until the copy reaches the maximum size.  Closing the 
+     * copying output stream only flushes the output stream, which belongs to the caller.
+     */
+    private static final class CopyingOutputStream extends OutputStream {
+        
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private int maximumSize;
+        private OutputStream outputStream;
+        private boolean overflowed;
+        
+        /**
+         * Create the copying output stream.
+         * 
+         * @param  outputStream  the output stream.
+         * @param  maximumSize   the maximum size of the copy.
+         */
+        private CopyingOutputStream(final OutputStream outputStream, final int maximumSize) {
+            this.maximumSize = maximumSize;
+            this.outputStream = outputStream;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            this.flush();
+        }
+        
+        /**
+         * Copy the bytes unless the copy would be too large.
+         * 
+         * @param  bytes   the bytes.
+         * @param  offset  the offset of the first byte.
+         * @param  length  the number of bytes.
+         */
+        private void copy(final byte[] bytes, final int offset, final int length) {
+            
+            if (!this.overflowed && this.copy.size() + length <= this.maximumSize) {
+                this.copy.write(bytes, offset, length);
+            } else if (!this.overflowed) {
+                
+                // Release the copy.
+                this.overflowed = true;
+                this.copy = new ByteArrayOutputStream(0);
+            }
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            this.outputStream.flush();
+        }
+        
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            this.outputStream.write(bytes, offset, length);
+            this.copy(bytes, offset, length);
+        }
+        
+        @Override
+        public void write(final int b) throws IOException {
+            this.outputStream.write(b);
+            this.copy(new byte[] {(byte)b}, 0, 1);
+        }
+    }
+}
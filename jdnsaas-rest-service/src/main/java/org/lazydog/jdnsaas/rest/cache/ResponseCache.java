@@ -0,0 +1,241 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.lazydog.jdnsaas.ResponseCacheGzipEnabled;
+import org.lazydog.jdnsaas.ResponseCacheSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Response cache.
+ * 
+ * The serialized bodies of the responses found in the zone cache are cached by their entity tag, which already 
+ * stands for the view, the zone, the zone serial number and the query parameters.  The cache is bounded by the 
+ * total size of the bodies and evicts the least recently used bodies first.  When a newer serial number is seen 
+ * for a zone, the bodies for the older serial numbers of the zone are dropped.
+ * 
+ * @author  Ron Rickard
+ */
+@ApplicationScoped
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    private static final int BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final int ENTRIES_PER_CACHE = 8;
+    private LinkedHashMap<String,Entry> entryMap = new LinkedHashMap<String,Entry>(16, 0.75f, true);
+    private boolean gzipEnabled;
+    private long maximumSize;
+    private Map<String,Long> serialNumberMap = new HashMap<String,Long>();
+    private long size;
+
+    /**
+     * Find the entry and drop the entries for the older serial numbers of the zone.
+     * 
+     * @param  key           the key.
+     * @param  zoneKey       the key of the zone.
+     * @param  serialNumber  the current serial number of the zone.
+     * 
+     * @return  the entry, or null if the key is not cached.
+     */
+    public synchronized Entry get(final String key, final String zoneKey, final long serialNumber) {
+        
+        Long cachedSerialNumber = this.serialNumberMap.get(zoneKey);
+        
+        // Check if the zone has a newer serial number.
+        if (cachedSerialNumber != null && cachedSerialNumber.longValue() < serialNumber) {
+            
+            Iterator<Entry> iterator = this.entryMap.values().iterator();
+            while (iterator.hasNext()) {
+                
+                Entry entry = iterator.next();
+                if (entry.zoneKey.equals(zoneKey) && entry.serialNumber < serialNumber) {
+                    iterator.remove();
+                    this.size -= entry.size();
+                }
+            }
+            
+            this.serialNumberMap.put(zoneKey, serialNumber);
+            logger.debug("Dropped the cached responses for the zone {} before the serial number {}.", zoneKey, serialNumber);
+        }
+        
+        return this.entryMap.get(key);
+    }
+    
+    /**
+     * Get the maximum size of a body that is cached.
+     * 
+     * @return  the maximum size of a body in bytes.
+     */
+    public int getMaximumBodySize() {
+        return (int)Math.min(this.maximumSize / ENTRIES_PER_CACHE, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Is the response cache enabled?
+     * 
+     * @return  true if the response cache is enabled, otherwise false.
+     */
+    public boolean isEnabled() {
+        return (this.maximumSize > 0);
+    }
+    
+    /**
+     * Cache the body.
+     * If gzip is enabled, the body is also gzipped before it is cached.
+     * 
+     * @param  key           the key.
+     * @param  zoneKey       the key of the zone.
+     * @param  serialNumber  the serial number of the zone.
+     * @param  body          the body.
+     */
+    public void put(final String key, final String zoneKey, final long serialNumber, final byte[] body) {
+        
+        Entry entry = new Entry(zoneKey, serialNumber, body, (this.gzipEnabled) ? gzip(body) : null);
+        
+        synchronized (this) {
+            
+            // Check if the body is not for an older serial number of the zone.
+            Long cachedSerialNumber = this.serialNumberMap.get(zoneKey);
+            if (cachedSerialNumber == null || cachedSerialNumber.longValue() <= serialNumber) {
+                
+                this.serialNumberMap.put(zoneKey, serialNumber);
+                Entry replacedEntry = this.entryMap.put(key, entry);
+                this.size += entry.size() - ((replacedEntry != null) ? replacedEntry.size() : 0);
+                
+                // Evict the least recently used entries until the cache fits.
+                Iterator<Entry> iterator = this.entryMap.values().iterator();
+                while (this.size > this.maximumSize && iterator.hasNext()) {
+                    Entry evictedEntry = iterator.next();
+                    iterator.remove();
+                    this.size -= evictedEntry.size();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gzip the body.
+     * 
+     * @param  body  the body.
+     * 
+     * @return  the gzipped body, or null if unable to gzip the body.
+     */
+    private static byte[] gzip(final byte[] body) {
+        
+        byte[] gzippedBody = null;
+        
+        try {
+            
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4);
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+            gzipOutputStream.write(body);
+            gzipOutputStream.close();
+            gzippedBody = outputStream.toByteArray();
+        } catch (IOException e) {
+            logger.warn("Unable to gzip the response body.", e);
+        }
+        
+        return gzippedBody;
+    }
+    
+    /**
+     * Set the response cache gzip enabled flag.
+     * 
+     * @param  gzipEnabled  true if the cached bodies are also gzipped, otherwise false.
+     */
+    @Inject
+    public void setGzipEnabled(@ResponseCacheGzipEnabled final boolean gzipEnabled) {
+        this.gzipEnabled = gzipEnabled;
+        logger.info("Set the response cache gzip enabled to {}.", gzipEnabled);
+    }
+    
+    /**
+     * Set the response cache size.
+     * 
+     * @param  size  the response cache size in megabytes, or 0 to disable the response cache.
+     */
+    @Inject
+    public void setSize(@ResponseCacheSize final int size) {
+        this.maximumSize = (long)Math.max(size, 0) * BYTES_PER_MEGABYTE;
+        logger.info("Set the response cache size to {} megabytes.", size);
+    }
+    
+    /**
+     * Response cache entry.
+     */
+    public static final class Entry {
+        
+        private byte[] body;
+        private byte[] gzippedBody;
+        private long serialNumber;
+        private String zoneKey;
+        
+        /**
+         * Create the entry.
+         * 
+         * @param  zoneKey       the key of the zone.
+         * @param  serialNumber  the serial number of the zone.
+         * @param  body          the body.
+         * @param  gzippedBody   the gzipped body, or null if the body is not gzipped.
+         */
+        private Entry(final String zoneKey, final long serialNumber, final byte[] body, final byte[] gzippedBody) {
+            this.body = body;
+            this.gzippedBody = gzippedBody;
+            this.serialNumber = serialNumber;
+            this.zoneKey = zoneKey;
+        }
+        
+        /**
+         * Get the body.
+         * 
+         * @return  the body.
+         */
+        public byte[] getBody() {
+            return this.body;
+        }
+        
+        /**
+         * Get the gzipped body.
+         * 
+         * @return  the gzipped body, or null if the body is not gzipped.
+         */
+        public byte[] getGzippedBody() {
+            return this.gzippedBody;
+        }
+        
+        /**
+         * Get the size of the entry.
+         * 
+         * @return  the size of the entry in bytes.
+         */
+        private long size() {
+            return this.body.length + ((this.gzippedBody != null) ? this.gzippedBody.length : 0);
+        }
+    }
+}
@@ -20,11 +20,26 @@ package org.lazydog.jdnsaas.rest.configuration;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Produces;
+import org.lazydog.jdnsaas.HedgedReadEnabled;
+import org.lazydog.jdnsaas.HedgedReadPercentile;
+import org.lazydog.jdnsaas.LookupCacheEnabled;
 import org.lazydog.jdnsaas.NotifyMessageMonitorAddress;
 import org.lazydog.jdnsaas.NotifyMessageMonitorPort;
 import org.lazydog.jdnsaas.NotifyMessageMonitorThreads;
+import org.lazydog.jdnsaas.OperationLogDirectory;
+import org.lazydog.jdnsaas.RecordFilterParallelThreshold;
+import org.lazydog.jdnsaas.RecordOperationBatchSize;
+import org.lazydog.jdnsaas.RecordOperationBatchWindow;
+import org.lazydog.jdnsaas.RecordOperationDispatcherThreads;
+import org.lazydog.jdnsaas.RecordOperationUpdateThreads;
 import org.lazydog.jdnsaas.RefreshZoneSchedulerInitialDelay;
 import org.lazydog.jdnsaas.RefreshZoneSchedulerThreads;
+import org.lazydog.jdnsaas.ResolverMonitorFailureThreshold;
+import org.lazydog.jdnsaas.ResolverMonitorProbeInterval;
+import org.lazydog.jdnsaas.ResolverMonitorRequestThreads;
+import org.lazydog.jdnsaas.ResponseCacheGzipEnabled;
+import org.lazydog.jdnsaas.ResponseCacheSize;
+import org.lazydog.jdnsaas.ZoneIndexEnabled;
 import org.lazydog.jdnsaas.spi.repository.PersistenceUnitName;
 
 /**
@@ -34,7 +49,25 @@ import org.lazydog.jdnsaas.spi.repository.PersistenceUnitName;
  */
 @ApplicationScoped
 public class Configuration {
+    
+    @Produces
+    @HedgedReadEnabled
+    public boolean getHedgedReadEnabled() {
+        return false;
+    }
+    
+    @Produces
+    @HedgedReadPercentile
+    public int getHedgedReadPercentile() {
+        return 95;
+    }
         
+    @Produces
+    @LookupCacheEnabled
+    public boolean getLookupCacheEnabled() {
+        return false;
+    }
+
     @Produces
     @NotifyMessageMonitorAddress
     public String getNotifyMessageMonitorAddress() {
@@ -53,6 +86,42 @@ public class Configuration {
         return 10;
     }
                  
+    @Produces
+    @OperationLogDirectory
+    public String getOperationLogDirectory() {
+        return "/var/lib/jdnsaas/operations";
+    }
+
+    @Produces
+    @RecordFilterParallelThreshold
+    public int getRecordFilterParallelThreshold() {
+        return 100000;
+    }
+
+    @Produces
+    @RecordOperationBatchSize
+    public int getRecordOperationBatchSize() {
+        return 500;
+    }
+
+    @Produces
+    @RecordOperationBatchWindow
+    public int getRecordOperationBatchWindow() {
+        return 20;
+    }
+
+    @Produces
+    @RecordOperationDispatcherThreads
+    public int getRecordOperationDispatcherThreads() {
+        return 10;
+    }
+
+    @Produces
+    @RecordOperationUpdateThreads
+    public int getRecordOperationUpdateThreads() {
+        return 4;
+    }
+
     @Produces
     @RefreshZoneSchedulerInitialDelay
     public int getRefreshZoneSchedulerInitialDelay() {
@@ -65,6 +134,42 @@ public class Configuration {
         return 10;
     }
     
+    @Produces
+    @ResolverMonitorFailureThreshold
+    public int getResolverMonitorFailureThreshold() {
+        return 3;
+    }
+    
+    @Produces
+    @ResolverMonitorProbeInterval
+    public int getResolverMonitorProbeInterval() {
+        return 30;
+    }
+    
+    @Produces
+    @ResolverMonitorRequestThreads
+    public int getResolverMonitorRequestThreads() {
+        return 20;
+    }
+    
+    @Produces
+    @ResponseCacheGzipEnabled
+    public boolean getResponseCacheGzipEnabled() {
+        return true;
+    }
+    
+    @Produces
+    @ResponseCacheSize
+    public int getResponseCacheSize() {
+        return 64;
+    }
+    
+    @Produces
+    @ZoneIndexEnabled
+    public boolean getZoneIndexEnabled() {
+        return false;
+    }
+    
     @Produces
     @PersistenceUnitName
     public String getPersistenceUnitName() {
@@ -0,0 +1,201 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+
+/**
+ * Bulk record operation results wrapper.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class BulkRecordOperationResultsWrapper implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    private List<ZoneRecordOperationResults> zones = new ArrayList<ZoneRecordOperationResults>();
+    
+    /**
+     * Get the zones.
+     * 
+     * @return  the zones.
+     */
+    public List<ZoneRecordOperationResults> getZones() {
+        return this.zones;
+    }
+    
+    /**
+     * Is every record operation successful?
+     * 
+     * @return  true if every record operation of every zone is successful, otherwise false.
+     */
+    public boolean isSuccess() {
+        
+        boolean success = true;
+        
+        for (ZoneRecordOperationResults zone : this.zones) {
+            success = success && zone.isSuccess();
+        }
+        
+        return success;
+    }
+        
+    /**
+     * Create a new instance of the bulk record operation results wrapper class.
+     * 
+     * @param  viewZoneRecordOperationResults  the record operation results, by zone name, by view name.
+     * 
+     * @return  a new instance of the bulk record operation results wrapper class.
+     */
+    public static BulkRecordOperationResultsWrapper newInstance(final Map<String,Map<String,List<RecordOperationResult>>> viewZoneRecordOperationResults) {
+        
+        List<ZoneRecordOperationResults> zones = new ArrayList<ZoneRecordOperationResults>();
+        for (Map.Entry<String,Map<String,List<RecordOperationResult>>> viewEntry : viewZoneRecordOperationResults.entrySet()) {
+            for (Map.Entry<String,List<RecordOperationResult>> zoneEntry : viewEntry.getValue().entrySet()) {
+                zones.add(ZoneRecordOperationResults.newInstance(viewEntry.getKey(), zoneEntry.getKey(), zoneEntry.getValue()));
+            }
+        }
+        
+        BulkRecordOperationResultsWrapper bulkRecordOperationResultsWrapper = new BulkRecordOperationResultsWrapper();
+        bulkRecordOperationResultsWrapper.setZones(zones);
+        return bulkRecordOperationResultsWrapper;
+    }
+    
+    /**
+     * Set the zones.
+     * 
+     * @param  zones  the zones.
+     */
+    public void setZones(final List<ZoneRecordOperationResults> zones) {
+        this.zones = zones;
+    }
+    
+    /**
+     * Zone record operation results.
+     */
+    public static class ZoneRecordOperationResults implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        private List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+        private boolean success;
+        private String viewName;
+        private String zoneName;
+        
+        /**
+         * Get the record operation results.
+         * 
+         * @return  the record operation results.
+         */
+        public List<RecordOperationResult> getRecordOperationResults() {
+            return this.recordOperationResults;
+        }
+        
+        /**
+         * Get the view name.
+         * 
+         * @return  the view name.
+         */
+        public String getViewName() {
+            return this.viewName;
+        }
+        
+        /**
+         * Get the zone name.
+         * 
+         * @return  the zone name.
+         */
+        public String getZoneName() {
+            return this.zoneName;
+        }
+        
+        /**
+         * Is every record operation of the zone successful?
+         * 
+         * @return  true if every record operation of the zone is successful, otherwise false.
+         */
+        public boolean isSuccess() {
+            return this.success;
+        }
+        
+        /**
+         * Create a new instance of the zone record operation results class.
+         * 
+         * @param  viewName                the view name.
+         * @param  zoneName                the zone name.
+         * @param  recordOperationResults  the record operation results.
+         * 
+         * @return  a new instance of the zone record operation results class.
+         */
+        public static ZoneRecordOperationResults newInstance(final String viewName, final String zoneName, final List<RecordOperationResult> recordOperationResults) {
+            
+            boolean success = true;
+            for (RecordOperationResult recordOperationResult : recordOperationResults) {
+                success = success && recordOperationResult.isSuccess();
+            }
+            
+            ZoneRecordOperationResults zoneRecordOperationResults = new ZoneRecordOperationResults();
+            zoneRecordOperationResults.setRecordOperationResults(recordOperationResults);
+            zoneRecordOperationResults.setSuccess(success);
+            zoneRecordOperationResults.setViewName(viewName);
+            zoneRecordOperationResults.setZoneName(zoneName);
+            return zoneRecordOperationResults;
+        }
+        
+        /**
+         * Set the record operation results.
+         * 
+         * @param  recordOperationResults  the record operation results.
+         */
+        public void setRecordOperationResults(final List<RecordOperationResult> recordOperationResults) {
+            this.recordOperationResults = recordOperationResults;
+        }
+        
+        /**
+         * Set the success flag.
+         * 
+         * @param  success  true if every record operation of the zone is successful, otherwise false.
+         */
+        public void setSuccess(final boolean success) {
+            this.success = success;
+        }
+        
+        /**
+         * Set the view name.
+         * 
+         * @param  viewName  the view name.
+         */
+        public void setViewName(final String viewName) {
+            this.viewName = viewName;
+        }
+        
+        /**
+         * Set the zone name.
+         * 
+         * @param  zoneName  the zone name.
+         */
+        public void setZoneName(final String zoneName) {
+            this.zoneName = zoneName;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.codehaus.jackson.annotate.JsonSubTypes;
+import org.codehaus.jackson.annotate.JsonSubTypes.Type;
+import org.codehaus.jackson.annotate.JsonTypeInfo;
+import org.codehaus.jackson.annotate.JsonTypeInfo.As;
+import org.codehaus.jackson.annotate.JsonTypeInfo.Id;
+import org.lazydog.jdnsaas.model.AAAARecord;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.MXRecord;
+import org.lazydog.jdnsaas.model.NSRecord;
+import org.lazydog.jdnsaas.model.PTRRecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.SOARecord;
+import org.lazydog.jdnsaas.model.SRVRecord;
+import org.lazydog.jdnsaas.model.TXTRecord;
+
+/**
+ * Bulk records wrapper.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class BulkRecordsWrapper implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    private List<ZoneRecords> zones = new ArrayList<ZoneRecords>();
+    
+    /**
+     * Get the zones.
+     * 
+     * @return  the zones.
+     */
+    public List<ZoneRecords> getZones() {
+        return this.zones;
+    }
+    
+    /**
+     * Set the zones.
+     * 
+     * @param  zones  the zones.
+     */
+    public void setZones(final List<ZoneRecords> zones) {
+        this.zones = zones;
+    }
+    
+    /**
+     * Convert to the records, by zone name, by view name.
+     * The records of a zone that is in the bulk records more than once are combined in order.
+     * 
+     * @return  the records, by zone name, by view name.
+     */
+    public Map<String,Map<String,List<Record>>> toViewZoneRecords() {
+        
+        Map<String,Map<String,List<Record>>> viewZoneRecords = new LinkedHashMap<String,Map<String,List<Record>>>();
+        
+        for (ZoneRecords zone : this.zones) {
+            
+            Map<String,List<Record>> zoneRecords = viewZoneRecords.get(zone.getViewName());
+            if (zoneRecords == null) {
+                zoneRecords = new LinkedHashMap<String,List<Record>>();
+                viewZoneRecords.put(zone.getViewName(), zoneRecords);
+            }
+            
+            List<Record> records = zoneRecords.get(zone.getZoneName());
+            if (records == null) {
+                records = new ArrayList<Record>();
+                zoneRecords.put(zone.getZoneName(), records);
+            }
+            records.addAll(zone.getRecords());
+        }
+        
+        return viewZoneRecords;
+    }
+    
+    /**
+     * Zone records.
+     */
+    public static class ZoneRecords implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        @JsonTypeInfo(use = Id.NAME, include = As.PROPERTY, property = "type")
+        @JsonSubTypes({
+            @Type(value = AAAARecord.class,  name = "AAAA"),
+            @Type(value = ARecord.class,     name = "A"),
+            @Type(value = CNAMERecord.class, name = "CNAME"),
+            @Type(value = MXRecord.class,    name = "MX"),
+            @Type(value = NSRecord.class,    name = "NS"),
+            @Type(value = PTRRecord.class,   name = "PTR"),
+            @Type(value = SOARecord.class,   name = "SOA"),
+            @Type(value = SRVRecord.class,   name = "SRV"),
+            @Type(value = TXTRecord.class,   name = "TXT")
+        })
+        private List<Record> records = new ArrayList<Record>();
+        private String viewName;
+        private String zoneName;
+        
+        /**
+         * Get the records.
+         * 
+         * @return  the records.
+         */
+        public List<Record> getRecords() {
+            return this.records;
+        }
+        
+        /**
+         * Get the view name.
+         * 
+         * @return  the view name.
+         */
+        public String getViewName() {
+            return this.viewName;
+        }
+        
+        /**
+         * Get the zone name.
+         * 
+         * @return  the zone name.
+         */
+        public String getZoneName() {
+            return this.zoneName;
+        }
+        
+        /**
+         * Set the records.
+         * 
+         * @param  records  the records.
+         */
+        public void setRecords(final List<Record> records) {
+            this.records = records;
+        }
+        
+        /**
+         * Set the view name.
+         * 
+         * @param  viewName  the view name.
+         */
+        public void setViewName(final String viewName) {
+            this.viewName = viewName;
+        }
+        
+        /**
+         * Set the zone name.
+         * 
+         * @param  zoneName  the zone name.
+         */
+        public void setZoneName(final String zoneName) {
+            this.zoneName = zoneName;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Free addresses wrapper.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class FreeAddressesWrapper implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    private List<String> addresses = new ArrayList<String>();
+    
+    /**
+     * Get the addresses.
+     * 
+     * @return  the addresses.
+     */
+    public List<String> getAddresses() {
+        return this.addresses;
+    }
+        
+    /**
+     * Create a new instance of the free addresses wrapper class.
+     * 
+     * @param  addresses  the addresses.
+     * 
+     * @return  a new instance of the free addresses wrapper class.
+     */
+    public static FreeAddressesWrapper newInstance(final List<String> addresses) {
+        FreeAddressesWrapper freeAddressesWrapper = new FreeAddressesWrapper();
+        freeAddressesWrapper.setAddresses(addresses);
+        return freeAddressesWrapper;
+    }
+    
+    /**
+     * Set the addresses.
+     * 
+     * @param  addresses  the addresses.
+     */
+    public void setAddresses(final List<String> addresses) {
+        this.addresses = addresses;
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import org.lazydog.jdnsaas.model.Operation;
+
+/**
+ * Operation response.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class OperationWrapper extends Operation {
+    
+    private static final long serialVersionUID = 1L;
+    private String url;
+    
+    /**
+     * Get the URL.
+     * 
+     * @return  the URL.
+     */
+    public String getUrl() {
+        return this.url;
+    }
+    
+    /**
+     * Create a new instance of the operation wrapper class.
+     * 
+     * @param  operation  the operation.
+     * @param  url        the URL.
+     * 
+     * @return  a new instance of the operation wrapper class.
+     */
+    public static OperationWrapper newInstance(final Operation operation, final String url) {
+        
+        OperationWrapper operationWrapper = new OperationWrapper();
+        operationWrapper.setCompleteDate(operation.getCompleteDate());
+        operationWrapper.setId(operation.getId());
+        operationWrapper.setMessage(operation.getMessage());
+        operationWrapper.setRecordOperationResults(operation.getRecordOperationResults());
+        operationWrapper.setState(operation.getState());
+        operationWrapper.setSubmitDate(operation.getSubmitDate());
+        operationWrapper.setUrl(url);
+        operationWrapper.setViewName(operation.getViewName());
+        operationWrapper.setZoneName(operation.getZoneName());
+
+        return operationWrapper;
+    }
+    
+    /**
+     * Set the URL.
+     * 
+     * @param  url  the URL. 
+     */
+    public void setUrl(final String url) {
+        this.url = url;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+
+/**
+ * Record operation results wrapper.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class RecordOperationResultsWrapper implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    private List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+    
+    /**
+     * Get the record operation results.
+     * 
+     * @return  the record operation results.
+     */
+    public List<RecordOperationResult> getRecordOperationResults() {
+        return this.recordOperationResults;
+    }
+        
+    /**
+     * Create a new instance of the record operation results wrapper class.
+     * 
+     * @param  recordOperationResults  the record operation results.
+     * 
+     * @return  a new instance of the record operation results wrapper class.
+     */
+    public static RecordOperationResultsWrapper newInstance(final List<RecordOperationResult> recordOperationResults) {
+        RecordOperationResultsWrapper recordOperationResultsWrapper = new RecordOperationResultsWrapper();
+        recordOperationResultsWrapper.setRecordOperationResults(recordOperationResults);
+        return recordOperationResultsWrapper;
+    }
+    
+    /**
+     * Set the record operation results.
+     * 
+     * @param  recordOperationResults  the record operation results.
+     */
+    public void setRecordOperationResults(final List<RecordOperationResult> recordOperationResults) {
+        this.recordOperationResults = recordOperationResults;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.lazydog.jdnsaas.model.Record;
+
+/**
+ * View records wrapper.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class ViewRecordsWrapper implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    private List<ZoneRecordsWrapper> zones = new ArrayList<ZoneRecordsWrapper>();
+    
+    /**
+     * Get the zones.
+     * 
+     * @return  the zones.
+     */
+    public List<ZoneRecordsWrapper> getZones() {
+        return this.zones;
+    }
+        
+    /**
+     * Create a new instance of the view records wrapper class.
+     * 
+     * @param  viewRecords  the records of the view, by zone name.
+     * 
+     * @return  a new instance of the view records wrapper class.
+     */
+    public static ViewRecordsWrapper newInstance(final Map<String,List<Record>> viewRecords) {
+        
+        List<ZoneRecordsWrapper> zones = new ArrayList<ZoneRecordsWrapper>();
+        for (Map.Entry<String,List<Record>> entry : viewRecords.entrySet()) {
+            zones.add(ZoneRecordsWrapper.newInstance(entry.getKey(), entry.getValue()));
+        }
+        
+        ViewRecordsWrapper viewRecordsWrapper = new ViewRecordsWrapper();
+        viewRecordsWrapper.setZones(zones);
+        return viewRecordsWrapper;
+    }
+    
+    /**
+     * Set the zones.
+     * 
+     * @param  zones  the zones.
+     */
+    public void setZones(final List<ZoneRecordsWrapper> zones) {
+        this.zones = zones;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.codehaus.jackson.annotate.JsonSubTypes;
+import org.codehaus.jackson.annotate.JsonSubTypes.Type;
+import org.codehaus.jackson.annotate.JsonTypeInfo;
+import org.codehaus.jackson.annotate.JsonTypeInfo.As;
+import org.codehaus.jackson.annotate.JsonTypeInfo.Id;
+import org.lazydog.jdnsaas.model.AAAARecord;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.MXRecord;
+import org.lazydog.jdnsaas.model.NSRecord;
+import org.lazydog.jdnsaas.model.PTRRecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.SOARecord;
+import org.lazydog.jdnsaas.model.SRVRecord;
+import org.lazydog.jdnsaas.model.TXTRecord;
+
+/**
+ * Zone records wrapper.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class ZoneRecordsWrapper implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    @JsonTypeInfo(use = Id.NAME, include = As.PROPERTY, property = "type")
+    @JsonSubTypes({
+        @Type(value = AAAARecord.class,  name = "AAAA"),
+        @Type(value = ARecord.class,     name = "A"),
+        @Type(value = CNAMERecord.class, name = "CNAME"),
+        @Type(value = MXRecord.class,    name = "MX"),
+        @Type(value = NSRecord.class,    name = "NS"),
+        @Type(value = PTRRecord.class,   name = "PTR"),
+        @Type(value = SOARecord.class,   name = "SOA"),
+        @Type(value = SRVRecord.class,   name = "SRV"),
+        @Type(value = TXTRecord.class,   name = "TXT")
+    })
+    private List<Record> records = new ArrayList<Record>();
+    private String zoneName;
+    
+    /**
+     * Get the records.
+     * 
+     * @return  the records.
+     */
+    public List<Record> getRecords() {
+        return this.records;
+    }
+    
+    /**
+     * Get the zone name.
+     * 
+     * @return  the zone name.
+     */
+    public String getZoneName() {
+        return this.zoneName;
+    }
+        
+    /**
+     * Create a new instance of the zone records wrapper class.
+     * 
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     * 
+     * @return  a new instance of the zone records wrapper class.
+     */
+    public static ZoneRecordsWrapper newInstance(final String zoneName, final List<Record> records) {
+        ZoneRecordsWrapper zoneRecordsWrapper = new ZoneRecordsWrapper();
+        zoneRecordsWrapper.setRecords(records);
+        zoneRecordsWrapper.setZoneName(zoneName);
+        return zoneRecordsWrapper;
+    }
+    
+    /**
+     * Set the records.
+     * 
+     * @param  records  the records.
+     */
+    public void setRecords(final List<Record> records) {
+        this.records = records;
+    }
+    
+    /**
+     * Set the zone name.
+     * 
+     * @param  zoneName  the zone name.
+     */
+    public void setZoneName(final String zoneName) {
+        this.zoneName = zoneName;
+    }
+}
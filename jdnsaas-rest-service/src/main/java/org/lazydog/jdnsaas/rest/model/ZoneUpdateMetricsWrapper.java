@@ -0,0 +1,68 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.lazydog.jdnsaas.model.ZoneUpdateMetrics;
+
+/**
+ * Zone update metrics wrapper.
+ * 
+ * @author  Ron Rickard
+ */
+@XmlRootElement                                         // Needed by Enunciate.
+public class ZoneUpdateMetricsWrapper implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    private List<ZoneUpdateMetrics> zoneUpdateMetrics = new ArrayList<ZoneUpdateMetrics>();
+    
+    /**
+     * Get the zone update metrics.
+     * 
+     * @return  the zone update metrics.
+     */
+    public List<ZoneUpdateMetrics> getZoneUpdateMetrics() {
+        return this.zoneUpdateMetrics;
+    }
+        
+    /**
+     * Create a new instance of the zone update metrics wrapper class.
+     * 
+     * @param  zoneUpdateMetrics  the zone update metrics.
+     * 
+     * @return  a new instance of the zone update metrics wrapper class.
+     */
+    public static ZoneUpdateMetricsWrapper newInstance(final List<ZoneUpdateMetrics> zoneUpdateMetrics) {
+        ZoneUpdateMetricsWrapper zoneUpdateMetricsWrapper = new ZoneUpdateMetricsWrapper();
+        zoneUpdateMetricsWrapper.setZoneUpdateMetrics(zoneUpdateMetrics);
+        return zoneUpdateMetricsWrapper;
+    }
+    
+    /**
+     * Set the zone update metrics.
+     * 
+     * @param  zoneUpdateMetrics  the zone update metrics.
+     */
+    public void setZoneUpdateMetrics(final List<ZoneUpdateMetrics> zoneUpdateMetrics) {
+        this.zoneUpdateMetrics = zoneUpdateMetrics;
+    }
+}
@@ -19,24 +19,89 @@
 package org.lazydog.jdnsaas.rest.provider;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.ext.ContextResolver;
 import javax.ws.rs.ext.Provider;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
 import org.codehaus.jackson.annotate.JsonMethod;
+import org.codehaus.jackson.map.MappingJsonFactory;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.codehaus.jackson.map.SerializationConfig;
 import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.codehaus.jackson.smile.SmileFactory;
+import org.codehaus.jackson.smile.SmileGenerator;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.rest.model.BulkRecordOperationResultsWrapper;
+import org.lazydog.jdnsaas.rest.model.BulkRecordsWrapper;
+import org.lazydog.jdnsaas.rest.model.ErrorResponse;
+import org.lazydog.jdnsaas.rest.model.FreeAddressesWrapper;
+import org.lazydog.jdnsaas.rest.model.OperationWrapper;
+import org.lazydog.jdnsaas.rest.model.RecordOperationResultsWrapper;
+import org.lazydog.jdnsaas.rest.model.RecordOperationsWrapper;
+import org.lazydog.jdnsaas.rest.model.RecordPageWrapper;
+import org.lazydog.jdnsaas.rest.model.RecordTypesWrapper;
+import org.lazydog.jdnsaas.rest.model.RecordsWrapper;
+import org.lazydog.jdnsaas.rest.model.ResolversWrapper;
+import org.lazydog.jdnsaas.rest.model.TSIGKeyAlgorithmsWrapper;
+import org.lazydog.jdnsaas.rest.model.TSIGKeysWrapper;
+import org.lazydog.jdnsaas.rest.model.ViewRecordsWrapper;
+import org.lazydog.jdnsaas.rest.model.ViewWrapper;
+import org.lazydog.jdnsaas.rest.model.ViewsWrapper;
+import org.lazydog.jdnsaas.rest.model.ZoneTypesWrapper;
+import org.lazydog.jdnsaas.rest.model.ZoneUpdateMetricsWrapper;
+import org.lazydog.jdnsaas.rest.model.ZoneWrapper;
+import org.lazydog.jdnsaas.rest.model.ZonesWrapper;
 
 /**
  * Context provider.
  * 
+ * The object mappers are created and configured once and shared, so the serializers Jackson builds for a type, 
+ * including the polymorphic record serializers of the record wrappers, are built once and reused by every request.
+ * The object writers for the wrappers are built when the context provider is loaded.  The Smile object mapper is 
+ * configured like the JSON object mapper, so the Smile encoding has the same fields and record types as the JSON.
+ * 
  * @author  Ron Rickard
  */
 @Provider
 @Produces(MediaType.APPLICATION_JSON)
 public class ContextProvider implements ContextResolver<ObjectMapper> {
     
+    private static final List<Class<?>> WRAPPER_TYPES = Arrays.<Class<?>>asList(
+            BulkRecordOperationResultsWrapper.class,
+            BulkRecordsWrapper.class,
+            ErrorResponse.class,
+            FreeAddressesWrapper.class,
+            OperationWrapper.class,
+            RecordOperationResultsWrapper.class,
+            RecordOperationsWrapper.class,
+            RecordPageWrapper.class,
+            RecordTypesWrapper.class,
+            RecordsWrapper.class,
+            ResolversWrapper.class,
+            TSIGKeyAlgorithmsWrapper.class,
+            TSIGKeysWrapper.class,
+            ViewRecordsWrapper.class,
+            ViewWrapper.class,
+            ViewsWrapper.class,
+            ZoneTypesWrapper.class,
+            ZoneUpdateMetricsWrapper.class,
+            ZoneWrapper.class,
+            ZonesWrapper.class);
+    private static final ObjectMapper OBJECT_MAPPER = newObjectMapper();
+    private static final ObjectMapper RECORD_OBJECT_MAPPER = newRecordObjectMapper();
+    private static final ObjectMapper SMILE_OBJECT_MAPPER = newSmileObjectMapper();
+    private static final ConcurrentMap<Class<?>,ObjectWriter> SMILE_WRITER_MAP = newWriterMap(SMILE_OBJECT_MAPPER);
+    private static final ConcurrentMap<Class<?>,ObjectWriter> WRITER_MAP = newWriterMap(OBJECT_MAPPER);
+    
     /**
      * Get the object mapper that will convert an object to and from JSON.
      * 
@@ -46,9 +111,91 @@ public class ContextProvider implements ContextResolver<ObjectMapper> {
      */
     @Override
     public ObjectMapper getContext(final Class<?> type) {
+        return OBJECT_MAPPER;
+    }
+    
+    /**
+     * Get the object mapper that writes a record on its own with its record type, as it is written in a records wrapper.
+     * 
+     * @return  the object mapper.
+     */
+    public static ObjectMapper getRecordObjectMapper() {
+        return RECORD_OBJECT_MAPPER;
+    }
+    
+    /**
+     * Get the object mapper that will convert an object to and from Smile.
+     * 
+     * @return  the object mapper.
+     */
+    public static ObjectMapper getSmileObjectMapper() {
+        return SMILE_OBJECT_MAPPER;
+    }
+    
+    /**
+     * Get the Smile object writer for the type.
+     * 
+     * @param  type  the object type.
+     * 
+     * @return  the object writer.
+     */
+    public static ObjectWriter getSmileWriter(final Class<?> type) {
+        return getWriter(SMILE_OBJECT_MAPPER, SMILE_WRITER_MAP, type);
+    }
+    
+    /**
+     * Get the object writer for the type.
+     * 
+     * @param  type  the object type.
+     * 
+     * @return  the object writer.
+     */
+    public static ObjectWriter getWriter(final Class<?> type) {
+        return getWriter(OBJECT_MAPPER, WRITER_MAP, type);
+    }
+    
+    /**
+     * Get the object writer for the type from the writer map.
+     * 
+     * @param  objectMapper  the object mapper that creates the object writer.
+     * @param  writerMap     the object writers by type.
+     * @param  type          the object type.
+     * 
+     * @return  the object writer.
+     */
+    private static ObjectWriter getWriter(final ObjectMapper objectMapper, final ConcurrentMap<Class<?>,ObjectWriter> writerMap, final Class<?> type) {
+        
+        ObjectWriter writer = writerMap.get(type);
+        
+        // Check if the type does not have an object writer yet.
+        if (writer == null) {
+            writer = objectMapper.writerWithType(type);
+            writerMap.putIfAbsent(type, writer);
+        }
+        
+        return writer;
+    }
+    
+    /**
+     * Create a new object mapper that will convert an object to and from JSON.
+     * 
+     * @return  a new object mapper.
+     */
+    static ObjectMapper newObjectMapper() {
+        return newObjectMapper(new MappingJsonFactory());
+    }
+    
+    /**
+     * Create a new object mapper that will convert an object to and from the encoding of the JSON factory.
+     * 
+     * @param  jsonFactory  the JSON factory, such as the Smile factory.
+     * 
+     * @return  a new object mapper.
+     */
+    static ObjectMapper newObjectMapper(final JsonFactory jsonFactory) {
         
         // Initialize the object mapper.
-        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectMapper objectMapper = new ObjectMapper(jsonFactory);
 
         // Set the date format.
         objectMapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ"));
@@ -64,4 +211,58 @@ public class ContextProvider implements ContextResolver<ObjectMapper> {
 
         return objectMapper;
     }
+    
+    /**
+     * Create a new object mapper that writes a record on its own with its record type.
+     * 
+     * @return  a new object mapper.
+     */
+    static ObjectMapper newRecordObjectMapper() {
+        
+        ObjectMapper objectMapper = newObjectMapper();
+        objectMapper.getSerializationConfig().addMixInAnnotations(Record.class, TypedRecordMixIn.class);
+        
+        // Streamed records are flushed by the output stream, not after each record.
+        objectMapper.configure(SerializationConfig.Feature.FLUSH_AFTER_WRITE_VALUE, false);
+        
+        return objectMapper;
+    }
+    
+    /**
+     * Create a new object mapper that will convert an object to and from Smile.
+     * 
+     * @return  a new object mapper.
+     */
+    static ObjectMapper newSmileObjectMapper() {
+        
+        SmileFactory smileFactory = new SmileFactory();
+        
+        // The entity streams belong to the container, so they are not closed.
+        smileFactory.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        smileFactory.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+        
+        // Refer back to the repeated short values, such as the record types, instead of writing them again.
+        smileFactory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        
+        return newObjectMapper(smileFactory);
+    }
+    
+    /**
+     * Create the object writers for the wrappers and build their serializers.
+     * 
+     * @param  objectMapper  the object mapper that creates the object writers.
+     * 
+     * @return  the object writers by type.
+     */
+    private static ConcurrentMap<Class<?>,ObjectWriter> newWriterMap(final ObjectMapper objectMapper) {
+        
+        ConcurrentMap<Class<?>,ObjectWriter> writerMap = new ConcurrentHashMap<Class<?>,ObjectWriter>();
+        
+        for (Class<?> type : WRAPPER_TYPES) {
+            objectMapper.canSerialize(type);
+            writerMap.put(type, objectMapper.writerWithType(type));
+        }
+        
+        return writerMap;
+    }
 }
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.provider;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.annotate.JsonSubTypes;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.codehaus.jackson.map.annotate.JsonFilter;
+import org.codehaus.jackson.map.ser.impl.SimpleBeanPropertyFilter;
+import org.codehaus.jackson.map.ser.impl.SimpleFilterProvider;
+import org.lazydog.jdnsaas.model.Record;
+
+/**
+ * Record projection.
+ * 
+ * The projection writes only the requested fields of the records; the record type is always written.  The object 
+ * writers for a projection are built once for the fields, type, and encoding and shared by every request with the 
+ * same fields.
+ * 
+ * @author  Ron Rickard
+ */
+public final class RecordProjection {
+
+    private static final String FIELD_SEPARATOR = ",";
+    private static final String FILTER_ID = "recordProjection";
+    private static final int MAXIMUM_WRITERS = 1024;
+    private static final Set<String> FIELD_NAMES = newFieldNames();
+    private static final ObjectMapper OBJECT_MAPPER = newObjectMapper(ContextProvider.newObjectMapper(), ProjectedRecordMixIn.class);
+    private static final ObjectMapper RECORD_OBJECT_MAPPER = newObjectMapper(ContextProvider.newRecordObjectMapper(), ProjectedTypedRecordMixIn.class);
+    private static final ObjectMapper SMILE_OBJECT_MAPPER = newObjectMapper(ContextProvider.newSmileObjectMapper(), ProjectedRecordMixIn.class);
+    private static final ConcurrentMap<String,ObjectWriter> WRITER_MAP = new ConcurrentHashMap<String,ObjectWriter>();
+    private Set<String> fieldNames;
+    private String fields;
+    private SimpleFilterProvider filterProvider;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  fieldNames  the field names.
+     */
+    private RecordProjection(final Set<String> fieldNames) {
+        
+        StringBuilder fields = new StringBuilder();
+        for (String fieldName : fieldNames) {
+            if (fields.length() > 0) {
+                fields.append(FIELD_SEPARATOR);
+            }
+            fields.append(fieldName);
+        }
+        
+        this.fieldNames = fieldNames;
+        this.fields = fields.toString();
+        this.filterProvider = new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fieldNames));
+    }
+
+    /**
+     * Get the field names of the projection.
+     * 
+     * @return  the field names in alphabetical order.
+     */
+    public Set<String> getFieldNames() {
+        return Collections.unmodifiableSet(this.fieldNames);
+    }
+    
+    /**
+     * Get the object writer that writes a record on its own with its record type.
+     * 
+     * @return  the object writer.
+     */
+    public ObjectWriter getRecordWriter() {
+        return this.getWriter(RECORD_OBJECT_MAPPER, "record", null);
+    }
+    
+    /**
+     * Get the Smile object writer for the type.
+     * 
+     * @param  type  the object type.
+     * 
+     * @return  the object writer.
+     */
+    public ObjectWriter getSmileWriter(final Class<?> type) {
+        return this.getWriter(SMILE_OBJECT_MAPPER, "smile", type);
+    }
+    
+    /**
+     * Get the object writer for the type.
+     * 
+     * @param  type  the object type.
+     * 
+     * @return  the object writer.
+     */
+    public ObjectWriter getWriter(final Class<?> type) {
+        return this.getWriter(OBJECT_MAPPER, "json", type);
+    }
+    
+    /**
+     * Get the object writer for the object mapper and type.
+     * The object writer is built the first time, and is kept unless there are already too many object writers.
+     * 
+     * @param  objectMapper  the object mapper.
+     * @param  encoding      the name of the encoding of the object mapper.
+     * @param  type          the object type, or null to write the runtime type, so the fields of a record subclass are written.
+     * 
+     * @return  the object writer.
+     */
+    private ObjectWriter getWriter(final ObjectMapper objectMapper, final String encoding, final Class<?> type) {
+        
+        String key = encoding + ":" + ((type != null) ? type.getName() : "") + ":" + this.fields;
+        ObjectWriter writer = WRITER_MAP.get(key);
+        
+        // Check if the object writer is not built yet.
+        if (writer == null) {
+            
+            writer = (type != null) ? objectMapper.writer(this.filterProvider).withType(type) : objectMapper.writer(this.filterProvider);
+            if (WRITER_MAP.size() < MAXIMUM_WRITERS) {
+                WRITER_MAP.putIfAbsent(key, writer);
+            }
+        }
+        
+        return writer;
+    }
+    
+    /**
+     * Create the field names of the records.
+     * The field names are the fields written for the record classes of the record type information.
+     * 
+     * @return  the field names.
+     */
+    private static Set<String> newFieldNames() {
+        
+        Set<String> fieldNames = new TreeSet<String>();
+        
+        for (JsonSubTypes.Type subType : TypedRecordMixIn.class.getAnnotation(JsonSubTypes.class).value()) {
+            
+            // Add the instance fields of the record class and its record superclasses.
+            for (Class<?> recordClass = subType.value(); Record.class.isAssignableFrom(recordClass); recordClass = recordClass.getSuperclass()) {
+                for (Field field : recordClass.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        fieldNames.add(field.getName());
+                    }
+                }
+            }
+        }
+        
+        return fieldNames;
+    }
+    
+    /**
+     * Create a new instance of the record projection class.
+     * 
+     * @param  fields  the comma-separated field names, such as name,ipAddress,target.
+     * 
+     * @return  a new instance of the record projection class.
+     * 
+     * @throws  IllegalArgumentException  if there are no field names or a field name is invalid.
+     */
+    public static RecordProjection newInstance(final String fields) {
+        
+        Set<String> fieldNames = new TreeSet<String>();
+        
+        for (String fieldName : fields.split(FIELD_SEPARATOR)) {
+            
+            if (!fieldName.trim().isEmpty()) {
+                
+                // Check if the field name is invalid.
+                if (!FIELD_NAMES.contains(fieldName.trim())) {
+                    throw new IllegalArgumentException("The field " + fieldName.trim() + " is invalid.  The fields must be in " + FIELD_NAMES + ".");
+                }
+                fieldNames.add(fieldName.trim());
+            }
+        }
+        
+        if (fieldNames.isEmpty()) {
+            throw new IllegalArgumentException("The fields must contain at least one field.");
+        }
+        
+        return new RecordProjection(fieldNames);
+    }
+    
+    /**
+     * Create a new object mapper that filters the record fields.
+     * 
+     * @param  objectMapper  the object mapper.
+     * @param  mixInClass    the mix-in that adds the filter to the records.
+     * 
+     * @return  the object mapper.
+     */
+    private static ObjectMapper newObjectMapper(final ObjectMapper objectMapper, final Class<?> mixInClass) {
+        
+        objectMapper.getSerializationConfig().addMixInAnnotations(Record.class, mixInClass);
+        
+        // The projected entities are written straight to the entity stream, which belongs to the container.
+        objectMapper.getJsonFactory().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        
+        return objectMapper;
+    }
+    
+    /**
+     * Get the projection as a string.
+     * 
+     * @return  the field names, in alphabetical order, separated by commas.
+     */
+    @Override
+    public String toString() {
+        return this.fields;
+    }
+    
+    /**
+     * Projected record mix-in.
+     */
+    @JsonFilter(FILTER_ID)
+    private abstract static class ProjectedRecordMixIn {
+    }
+    
+    /**
+     * Projected typed record mix-in.
+     */
+    @JsonFilter(FILTER_ID)
+    private abstract static class ProjectedTypedRecordMixIn extends TypedRecordMixIn {
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Smile provider.
+ * 
+ * Smile is the binary encoding of the JSON data model, so the Smile entities have the same fields and record types 
+ * as the JSON entities, but are smaller and faster to read and write.  The entities are written with the Smile object 
+ * writers of the context provider.
+ * 
+ * @author  Ron Rickard
+ */
+@Provider
+@Consumes(SmileProvider.APPLICATION_SMILE)
+@Produces(SmileProvider.APPLICATION_SMILE)
+public class SmileProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE_TYPE = MediaType.valueOf(APPLICATION_SMILE);
+    
+    /**
+     * Get the size of the entity.
+     * 
+     * @param  entity       the entity.
+     * @param  type         the entity type.
+     * @param  genericType  the entity generic type.
+     * @param  annotations  the annotations.
+     * @param  mediaType    the media type.
+     * 
+     * @return  -1 since the size is not known until the entity is written.
+     */
+    @Override
+    public long getSize(final Object entity, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return -1;
+    }
+    
+    /**
+     * Is the entity readable?
+     * 
+     * @param  type         the entity type.
+     * @param  genericType  the entity generic type.
+     * @param  annotations  the annotations.
+     * @param  mediaType    the media type.
+     * 
+     * @return  true if the media type is Smile, otherwise false.
+     */
+    @Override
+    public boolean isReadable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return APPLICATION_SMILE_TYPE.isCompatible(mediaType);
+    }
+
+    /**
+     * Is the entity writeable?
+     * Byte arrays and streaming outputs are already encoded, so they are left to their own providers.
+     * 
+     * @param  type         the entity type.
+     * @param  genericType  the entity generic type.
+     * @param  annotations  the annotations.
+     * @param  mediaType    the media type.
+     * 
+     * @return  true if the media type is Smile and the entity is not already encoded, otherwise false.
+     */
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return APPLICATION_SMILE_TYPE.isCompatible(mediaType) && !byte[].class.equals(type) && !StreamingOutput.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Read the entity from Smile.
+     * 
+     * @param  type          the entity type.
+     * @param  genericType   the entity generic type.
+     * @param  annotations   the annotations.
+     * @param  mediaType     the media type.
+     * @param  httpHeaders   the HTTP headers.
+     * @param  entityStream  the entity stream.
+     * 
+     * @return  the entity.
+     * 
+     * @throws  IOException  if unable to read the entity.
+     */
+    @Override
+    public Object readFrom(final Class<Object> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType, final MultivaluedMap<String,String> httpHeaders, final InputStream entityStream) throws IOException {
+        ObjectMapper objectMapper = ContextProvider.getSmileObjectMapper();
+        return objectMapper.readValue(entityStream, objectMapper.getTypeFactory().constructType(genericType));
+    }
+
+    /**
+     * Write the entity to Smile.
+     * 
+     * @param  entity        the entity.
+     * @param  type          the entity type.
+     * @param  genericType   the entity generic type.
+     * @param  annotations   the annotations.
+     * @param  mediaType     the media type.
+     * @param  httpHeaders   the HTTP headers.
+     * @param  entityStream  the entity stream.
+     * 
+     * @throws  IOException  if unable to write the entity.
+     */
+    @Override
+    public void writeTo(final Object entity, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType, final MultivaluedMap<String,Object> httpHeaders, final OutputStream entityStream) throws IOException {
+        ContextProvider.getSmileWriter(type).writeValue(entityStream, entity);
+    }
+}
@@ -19,19 +19,25 @@
 package org.lazydog.jdnsaas.rest.resource;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
-import javax.ws.rs.ext.Providers;
-import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.lazydog.jdnsaas.rest.cache.ResponseCache;
 import org.lazydog.jdnsaas.rest.model.ErrorResponse;
+import org.lazydog.jdnsaas.rest.provider.ContextProvider;
+import org.lazydog.jdnsaas.rest.provider.SmileProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,16 +49,76 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractResource {
       
     private static final Logger logger = LoggerFactory.getLogger(AbstractResource.class);
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String GZIP_ENTITY_TAG_SUFFIX = "-gz";
+    private static final String PREFER_HTTP_HEADER = "Prefer";
+    private static final String RESPOND_ASYNC_PREFERENCE = "respond-async";
     private static final String USE_CACHE_HTTP_HEADER = "Use-Cache";
     @Context private HttpHeaders httpHeaders;
-    @Context private Providers providers;
     @Context private Request request;
     @Context private UriInfo uriInfo;
 
+    /**
+     * Does the client accept a gzipped response entity?
+     * 
+     * @return  true if the client accepts a gzipped response entity, otherwise false.
+     */
+    protected boolean acceptsGzip() {
+        
+        boolean acceptsGzip = false;
+        
+        // Flag that the client accepts gzip if the accept encoding HTTP header contains the gzip encoding.
+        List<String> values = this.httpHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (values != null) {
+            for (String value : values) {
+                for (String encoding : value.split(",")) {
+                    acceptsGzip = acceptsGzip || GZIP_ENCODING.equalsIgnoreCase(encoding.split(";")[0].trim());
+                }
+            }
+        }
+        
+        return acceptsGzip;
+    }
+    
+    protected Response buildAcceptedResponse(final Object responseEntity, final String location) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Responding with [{}] {}.", Status.ACCEPTED.getStatusCode(), this.convertToJSONString(responseEntity));
+        }
+        return Response.status(Status.ACCEPTED).location(URI.create(location)).entity(responseEntity).build();
+    }
+    
+    /**
+     * Build the response for the cached response entity.
+     * The gzipped body is used if the client accepts it.
+     * 
+     * @param  entry  the response cache entry.
+     * 
+     * @return  the response.
+     */
+    protected Response buildCachedResponse(final ResponseCache.Entry entry) {
+        
+        Response response;
+        
+        // Check if the gzipped body can be used.
+        if (entry.getGzippedBody() != null && this.acceptsGzip()) {
+            logger.debug("Responding with [{}] {} cached gzipped bytes.", Status.OK.getStatusCode(), entry.getGzippedBody().length);
+            response = Response.ok(entry.getGzippedBody()).header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        } else {
+            logger.debug("Responding with [{}] {} cached bytes.", Status.OK.getStatusCode(), entry.getBody().length);
+            response = Response.ok(entry.getBody()).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        
+        return response;
+    }
+    
     protected Response buildBadRequestResponse(final String message, final Object requestEntity) {
         return this.buildResponse(message, requestEntity, Status.BAD_REQUEST);
     }
     
+    protected Response buildGoneResponse(final String message, final Object requestEntity) {
+        return this.buildResponse(message, requestEntity, Status.GONE);
+    }
+    
     protected Response buildInternalServerErrorResponse(final String message, final Object requestEntity) {
         return this.buildResponse(message, requestEntity, Status.INTERNAL_SERVER_ERROR);
     }
@@ -107,8 +173,13 @@ public abstract class AbstractResource {
      * 
      * @return  the response.
      */
-    private Response buildResponse(final Object responseEntity, final Status status) {
-        logger.debug("Responding with [{}] {}.", status.getStatusCode(), this.convertToJSONString(responseEntity));
+    protected Response buildResponse(final Object responseEntity, final Status status) {
+        
+        // Only convert the response entity to JSON for the debug log if it is logged, and never convert streamed records.
+        if (logger.isDebugEnabled()) {
+            logger.debug("Responding with [{}] {}.", status.getStatusCode(), (responseEntity instanceof StreamingOutput) ? "streamed records" : this.convertToJSONString(responseEntity));
+        }
+        
         return Response.status(status).entity(responseEntity).build();
     }
     
@@ -128,7 +199,7 @@ public abstract class AbstractResource {
             try {
                 
                 // Convert the entity to a JSON string.
-                jsonString = this.providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE).getContext(entity.getClass()).writeValueAsString(entity);
+                jsonString = ContextProvider.getWriter(entity.getClass()).writeValueAsString(entity);
             } catch (IOException e) {
                 logger.warn("Failed to convert {} to JSON string.", entity, e);
             }
@@ -137,6 +208,65 @@ public abstract class AbstractResource {
         return jsonString;
     }
 
+    /**
+     * Evaluate the request preconditions against the entity tag.
+     * The client may hold either the identity or the gzipped response entity, so both of their entity tags are accepted.
+     * 
+     * @param  entityTag     the entity tag of the current response entity.
+     * @param  cacheControl  the cache control.
+     * 
+     * @return  the 304 Not Modified response if the client already has the response entity, otherwise null.
+     */
+    protected Response evaluatePreconditions(final EntityTag entityTag, final CacheControl cacheControl) {
+        
+        Response response = null;
+        EntityTag matchedEntityTag = entityTag;
+        
+        Response.ResponseBuilder responseBuilder = this.request.evaluatePreconditions(entityTag);
+        if (responseBuilder == null) {
+            matchedEntityTag = getGzipEntityTag(entityTag);
+            responseBuilder = this.request.evaluatePreconditions(matchedEntityTag);
+        }
+        if (responseBuilder != null) {
+            logger.debug("Responding with [{}] for the entity tag {}.", Status.NOT_MODIFIED.getStatusCode(), matchedEntityTag);
+            response = responseBuilder.tag(matchedEntityTag).cacheControl(cacheControl).build();
+        }
+        
+        return response;
+    }
+
+    /**
+     * Get the base URI.
+     * 
+     * @param  path  the path to add to the base URI.
+     * 
+     * @return  the base URI.
+     */
+    protected String getBaseUri(final String path) {
+        return this.uriInfo.getBaseUriBuilder().path(path).build().toASCIIString();
+    }
+
+    /**
+     * Get the entity tag of the gzipped response entity.
+     * The gzipped bytes differ from the identity bytes, so they cannot share a strong entity tag.
+     * 
+     * @param  entityTag  the entity tag of the identity response entity.
+     * 
+     * @return  the entity tag of the gzipped response entity.
+     */
+    private static EntityTag getGzipEntityTag(final EntityTag entityTag) {
+        return new EntityTag(entityTag.getValue() + GZIP_ENTITY_TAG_SUFFIX, entityTag.isWeak());
+    }
+
+    /**
+     * Get the object writer that writes a record on its own with its record type, as it is written in a records wrapper.
+     * 
+     * @return  the object writer.
+     */
+    protected ObjectWriter getRecordWriter() {
+        return ContextProvider.getRecordObjectMapper().writer();
+    }
+
     /**
      * Get the request URI.
      * 
@@ -157,6 +287,71 @@ public abstract class AbstractResource {
         return this.uriInfo.getAbsolutePathBuilder().path(path).build().toASCIIString();
     }
     
+    /**
+     * Does the client prefer Smile to JSON?
+     * The acceptable media types are in order of preference, and a wildcard media type selects JSON.
+     * 
+     * @return  true if the client prefers Smile, otherwise false.
+     */
+    protected boolean prefersSmile() {
+        
+        Boolean prefersSmile = null;
+        
+        // Find the first acceptable media type that is Smile or JSON.
+        for (MediaType mediaType : this.httpHeaders.getAcceptableMediaTypes()) {
+            if (prefersSmile == null && SmileProvider.APPLICATION_SMILE_TYPE.getType().equalsIgnoreCase(mediaType.getType()) && SmileProvider.APPLICATION_SMILE_TYPE.getSubtype().equalsIgnoreCase(mediaType.getSubtype())) {
+                prefersSmile = Boolean.TRUE;
+            } else if (prefersSmile == null && mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                prefersSmile = Boolean.FALSE;
+            }
+        }
+        
+        return (prefersSmile != null && prefersSmile.booleanValue());
+    }
+    
+    /**
+     * Should the request be processed asynchronously?
+     * 
+     * @return  true if the request should be processed asynchronously, otherwise false.
+     */
+    protected boolean respondAsync() {
+        
+        boolean respondAsync = false;
+        
+        // Flag that the request should be processed asynchronously if the prefer HTTP header contains the respond-async preference.
+        List<String> values = this.httpHeaders.getRequestHeader(PREFER_HTTP_HEADER);
+        if (values != null) {
+            for (String value : values) {
+                for (String preference : value.split(",")) {
+                    respondAsync = respondAsync || RESPOND_ASYNC_PREFERENCE.equalsIgnoreCase(preference.trim());
+                }
+            }
+        }
+        logger.info("Prefer respond-async is {}.", respondAsync);
+        
+        return respondAsync;
+    }
+    
+    /**
+     * Tag the response with the entity tag and cache control.
+     * Only successful responses are tagged, and they vary by the acceptable media types.  A gzipped response is 
+     * tagged with the entity tag of the gzipped response entity.
+     * 
+     * @param  response      the response.
+     * @param  entityTag     the entity tag.
+     * @param  cacheControl  the cache control.
+     * 
+     * @return  the tagged response.
+     */
+    protected Response tagResponse(final Response response, final EntityTag entityTag, final CacheControl cacheControl) {
+        
+        boolean gzipped = GZIP_ENCODING.equals(response.getMetadata().getFirst(HttpHeaders.CONTENT_ENCODING));
+        
+        return (response.getStatus() == Status.OK.getStatusCode()) 
+                ? Response.fromResponse(response).tag((gzipped) ? getGzipEntityTag(entityTag) : entityTag).cacheControl(cacheControl).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build() 
+                : response;
+    }
+    
     /**
      * Should the zone cache be used?
      * 
@@ -173,4 +368,17 @@ public abstract class AbstractResource {
         
         return useCache;
     }
+    
+    /**
+     * Should the lookup cache be used?
+     * 
+     * @return  false if the use cache HTTP header is set to false, otherwise true.
+     */
+    protected boolean useLookupCache() {
+        
+        // Flag that the lookup cache should not be used if the use cache HTTP header is explicitly set to false.
+        List<String> values = this.httpHeaders.getRequestHeader(USE_CACHE_HTTP_HEADER);
+        
+        return (values == null || values.isEmpty() || !"false".equalsIgnoreCase(values.get(0).trim()));
+    }
 }
\ No newline at end of file
@@ -18,9 +18,14 @@
  */
 package org.lazydog.jdnsaas.rest.resource;
 
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
@@ -31,33 +36,58 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import org.codehaus.enunciate.contract.jaxrs.ResourceMethodSignature;
+import org.lazydog.jdnsaas.CursorExpiredException;
 import org.lazydog.jdnsaas.DNSService;
 import org.lazydog.jdnsaas.DNSServiceException;
 import org.lazydog.jdnsaas.ResourceNotFoundException;
+import org.lazydog.jdnsaas.model.Operation;
 import org.lazydog.jdnsaas.model.Record;
 import org.lazydog.jdnsaas.model.RecordOperation;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.RecordPage;
 import org.lazydog.jdnsaas.model.RecordType;
 import org.lazydog.jdnsaas.model.Resolver;
+import org.lazydog.jdnsaas.model.SOARecord;
 import org.lazydog.jdnsaas.model.TSIGKey;
 import org.lazydog.jdnsaas.model.TSIGKeyAlgorithm;
 import org.lazydog.jdnsaas.model.View;
 import org.lazydog.jdnsaas.model.Zone;
 import org.lazydog.jdnsaas.model.ZoneType;
+import org.lazydog.jdnsaas.model.ZoneUpdateMetrics;
+import org.lazydog.jdnsaas.rest.cache.CachingStreamingOutput;
+import org.lazydog.jdnsaas.rest.cache.ResponseCache;
+import org.lazydog.jdnsaas.rest.model.BulkRecordOperationResultsWrapper;
+import org.lazydog.jdnsaas.rest.model.BulkRecordsWrapper;
+import org.lazydog.jdnsaas.rest.model.FreeAddressesWrapper;
+import org.lazydog.jdnsaas.rest.model.OperationWrapper;
+import org.lazydog.jdnsaas.rest.model.RecordOperationResultsWrapper;
 import org.lazydog.jdnsaas.rest.model.RecordOperationsWrapper;
+import org.lazydog.jdnsaas.rest.model.RecordPageWrapper;
 import org.lazydog.jdnsaas.rest.model.RecordTypesWrapper;
 import org.lazydog.jdnsaas.rest.model.RecordsWrapper;
 import org.lazydog.jdnsaas.rest.model.ResolversWrapper;
 import org.lazydog.jdnsaas.rest.model.TSIGKeyAlgorithmsWrapper;
 import org.lazydog.jdnsaas.rest.model.TSIGKeysWrapper;
+import org.lazydog.jdnsaas.rest.model.ViewRecordsWrapper;
 import org.lazydog.jdnsaas.rest.model.ViewWrapper;
 import org.lazydog.jdnsaas.rest.model.ViewsWrapper;
 import org.lazydog.jdnsaas.rest.model.ZoneTypesWrapper;
+import org.lazydog.jdnsaas.rest.model.ZoneUpdateMetricsWrapper;
 import org.lazydog.jdnsaas.rest.model.ZoneWrapper;
 import org.lazydog.jdnsaas.rest.model.ZonesWrapper;
+import org.lazydog.jdnsaas.rest.provider.RecordProjection;
+import org.lazydog.jdnsaas.rest.provider.SmileProvider;
+import org.lazydog.jdnsaas.utility.RecordCursor;
 import org.lazydog.jdnsaas.utility.RecordFilter;
+import org.lazydog.jdnsaas.utility.Subnet;
+import org.lazydog.jdnsaas.utility.ZoneUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,7 +101,18 @@ import org.slf4j.LoggerFactory;
 public class DNSServiceResource extends AbstractResource {
       
     private static Logger logger = LoggerFactory.getLogger(DNSServiceResource.class);
+    private static final int DEFAULT_PAGE_LIMIT = 1000;
+    private static final String ENTITY_TAG_ALGORITHM = "SHA-1";
+    private static final String ENTITY_TAG_CHARSET = "UTF-8";
+    private static final String EXPORT_FORMAT_NDJSON = "ndjson";
+    private static final String EXPORT_FORMAT_ZONEFILE = "zonefile";
+    private static final int MAXIMUM_FREE_ADDRESSES = 256;
+    private static final int MAXIMUM_PAGE_LIMIT = 10000;
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final int STREAMING_PAGE_LIMIT = 1000;
+    private static final String ZONEFILE_MEDIA_TYPE = "text/dns";
     @Inject private DNSService dnsService;
+    @Inject private ResponseCache responseCache;
 
     /**
      * Create the view wrappers.
@@ -109,6 +150,127 @@ public class DNSServiceResource extends AbstractResource {
         return zoneWrappers;
     }
 
+    /**
+     * Export the records of the zone.
+     * The records are written as they are found, one page at a time from a snapshot of the zone in the zone cache, 
+     * or from a zone transfer if the zone cache should not be used or the zone is not in the zone cache.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * @param  format    the export format, either ndjson for newline-delimited JSON with one record on each line, 
+     *                   or zonefile for a zone file in the master file format of RFC 1035.
+     * 
+     * @return  the exported records.
+     */
+    @GET
+    @Path("views/{viewName}/zones/{zoneName}/records/export")
+    @Produces({NDJSON_MEDIA_TYPE, ZONEFILE_MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    @ResourceMethodSignature(pathParams = {@PathParam("viewName"), @PathParam("zoneName")}, queryParams = {@QueryParam("format")})
+    public Response exportRecords(@PathParam("viewName") final String viewName, @PathParam("zoneName") final String zoneName, @DefaultValue(EXPORT_FORMAT_NDJSON) @QueryParam("format") final String format) {
+        
+        Response response;
+        
+        try {
+            boolean useCache = this.useCache();
+            
+            // Check if the zone file is exported.
+            if (EXPORT_FORMAT_ZONEFILE.equalsIgnoreCase(format)) {
+                
+                // Find the zone before the response is committed, so a missing zone is still reported.
+                this.dnsService.findZone(viewName, zoneName);
+                response = Response.fromResponse(buildOkResponse(ZoneFileStreamingOutput.newInstance(this.dnsService, viewName, zoneName, useCache))).type(ZONEFILE_MEDIA_TYPE).build();
+            } else if (EXPORT_FORMAT_NDJSON.equalsIgnoreCase(format)) {
+                
+                RecordFilter recordFilter = RecordFilter.newInstance(zoneName, Arrays.asList(RecordType.ANY), "*", false, null);
+                
+                // Find the first page in the zone cache, or all the records with a zone transfer as the only page.
+                RecordPage firstPage = null;
+                if (useCache) {
+                    try {
+                        firstPage = this.dnsService.findRecords(viewName, zoneName, recordFilter, null, STREAMING_PAGE_LIMIT);
+                    } catch (DNSServiceException e) {
+                        logger.debug("Unable to export the records for the view {} and the zone {} from the zone cache.", viewName, zoneName, e);
+                    }
+                }
+                if (firstPage == null) {
+                    firstPage = RecordPage.newInstance(this.dnsService.findRecords(viewName, zoneName, recordFilter, false, this.useLookupCache()), null);
+                }
+                
+                response = Response.fromResponse(buildOkResponse(RecordStreamingOutput.newNewlineDelimitedInstance(this.dnsService, viewName, zoneName, recordFilter, firstPage, STREAMING_PAGE_LIMIT, this.getRecordWriter()))).type(NDJSON_MEDIA_TYPE).build();
+            } else {
+                throw new IllegalArgumentException("The format must be " + EXPORT_FORMAT_NDJSON + " or " + EXPORT_FORMAT_ZONEFILE + ".");
+            }
+        } catch (IllegalArgumentException e) {
+            response = Response.fromResponse(buildBadRequestResponse(e.getMessage(), null)).type(MediaType.APPLICATION_JSON_TYPE).build();
+        } catch (ResourceNotFoundException e) {
+            response = Response.fromResponse(buildNotFoundResponse(e.getMessage(), null)).type(MediaType.APPLICATION_JSON_TYPE).build();
+        } catch (Exception e) {
+            response = Response.fromResponse(buildInternalServerErrorResponse(e.getMessage(), null)).type(MediaType.APPLICATION_JSON_TYPE).build();
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Find the free addresses in the range of the IPv4 reverse zone.
+     * An address is free if no zone of the view has a PTR record or A record for it and it is not reserved.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the IPv4 reverse zone name.
+     * @param  count     the maximum number of free addresses.
+     * @param  cidr      the range in CIDR notation, such as 10.4.8.0/24, or null for the subnet of the zone.
+     * 
+     * @return  the free addresses in address order.
+     */
+    @GET
+    @Path("views/{viewName}/zones/{zoneName}/freeaddresses")
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @ResourceMethodSignature(output = FreeAddressesWrapper.class, pathParams = {@PathParam("viewName"), @PathParam("zoneName")}, queryParams = {@QueryParam("count"), @QueryParam("cidr")})
+    public Response findFreeAddresses(@PathParam("viewName") final String viewName, @PathParam("zoneName") final String zoneName, @DefaultValue("1") @QueryParam("count") final int count, @QueryParam("cidr") final String cidr) {
+        
+        Response response;
+
+        try {
+            List<String> freeAddresses = this.dnsService.findFreeAddresses(viewName, zoneName, getFreeAddressRange(zoneName, count, cidr), count);
+            response = buildOkResponse(FreeAddressesWrapper.newInstance(freeAddresses));
+        } catch (IllegalArgumentException e) {
+            response = buildBadRequestResponse(e.getMessage(), null);
+        } catch (ResourceNotFoundException e) {
+            response = buildNotFoundResponse(e.getMessage(), null);
+        } catch (Exception e) {
+            response = buildInternalServerErrorResponse(e.getMessage(), null);
+        }
+        
+        return response;
+    }
+
+    /**
+     * Find the operation.
+     * 
+     * @param  operationId  the operation ID.
+     * 
+     * @return  the operation.
+     */
+    @GET
+    @Path("operations/{operationId}")
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @ResourceMethodSignature(output = OperationWrapper.class, pathParams = {@PathParam("operationId")})
+    public Response findOperation(@PathParam("operationId") final String operationId) {
+        
+        Response response;
+        
+        try {
+            Operation operation = this.dnsService.findOperation(operationId);
+            response = buildOkResponse(OperationWrapper.newInstance(operation, this.getRequestUri()));
+        } catch (ResourceNotFoundException e) {
+            response = buildNotFoundResponse(e.getMessage(), null);
+        } catch (Exception e) {
+            response = buildInternalServerErrorResponse(e.getMessage(), null);
+        }
+        
+        return response;
+    }
+
     /**
      * Find the record operations.
      * 
@@ -116,7 +278,7 @@ public class DNSServiceResource extends AbstractResource {
      */
     @GET
     @Path("recordoperations")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     @ResourceMethodSignature(output = RecordOperationsWrapper.class)
     public Response findRecordOperations() {
         return buildOkResponse(RecordOperationsWrapper.newInstance(Arrays.asList(RecordOperation.values())));       
@@ -131,7 +293,7 @@ public class DNSServiceResource extends AbstractResource {
      */
     @GET
     @Path("recordtypes")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     @ResourceMethodSignature(output = RecordTypesWrapper.class, queryParams = {@QueryParam("zoneType")})
     public Response findRecordTypes(@DefaultValue("both") @QueryParam("zoneType") final String zoneType) {
         return buildOkResponse(RecordTypesWrapper.newInstance(Arrays.asList(RecordType.values(ZoneType.fromString(zoneType)))));       
@@ -139,20 +301,28 @@ public class DNSServiceResource extends AbstractResource {
     
     /**
      * Find the records for the view name and zone name.
-     * Optionally, filter the records by the record type and/or record name.
+     * Optionally, filter the records by the record type and/or record name and/or subnet.
      * 
      * @param  viewName      the view name.
      * @param  zoneName      the zone name.
      * @param  recordType    the record type.
      * @param  searchString  the search string.
+     * @param  exactName     true if the search string must equal the record name, otherwise false.
+     * @param  cidr          the subnet in CIDR notation, such as 10.4.0.0/16.
+     * @param  limit         the maximum number of records in a page, or null if the records are not paged.
+     * @param  cursor        the cursor from the previous page, or null for the first page.
+     * @param  fields        the comma-separated record fields to write, such as name,ipAddress,target, or null for all the fields.
      * 
-     * @return  the records.
+     * @return  the records, or a page of the records with the cursor for the next page if the limit or cursor is given.
+     *          The records found in the zone cache are tagged with an entity tag for the zone serial number, 
+     *          so a client that already has them gets 304 Not Modified, and their serialized body is kept in the 
+     *          response cache until the zone serial number changes.
      */
     @GET
     @Path("views/{viewName}/zones/{zoneName}/records")
-    @Produces(MediaType.APPLICATION_JSON)
-    @ResourceMethodSignature(output = RecordsWrapper.class, pathParams = {@PathParam("viewName"), @PathParam("zoneName")}, queryParams = {@QueryParam("recordType"), @QueryParam("searchString")})
-    public Response findRecords(@PathParam("viewName") final String viewName, @PathParam("zoneName") final String zoneName, @DefaultValue("any") @QueryParam("recordType") final List<String> recordTypes, @DefaultValue("*") @QueryParam("searchString") final String searchString) {
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @ResourceMethodSignature(output = RecordsWrapper.class, pathParams = {@PathParam("viewName"), @PathParam("zoneName")}, queryParams = {@QueryParam("recordType"), @QueryParam("searchString"), @QueryParam("exactName"), @QueryParam("cidr"), @QueryParam("limit"), @QueryParam("cursor"), @QueryParam("fields")})
+    public Response findRecords(@PathParam("viewName") final String viewName, @PathParam("zoneName") final String zoneName, @DefaultValue("any") @QueryParam("recordType") final List<String> recordTypes, @DefaultValue("*") @QueryParam("searchString") final String searchString, @DefaultValue("false") @QueryParam("exactName") final boolean exactName, @QueryParam("cidr") final String cidr, @QueryParam("limit") final Integer limit, @QueryParam("cursor") final String cursor, @QueryParam("fields") final String fields) {
         
         Response response;
 
@@ -161,9 +331,79 @@ public class DNSServiceResource extends AbstractResource {
             for (String recordType : recordTypes) {
                 actualRecordTypes.add(RecordType.fromString(recordType));
             }
-            RecordFilter recordFilter = RecordFilter.newInstance(zoneName, actualRecordTypes, searchString);
-            List<Record> records = this.dnsService.findRecords(viewName, zoneName, recordFilter, this.useCache());
-            response = buildOkResponse(RecordsWrapper.newInstance(records)); 
+            Subnet subnet = (cidr != null) ? Subnet.newInstance(cidr) : null;
+            RecordFilter recordFilter = RecordFilter.newInstance(zoneName, actualRecordTypes, searchString, exactName, subnet);
+            boolean paged = (limit != null || cursor != null);
+            boolean useCache = this.useCache();
+            boolean smile = this.prefersSmile();
+            RecordProjection projection = (fields != null) ? RecordProjection.newInstance(fields) : null;
+            
+            // Tag the records found in the zone cache with the zone serial number and the query parameters.
+            SOARecord soaRecord = (paged || useCache) ? this.dnsService.findCachedSOARecord(viewName, zoneName) : null;
+            EntityTag entityTag = null;
+            CacheControl cacheControl = null;
+            if (soaRecord != null) {
+                entityTag = newEntityTag(viewName, zoneName, soaRecord.getSerialNumber(), recordTypes, searchString, exactName, cidr, limit, cursor, projection, (smile) ? SmileProvider.APPLICATION_SMILE : MediaType.APPLICATION_JSON);
+                cacheControl = newCacheControl(soaRecord.getMinimumTimeToLive());
+            }
+            
+            // Check if the client already has the records.
+            Response notModifiedResponse = (entityTag != null) ? this.evaluatePreconditions(entityTag, cacheControl) : null;
+            // The streamed and cached bodies are JSON.
+            ResponseCache.Entry cachedEntry = (notModifiedResponse == null && entityTag != null && !smile && this.responseCache.isEnabled()) 
+                    ? this.responseCache.get(entityTag.getValue(), viewName + "/" + zoneName, soaRecord.getSerialNumber()) 
+                    : null;
+            if (notModifiedResponse != null) {
+                response = notModifiedResponse;
+            } else if (cachedEntry != null) {
+                response = this.tagResponse(this.buildCachedResponse(cachedEntry), entityTag, cacheControl);
+            } else {
+            
+                // Check if the records are paged.
+                if (paged) {
+                
+                    int pageLimit = (limit != null) ? limit.intValue() : DEFAULT_PAGE_LIMIT;
+                    if (pageLimit < 1 || pageLimit > MAXIMUM_PAGE_LIMIT) {
+                        throw new IllegalArgumentException("The limit must be between 1 and " + MAXIMUM_PAGE_LIMIT + ".");
+                    }
+                
+                    RecordPage recordPage = this.dnsService.findRecords(viewName, zoneName, recordFilter, (cursor != null) ? RecordCursor.parse(cursor, recordFilter) : null, pageLimit);
+                    response = buildOkResponse(this.project(RecordPageWrapper.newInstance(recordPage), projection, smile));
+                } else {
+                
+                    // Stream the records from the zone cache as JSON, unless the address index can find them, and fall 
+                    // back to the records wrapper if the zone is not in the zone cache or the client prefers Smile.  A 
+                    // search the zone index narrows to one page is filtered from its candidate records instead.
+                    RecordPage firstPage = null;
+                    if (useCache && subnet == null && !smile) {
+                        try {
+                            firstPage = this.dnsService.findRecords(viewName, zoneName, recordFilter, null, STREAMING_PAGE_LIMIT);
+                        } catch (DNSServiceException e) {
+                            logger.debug("Unable to stream the records for the view {} and the zone {}.", viewName, zoneName, e);
+                        }
+                    }
+                
+                    if (firstPage != null) {
+                        response = buildOkResponse(RecordStreamingOutput.newInstance(this.dnsService, viewName, zoneName, recordFilter, firstPage, STREAMING_PAGE_LIMIT, (projection != null) ? projection.getRecordWriter() : this.getRecordWriter()));
+                    } else {
+                        List<Record> records = this.dnsService.findRecords(viewName, zoneName, recordFilter, useCache, this.useLookupCache());
+                        response = buildOkResponse(this.project(RecordsWrapper.newInstance(records), projection, smile));
+                    }
+                }
+                
+                if (entityTag != null) {
+                    
+                    // Cache the body as it is written.
+                    if (!smile && this.responseCache.isEnabled() && response.getStatus() == Status.OK.getStatusCode()) {
+                        response = Response.fromResponse(response).entity(CachingStreamingOutput.newInstance(response.getEntity(), this.responseCache, entityTag.getValue(), viewName + "/" + zoneName, soaRecord.getSerialNumber())).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+                    }
+                    response = this.tagResponse(response, entityTag, cacheControl);
+                }
+            }
+        } catch (CursorExpiredException e) {
+            response = buildGoneResponse(e.getMessage(), null);
+        } catch (IllegalArgumentException e) {
+            response = buildBadRequestResponse(e.getMessage(), null);
         } catch (ResourceNotFoundException e) {
             response = buildNotFoundResponse(e.getMessage(), null);
         } catch (Exception e) {
@@ -174,6 +414,79 @@ e.printStackTrace();
         return response;
     }
 
+    /**
+     * Find the records in the subnet in each zone of the view.
+     * These are the A and AAAA records with an IP address in the subnet, and the PTR records of reverse zones 
+     * whose names stand for an IP address in the subnet.
+     * 
+     * @param  viewName  the view name.
+     * @param  cidr      the subnet in CIDR notation, such as 10.4.0.0/16.
+     * 
+     * @return  the records in the subnet in address order, by zone.
+     */
+    @GET
+    @Path("views/{viewName}/subnetrecords")
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @ResourceMethodSignature(output = ViewRecordsWrapper.class, pathParams = {@PathParam("viewName")}, queryParams = {@QueryParam("cidr")})
+    public Response findRecordsInSubnet(@PathParam("viewName") final String viewName, @QueryParam("cidr") final String cidr) {
+        
+        Response response;
+
+        try {
+            
+            // Check if the subnet is missing.
+            if (cidr == null || cidr.trim().isEmpty()) {
+                response = buildBadRequestResponse("The cidr query parameter is required.", null);
+            } else {
+                Map<String,List<Record>> subnetRecords = this.dnsService.findRecordsInSubnet(viewName, Subnet.newInstance(cidr));
+                response = buildOkResponse(ViewRecordsWrapper.newInstance(subnetRecords));
+            }
+        } catch (IllegalArgumentException e) {
+            response = buildBadRequestResponse(e.getMessage(), null);
+        } catch (ResourceNotFoundException e) {
+            response = buildNotFoundResponse(e.getMessage(), null);
+        } catch (Exception e) {
+            response = buildInternalServerErrorResponse(e.getMessage(), null);
+        }
+        
+        return response;
+    }
+
+    /**
+     * Find the records pointing at the data in each zone of the view.
+     * These are the A and AAAA records with the IP address, or the CNAME, MX, NS, PTR and SRV records with the target.
+     * 
+     * @param  viewName  the view name.
+     * @param  data      the IP (v4 or v6) address or the target.  A relative target is relative to each zone.
+     * 
+     * @return  the records pointing at the data, by zone.
+     */
+    @GET
+    @Path("views/{viewName}/referringrecords")
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @ResourceMethodSignature(output = ViewRecordsWrapper.class, pathParams = {@PathParam("viewName")}, queryParams = {@QueryParam("data")})
+    public Response findReferringRecords(@PathParam("viewName") final String viewName, @QueryParam("data") final String data) {
+        
+        Response response;
+
+        try {
+            
+            // Check if the data is missing.
+            if (data == null || data.trim().isEmpty()) {
+                response = buildBadRequestResponse("The data query parameter is required.", null);
+            } else {
+                Map<String,List<Record>> referringRecords = this.dnsService.findReferringRecords(viewName, data.trim());
+                response = buildOkResponse(ViewRecordsWrapper.newInstance(referringRecords));
+            }
+        } catch (ResourceNotFoundException e) {
+            response = buildNotFoundResponse(e.getMessage(), null);
+        } catch (Exception e) {
+            response = buildInternalServerErrorResponse(e.getMessage(), null);
+        }
+        
+        return response;
+    }
+
     /**
      * Find the resolvers.
      * 
@@ -181,7 +494,7 @@ e.printStackTrace();
      */
     @GET
     @Path("resolvers")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findResolvers() {
         
         Response response;
@@ -204,7 +517,7 @@ e.printStackTrace();
      */
     @GET
     @Path("tsigkeyalgorithms")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findTSIGKeyAlgorithms() {
         return buildOkResponse(TSIGKeyAlgorithmsWrapper.newInstance(Arrays.asList(TSIGKeyAlgorithm.values())));       
     }
@@ -216,7 +529,7 @@ e.printStackTrace();
      */
     @GET
     @Path("tsigkeys")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findTSIGKeys() {
         
         Response response;
@@ -241,7 +554,7 @@ e.printStackTrace();
      */
     @GET
     @Path("views/{viewName}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findView(@PathParam("viewName") final String viewName) {
         
         Response response;
@@ -266,7 +579,7 @@ e.printStackTrace();
      */
     @GET
     @Path("views")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findViewNames() {
         
         Response response;
@@ -292,7 +605,7 @@ e.printStackTrace();
      */
     @GET
     @Path("views/{viewName}/zones/{zoneName}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findZone(@PathParam("viewName") final String viewName, @PathParam("zoneName") final String zoneName) {
         
         Response response;
@@ -319,7 +632,7 @@ e.printStackTrace();
      */
     @GET
     @Path("views/{viewName}/zones")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findZoneNames(@PathParam("viewName") final String viewName) {
         
         Response response;
@@ -344,37 +657,187 @@ e.printStackTrace();
      */
     @GET
     @Path("zonetypes")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response findZoneTypes() {
         return buildOkResponse(ZoneTypesWrapper.newInstance(Arrays.asList(ZoneType.values())));       
     }
 
+    /**
+     * Find the zone update metrics.
+     * 
+     * @return  the zone update metrics.
+     */
+    @GET
+    @Path("metrics/zoneupdates")
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    public Response findZoneUpdateMetrics() {
+        
+        Response response;
+        
+        try {
+            List<ZoneUpdateMetrics> zoneUpdateMetrics = this.dnsService.findZoneUpdateMetrics();
+            response = buildOkResponse(ZoneUpdateMetricsWrapper.newInstance(zoneUpdateMetrics));
+        } catch (Exception e) {
+            response = buildInternalServerErrorResponse(e.getMessage(), null);
+        }
+        
+        return response;
+    }
+
+    /**
+     * Create the cache control for records that may be cached for the minimum time to live of the zone.
+     * 
+     * @param  minimumTimeToLive  the minimum time to live of the zone in seconds.
+     * 
+     * @return  the cache control.
+     */
+    private static CacheControl newCacheControl(final Long minimumTimeToLive) {
+        
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoTransform(false);
+        cacheControl.setMaxAge((minimumTimeToLive != null) ? (int)Math.min(minimumTimeToLive.longValue(), Integer.MAX_VALUE) : 0);
+        
+        return cacheControl;
+    }
+    
+    /**
+     * Create the entity tag for the records of the zone with the serial number found with the query parameters.
+     * 
+     * @param  viewName         the view name.
+     * @param  zoneName         the zone name.
+     * @param  serialNumber     the zone serial number.
+     * @param  queryParameters  the query parameters.
+     * 
+     * @return  the entity tag.
+     */
+    private static EntityTag newEntityTag(final String viewName, final String zoneName, final Long serialNumber, final Object... queryParameters) {
+        
+        StringBuilder value = new StringBuilder();
+        value.append(viewName).append('\n').append(zoneName).append('\n').append(serialNumber);
+        for (Object queryParameter : queryParameters) {
+            value.append('\n').append(queryParameter);
+        }
+        
+        String digest;
+        try {
+            digest = new BigInteger(1, MessageDigest.getInstance(ENTITY_TAG_ALGORITHM).digest(value.toString().getBytes(ENTITY_TAG_CHARSET))).toString(16);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create the entity tag.", e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("Unable to create the entity tag.", e);
+        }
+        
+        return new EntityTag(serialNumber + "-" + digest);
+    }
+    
+    /**
+     * Get the range to search for free addresses.
+     * 
+     * @param  zoneName  the IPv4 reverse zone name.
+     * @param  count     the maximum number of free addresses.
+     * @param  cidr      the range in CIDR notation, or null for the subnet of the zone.
+     * 
+     * @return  the range, or null for the subnet of the zone.
+     * 
+     * @throws  IllegalArgumentException  if the zone is not an IPv4 reverse zone, the range is not in the zone, or the count is invalid.
+     */
+    private static Subnet getFreeAddressRange(final String zoneName, final int count, final String cidr) {
+        
+        Subnet zoneSubnet = ZoneUtility.newInstance(zoneName).getReverseZoneSubnet();
+        Subnet range = (cidr != null) ? Subnet.newInstance(cidr) : null;
+        
+        if (zoneSubnet == null) {
+            throw new IllegalArgumentException("The zone " + zoneName + " must be an IPv4 reverse zone.");
+        }
+        if (range != null && !zoneSubnet.contains(range)) {
+            throw new IllegalArgumentException("The range " + range + " must be in the subnet " + zoneSubnet + " of the zone " + zoneName + ".");
+        }
+        if (count < 1 || count > MAXIMUM_FREE_ADDRESSES) {
+            throw new IllegalArgumentException("The count must be between 1 and " + MAXIMUM_FREE_ADDRESSES + ".");
+        }
+        
+        return range;
+    }
+
+    /**
+     * Process the record operations of many zones.
+     * The record operations of each zone are processed concurrently with those of the other zones.
+     *
+     * @param  bulkRecordsWrapper  the records, by zone, by view.
+     *
+     * @return  the record operation results, by zone, by view.
+     */
+    @POST
+    @Path("recordoperations")
+    @Consumes({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @ResourceMethodSignature(output = BulkRecordOperationResultsWrapper.class)
+    public Response processBulkRecordOperations(final BulkRecordsWrapper bulkRecordsWrapper) {
+
+        Response response;
+
+        try {
+
+            BulkRecordOperationResultsWrapper bulkRecordOperationResultsWrapper = BulkRecordOperationResultsWrapper.newInstance(
+                    this.dnsService.processRecordOperations(bulkRecordsWrapper.toViewZoneRecords()));
+
+            // Check if all the record operations are successful.
+            if (bulkRecordOperationResultsWrapper.isSuccess()) {
+                response = buildOkResponse(bulkRecordOperationResultsWrapper);
+            } else {
+                response = buildResponse(bulkRecordOperationResultsWrapper, Status.BAD_REQUEST);
+            }
+        } catch (Exception e) {
+            response = buildInternalServerErrorResponse(e.getMessage(), bulkRecordsWrapper);
+        }
+
+        return response;
+    }
+
     /**
      * Process the record operations.
+     * If the Prefer HTTP header contains respond-async, the record operations are written to the operation log 
+     * and processed in the background; the response is 202 Accepted with the operation to poll.
      * 
      * @param  viewName  the view name.
      * @param  zoneName  the zone name.
      * @param  records   the records.
      * 
-     * @return  true if the record operations are processed successfully, otherwise false.
+     * @return  the record operation results, one for each record in the order of the records.
      * 
      * @throws  DNSServiceException        if unable to process the records due to an exception.
      * @throws  ResourceNotFoundException  if the view cannot be found.
      */
     @POST
     @Path("views/{viewName}/zones/{zoneName}/records")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
     public Response processRecordOperations(@PathParam("viewName") final String viewName, @PathParam("zoneName") final String zoneName, final RecordsWrapper recordsWrapper) {
 
         Response response;
       
         try {
-            boolean success = this.dnsService.processRecordOperations(viewName, zoneName, recordsWrapper.getRecords());
-            if (success) {
-                response = buildOkResponse("Processed records successfully.");
+            
+            // Check if the record operations should be processed asynchronously.
+            if (this.respondAsync()) {
+                Operation operation = this.dnsService.submitRecordOperations(viewName, zoneName, recordsWrapper.getRecords());
+                String operationUri = this.getBaseUri("dns/operations/" + operation.getId());
+                response = buildAcceptedResponse(OperationWrapper.newInstance(operation, operationUri), operationUri);
             } else {
-                response = buildBadRequestResponse("Records not processed.", recordsWrapper);
+            
+                List<RecordOperationResult> recordOperationResults = this.dnsService.processRecordOperations(viewName, zoneName, recordsWrapper.getRecords());
+
+                // Check if all the record operations are successful.
+                boolean success = true;
+                for (RecordOperationResult recordOperationResult : recordOperationResults) {
+                    success = success && recordOperationResult.isSuccess();
+                }
+
+                if (success) {
+                    response = buildOkResponse(RecordOperationResultsWrapper.newInstance(recordOperationResults));
+                } else {
+                    response = buildResponse(RecordOperationResultsWrapper.newInstance(recordOperationResults), Status.BAD_REQUEST);
+                }
             }
         } catch (ResourceNotFoundException e) {
             response = buildNotFoundResponse(e.getMessage(), recordsWrapper);
@@ -385,4 +848,76 @@ e.printStackTrace();
 
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Project the records of the records wrapper.
+     * 
+     * @param  entity      the records wrapper or record page wrapper.
+     * @param  projection  the record projection, or null if the records are not projected.
+     * @param  smile       true if the entity is written as Smile, otherwise false.
+     * 
+     * @return  the entity written with the object writer of the record projection, or the entity if the records are not projected.
+     */
+    private Object project(final Object entity, final RecordProjection projection, final boolean smile) {
+        
+        Object projectedEntity = entity;
+        
+        if (projection != null) {
+            projectedEntity = EntityStreamingOutput.newInstance(entity, (smile) ? projection.getSmileWriter(entity.getClass()) : projection.getWriter(entity.getClass()));
+        }
+        
+        return projectedEntity;
+    }
+    
+    /**
+     * Reserve the free addresses in the range of the IPv4 reverse zone by adding a PTR record for each of them.
+     * The free addresses are found and the PTR records are added atomically with respect to other reservations.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the IPv4 reverse zone name.
+     * @param  count     the maximum number of free addresses.
+     * @param  cidr      the range in CIDR notation, such as 10.4.8.0/24, or null for the subnet of the zone.
+     * @param  target    the target of the PTR records.
+     * 
+     * @return  the record operation results, one for each reserved address in address order.
+     */
+    @POST
+    @Path("views/{viewName}/zones/{zoneName}/freeaddresses")
+    @Produces({MediaType.APPLICATION_JSON, SmileProvider.APPLICATION_SMILE})
+    @ResourceMethodSignature(output = RecordOperationResultsWrapper.class, pathParams = {@PathParam("viewName"), @PathParam("zoneName")}, queryParams = {@QueryParam("count"), @QueryParam("cidr"), @QueryParam("target")})
+    public Response reserveFreeAddresses(@PathParam("viewName") final String viewName, @PathParam("zoneName") final String zoneName, @DefaultValue("1") @QueryParam("count") final int count, @QueryParam("cidr") final String cidr, @QueryParam("target") final String target) {
+
+        Response response;
+      
+        try {
+            
+            // Check if the target is missing.
+            if (target == null || target.trim().isEmpty()) {
+                response = buildBadRequestResponse("The target query parameter is required.", null);
+            } else {
+                
+                List<RecordOperationResult> recordOperationResults = this.dnsService.reserveFreeAddresses(viewName, zoneName, getFreeAddressRange(zoneName, count, cidr), count, target);
+
+                // Check if all the record operations are successful.
+                boolean success = true;
+                for (RecordOperationResult recordOperationResult : recordOperationResults) {
+                    success = success && recordOperationResult.isSuccess();
+                }
+
+                if (success) {
+                    response = buildOkResponse(RecordOperationResultsWrapper.newInstance(recordOperationResults));
+                } else {
+                    response = buildResponse(RecordOperationResultsWrapper.newInstance(recordOperationResults), Status.BAD_REQUEST);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            response = buildBadRequestResponse(e.getMessage(), null);
+        } catch (ResourceNotFoundException e) {
+            response = buildNotFoundResponse(e.getMessage(), null);
+        } catch (Exception e) {
+            response = buildInternalServerErrorResponse(e.getMessage(), null);
+        }
+
+        return response;
+    }
+}
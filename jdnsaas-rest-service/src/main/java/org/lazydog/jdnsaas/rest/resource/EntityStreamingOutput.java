@@ -0,0 +1,73 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.ws.rs.core.StreamingOutput;
+import org.codehaus.jackson.map.ObjectWriter;
+
+/**
+ * Entity streaming output.
+ * 
+ * The entity is written with the given object writer instead of the object writer of the entity provider, 
+ * such as the object writer of a record projection.
+ * 
+ * @author  Ron Rickard
+ */
+final class EntityStreamingOutput implements StreamingOutput {
+
+    private Object entity;
+    private ObjectWriter writer;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  entity  the entity.
+     * @param  writer  the object writer.
+     */
+    private EntityStreamingOutput(final Object entity, final ObjectWriter writer) {
+        this.entity = entity;
+        this.writer = writer;
+    }
+
+    /**
+     * Create a new instance of the entity streaming output class.
+     * 
+     * @param  entity  the entity.
+     * @param  writer  the object writer.
+     * 
+     * @return  a new instance of the entity streaming output class.
+     */
+    static EntityStreamingOutput newInstance(final Object entity, final ObjectWriter writer) {
+        return new EntityStreamingOutput(entity, writer);
+    }
+
+    /**
+     * Write the entity to the output stream.
+     * 
+     * @param  outputStream  the output stream.
+     * 
+     * @throws  IOException  if unable to write the entity.
+     */
+    @Override
+    public void write(final OutputStream outputStream) throws IOException {
+        this.writer.writeValue(outputStream, this.entity);
+    }
+}
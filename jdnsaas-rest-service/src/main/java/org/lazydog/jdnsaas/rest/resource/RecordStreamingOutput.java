@@ -0,0 +1,174 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.ws.rs.core.StreamingOutput;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.codehaus.jackson.util.MinimalPrettyPrinter;
+import org.lazydog.jdnsaas.DNSService;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordPage;
+import org.lazydog.jdnsaas.utility.RecordFilter;
+
+/**
+ * Record streaming output.
+ * 
+ * The records are written in the same JSON as a records wrapper, or as newline-delimited JSON with one record on each 
+ * line, one page at a time, so only one page of records is in memory while the response is written.  The pages are 
+ * found in the same zone cache snapshot as the first page.  If a page cannot be found, the JSON is left unclosed 
+ * and the write fails, so a client never mistakes part of the records for all of them.
+ * 
+ * @author  Ron Rickard
+ */
+final class RecordStreamingOutput implements StreamingOutput {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String NEWLINE = "\n";
+    private static final String RECORDS_FIELD = "records";
+    private DNSService dnsService;
+    private RecordPage firstPage;
+    private boolean newlineDelimited;
+    private int pageLimit;
+    private RecordFilter recordFilter;
+    private ObjectWriter recordWriter;
+    private String viewName;
+    private String zoneName;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  dnsService        the DNS service.
+     * @param  viewName          the view name.
+     * @param  zoneName          the zone name.
+     * @param  recordFilter      the record filter.
+     * @param  firstPage         the first page of records.
+     * @param  pageLimit         the maximum number of records in a page.
+     * @param  recordWriter      the object writer that writes a record with its record type.
+     * @param  newlineDelimited  true if the records are written as newline-delimited JSON, otherwise false.
+     */
+    private RecordStreamingOutput(final DNSService dnsService, final String viewName, final String zoneName, final RecordFilter recordFilter, final RecordPage firstPage, final int pageLimit, final ObjectWriter recordWriter, final boolean newlineDelimited) {
+        this.dnsService = dnsService;
+        this.firstPage = firstPage;
+        this.newlineDelimited = newlineDelimited;
+        this.pageLimit = pageLimit;
+        this.recordFilter = recordFilter;
+        this.recordWriter = recordWriter;
+        this.viewName = viewName;
+        this.zoneName = zoneName;
+    }
+
+    /**
+     * Create a new instance of the record streaming output class.
+     * 
+     * @param  dnsService    the DNS service.
+     * @param  viewName      the view name.
+     * @param  zoneName      the zone name.
+     * @param  recordFilter  the record filter.
+     * @param  firstPage     the first page of records.
+     * @param  pageLimit     the maximum number of records in a page.
+     * @param  recordWriter  the object writer that writes a record with its record type.
+     * 
+     * @return  a new instance of the record streaming output class.
+     */
+    static RecordStreamingOutput newInstance(final DNSService dnsService, final String viewName, final String zoneName, final RecordFilter recordFilter, final RecordPage firstPage, final int pageLimit, final ObjectWriter recordWriter) {
+        return new RecordStreamingOutput(dnsService, viewName, zoneName, recordFilter, firstPage, pageLimit, recordWriter, false);
+    }
+
+    /**
+     * Create a new instance of the record streaming output class that writes newline-delimited JSON.
+     * 
+     * @param  dnsService    the DNS service.
+     * @param  viewName      the view name.
+     * @param  zoneName      the zone name.
+     * @param  recordFilter  the record filter.
+     * @param  firstPage     the first page of records.
+     * @param  pageLimit     the maximum number of records in a page.
+     * @param  recordWriter  the object writer that writes a record with its record type.
+     * 
+     * @return  a new instance of the record streaming output class.
+     */
+    static RecordStreamingOutput newNewlineDelimitedInstance(final DNSService dnsService, final String viewName, final String zoneName, final RecordFilter recordFilter, final RecordPage firstPage, final int pageLimit, final ObjectWriter recordWriter) {
+        return new RecordStreamingOutput(dnsService, viewName, zoneName, recordFilter, firstPage, pageLimit, recordWriter, true);
+    }
+
+    /**
+     * Write the records to the output stream.
+     * 
+     * @param  outputStream  the output stream.
+     * 
+     * @throws  IOException  if unable to write the records.
+     */
+    @Override
+    public void write(final OutputStream outputStream) throws IOException {
+        
+        JsonGenerator generator = JSON_FACTORY.createJsonGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        
+        try {
+            
+            // Separate the newline-delimited records with a newline instead of wrapping them.
+            if (this.newlineDelimited) {
+                generator.setPrettyPrinter(new MinimalPrettyPrinter(NEWLINE));
+            } else {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart(RECORDS_FIELD);
+            }
+            
+            RecordPage recordPage = this.firstPage;
+            boolean empty = true;
+            
+            // Write the records one page at a time.
+            while (recordPage != null) {
+                
+                for (Record record : recordPage.getRecords()) {
+                    this.recordWriter.writeValue(generator, record);
+                    empty = false;
+                }
+                
+                // Find the next page.
+                recordPage = (recordPage.getNextCursor() != null) 
+                        ? this.dnsService.findRecords(this.viewName, this.zoneName, this.recordFilter, recordPage.getNextCursor(), this.pageLimit) 
+                        : null;
+            }
+            
+            if (this.newlineDelimited) {
+                
+                // End the last line.
+                if (!empty) {
+                    generator.writeRaw(NEWLINE);
+                }
+            } else {
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Unable to write the records for the view " + this.viewName + " and the zone " + this.zoneName + ".", e);
+        } finally {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.resource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import javax.ws.rs.core.StreamingOutput;
+import org.lazydog.jdnsaas.DNSService;
+
+/**
+ * Zone file streaming output.
+ * 
+ * The zone file is written by the DNS service one record at a time, so the zone file is never in memory.
+ * 
+ * @author  Ron Rickard
+ */
+final class ZoneFileStreamingOutput implements StreamingOutput {
+
+    private static final String CHARSET = "UTF-8";
+    private DNSService dnsService;
+    private boolean useCache;
+    private String viewName;
+    private String zoneName;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  dnsService  the DNS service.
+     * @param  viewName    the view name.
+     * @param  zoneName    the zone name.
+     * @param  useCache    true if the zone cache should be used, otherwise false.
+     */
+    private ZoneFileStreamingOutput(final DNSService dnsService, final String viewName, final String zoneName, final boolean useCache) {
+        this.dnsService = dnsService;
+        this.useCache = useCache;
+        this.viewName = viewName;
+        this.zoneName = zoneName;
+    }
+
+    /**
+     * Create a new instance of the zone file streaming output class.
+     * 
+     * @param  dnsService  the DNS service.
+     * @param  viewName    the view name.
+     * @param  zoneName    the zone name.
+     * @param  useCache    true if the zone cache should be used, otherwise false.
+     * 
+     * @return  a new instance of the zone file streaming output class.
+     */
+    static ZoneFileStreamingOutput newInstance(final DNSService dnsService, final String viewName, final String zoneName, final boolean useCache) {
+        return new ZoneFileStreamingOutput(dnsService, viewName, zoneName, useCache);
+    }
+
+    /**
+     * Write the zone file to the output stream.
+     * 
+     * @param  outputStream  the output stream.
+     * 
+     * @throws  IOException  if unable to write the zone file.
+     */
+    @Override
+    public void write(final OutputStream outputStream) throws IOException {
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, CHARSET));
+        
+        try {
+            this.dnsService.writeZoneFile(this.viewName, this.zoneName, this.useCache, writer);
+        } catch (Exception e) {
+            throw new IOException("Unable to write the zone file for the view " + this.viewName + " and the zone " + this.zoneName + ".", e);
+        }
+    }
+}
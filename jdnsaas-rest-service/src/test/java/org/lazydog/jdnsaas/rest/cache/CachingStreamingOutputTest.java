@@ -0,0 +1,84 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.ws.rs.core.StreamingOutput;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Caching streaming output test.
+ * 
+ * @author  Ron Rickard
+ */
+public class CachingStreamingOutputTest {
+
+    private static final String ZONE_KEY = "internal/example.com";
+    private ResponseCache responseCache;
+
+    private static StreamingOutput newStreamingOutput(final byte[] body) {
+        return new StreamingOutput() {
+            @Override
+            public void write(final OutputStream outputStream) throws IOException {
+                outputStream.write(body, 0, body.length / 2);
+                for (int index = body.length / 2; index < body.length; index++) {
+                    outputStream.write(body[index]);
+                }
+            }
+        };
+    }
+
+    @Before
+    public void beforeTest() {
+        this.responseCache = new ResponseCache();
+        this.responseCache.setSize(1);
+    }
+
+    private byte[] write(final byte[] body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CachingStreamingOutput.newInstance(newStreamingOutput(body), this.responseCache, "a", ZONE_KEY, 1).write(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        byte[] body = "body".getBytes();
+        assertArrayEquals(body, this.write(body));
+        assertArrayEquals(body, this.responseCache.get("a", ZONE_KEY, 1).getBody());
+    }
+
+    @Test
+    public void testWriteMaximumBodySize() throws Exception {
+        byte[] body = new byte[this.responseCache.getMaximumBodySize()];
+        assertArrayEquals(body, this.write(body));
+        assertArrayEquals(body, this.responseCache.get("a", ZONE_KEY, 1).getBody());
+    }
+
+    @Test
+    public void testWriteBodyTooLarge() throws Exception {
+        byte[] body = new byte[this.responseCache.getMaximumBodySize() + 1];
+        assertArrayEquals(body, this.write(body));
+        assertNull(this.responseCache.get("a", ZONE_KEY, 1));
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPInputStream;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Response cache test.
+ * 
+ * @author  Ron Rickard
+ */
+public class ResponseCacheTest {
+
+    private static final int BODY_SIZE = 400 * 1024;
+    private static final String ZONE_KEY = "internal/example.com";
+    private ResponseCache responseCache;
+
+    private static byte[] gunzip(final byte[] gzippedBody) throws Exception {
+        GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzippedBody));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Before
+    public void beforeTest() {
+        this.responseCache = new ResponseCache();
+        this.responseCache.setSize(1);
+    }
+
+    @Test
+    public void testGet() {
+        byte[] body = "body".getBytes();
+        this.responseCache.put("a", ZONE_KEY, 1, body);
+        assertArrayEquals(body, this.responseCache.get("a", ZONE_KEY, 1).getBody());
+        assertNull(this.responseCache.get("a", ZONE_KEY, 1).getGzippedBody());
+        assertNull(this.responseCache.get("b", ZONE_KEY, 1));
+    }
+
+    @Test
+    public void testPutEvictsLeastRecentlyUsed() {
+        this.responseCache.put("a", ZONE_KEY, 1, new byte[BODY_SIZE]);
+        this.responseCache.put("b", ZONE_KEY, 1, new byte[BODY_SIZE]);
+        assertNotNull(this.responseCache.get("a", ZONE_KEY, 1));
+        this.responseCache.put("c", ZONE_KEY, 1, new byte[BODY_SIZE]);
+        assertNotNull(this.responseCache.get("a", ZONE_KEY, 1));
+        assertNull(this.responseCache.get("b", ZONE_KEY, 1));
+        assertNotNull(this.responseCache.get("c", ZONE_KEY, 1));
+    }
+
+    @Test
+    public void testPutReplaced() {
+        this.responseCache.put("a", ZONE_KEY, 1, new byte[BODY_SIZE]);
+        this.responseCache.put("a", ZONE_KEY, 1, new byte[BODY_SIZE]);
+        this.responseCache.put("b", ZONE_KEY, 1, new byte[BODY_SIZE]);
+        assertNotNull(this.responseCache.get("a", ZONE_KEY, 1));
+        assertNotNull(this.responseCache.get("b", ZONE_KEY, 1));
+    }
+
+    @Test
+    public void testGetNewerSerialNumber() {
+        this.responseCache.put("a", ZONE_KEY, 1, "body".getBytes());
+        this.responseCache.put("b", "internal/example.org", 1, "body".getBytes());
+        assertNull(this.responseCache.get("a", ZONE_KEY, 2));
+        assertNotNull(this.responseCache.get("b", "internal/example.org", 1));
+    }
+
+    @Test
+    public void testPutOlderSerialNumber() {
+        this.responseCache.put("a", ZONE_KEY, 2, "body".getBytes());
+        this.responseCache.put("b", ZONE_KEY, 1, "body".getBytes());
+        assertNull(this.responseCache.get("b", ZONE_KEY, 2));
+        assertNotNull(this.responseCache.get("a", ZONE_KEY, 2));
+    }
+
+    @Test
+    public void testPutGzipEnabled() throws Exception {
+        byte[] body = "body".getBytes();
+        this.responseCache.setGzipEnabled(true);
+        this.responseCache.put("a", ZONE_KEY, 1, body);
+        assertArrayEquals(body, gunzip(this.responseCache.get("a", ZONE_KEY, 1).getGzippedBody()));
+    }
+
+    @Test
+    public void testGetMaximumBodySize() {
+        assertTrue(this.responseCache.isEnabled());
+        assertEquals(1024 * 1024 / 8, this.responseCache.getMaximumBodySize());
+        this.responseCache.setSize(0);
+        assertFalse(this.responseCache.isEnabled());
+        assertEquals(0, this.responseCache.getMaximumBodySize());
+    }
+}
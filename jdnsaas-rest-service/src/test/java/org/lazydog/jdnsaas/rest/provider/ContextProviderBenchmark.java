@@ -0,0 +1,77 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.provider;
+
+import java.util.concurrent.TimeUnit;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.lazydog.jdnsaas.rest.model.RecordsWrapper;
+import org.lazydog.jdnsaas.utility.BenchmarkRecords;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Context provider benchmark.
+ * 
+ * The new object mapper benchmark serializes the records wrapper the way every response used to, with a new 
+ * object mapper whose serializers are built from scratch; the shared writer benchmark uses the object writer 
+ * built once by the context provider.
+ * 
+ * Run with "java -cp target/test-classes:&lt;test classpath&gt; org.openjdk.jmh.Main ContextProviderBenchmark".
+ * 
+ * @author  Ron Rickard
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+public class ContextProviderBenchmark {
+
+    private RecordsWrapper recordsWrapper;
+    @Param({"1", "10", "100", "1000"})
+    private int recordCount;
+    private ObjectWriter writer;
+
+    @Benchmark
+    public String serializeWithNewObjectMapper() throws Exception {
+        return ContextProvider.newObjectMapper().writeValueAsString(this.recordsWrapper);
+    }
+
+    @Benchmark
+    public String serializeWithSharedWriter() throws Exception {
+        return this.writer.writeValueAsString(this.recordsWrapper);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+
+        this.recordsWrapper = RecordsWrapper.newInstance(BenchmarkRecords.newRecords(this.recordCount));
+        this.writer = ContextProvider.getWriter(RecordsWrapper.class);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.provider;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.codehaus.jackson.JsonNode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.rest.model.RecordsWrapper;
+
+/**
+ * Record projection test.
+ * 
+ * @author  Ron Rickard
+ */
+public class RecordProjectionTest {
+
+    private static Record aRecord;
+    private static Record cnameRecord;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        aRecord = Record.newInstance(ARecord.class, "www", new Long(300), "10.20.30.40");
+        cnameRecord = Record.newInstance(CNAMERecord.class, "web", new Long(300), "www");
+    }
+
+    @Test
+    public void testGetRecordWriter() throws Exception {
+        RecordProjection projection = RecordProjection.newInstance("name,ipAddress");
+        assertEquals("{\"type\":\"A\",\"name\":\"www\",\"ipAddress\":\"10.20.30.40\"}", projection.getRecordWriter().writeValueAsString(aRecord));
+        assertEquals("{\"type\":\"CNAME\",\"name\":\"web\"}", projection.getRecordWriter().writeValueAsString(cnameRecord));
+    }
+
+    @Test
+    public void testGetWriter() throws Exception {
+        RecordProjection projection = RecordProjection.newInstance("target");
+        assertEquals("{\"records\":[{\"type\":\"A\"},{\"type\":\"CNAME\",\"target\":\"www\"}]}", 
+                projection.getWriter(RecordsWrapper.class).writeValueAsString(RecordsWrapper.newInstance(Arrays.asList(aRecord, cnameRecord))));
+    }
+
+    @Test
+    public void testGetSmileWriter() throws Exception {
+        RecordProjection projection = RecordProjection.newInstance("name");
+        byte[] smile = projection.getSmileWriter(RecordsWrapper.class).writeValueAsBytes(RecordsWrapper.newInstance(Arrays.asList(aRecord)));
+        JsonNode record = ContextProvider.getSmileObjectMapper().readTree(smile).get("records").get(0);
+        assertEquals("www", record.get("name").getTextValue());
+        assertNotNull(record.get("type"));
+        assertNull(record.get("ipAddress"));
+        assertNull(record.get("timeToLive"));
+    }
+
+    @Test
+    public void testGetWriterShared() {
+        assertSame(RecordProjection.newInstance("name,target").getWriter(RecordsWrapper.class), RecordProjection.newInstance(" target , name ").getWriter(RecordsWrapper.class));
+    }
+
+    @Test
+    public void testNewInstance() {
+        RecordProjection projection = RecordProjection.newInstance(" target ,name,,name");
+        assertEquals("name,target", projection.toString());
+        assertEquals(2, projection.getFieldNames().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewInstanceInvalidField() {
+        RecordProjection.newInstance("name,password");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewInstanceNoFields() {
+        RecordProjection.newInstance(" , ");
+    }
+}
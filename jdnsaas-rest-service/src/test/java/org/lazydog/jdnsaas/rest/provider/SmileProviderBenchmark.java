@@ -0,0 +1,101 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.provider;
+
+import java.util.concurrent.TimeUnit;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.lazydog.jdnsaas.rest.model.RecordsWrapper;
+import org.lazydog.jdnsaas.utility.BenchmarkRecords;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Smile provider benchmark.
+ * 
+ * The benchmarks write and read the records wrapper as JSON and as Smile with the object mappers of the context 
+ * provider.  The payload sizes are logged when the records are set up.
+ * 
+ * Run with "java -cp target/test-classes:&lt;test classpath&gt; org.openjdk.jmh.Main SmileProviderBenchmark".
+ * 
+ * @author  Ron Rickard
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+public class SmileProviderBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmileProviderBenchmark.class);
+    private byte[] json;
+    private ObjectReader jsonReader;
+    private ObjectWriter jsonWriter;
+    private RecordsWrapper recordsWrapper;
+    @Param({"1", "10", "100", "1000"})
+    private int recordCount;
+    private byte[] smile;
+    private ObjectReader smileReader;
+    private ObjectWriter smileWriter;
+
+    @Benchmark
+    public RecordsWrapper readJson() throws Exception {
+        return this.jsonReader.readValue(this.json);
+    }
+
+    @Benchmark
+    public RecordsWrapper readSmile() throws Exception {
+        return this.smileReader.readValue(this.smile);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+
+        this.recordsWrapper = RecordsWrapper.newInstance(BenchmarkRecords.newRecords(this.recordCount));
+        this.jsonReader = new ContextProvider().getContext(RecordsWrapper.class).reader(RecordsWrapper.class);
+        this.jsonWriter = ContextProvider.getWriter(RecordsWrapper.class);
+        this.smileReader = ContextProvider.getSmileObjectMapper().reader(RecordsWrapper.class);
+        this.smileWriter = ContextProvider.getSmileWriter(RecordsWrapper.class);
+        this.json = this.jsonWriter.writeValueAsBytes(this.recordsWrapper);
+        this.smile = this.smileWriter.writeValueAsBytes(this.recordsWrapper);
+        logger.info("Payload size for {} records: JSON {} bytes, Smile {} bytes.", this.recordCount, this.json.length, this.smile.length);
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws Exception {
+        return this.jsonWriter.writeValueAsBytes(this.recordsWrapper);
+    }
+
+    @Benchmark
+    public byte[] writeSmile() throws Exception {
+        return this.smileWriter.writeValueAsBytes(this.recordsWrapper);
+    }
+}
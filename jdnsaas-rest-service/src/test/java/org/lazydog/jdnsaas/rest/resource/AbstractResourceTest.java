@@ -0,0 +1,127 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.resource;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.lazydog.jdnsaas.rest.cache.ResponseCache;
+
+/**
+ * Abstract resource test.
+ * 
+ * @author  Ron Rickard
+ */
+public class AbstractResourceTest {
+
+    private static final EntityTag ENTITY_TAG = new EntityTag("tag");
+    private static final EntityTag GZIP_ENTITY_TAG = new EntityTag("tag-gz");
+    private String acceptEncoding;
+    private EntityTag ifNoneMatch;
+    private AbstractResource resource;
+    private ResponseCache.Entry entry;
+
+    /**
+     * Create a resource with the request HTTP headers and preconditions of the test.
+     */
+    @Before
+    public void beforeTest() throws Exception {
+        this.acceptEncoding = null;
+        this.ifNoneMatch = null;
+        this.resource = new AbstractResource() {};
+        this.inject("httpHeaders", HttpHeaders.class, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return ("getRequestHeader".equals(method.getName()) && HttpHeaders.ACCEPT_ENCODING.equals(args[0]) && AbstractResourceTest.this.acceptEncoding != null) 
+                        ? Arrays.asList(AbstractResourceTest.this.acceptEncoding) : null;
+            }
+        });
+        this.inject("request", Request.class, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return ("evaluatePreconditions".equals(method.getName()) && args[0].equals(AbstractResourceTest.this.ifNoneMatch)) 
+                        ? Response.notModified() : null;
+            }
+        });
+
+        ResponseCache responseCache = new ResponseCache();
+        responseCache.setGzipEnabled(true);
+        responseCache.setSize(1);
+        responseCache.put("tag", "internal/example.com", 1, "body".getBytes());
+        this.entry = responseCache.get("tag", "internal/example.com", 1);
+    }
+
+    private void inject(final String fieldName, final Class<?> type, final InvocationHandler invocationHandler) throws Exception {
+        Field field = AbstractResource.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(this.resource, Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+    }
+
+    @Test
+    public void testBuildCachedResponse() {
+        this.acceptEncoding = "deflate, gzip;q=0.5";
+        Response response = this.resource.tagResponse(this.resource.buildCachedResponse(this.entry), ENTITY_TAG, new CacheControl());
+        assertArrayEquals(this.entry.getGzippedBody(), (byte[])response.getEntity());
+        assertEquals("gzip", response.getMetadata().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(GZIP_ENTITY_TAG, response.getMetadata().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testBuildCachedResponseIdentity() {
+        Response response = this.resource.tagResponse(this.resource.buildCachedResponse(this.entry), ENTITY_TAG, new CacheControl());
+        assertArrayEquals("body".getBytes(), (byte[])response.getEntity());
+        assertNull(response.getMetadata().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(ENTITY_TAG, response.getMetadata().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testEvaluatePreconditions() {
+        this.ifNoneMatch = ENTITY_TAG;
+        Response response = this.resource.evaluatePreconditions(ENTITY_TAG, new CacheControl());
+        assertEquals(Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+        assertEquals(ENTITY_TAG, response.getMetadata().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testEvaluatePreconditionsGzip() {
+        this.ifNoneMatch = GZIP_ENTITY_TAG;
+        Response response = this.resource.evaluatePreconditions(ENTITY_TAG, new CacheControl());
+        assertEquals(Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+        assertEquals(GZIP_ENTITY_TAG, response.getMetadata().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testEvaluatePreconditionsModified() {
+        this.ifNoneMatch = new EntityTag("other");
+        assertNull(this.resource.evaluatePreconditions(ENTITY_TAG, new CacheControl()));
+    }
+}
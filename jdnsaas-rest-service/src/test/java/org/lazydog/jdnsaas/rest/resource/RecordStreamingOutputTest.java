@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.rest.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.lazydog.jdnsaas.CursorExpiredException;
+import org.lazydog.jdnsaas.DNSService;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordPage;
+import org.lazydog.jdnsaas.model.RecordType;
+import org.lazydog.jdnsaas.rest.provider.ContextProvider;
+import org.lazydog.jdnsaas.utility.RecordCursor;
+import org.lazydog.jdnsaas.utility.RecordFilter;
+
+/**
+ * Record streaming output test.
+ * 
+ * @author  Ron Rickard
+ */
+public class RecordStreamingOutputTest {
+
+    private static final String RECORD1 = "{\"type\":\"A\",\"name\":\"www\",\"timeToLive\":0,\"ipAddress\":\"10.20.30.40\"}";
+    private static final String RECORD2 = "{\"type\":\"A\",\"name\":\"mail\",\"timeToLive\":0,\"ipAddress\":\"10.20.30.41\"}";
+    private DNSService dnsService;
+    private boolean expired;
+    private List<RecordCursor> cursors;
+    private RecordPage firstPage;
+    private RecordFilter recordFilter;
+    private RecordPage secondPage;
+    private String written;
+
+    /**
+     * Create a DNS service that finds the second page of two pages of records, unless the cursor has expired.
+     */
+    @Before
+    public void beforeTest() throws Exception {
+        this.cursors = new ArrayList<RecordCursor>();
+        this.expired = false;
+        this.recordFilter = RecordFilter.newInstance("example.com", Arrays.asList(RecordType.A), "");
+        this.firstPage = RecordPage.newInstance(Arrays.<Record>asList(Record.newInstance(ARecord.class, "www", new Long(0), "10.20.30.40")), RecordCursor.newInstance(1, 1, this.recordFilter));
+        this.secondPage = RecordPage.newInstance(Arrays.<Record>asList(Record.newInstance(ARecord.class, "mail", new Long(0), "10.20.30.41")), null);
+        this.dnsService = (DNSService)Proxy.newProxyInstance(DNSService.class.getClassLoader(), new Class<?>[] {DNSService.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                RecordStreamingOutputTest.this.cursors.add((RecordCursor)args[3]);
+                if (RecordStreamingOutputTest.this.expired) {
+                    throw new CursorExpiredException("expired");
+                }
+                return RecordStreamingOutputTest.this.secondPage;
+            }
+        });
+    }
+
+    private String write(final RecordStreamingOutput recordStreamingOutput) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            recordStreamingOutput.write(outputStream);
+        } finally {
+            this.written = outputStream.toString("UTF-8");
+        }
+        return this.written;
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        assertEquals("{\"records\":[" + RECORD1 + "," + RECORD2 + "]}", 
+                this.write(RecordStreamingOutput.newInstance(this.dnsService, "internal", "example.com", this.recordFilter, this.firstPage, 1, ContextProvider.getRecordObjectMapper().writer())));
+        assertEquals(Arrays.asList(this.firstPage.getNextCursor()), this.cursors);
+    }
+
+    @Test
+    public void testWriteNewlineDelimited() throws Exception {
+        assertEquals(RECORD1 + "\n" + RECORD2 + "\n", 
+                this.write(RecordStreamingOutput.newNewlineDelimitedInstance(this.dnsService, "internal", "example.com", this.recordFilter, this.firstPage, 1, ContextProvider.getRecordObjectMapper().writer())));
+    }
+
+    @Test
+    public void testWriteNewlineDelimitedEmpty() throws Exception {
+        assertEquals("", 
+                this.write(RecordStreamingOutput.newNewlineDelimitedInstance(this.dnsService, "internal", "example.com", this.recordFilter, RecordPage.newInstance(new ArrayList<Record>(), null), 1, ContextProvider.getRecordObjectMapper().writer())));
+        assertEquals(0, this.cursors.size());
+    }
+
+    @Test
+    public void testWriteCursorExpired() throws Exception {
+        this.expired = true;
+        try {
+            this.write(RecordStreamingOutput.newInstance(this.dnsService, "internal", "example.com", this.recordFilter, this.firstPage, 1, ContextProvider.getRecordObjectMapper().writer()));
+            fail();
+        } catch (IOException e) {
+            assertEquals(CursorExpiredException.class, e.getCause().getClass());
+            assertEquals("{\"records\":[" + RECORD1, this.written);
+        }
+    }
+}
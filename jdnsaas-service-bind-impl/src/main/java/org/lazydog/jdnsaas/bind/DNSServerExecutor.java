@@ -25,8 +25,17 @@ import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
 import org.lazydog.jdnsaas.model.RecordType;
 import org.lazydog.jdnsaas.model.Resolver;
 import org.lazydog.jdnsaas.model.SOARecord;
@@ -34,15 +43,19 @@ import org.lazydog.jdnsaas.model.TSIGKey;
 import org.lazydog.jdnsaas.model.Zone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xbill.DNS.ExtendedResolver;
+import org.xbill.DNS.Cache;
+import org.xbill.DNS.Credibility;
 import org.xbill.DNS.Lookup;
+import org.xbill.DNS.Message;
 import org.xbill.DNS.Name;
+import org.xbill.DNS.RRset;
 import org.xbill.DNS.Rcode;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.SetResponse;
 import org.xbill.DNS.SimpleResolver;
 import org.xbill.DNS.TSIG;
 import org.xbill.DNS.TextParseException;
 import org.xbill.DNS.Update;
-import org.xbill.DNS.ZoneTransferException;
 import org.xbill.DNS.ZoneTransferIn;
 
 /**
@@ -53,20 +66,33 @@ import org.xbill.DNS.ZoneTransferIn;
 public final class DNSServerExecutor {
   
     private static final Logger logger = LoggerFactory.getLogger(DNSServerExecutor.class);
+    private static final int MAXIMUM_UPDATE_SIZE = 65535 - 1024;
+    private Cache lookupCache;
     private TSIGKey queryTSIGKey;
     private RecordConverter recordConverter;
+    private ResolverMonitor resolverMonitor;
+    private Resolver pinnedResolver;
     private List<Resolver> resolvers;
     private TSIGKey transferTSIGKey;
+    private ExecutorService updatePool;
+    private volatile Resolver updateResolver;
+    private int updateThreads;
     private TSIGKey updateTSIGKey;
     private ZoneUtility zoneUtility;
     
     /**
      * Hide the constructor.
      * 
-     * @param  zone  the zone.
+     * @param  zone             the zone.
+     * @param  resolverMonitor  the resolver monitor.
+     * @param  lookupCache      the lookup cache, or null if lookups are not cached.
+     * @param  pinnedResolver   the only resolver to send the requests to, or null to select the resolvers of the view.
      */
-    private DNSServerExecutor(final Zone zone) {
+    private DNSServerExecutor(final Zone zone, final ResolverMonitor resolverMonitor, final Cache lookupCache, final Resolver pinnedResolver) {
+        this.lookupCache = lookupCache;
+        this.pinnedResolver = pinnedResolver;
         this.resolvers = zone.getView().getResolvers();
+        this.resolverMonitor = resolverMonitor;
         this.queryTSIGKey = zone.getQueryTSIGKey();
         this.transferTSIGKey = zone.getTransferTSIGKey();
         this.updateTSIGKey = zone.getUpdateTSIGKey();
@@ -91,6 +117,7 @@ public final class DNSServerExecutor {
     /**
      * Create the lookup.
      * 
+     * @param  resolver    the resolver.
      * @param  recordType  the record type.
      * @param  recordName  the record name.
      * 
@@ -99,45 +126,37 @@ public final class DNSServerExecutor {
      * @throws  TextParseException    if the zone name or record name is invalid.
      * @throws  UnknownHostException  if the host name or local host name is invalid.
      */
-    private Lookup createLookup(final RecordType recordType, final String recordName) throws TextParseException, UnknownHostException {
+    private Lookup createLookup(final Resolver resolver, final RecordType recordType, final String recordName) throws TextParseException, UnknownHostException {
         
         // Create the lookup.
         Lookup lookup = new Lookup(recordName, RecordConverter.getDnsRecordType((recordType == null) ? RecordType.ANY : recordType));
-        lookup.setCache(null);
-        lookup.setResolver(this.createExtendedResolver(this.queryTSIGKey));
+        lookup.setCache(this.lookupCache);
+        lookup.setResolver(createSimpleResolver(resolver, this.queryTSIGKey));
         lookup.setSearchPath(new Name[] {Name.fromString(this.zoneUtility.getAbsoluteZoneName())});
         
         return lookup;
     }
 
     /**
-     * Create the extended resolver.
+     * Create the simple resolver.
      * 
-     * @param  tsigKey  the transaction signature (TSIG) key.
+     * @param  resolver  the resolver.
+     * @param  tsigKey   the transaction signature (TSIG) key.
      * 
-     * @return  the extended resolver.
+     * @return  the simple resolver.
      * 
      * @throws  UnknownHostException  if the host name or local host name is invalid.
      */
-    private ExtendedResolver createExtendedResolver(final TSIGKey tsigKey) throws UnknownHostException {
+    private static SimpleResolver createSimpleResolver(final Resolver resolver, final TSIGKey tsigKey) throws UnknownHostException {
 
-        List<SimpleResolver> simpleResolvers = new ArrayList<SimpleResolver>();
+        // Create the simple resolver.
+        SimpleResolver simpleResolver = new SimpleResolver();
+        simpleResolver.setAddress(createInetSocketAddress(resolver.getAddress(), resolver.getPort()));
+        simpleResolver.setLocalAddress(createInetSocketAddress(resolver.getLocalAddress(), 0));
+        simpleResolver.setTCP(true);
+        simpleResolver.setTSIGKey(createTSIGKey(tsigKey));
         
-        // Loop through the resolvers.
-        for (Resolver resolver : this.resolvers) {
-
-            // Create the simple resolver.
-            SimpleResolver simpleResolver = new SimpleResolver();
-            simpleResolver.setAddress(createInetSocketAddress(resolver.getAddress(), resolver.getPort()));
-            simpleResolver.setLocalAddress(createInetSocketAddress(resolver.getLocalAddress(), 0));
-            simpleResolver.setTCP(true);
-            simpleResolver.setTSIGKey(createTSIGKey(tsigKey));
-            
-            // Add the simple resolver to the list.
-            simpleResolvers.add(simpleResolver);
-        }
-        
-        return new ExtendedResolver(simpleResolvers.toArray(new SimpleResolver[simpleResolvers.size()]));
+        return simpleResolver;
     }
         
     /**
@@ -240,19 +259,78 @@ public final class DNSServerExecutor {
         return records;
     }
 
+    /**
+     * Find the records in the lookup cache.
+     * 
+     * @param  recordType  the record type.
+     * @param  recordName  the record name.
+     * 
+     * @return  the DNS records, or null if the lookup cache cannot answer the lookup.
+     * 
+     * @throws  TextParseException  if the zone name or record name is invalid.
+     */
+    private org.xbill.DNS.Record[] findRecordsInLookupCache(final RecordType recordType, final String recordName) throws TextParseException {
+        
+        org.xbill.DNS.Record[] records = null;
+        
+        // Check if lookups are cached.
+        if (this.lookupCache != null) {
+            
+            Name name = Name.fromString(recordName, Name.fromString(this.zoneUtility.getAbsoluteZoneName()));
+            SetResponse response = this.lookupCache.lookupRecords(name, RecordConverter.getDnsRecordType((recordType == null) ? RecordType.ANY : recordType), Credibility.NORMAL);
+            
+            if (response.isSuccessful()) {
+                List<org.xbill.DNS.Record> answers = new ArrayList<org.xbill.DNS.Record>();
+                for (RRset rrset : response.answers()) {
+                    for (Iterator<?> iterator = rrset.rrs(); iterator.hasNext();) {
+                        answers.add((org.xbill.DNS.Record)iterator.next());
+                    }
+                }
+                records = answers.toArray(new org.xbill.DNS.Record[answers.size()]);
+            } else if (response.isNXDOMAIN() || response.isNXRRSET()) {
+                records = new org.xbill.DNS.Record[0];
+            }
+        }
+        
+        return records;
+    }
+    
     /**
      * Find the records using a lookup.
+     * The lookup cache is checked before the lookup is sent, so an answer from the lookup cache is not 
+     * recorded as a response of a resolver with the resolver monitor.
      * 
      * @param  recordType  the record type.
      * @param  recordName  the record name.
      * 
      * @return  the records.
      * 
-     * @throws  TextParseException    if the zone name or record name is invalid.
-     * @throws  UnknownHostException  if the host name or local host name is invalid.
+     * @throws  Exception  if the lookup fails on all the resolvers.
      */
-    private List<Record> findRecordsWithLookup(final RecordType recordType, final String recordName) throws TextParseException, UnknownHostException {
-        org.xbill.DNS.Record[] records = this.createLookup(recordType, recordName).run();
+    private List<Record> findRecordsWithLookup(final RecordType recordType, final String recordName) throws Exception {
+        
+        org.xbill.DNS.Record[] records = this.findRecordsInLookupCache(recordType, recordName);
+        
+        // Check if the lookup cache cannot answer the lookup.
+        if (records == null) {
+            records = this.sendHedged(new ResolverRequest<org.xbill.DNS.Record[]>() {
+                @Override
+                public org.xbill.DNS.Record[] send(final Resolver resolver) throws Exception {
+                    
+                    Lookup lookup = DNSServerExecutor.this.createLookup(resolver, recordType, recordName);
+                    org.xbill.DNS.Record[] records = lookup.run();
+                    
+                    // A lookup that should be tried again, or that the resolver could not answer (SERVFAIL or REFUSED), 
+                    // failed due to the resolver.  Only a name or type that does not exist is an empty answer.
+                    if (lookup.getResult() == Lookup.TRY_AGAIN || lookup.getResult() == Lookup.UNRECOVERABLE) {
+                        throw new IOException("The lookup failed due to " + lookup.getErrorString() + ".");
+                    }
+                    
+                    return records;
+                }
+            });
+        }
+        
         return (records != null) ? this.recordConverter.fromDnsRecords(Arrays.asList(records), true) : new ArrayList<Record>();
     }
 
@@ -261,26 +339,17 @@ public final class DNSServerExecutor {
      * 
      * @return  the records.
      * 
-     * @throws  IOException            if the zone transfer fails due to an IO problem.
-     * @throws  TextParseException     if the zone name is invalid.
-     * @throws  UnknownHostException   if the host name or local host name is invalid.
-     * @throws  ZoneTransferException  if the zone transfer fails.
+     * @throws  Exception  if the zone transfer fails on all the resolvers.
      */
-    @SuppressWarnings("unchecked")
-    private List<Record> findRecordsWithFullZoneTransfer() throws IOException, TextParseException, UnknownHostException, ZoneTransferException {
-        
-        List<org.xbill.DNS.Record> records = null;
+    private List<Record> findRecordsWithFullZoneTransfer() throws Exception {
         
-        // Loop through the resolvers.
-        for (Resolver resolver : this.resolvers) {
-            
-            try {
-                records = this.createFullZoneTransfer(resolver).run();
-                break;
-            } catch (ZoneTransferException e) {
-                logger.error("Unable to find the records with a full zone transfer using resolver {}.", resolver, e);
+        List<org.xbill.DNS.Record> records = this.send(new TransferRequest<List<org.xbill.DNS.Record>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<org.xbill.DNS.Record> send(final Resolver resolver) throws Exception {
+                return DNSServerExecutor.this.createFullZoneTransfer(resolver).run();
             }
-        }
+        });
         
         return (records != null) ? this.recordConverter.fromDnsRecords(records, true) : new ArrayList<Record>();
     }
@@ -307,64 +376,310 @@ public final class DNSServerExecutor {
         return serialNumber;
     }
     
+    /**
+     * Get the update resolver.
+     * 
+     * @return  the resolver that accepted the last update, or null if no update was accepted.
+     */
+    public Resolver getUpdateResolver() {
+        return this.updateResolver;
+    }
+    
+    /**
+     * Create a new instance of the DNS server executor class.
+     * 
+     * @param  zone             the zone.
+     * @param  resolverMonitor  the resolver monitor.
+     * 
+     * @return  a new instance of the DNS server executor class.
+     */
+    public static DNSServerExecutor newInstance(final Zone zone, final ResolverMonitor resolverMonitor) {
+        return new DNSServerExecutor(zone, resolverMonitor, null, null);
+    }
+    
+    /**
+     * Create a new instance of the DNS server executor class.
+     * The lookups are answered from the lookup cache while the cached answers are alive.
+     * 
+     * @param  zone             the zone.
+     * @param  resolverMonitor  the resolver monitor.
+     * @param  lookupCache      the lookup cache, or null if lookups are not cached.
+     * 
+     * @return  a new instance of the DNS server executor class.
+     */
+    public static DNSServerExecutor newInstance(final Zone zone, final ResolverMonitor resolverMonitor, final Cache lookupCache) {
+        return new DNSServerExecutor(zone, resolverMonitor, lookupCache, null);
+    }
+    
+    /**
+     * Create a new instance of the DNS server executor class.
+     * The requests are sent only to the resolver, for example the resolver that accepted an update, 
+     * so the reads see the update even if the other resolvers have not received it yet.
+     * 
+     * @param  zone             the zone.
+     * @param  resolverMonitor  the resolver monitor.
+     * @param  resolver         the resolver.
+     * 
+     * @return  a new instance of the DNS server executor class.
+     */
+    public static DNSServerExecutor newInstance(final Zone zone, final ResolverMonitor resolverMonitor, final Resolver resolver) {
+        return new DNSServerExecutor(zone, resolverMonitor, null, resolver);
+    }
+    
     /**
      * Create a new instance of the DNS server executor class.
+     * The record operations that do not fit in one update are sent in parallel on up to the update threads of the update pool.
      * 
-     * @param  zone  the zone.
+     * @param  zone             the zone.
+     * @param  resolverMonitor  the resolver monitor.
+     * @param  updatePool       the update pool.
+     * @param  updateThreads    the maximum number of updates sent in parallel.
      * 
      * @return  a new instance of the DNS server executor class.
      */
-    public static DNSServerExecutor newInstance(final Zone zone) {
-        return new DNSServerExecutor(zone);
+    public static DNSServerExecutor newInstance(final Zone zone, final ResolverMonitor resolverMonitor, final ExecutorService updatePool, final int updateThreads) {
+        
+        DNSServerExecutor executor = new DNSServerExecutor(zone, resolverMonitor, null, null);
+        executor.updatePool = updatePool;
+        executor.updateThreads = updateThreads;
+        
+        return executor;
     }
     
     /**
      * Process the record operations.
      * 
+     * The records are sent in one update when they fit in a DNS message, so the record operations succeed or fail
+     * together.  Only when they do not fit are the records distributed across lanes by record name so the operations 
+     * on a name stay in order, and the lanes are processed in parallel on the update pool, or one after another 
+     * if there is no update pool.  The records of each lane are split into 
+     * updates that fit in a DNS message.  An update succeeds or fails as a whole, so the result of each record is 
+     * the result of the update that carried it.
+     * 
      * @param  records  the records.
      * 
-     * @return  true if the record operations are processed successfully, otherwise false.
+     * @return  the record operation results, one for each record in the order of the records.
+     * 
+     * @throws  DNSServerExecutorException  if unable to process the record operations due to an exception.
+     */
+    public List<RecordOperationResult> processRecordOperations(final List<Record> records) throws DNSServerExecutorException {
+        return this.processRecordOperations(records, false);
+    }
+    
+    /**
+     * Process the record operations.
+     * If the DNS server does not respond to an update and failOnNoResponse is true, the record operations fail 
+     * with a no response exception instead of unsuccessful record operation results, since the update may 
+     * have been applied.  The other lanes are still processed, and the exception carries their results.
+     * 
+     * @param  records           the records.
+     * @param  failOnNoResponse  true if the record operations fail when the DNS server does not respond to an update, otherwise false.
+     * 
+     * @return  the record operation results, one for each record in the order of the records.
+     * 
+     * @throws  DNSServerExecutorException  if unable to process the record operations due to an exception.
+     * @throws  NoResponseException         if the DNS server did not respond to an update and failOnNoResponse is true.
+     */
+    public List<RecordOperationResult> processRecordOperations(final List<Record> records, final boolean failOnNoResponse) throws DNSServerExecutorException {
+        return this.processRecordOperations(records, failOnNoResponse, false);
+    }
+    
+    /**
+     * Process the record operations.
+     * If ifAbsent is true, each update carries a prerequisite that the names of its added records do not exist, 
+     * so the update is rejected if any of the names is already in use.
+     * 
+     * @param  records           the records.
+     * @param  failOnNoResponse  true if the record operations fail when the DNS server does not respond to an update, otherwise false.
+     * @param  ifAbsent          true if the records are only added when their names do not exist, otherwise false.
+     * 
+     * @return  the record operation results, one for each record in the order of the records.
      * 
      * @throws  DNSServerExecutorException  if unable to process the record operations due to an exception.
+     * @throws  NoResponseException         if the DNS server did not respond to an update and failOnNoResponse is true.
      */
-    public boolean processRecordOperations(final List<Record> records) throws DNSServerExecutorException {
+    public List<RecordOperationResult> processRecordOperations(final List<Record> records, final boolean failOnNoResponse, final boolean ifAbsent) throws DNSServerExecutorException {
         
-        // Initialize success to false.
-        boolean success = false;
+        final RecordOperationResult[] recordOperationResults = new RecordOperationResult[records.size()];
         
         try {
 
-            // Create the update.
-            Update update = new Update(Name.fromString(this.zoneUtility.getAbsoluteZoneName()));
-            logger.debug("Processing record operations...");
-
-            // Loop through the record operation map.
-            for (Record record : records) {
+            logger.debug("Processing {} record operations...", records.size());
+            
+            // Convert the records.
+            final org.xbill.DNS.Record[] dnsRecords = new org.xbill.DNS.Record[records.size()];
+            int updateSize = 0;
+            for (int index = 0; index < records.size(); index++) {
+                logger.debug("  {}: {}", records.get(index).getOperation().toString(), records.get(index));
+                dnsRecords[index] = this.recordConverter.toDnsRecord(records.get(index), false);
+                updateSize += dnsRecords[index].toWire(Section.UPDATE).length;
+            }
+            
+            // Distribute the records across the lanes, using one lane if the records fit in one update.
+            int laneCount = (updateSize <= MAXIMUM_UPDATE_SIZE || this.updatePool == null) ? 1 : Math.max(1, Math.min(this.updateThreads, (updateSize + MAXIMUM_UPDATE_SIZE - 1) / MAXIMUM_UPDATE_SIZE));
+            List<List<Integer>> lanes = new ArrayList<List<Integer>>();
+            for (int laneIndex = 0; laneIndex < laneCount; laneIndex++) {
+                lanes.add(new ArrayList<Integer>());
+            }
+            for (int index = 0; index < records.size(); index++) {
+                lanes.get((dnsRecords[index].getName().hashCode() & Integer.MAX_VALUE) % laneCount).add(index);
+            }
+            
+            // Check if there is only one lane.
+            if (laneCount == 1) {
+                this.processRecordOperations(records, dnsRecords, lanes.get(0), failOnNoResponse, ifAbsent, recordOperationResults);
+            } else {
                 
-                // Get the record and operation.
-                logger.debug("  {}: {}", record.getOperation().toString(), record);
+                List<Future<Void>> futures = new ArrayList<Future<Void>>();
                 
-                if ("ADD".equals(record.getOperation().toString().toUpperCase())) {
-                    update.add(this.recordConverter.toDnsRecord(record, false));
-                } else if ("DELETE".equals(record.getOperation().toString().toUpperCase())) {
-                    update.delete(this.recordConverter.toDnsRecord(record, false));
-                } else if ("REPLACE".equals(record.getOperation().toString().toUpperCase())) {
-                    update.replace(this.recordConverter.toDnsRecord(record, false));
+                try {
+                    
+                    // Process the lanes in parallel.
+                    for (final List<Integer> lane : lanes) {
+                        futures.add(this.updatePool.submit(new Callable<Void>() {
+                            @Override
+                            public Void call() throws Exception {
+                                DNSServerExecutor.this.processRecordOperations(records, dnsRecords, lane, failOnNoResponse, ifAbsent, recordOperationResults);
+                                return null;
+                            }
+                        }));
+                    }
+                    // Wait for every lane so the results of the answered lanes are known.
+                    NoResponseException noResponseException = null;
+                    for (Future<Void> future : futures) {
+                        try {
+                            future.get();
+                        } catch (ExecutionException e) {
+                            if (!(e.getCause() instanceof NoResponseException)) {
+                                throw e;
+                            }
+                            noResponseException = (NoResponseException)e.getCause();
+                        }
+                    }
+                    if (noResponseException != null) {
+                        throw noResponseException;
+                    }
+                } finally {
+                    for (Future<Void> future : futures) {
+                        future.cancel(true);
+                    }
                 }
             }
+        } catch (NoResponseException e) {
+            throw new NoResponseException(e.getMessage(), e.getCause(), Arrays.asList(recordOperationResults));
+        } catch (Exception e) {
+            throw new DNSServerExecutorException("Unable to process the record operations due to an exception.", e);
+        }
+      
+        return Arrays.asList(recordOperationResults);
+    }
+    
+    /**
+     * Process the record operations of a lane.
+     * The records of the lane are sent in order, split into updates that fit in a DNS message.
+     * 
+     * @param  records                 the records.
+     * @param  dnsRecords              the DNS records.
+     * @param  lane                    the indexes of the records in the lane.
+     * @param  failOnNoResponse        true if the record operations fail when the DNS server does not respond to an update, otherwise false.
+     * @param  ifAbsent                true if the records are only added when their names do not exist, otherwise false.
+     * @param  recordOperationResults  the record operation results.
+     * 
+     * @throws  NoResponseException  if the DNS server did not respond to an update and failOnNoResponse is true.
+     * @throws  TextParseException   if the zone name is invalid.
+     */
+    private void processRecordOperations(final List<Record> records, final org.xbill.DNS.Record[] dnsRecords, final List<Integer> lane, final boolean failOnNoResponse, final boolean ifAbsent, final RecordOperationResult[] recordOperationResults) throws NoResponseException, TextParseException {
+        
+        Name zoneName = Name.fromString(this.zoneUtility.getAbsoluteZoneName());
+        List<Integer> indexes = new ArrayList<Integer>();
+        int updateSize = 0;
+        
+        for (Iterator<Integer> iterator = lane.iterator(); iterator.hasNext();) {
+            
+            int index = iterator.next();
+            int recordSize = dnsRecords[index].toWire(Section.UPDATE).length;
+            
+            // Send the update if the record does not fit in it.
+            if (!indexes.isEmpty() && updateSize + recordSize > MAXIMUM_UPDATE_SIZE) {
+                this.processUpdate(zoneName, records, dnsRecords, indexes, failOnNoResponse, ifAbsent, recordOperationResults);
+                indexes = new ArrayList<Integer>();
+                updateSize = 0;
+            }
+            
+            indexes.add(index);
+            updateSize += recordSize;
+        }
+        
+        if (!indexes.isEmpty()) {
+            this.processUpdate(zoneName, records, dnsRecords, indexes, failOnNoResponse, ifAbsent, recordOperationResults);
+        }
+    }
+    
+    /**
+     * Process the update.
+     * 
+     * @param  zoneName                the zone name.
+     * @param  records                 the records.
+     * @param  dnsRecords              the DNS records.
+     * @param  indexes                 the indexes of the records in the update.
+     * @param  failOnNoResponse        true if the record operations fail when the DNS server does not respond to the update, otherwise false.
+     * @param  ifAbsent                true if the records are only added when their names do not exist, otherwise false.
+     * @param  recordOperationResults  the record operation results.
+     * 
+     * @throws  NoResponseException  if the DNS server did not respond to the update and failOnNoResponse is true.
+     */
+    private void processUpdate(final Name zoneName, final List<Record> records, final org.xbill.DNS.Record[] dnsRecords, final List<Integer> indexes, final boolean failOnNoResponse, final boolean ifAbsent, final RecordOperationResult[] recordOperationResults) throws NoResponseException {
+        
+        boolean success = false;
+        String message;
+        
+        // Create the update.
+        final Update update = new Update(zoneName);
+        for (int index : indexes) {
+            
+            String operation = records.get(index).getOperation().toString().toUpperCase();
+            if ("ADD".equals(operation)) {
+                if (ifAbsent) {
+                    update.absent(dnsRecords[index].getName());
+                }
+                update.add(dnsRecords[index]);
+            } else if ("DELETE".equals(operation)) {
+                update.delete(dnsRecords[index]);
+            } else if ("REPLACE".equals(operation)) {
+                update.replace(dnsRecords[index]);
+            }
+        }
+        
+        try {
             
             // Perform the operations and check if the operations were successful.
-            int errorCode = createExtendedResolver(this.updateTSIGKey).send(update).getRcode();
+            int errorCode = this.send(new UpdateRequest<Message>() {
+                @Override
+                public Message send(final Resolver resolver) throws Exception {
+                    Message response = createSimpleResolver(resolver, DNSServerExecutor.this.updateTSIGKey).send(update);
+                    if (response.getRcode() == Rcode.NOERROR) {
+                        DNSServerExecutor.this.updateResolver = resolver;
+                    }
+                    return response;
+                }
+            }).getRcode();
+            message = Rcode.string(errorCode);
             if (errorCode == Rcode.NOERROR) {
                 success = true;
             } else {
-                logger.error("Unable to process the record operations due to {}", Rcode.string(errorCode));
+                logger.error("Unable to process {} record operations due to {}", indexes.size(), message);
             }
         } catch (Exception e) {
-            throw new DNSServerExecutorException("Unable to process the record operations due to an exception.", e);
+            if (failOnNoResponse) {
+                throw new NoResponseException("Unable to process " + indexes.size() + " record operations since the DNS server did not respond.", e);
+            }
+            logger.error("Unable to process {} record operations due to an exception.", indexes.size(), e);
+            message = e.getMessage();
+        }
+        
+        for (int index : indexes) {
+            recordOperationResults[index] = RecordOperationResult.newInstance(records.get(index), success, message);
         }
-      
-        return success;
     }
          
     /**
@@ -392,48 +707,346 @@ public final class DNSServerExecutor {
      * 
      * @throws  DNSServerExecutorException  if unable to update the records.
      */
-    @SuppressWarnings("unchecked")
-    public long updateRecords(List<Record> records) throws DNSServerExecutorException {
+    public long updateRecords(final List<Record> records) throws DNSServerExecutorException {
+        return this.updateRecords(records, null);
+    }
+    
+    /**
+     * Update the records representing a zone with the current records in DNS for the zone.
+     * The delta listener is told about each record deleted from or added to the records, in the order the deltas are applied.
+     * 
+     * @param  records        the records representing a zone.
+     * @param  deltaListener  the delta listener, or null if no delta listener.
+     * 
+     * @return  the new serial number of the SOA record in the updated records.
+     * 
+     * @throws  DNSServerExecutorException  if unable to update the records.
+     */
+    public long updateRecords(final List<Record> records, final DeltaListener deltaListener) throws DNSServerExecutorException {
 
         // Get the serial number.
-        long serialNumber = getSerialNumber(records);
+        final long serialNumber = getSerialNumber(records);
+        long newSerialNumber;
+        
+        try {
+            
+            // Find the deltas with an incremental zone transfer.
+            List<org.xbill.DNS.ZoneTransferIn.Delta> deltas = this.send(new TransferRequest<List<org.xbill.DNS.ZoneTransferIn.Delta>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public List<org.xbill.DNS.ZoneTransferIn.Delta> send(final Resolver resolver) throws Exception {
+                    return DNSServerExecutor.this.createIncrementalZoneTransfer(resolver, serialNumber).run();
+                }
+            });
+            
+            // Apply the deltas to the records.
+            newSerialNumber = this.applyDeltas(records, serialNumber, deltas, deltaListener);
+        } catch (Exception e) {
+            throw new DNSServerExecutorException("Unable to update the records with an incremental zone transfer.", e);
+        }
+        
+        return newSerialNumber;
+    }
+    
+    /**
+     * Apply the incremental zone transfer deltas to the records representing a zone.
+     * 
+     * @param  records        the records representing a zone.
+     * @param  serialNumber   the serial number of the records.
+     * @param  deltas         the deltas.
+     * @param  deltaListener  the delta listener, or null if no delta listener.
+     * 
+     * @return  the new serial number of the SOA record in the updated records.
+     * 
+     * @throws  RecordConverterException  if a DNS record cannot be converted to a record.
+     */
+    @SuppressWarnings("unchecked")
+    private long applyDeltas(final List<Record> records, final long serialNumber, final List<org.xbill.DNS.ZoneTransferIn.Delta> deltas, final DeltaListener deltaListener) throws RecordConverterException {
         
-        // Loop through the resolvers.
-        for (Resolver resolver : this.resolvers) {
+        long newSerialNumber = serialNumber;
+        
+        logger.debug("{} deltas total.", (deltas != null) ? deltas.size() : 0);
+        if (deltas != null) {
             
-            try {
-                List<org.xbill.DNS.ZoneTransferIn.Delta> deltas = this.createIncrementalZoneTransfer(resolver, serialNumber).run();
-                logger.debug("{} deltas total.", deltas.size());
-                for (org.xbill.DNS.ZoneTransferIn.Delta delta : deltas) {
+            for (org.xbill.DNS.ZoneTransferIn.Delta delta : deltas) {
 
-                    logger.debug("  delta {}/{} - {} delete records found.", delta.start, delta.end, delta.deletes.size());
-                    for (org.xbill.DNS.Record dnsRecord : (List<org.xbill.DNS.Record>)delta.deletes) {
-                        Record record = this.recordConverter.fromDnsRecord(dnsRecord, true);
-                        if (records.remove(record)) {
-                            logger.debug("    Deleted record {}.", record);
-                        } else {
-                            logger.warn("    Unable to delete the record {}.", record);
+                logger.debug("  delta {}/{} - {} delete records found.", delta.start, delta.end, delta.deletes.size());
+                for (org.xbill.DNS.Record dnsRecord : (List<org.xbill.DNS.Record>)delta.deletes) {
+                    Record record = this.recordConverter.fromDnsRecord(dnsRecord, true);
+                    if (records.remove(record)) {
+                        logger.debug("    Deleted record {}.", record);
+                        if (deltaListener != null) {
+                            deltaListener.recordDeleted(record);
                         }
+                    } else {
+                        logger.warn("    Unable to delete the record {}.", record);
                     }
-                    
-                    logger.debug("  delta {}/{} - {} add records found.", delta.start, delta.end, delta.adds.size());
-                    for (org.xbill.DNS.Record dnsRecord : (List<org.xbill.DNS.Record>)delta.adds) {
-                        Record record = this.recordConverter.fromDnsRecord(dnsRecord, true);
-                        if (records.add(record)) {
-                            logger.debug("    Added record {}.", record);
-                        } else {
-                            logger.warn("    Unable to add the record {}.", record);
+                }
+
+                logger.debug("  delta {}/{} - {} add records found.", delta.start, delta.end, delta.adds.size());
+                for (org.xbill.DNS.Record dnsRecord : (List<org.xbill.DNS.Record>)delta.adds) {
+                    Record record = this.recordConverter.fromDnsRecord(dnsRecord, true);
+                    if (records.add(record)) {
+                        logger.debug("    Added record {}.", record);
+                        if (deltaListener != null) {
+                            deltaListener.recordAdded(record);
                         }
+                    } else {
+                        logger.warn("    Unable to add the record {}.", record);
                     }
-                    
-                    serialNumber = delta.end;
                 }
+
+                newSerialNumber = delta.end;
+            }
+        }
+        
+        return newSerialNumber;
+    }
+    
+    /**
+     * Select the resolvers.
+     * 
+     * @param  update  true if the resolvers are selected for an update, otherwise false.
+     * 
+     * @return  the pinned resolver if there is one, otherwise the resolvers of the view in the order selected by the resolver monitor.
+     */
+    private List<Resolver> selectResolvers(final boolean update) {
+        
+        List<Resolver> selectedResolvers;
+        
+        if (this.pinnedResolver != null) {
+            selectedResolvers = Arrays.asList(this.pinnedResolver);
+        } else if (update) {
+            selectedResolvers = this.resolverMonitor.selectUpdateResolvers(this.resolvers);
+        } else {
+            selectedResolvers = this.resolverMonitor.selectResolvers(this.resolvers);
+        }
+        
+        return selectedResolvers;
+    }
+    
+    /**
+     * Send the request to the resolvers.
+     * The resolvers are tried in the order selected by the resolver monitor until one of them responds.
+     * 
+     * @param  request  the request.
+     * 
+     * @return  the response.
+     * 
+     * @throws  Exception  if the request fails on all the resolvers.
+     */
+    private <T> T send(final ResolverRequest<T> request) throws Exception {
+        
+        T response = null;
+        Exception exception = new DNSServerExecutorException("No resolvers are configured.");
+        boolean success = false;
+        
+        // Loop through the selected resolvers.
+        for (Resolver resolver : this.selectResolvers(request instanceof UpdateRequest)) {
+            
+            try {
+                response = this.send(request, resolver);
+                success = true;
                 break;
             } catch (Exception e) {
-                logger.error("Unable to update the records with an incremental zone transfer using resolver {}.", resolver, e);
+                exception = e;
+                logger.warn("The request failed using the resolver {}.", resolver, e);
             }
         }
         
-        return serialNumber;
+        if (!success) {
+            throw exception;
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Send the request to the resolver and record the outcome with the resolver monitor.
+     * The duration of a zone transfer is not recorded as a latency, and the latency of an update is recorded 
+     * apart from the latency of a lookup.
+     * 
+     * @param  request   the request.
+     * @param  resolver  the resolver.
+     * 
+     * @return  the response.
+     * 
+     * @throws  Exception  if the request fails.
+     */
+    private <T> T send(final ResolverRequest<T> request, final Resolver resolver) throws Exception {
+        
+        T response;
+        long startTime = System.nanoTime();
+        
+        try {
+            response = request.send(resolver);
+            if (request instanceof TransferRequest) {
+                this.resolverMonitor.recordTransferSuccess(resolver);
+            } else if (request instanceof UpdateRequest) {
+                this.resolverMonitor.recordUpdateSuccess(resolver, System.nanoTime() - startTime);
+            } else {
+                this.resolverMonitor.recordSuccess(resolver, System.nanoTime() - startTime);
+            }
+        } catch (IOException e) {
+            this.resolverMonitor.recordFailure(resolver);
+            throw e;
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Send the read request to the resolvers with hedging.
+     * The request is sent to the first selected resolver.  If that resolver has not answered within its hedge delay, 
+     * the request is also sent to the next selected resolver and the first answer wins.  If all the outstanding 
+     * requests fail, the request is sent to the next selected resolver immediately.
+     * 
+     * Only idempotent lookups may be hedged.  Updates and zone transfers must use {@link #send(ResolverRequest)}: 
+     * an update is not idempotent, and a hedged zone transfer would start a duplicate transfer from the primary 
+     * that cannot be stopped once the blocking I/O is under way.
+     * 
+     * @param  request  the read request.
+     * 
+     * @return  the response.
+     * 
+     * @throws  Exception  if the request fails on all the resolvers.
+     */
+    private <T> T sendHedged(final ResolverRequest<T> request) throws Exception {
+        
+        List<Resolver> selectedResolvers = this.selectResolvers(false);
+        T response = null;
+        
+        // Check if hedging does not apply.
+        if (!this.resolverMonitor.isHedgedReadEnabled() || selectedResolvers.size() < 2) {
+            response = this.send(request);
+        } else {
+            
+            CompletionService<T> completionService = new ExecutorCompletionService<T>(this.resolverMonitor.getRequestPool());
+            List<Future<T>> futures = new ArrayList<Future<T>>();
+            Iterator<Resolver> resolverIterator = selectedResolvers.iterator();
+            Exception exception = null;
+            boolean success = false;
+            
+            try {
+                
+                // Send the request to the first resolver.
+                Resolver lastResolver = resolverIterator.next();
+                futures.add(completionService.submit(this.createCallable(request, lastResolver)));
+                int outstanding = 1;
+                
+                while (!success && outstanding > 0) {
+                    
+                    Future<T> future;
+                    
+                    // Wait for the hedge delay if there is another resolver, otherwise wait for an answer.
+                    if (resolverIterator.hasNext()) {
+                        future = completionService.poll(this.resolverMonitor.getHedgeDelay(lastResolver), TimeUnit.NANOSECONDS);
+                        if (future == null) {
+                            lastResolver = resolverIterator.next();
+                            logger.debug("Hedging the request with the resolver {}.", lastResolver);
+                            futures.add(completionService.submit(this.createCallable(request, lastResolver)));
+                            outstanding++;
+                            continue;
+                        }
+                    } else {
+                        future = completionService.take();
+                    }
+                    outstanding--;
+                    
+                    try {
+                        response = future.get();
+                        success = true;
+                    } catch (ExecutionException e) {
+                        exception = (e.getCause() instanceof Exception) ? (Exception)e.getCause() : e;
+                        logger.warn("The hedged request failed.", exception);
+                        
+                        // Send the request to the next resolver immediately.
+                        if (resolverIterator.hasNext() && outstanding == 0) {
+                            lastResolver = resolverIterator.next();
+                            futures.add(completionService.submit(this.createCallable(request, lastResolver)));
+                            outstanding++;
+                        }
+                    }
+                }
+            } finally {
+                
+                // Cancel the requests that have not answered.
+                for (Future<T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+            
+            if (!success) {
+                throw exception;
+            }
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Create a callable that sends the request to the resolver.
+     * 
+     * @param  request   the request.
+     * @param  resolver  the resolver.
+     * 
+     * @return  the callable.
+     */
+    private <T> Callable<T> createCallable(final ResolverRequest<T> request, final Resolver resolver) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return DNSServerExecutor.this.send(request, resolver);
+            }
+        };
+    }
+    
+    /**
+     * Delta listener.
+     */
+    public interface DeltaListener {
+        
+        /**
+         * The record was added.
+         * 
+         * @param  record  the record.
+         */
+        void recordAdded(Record record);
+        
+        /**
+         * The record was deleted.
+         * 
+         * @param  record  the record.
+         */
+        void recordDeleted(Record record);
+    }
+    
+    /**
+     * Resolver request.
+     */
+    private interface ResolverRequest<T> {
+        
+        /**
+         * Send the request to the resolver.
+         * 
+         * @param  resolver  the resolver.
+         * 
+         * @return  the response.
+         * 
+         * @throws  Exception  if the request fails.
+         */
+        T send(Resolver resolver) throws Exception;
+    }
+    
+    /**
+     * Zone transfer request.
+     */
+    private interface TransferRequest<T> extends ResolverRequest<T> {
+    }
+    
+    /**
+     * Update request.
+     */
+    private interface UpdateRequest<T> extends ResolverRequest<T> {
     }
 }
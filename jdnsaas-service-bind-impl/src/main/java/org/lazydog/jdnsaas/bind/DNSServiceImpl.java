@@ -18,24 +18,39 @@
  */
 package org.lazydog.jdnsaas.bind;
 
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import org.lazydog.jdnsaas.CursorExpiredException;
 import org.lazydog.jdnsaas.DNSService;
 import org.lazydog.jdnsaas.DNSServiceException;
 import org.lazydog.jdnsaas.ResourceNotFoundException;
 import org.lazydog.jdnsaas.bind.cache.ZoneCache;
+import org.lazydog.jdnsaas.bind.cache.ZoneSnapshot;
+import org.lazydog.jdnsaas.model.Operation;
+import org.lazydog.jdnsaas.model.PTRRecord;
 import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperation;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.RecordPage;
 import org.lazydog.jdnsaas.model.RecordType;
 import org.lazydog.jdnsaas.model.Resolver;
+import org.lazydog.jdnsaas.model.SOARecord;
 import org.lazydog.jdnsaas.model.TSIGKey;
 import org.lazydog.jdnsaas.model.View;
 import org.lazydog.jdnsaas.model.Zone;
 import org.lazydog.jdnsaas.model.ZoneType;
+import org.lazydog.jdnsaas.model.ZoneUpdateMetrics;
 import org.lazydog.jdnsaas.spi.repository.JDNSaaSRepository;
+import org.lazydog.jdnsaas.utility.RecordCursor;
 import org.lazydog.jdnsaas.utility.RecordFilter;
+import org.lazydog.jdnsaas.utility.Subnet;
 import org.lazydog.jdnsaas.utility.ZoneUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,8 +64,153 @@ import org.slf4j.LoggerFactory;
 public class DNSServiceImpl implements DNSService {
     
     private static final Logger logger = LoggerFactory.getLogger(DNSServiceImpl.class);
-    @Inject private JDNSaaSRepository jdnsaasRepository;
-    @Inject private ZoneCache zoneCache;
+    private JDNSaaSRepository jdnsaasRepository;
+    private LookupCache lookupCache;
+    private OperationLog operationLog;
+    private RecordFilterExecutor recordFilterExecutor;
+    private RecordOperationDispatcher recordOperationDispatcher;
+    private ResolverMonitor resolverMonitor;
+    private ZoneCache zoneCache;
+    private ZoneTransferCoalescer zoneTransferCoalescer;
+
+    /**
+     * Find the SOA record of the zone in the zone cache.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * 
+     * @return  the SOA record, or null if the zone cache is unavailable or the zone is not in the zone cache.
+     * 
+     * @throws  DNSServiceException        if unable to find the SOA record due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    @Override
+    public SOARecord findCachedSOARecord(final String viewName, final String zoneName) throws DNSServiceException, ResourceNotFoundException {
+        
+        SOARecord soaRecord = null;
+        
+        try {
+            
+            // Find the zone.
+            Zone zone = this.jdnsaasRepository.findZone(viewName, zoneName);
+            if (zone == null) {
+                throw new ResourceNotFoundException("The zone " + zoneName + " for the view " + viewName + " is not found.");
+            }
+            
+            // Find the SOA record if the zone cache is available.
+            if (this.zoneCache.isAvailable()) {
+                soaRecord = this.zoneCache.findSOARecord(zone);
+            }
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to find the SOA record for the view " + viewName + " and the zone " + zoneName + ".", e);
+        }
+        
+        return soaRecord;
+    }
+    
+    /**
+     * Find the zone and check the zone cache is available.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * 
+     * @return  the zone.
+     * 
+     * @throws  DNSServiceException        if the zone cache is unavailable.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    private Zone findCachedZone(final String viewName, final String zoneName) throws DNSServiceException, ResourceNotFoundException {
+        
+        // Find the zone.
+        Zone zone = this.jdnsaasRepository.findZone(viewName, zoneName);
+        if (zone == null) {
+            throw new ResourceNotFoundException("The zone " + zoneName + " for the view " + viewName + " is not found.");
+        }
+        
+        // Check if the zone cache is unavailable.
+        if (!this.zoneCache.isAvailable()) {
+            throw new DNSServiceException("The zone cache is unavailable.");
+        }
+        
+        return zone;
+    }
+    
+    /**
+     * Find the free addresses in the range of the IPv4 reverse zone.
+     * The free addresses are found with the address bitmap of the zone cache.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the IPv4 reverse zone name.
+     * @param  range     the range, or null for the subnet of the zone.
+     * @param  count     the maximum number of free addresses.
+     * 
+     * @return  the free addresses in address order.
+     * 
+     * @throws  DNSServiceException        if unable to find the free addresses due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    @Override
+    public List<String> findFreeAddresses(final String viewName, final String zoneName, final Subnet range, final int count) throws DNSServiceException, ResourceNotFoundException {
+        
+        List<String> freeAddresses;
+        
+        try {
+            
+            // Find the free addresses.
+            freeAddresses = this.findFreeAddresses(this.findCachedZone(viewName, zoneName), range, count, false);
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to find the free addresses for the view " + viewName + " and the zone " + zoneName + ".", e);
+        }
+        
+        return freeAddresses;
+    }
+    
+    /**
+     * Find the free addresses in the range of the IPv4 reverse zone with the address bitmap of the zone cache.
+     * 
+     * @param  zone     the IPv4 reverse zone.
+     * @param  range    the range, or null for the subnet of the zone.
+     * @param  count    the maximum number of free addresses.
+     * @param  reserve  true if the free addresses should be reserved, otherwise false.
+     * 
+     * @return  the free addresses in address order.
+     * 
+     * @throws  DNSServiceException  if the zone does not have an address bitmap.
+     */
+    private List<String> findFreeAddresses(final Zone zone, final Subnet range, final int count, final boolean reserve) throws DNSServiceException {
+        
+        List<String> freeAddresses = this.zoneCache.findFreeAddresses(zone, range, count, reserve);
+        
+        // Check if the zone does not have an address bitmap.
+        if (freeAddresses == null) {
+            throw new DNSServiceException("The zone " + zone.getName() + " is not a cached IPv4 reverse zone.");
+        }
+        
+        return freeAddresses;
+    }
+    
+    /**
+     * Find the operation.
+     * 
+     * @param  operationId  the operation ID.
+     * 
+     * @return  the operation.
+     * 
+     * @throws  DNSServiceException        if unable to find the operation due to an exception.
+     * @throws  ResourceNotFoundException  if the operation is not found.
+     */
+    @Override
+    public Operation findOperation(final String operationId) throws DNSServiceException, ResourceNotFoundException {
+
+        Operation operation = this.operationLog.find(operationId);
+        
+        // Check if the operation exists.
+        if (operation == null) {
+            throw new ResourceNotFoundException("The operation " + operationId + " is not found.");
+        }
+
+        return operation;
+    }
 
     /**
      * Find the records.
@@ -67,6 +227,25 @@ public class DNSServiceImpl implements DNSService {
      */
     @Override
     public List<Record> findRecords(final String viewName, final String zoneName, final RecordFilter recordFilter, final boolean useCache) throws DNSServiceException, ResourceNotFoundException {
+        return this.findRecords(viewName, zoneName, recordFilter, useCache, true);
+    }
+
+    /**
+     * Find the records.
+     * 
+     * @param  viewName        the view name.
+     * @param  zoneName        the zone name.
+     * @param  recordFilter    the record filter.
+     * @param  useCache        true if the zone cache should be used, otherwise false. 
+     * @param  useLookupCache  true if the lookup cache should be used when the zone cache is not, otherwise false.
+     * 
+     * @return  the records.
+     * 
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    @Override
+    public List<Record> findRecords(final String viewName, final String zoneName, final RecordFilter recordFilter, final boolean useCache, final boolean useLookupCache) throws DNSServiceException, ResourceNotFoundException {
         
         // Initialize the records.
         List<Record> records = new ArrayList<Record>();
@@ -82,22 +261,185 @@ public class DNSServiceImpl implements DNSService {
             // Check if the zone cache should be used and the zone cache is available.
             if (useCache && this.zoneCache.isAvailable()) {
                 
-                // Find the records.
-                records = this.zoneCache.findRecords(zone);
+                // Find the candidate records with the address index or the zone index, or all the records if neither index can narrow the search.
+                records = (recordFilter.getSubnet() != null) 
+                        ? this.zoneCache.findRecordsInSubnet(zone, recordFilter.getSubnet()) 
+                        : this.zoneCache.findCandidateRecords(zone, recordFilter.getSearchTokens());
+                if (records == null) {
+                    records = this.zoneCache.findRecords(zone);
+                }
             } else {
                 
                 if (useCache) {
                     logger.info("The zone cache is unavailable; using the DNS server to find the records for the view {} and the zone {}.", viewName, zoneName);
                 }
                 
-                // Find the records.
-                records = DNSServerExecutor.newInstance(zone).findRecords();
+                // Check if the records can be found with point queries.
+                if (recordFilter.isPointQuery()) {
+                    
+                    // Find the records with a lookup for each record type instead of a zone transfer.
+                    DNSServerExecutor executor = DNSServerExecutor.newInstance(zone, this.resolverMonitor, (useLookupCache) ? this.lookupCache.getCache(zone) : null);
+                    for (RecordType recordType : new LinkedHashSet<RecordType>(recordFilter.getRecordTypes())) {
+                        records.addAll(executor.findRecords(recordType, recordFilter.getAbsoluteName()));
+                    }
+                } else {
+                    
+                    // Find the records, sharing a zone transfer already in flight for the zone.
+                    records = this.zoneTransferCoalescer.findRecords(zone);
+                }
             }
+            
+            // Filter the records.
+            records = this.recordFilterExecutor.filter(recordFilter, records);
         } catch (Exception e) {
             throw new DNSServiceException("Unable to find the records for the view " + viewName + " and the zone " + zoneName + ".", e);
         }
         
-        return recordFilter.filter(records);
+        return records;
+    }
+    
+    /**
+     * Find a page of the records.
+     * The page is filtered straight from a snapshot of the zone in the zone cache, examining only the records 
+     * up to the last record in the page.  If the zone index can narrow the search, the candidate records are 
+     * filtered instead, in parallel if there are enough of them, and if they all fit in the first page it is the 
+     * only page.
+     * 
+     * @param  viewName      the view name.
+     * @param  zoneName      the zone name.
+     * @param  recordFilter  the record filter.
+     * @param  cursor        the cursor from the previous page, or null for the first page.
+     * @param  limit         the maximum number of records in the page.
+     * 
+     * @return  the page of records.
+     * 
+     * @throws  CursorExpiredException     if the snapshot of the cursor is no longer retained.
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    @Override
+    public RecordPage findRecords(final String viewName, final String zoneName, final RecordFilter recordFilter, final RecordCursor cursor, final int limit) throws CursorExpiredException, DNSServiceException, ResourceNotFoundException {
+        
+        RecordPage recordPage = null;
+        
+        try {
+            
+            Zone zone = this.findCachedZone(viewName, zoneName);
+            
+            // Check if the zone index can narrow the search for the first page.  The candidate records are in 
+            // zone cache order, so they match the order of a snapshot page.
+            if (cursor == null && recordFilter.getSubnet() == null) {
+                List<Record> candidateRecords = this.zoneCache.findCandidateRecords(zone, recordFilter.getSearchTokens());
+                if (candidateRecords != null) {
+                    List<Record> records = this.recordFilterExecutor.filter(recordFilter, candidateRecords);
+                    if (records.size() <= limit) {
+                        recordPage = RecordPage.newInstance(records, null);
+                    }
+                }
+            }
+            
+            if (recordPage == null) {
+                
+                // Find the snapshot for the cursor.
+                ZoneSnapshot snapshot = this.zoneCache.findSnapshot(zone, (cursor != null) ? cursor.getSerialNumber() : null);
+                if (snapshot == null && cursor == null) {
+                    throw new DNSServiceException("The zone " + zoneName + " is not in the zone cache.");
+                }
+                if (snapshot == null) {
+                    throw new CursorExpiredException("The cursor " + cursor + " has expired.");
+                }
+
+                // Filter the page.
+                List<Record> records = new ArrayList<Record>();
+                int nextOffset = recordFilter.filter(snapshot.getRecords(), (cursor != null) ? cursor.getOffset() : 0, limit, records);
+                RecordCursor nextCursor = (nextOffset < snapshot.getRecords().size()) ? RecordCursor.newInstance(snapshot.getSerialNumber(), nextOffset, recordFilter) : null;
+                recordPage = RecordPage.newInstance(records, nextCursor);
+            }
+        } catch (CursorExpiredException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to find the records for the view " + viewName + " and the zone " + zoneName + ".", e);
+        }
+        
+        return recordPage;
+    }
+    
+    /**
+     * Find the records in the subnet in each zone of the view.
+     * The records are found with the address indexes of the zone cache.
+     * 
+     * @param  viewName  the view name.
+     * @param  subnet    the subnet.
+     * 
+     * @return  the records in the subnet in address order, by zone name.
+     * 
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the view is not found.
+     */
+    @Override
+    public Map<String,List<Record>> findRecordsInSubnet(final String viewName, final Subnet subnet) throws DNSServiceException, ResourceNotFoundException {
+        
+        Map<String,List<Record>> subnetRecords;
+        
+        try {
+            
+            // Find the view.
+            View view = this.jdnsaasRepository.findView(viewName);
+            if (view == null) {
+                throw new ResourceNotFoundException("The view " + viewName + " is not found.");
+            }
+            
+            // Check if the zone cache is unavailable.
+            if (!this.zoneCache.isAvailable()) {
+                throw new DNSServiceException("The zone cache is unavailable.");
+            }
+            
+            // Find the records in the subnet.
+            subnetRecords = this.zoneCache.findRecordsInSubnet(viewName, subnet);
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to find the records in the subnet " + subnet + " for the view " + viewName + ".", e);
+        }
+        
+        return subnetRecords;
+    }
+    
+    /**
+     * Find the records pointing at the data in each zone of the view.
+     * The records are found with the reverse indexes of the zone cache.
+     * 
+     * @param  viewName  the view name.
+     * @param  data      the IP (v4 or v6) address or the target.  A relative target is relative to each zone.
+     * 
+     * @return  the records pointing at the data, by zone name.
+     * 
+     * @throws  DNSServiceException        if unable to find the records due to an exception.
+     * @throws  ResourceNotFoundException  if the view is not found.
+     */
+    @Override
+    public Map<String,List<Record>> findReferringRecords(final String viewName, final String data) throws DNSServiceException, ResourceNotFoundException {
+        
+        Map<String,List<Record>> referringRecords;
+        
+        try {
+            
+            // Find the view.
+            View view = this.jdnsaasRepository.findView(viewName);
+            if (view == null) {
+                throw new ResourceNotFoundException("The view " + viewName + " is not found.");
+            }
+            
+            // Check if the zone cache is unavailable.
+            if (!this.zoneCache.isAvailable()) {
+                throw new DNSServiceException("The zone cache is unavailable.");
+            }
+            
+            // Find the referring records.
+            referringRecords = this.zoneCache.findReferringRecords(viewName, data);
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to find the records pointing at " + data + " for the view " + viewName + ".", e);
+        }
+        
+        return referringRecords;
     }
     
     /**
@@ -264,6 +606,29 @@ public class DNSServiceImpl implements DNSService {
         return zoneNames;
     }
 
+    /**
+     * Find the zone update metrics.
+     * 
+     * @return  the zone update metrics.
+     * 
+     * @throws  DNSServiceException  if unable to find the zone update metrics due to an exception.
+     */
+    @Override
+    public List<ZoneUpdateMetrics> findZoneUpdateMetrics() throws DNSServiceException {
+        
+        List<ZoneUpdateMetrics> zoneUpdateMetrics;
+        
+        try {
+            
+            // Find the zone update metrics.
+            zoneUpdateMetrics = this.recordOperationDispatcher.getMetrics();
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to find the zone update metrics.", e);
+        }
+ 
+        return zoneUpdateMetrics;
+    }
+
     /**
      * Process the record operations.
      * 
@@ -271,15 +636,15 @@ public class DNSServiceImpl implements DNSService {
      * @param  zoneName  the zone name.
      * @param  records   the records.
      * 
-     * @return  true if the record operations are processed successfully, otherwise false.
+     * @return  the record operation results, one for each record in the order of the records.
      * 
      * @throws  DNSServiceException        if unable to process the record operations due to an exception.
      * @throws  ResourceNotFoundException  if the zone is not found.
      */
     @Override
-    public boolean processRecordOperations(final String viewName, final String zoneName, final List<Record> records) throws DNSServiceException, ResourceNotFoundException {
+    public List<RecordOperationResult> processRecordOperations(final String viewName, final String zoneName, final List<Record> records) throws DNSServiceException, ResourceNotFoundException {
 
-        boolean success = false;
+        List<RecordOperationResult> recordOperationResults;
 
         try {
 
@@ -290,11 +655,294 @@ public class DNSServiceImpl implements DNSService {
             }
 
             // Process the records.
-            success = DNSServerExecutor.newInstance(zone).processRecordOperations(records);
+            recordOperationResults = this.recordOperationDispatcher.process(zone, records);
         } catch (Exception e) {
             throw new DNSServiceException("Unable to process the record operations for the view " + viewName + " and the zone " + zoneName + " due to an exception.", e);
         }
         
-        return success;
+        return recordOperationResults;
+    }
+
+    /**
+     * Process the record operations of many zones.
+     * The zones are found first, and then the record operations of all the zones are submitted to the record 
+     * operation dispatcher together, so each zone is updated in parallel on the bounded dispatch pool.
+     * 
+     * @param  viewZoneRecords  the records, by zone name, by view name.
+     * 
+     * @return  the record operation results, one for each record in the order of the records, by zone name, by view name.
+     * 
+     * @throws  DNSServiceException  if unable to process the record operations due to an exception.
+     */
+    @Override
+    public Map<String,Map<String,List<RecordOperationResult>>> processRecordOperations(final Map<String,Map<String,List<Record>>> viewZoneRecords) throws DNSServiceException {
+        
+        Map<String,Map<String,List<RecordOperationResult>>> viewZoneRecordOperationResults = new LinkedHashMap<String,Map<String,List<RecordOperationResult>>>();
+        
+        try {
+            
+            Map<Zone,List<Record>> zoneRecords = new LinkedHashMap<Zone,List<Record>>();
+            Map<Zone,String> zoneNames = new LinkedHashMap<Zone,String>();
+            Map<Zone,Map<String,List<RecordOperationResult>>> zoneResults = new LinkedHashMap<Zone,Map<String,List<RecordOperationResult>>>();
+            
+            // Find the zones.
+            for (Map.Entry<String,Map<String,List<Record>>> viewEntry : viewZoneRecords.entrySet()) {
+                
+                Map<String,List<RecordOperationResult>> zoneRecordOperationResults = new LinkedHashMap<String,List<RecordOperationResult>>();
+                viewZoneRecordOperationResults.put(viewEntry.getKey(), zoneRecordOperationResults);
+                
+                for (Map.Entry<String,List<Record>> zoneEntry : viewEntry.getValue().entrySet()) {
+                    
+                    Zone zone = this.jdnsaasRepository.findZone(viewEntry.getKey(), zoneEntry.getKey());
+                    if (zone == null) {
+                        zoneRecordOperationResults.put(zoneEntry.getKey(), RecordOperationDispatcher.newFailedResults(zoneEntry.getValue(), "The zone " + zoneEntry.getKey() + " for view " + viewEntry.getKey() + " is not found."));
+                    } else if (zoneRecords.containsKey(zone)) {
+                        zoneRecordOperationResults.put(zoneEntry.getKey(), RecordOperationDispatcher.newFailedResults(zoneEntry.getValue(), "The zone " + zoneEntry.getKey() + " for view " + viewEntry.getKey() + " is already in the request."));
+                    } else {
+                        
+                        // Keep the place of the zone in the results.
+                        zoneRecordOperationResults.put(zoneEntry.getKey(), null);
+                        zoneRecords.put(zone, zoneEntry.getValue());
+                        zoneNames.put(zone, zoneEntry.getKey());
+                        zoneResults.put(zone, zoneRecordOperationResults);
+                    }
+                }
+            }
+            
+            // Process the records of the zones in parallel.
+            for (Map.Entry<Zone,List<RecordOperationResult>> entry : this.recordOperationDispatcher.process(zoneRecords).entrySet()) {
+                zoneResults.get(entry.getKey()).put(zoneNames.get(entry.getKey()), entry.getValue());
+            }
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to process the record operations for the views " + viewZoneRecords.keySet() + " due to an exception.", e);
+        }
+        
+        return viewZoneRecordOperationResults;
+    }
+    
+    /**
+     * Reserve the free addresses in the range of the IPv4 reverse zone by adding a PTR record for each of them.
+     * The free addresses are reserved in the address bitmap of the zone cache before the PTR records are added, 
+     * so concurrent reservations never get the same address, and the addresses of the PTR records that are not 
+     * added are released.  Each PTR record is only added if its name does not exist yet, so an address that was 
+     * taken outside the zone cache fails and is released.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the IPv4 reverse zone name.
+     * @param  range     the range, or null for the subnet of the zone.
+     * @param  count     the maximum number of free addresses.
+     * @param  target    the target of the PTR records.
+     * 
+     * @return  the record operation results, one for each reserved address in address order.
+     * 
+     * @throws  DNSServiceException        if unable to reserve the free addresses due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    @Override
+    public List<RecordOperationResult> reserveFreeAddresses(final String viewName, final String zoneName, final Subnet range, final int count, final String target) throws DNSServiceException, ResourceNotFoundException {
+
+        List<RecordOperationResult> recordOperationResults;
+        
+        try {
+            
+            Zone zone = this.findCachedZone(viewName, zoneName);
+            ZoneUtility zoneUtility = ZoneUtility.newInstance(zoneName);
+            List<String> freeAddresses = this.findFreeAddresses(zone, range, count, true);
+            List<String> unusedAddresses = new ArrayList<String>(freeAddresses);
+            
+            try {
+                
+                // Add a PTR record for each reserved address unless the address is already taken.
+                List<Record> records = new ArrayList<Record>();
+                for (String freeAddress : freeAddresses) {
+                    PTRRecord record = Record.newInstance(PTRRecord.class, zoneUtility.getReverseTets(freeAddress), Record.DEFAULT_TIME_TO_LIVE, target);
+                    record.setOperation(RecordOperation.ADD);
+                    records.add(record);
+                }
+                recordOperationResults = this.recordOperationDispatcher.processIfAbsent(zone, records);
+                
+                // Keep the reservations for the PTR records that are added.
+                for (int index = 0; index < recordOperationResults.size(); index++) {
+                    if (recordOperationResults.get(index).isSuccess()) {
+                        unusedAddresses.remove(freeAddresses.get(index));
+                    }
+                }
+            } finally {
+                this.zoneCache.releaseAddresses(zone, unusedAddresses);
+            }
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to reserve the free addresses for the view " + viewName + " and the zone " + zoneName + ".", e);
+        }
+        
+        return recordOperationResults;
+    }
+
+    /**
+     * Set the lookup cache.
+     * 
+     * @param  lookupCache  the lookup cache.
+     */
+    @Inject
+    public void setLookupCache(final LookupCache lookupCache) {
+        this.lookupCache = lookupCache;
+    }
+
+    /**
+     * Set the operation log.
+     * 
+     * @param  operationLog  the operation log.
+     */
+    @Inject
+    public void setOperationLog(final OperationLog operationLog) {
+        this.operationLog = operationLog;
+    }
+
+    /**
+     * Set the record filter executor.
+     * 
+     * @param  recordFilterExecutor  the record filter executor.
+     */
+    @Inject
+    public void setRecordFilterExecutor(final RecordFilterExecutor recordFilterExecutor) {
+        this.recordFilterExecutor = recordFilterExecutor;
+    }
+
+    /**
+     * Set the record operation dispatcher.
+     * 
+     * @param  recordOperationDispatcher  the record operation dispatcher.
+     */
+    @Inject
+    public void setRecordOperationDispatcher(final RecordOperationDispatcher recordOperationDispatcher) {
+        this.recordOperationDispatcher = recordOperationDispatcher;
+    }
+
+    /**
+     * Set the repository.
+     * 
+     * @param  repository  the repository.
+     */
+    @Inject
+    public void setRepository(final JDNSaaSRepository repository) {
+        this.jdnsaasRepository = repository;
+    }
+
+    /**
+     * Set the resolver monitor.
+     * 
+     * @param  resolverMonitor  the resolver monitor.
+     */
+    @Inject
+    public void setResolverMonitor(final ResolverMonitor resolverMonitor) {
+        this.resolverMonitor = resolverMonitor;
+    }
+
+    /**
+     * Set the zone cache.
+     * 
+     * @param  zoneCache  the zone cache.
+     */
+    @Inject
+    public void setZoneCache(final ZoneCache zoneCache) {
+        this.zoneCache = zoneCache;
+    }
+
+    /**
+     * Set the zone transfer coalescer.
+     * 
+     * @param  zoneTransferCoalescer  the zone transfer coalescer.
+     */
+    @Inject
+    public void setZoneTransferCoalescer(final ZoneTransferCoalescer zoneTransferCoalescer) {
+        this.zoneTransferCoalescer = zoneTransferCoalescer;
+    }
+
+    /**
+     * Submit the record operations to be processed asynchronously.
+     * The record operations are written to the operation log before this method returns.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     * 
+     * @return  the pending operation.
+     * 
+     * @throws  DNSServiceException        if unable to submit the record operations due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    @Override
+    public Operation submitRecordOperations(final String viewName, final String zoneName, final List<Record> records) throws DNSServiceException, ResourceNotFoundException {
+
+        Operation operation;
+
+        try {
+
+            // Find the zone.
+            Zone zone = this.jdnsaasRepository.findZone(viewName, zoneName);
+            if (zone == null) {
+                throw new ResourceNotFoundException("The zone " + zoneName + " for view " + viewName + " is not found.");
+            }
+
+            // Submit the records.
+            operation = this.operationLog.submit(zone, records);
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to submit the record operations for the view " + viewName + " and the zone " + zoneName + " due to an exception.", e);
+        }
+        
+        return operation;
+    }
+
+    /**
+     * Write the records of the zone as a zone file in the master file format of RFC 1035.
+     * The records are written straight from the snapshot of the zone in the zone cache, or from a zone transfer 
+     * if the zone cache should not be used or the zone is not in the zone cache, converting one record at a time.
+     * 
+     * @param  viewName  the view name.
+     * @param  zoneName  the zone name.
+     * @param  useCache  true if the zone cache should be used, otherwise false.
+     * @param  writer    the writer.
+     * 
+     * @throws  DNSServiceException        if unable to write the zone file due to an exception.
+     * @throws  ResourceNotFoundException  if the zone is not found.
+     */
+    @Override
+    public void writeZoneFile(final String viewName, final String zoneName, final boolean useCache, final Writer writer) throws DNSServiceException, ResourceNotFoundException {
+        
+        try {
+            
+            // Find the zone.
+            Zone zone = this.jdnsaasRepository.findZone(viewName, zoneName);
+            if (zone == null) {
+                throw new ResourceNotFoundException("The zone " + zoneName + " for the view " + viewName + " is not found.");
+            }
+            
+            // Find the records in the zone cache, or with a zone transfer if the zone is not in the zone cache.
+            ZoneSnapshot snapshot = (useCache && this.zoneCache.isAvailable()) ? this.zoneCache.findSnapshot(zone, null) : null;
+            List<Record> records = (snapshot != null) ? snapshot.getRecords() : null;
+            if (records == null) {
+                records = this.zoneTransferCoalescer.findRecords(zone);
+            }
+            
+            RecordConverter recordConverter = RecordConverter.newInstance(zone.getName());
+            
+            // Write the SOA record first, as the master file format requires, and then the other records.
+            for (Record record : records) {
+                if (record.getType() == RecordType.SOA) {
+                    writer.write(recordConverter.toDnsRecord(record, false).toString());
+                    writer.write('\n');
+                    break;
+                }
+            }
+            for (Record record : records) {
+                if (record.getType() != RecordType.SOA) {
+                    writer.write(recordConverter.toDnsRecord(record, false).toString());
+                    writer.write('\n');
+                }
+            }
+            
+            writer.flush();
+        } catch (Exception e) {
+            throw new DNSServiceException("Unable to write the zone file for the view " + viewName + " and the zone " + zoneName + ".", e);
+        }
     }
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.lazydog.jdnsaas.LookupCacheEnabled;
+import org.lazydog.jdnsaas.model.Zone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xbill.DNS.Cache;
+import org.xbill.DNS.DClass;
+
+/**
+ * Lookup cache.
+ *
+ * Caches the answers to point lookups for each view and zone, keyed by name and type within the zone.  A positive 
+ * answer expires with the TTL of the returned records, and a negative answer expires with the SOA minimum of the zone.  
+ * The cache for a zone is discarded when the zone changes, that is, when the zone cache sees a newer serial number 
+ * or record operations are processed for the zone.
+ *
+ * The SOA lookups used to detect zone changes must not use the lookup cache.
+ *
+ * @author  Ron Rickard
+ */
+@ApplicationScoped
+public class LookupCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LookupCache.class);
+    private ConcurrentMap<String,Cache> cacheMap = new ConcurrentHashMap<String,Cache>();
+    private boolean enabled;
+
+    /**
+     * Get the cache for the zone.
+     *
+     * @param  zone  the zone.
+     *
+     * @return  the cache for the zone, or null if the lookup cache is disabled.
+     */
+    public Cache getCache(final Zone zone) {
+
+        Cache cache = null;
+
+        // Check if the lookup cache is enabled.
+        if (this.enabled) {
+
+            String key = getKey(zone);
+            cache = this.cacheMap.get(key);
+
+            // Check if the zone does not have a cache yet.
+            if (cache == null) {
+                Cache newCache = new Cache(DClass.IN);
+                cache = this.cacheMap.putIfAbsent(key, newCache);
+                if (cache == null) {
+                    cache = newCache;
+                }
+            }
+        }
+
+        return cache;
+    }
+
+    /**
+     * Get the key for the zone.
+     *
+     * @param  zone  the zone.
+     *
+     * @return  the key for the zone.
+     */
+    private static String getKey(final Zone zone) {
+        return zone.getViewName() + "/" + zone.getName();
+    }
+
+    /**
+     * Invalidate the cache for the zone.
+     *
+     * @param  zone  the zone.
+     */
+    public void invalidate(final Zone zone) {
+        if (this.cacheMap.remove(getKey(zone)) != null) {
+            logger.debug("Invalidated the lookup cache for the zone {}.", getKey(zone));
+        }
+    }
+
+    /**
+     * Set the enabled flag.
+     *
+     * @param  enabled  true if the lookup cache is enabled, otherwise false.
+     */
+    @Inject
+    public void setEnabled(@LookupCacheEnabled final boolean enabled) {
+        this.enabled = enabled;
+        logger.info("Set the lookup cache enabled to {}.", this.enabled);
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.List;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+
+/**
+ * No response exception.
+ * 
+ * The DNS server did not respond to an update, so the update may or may not have been applied.  When the record 
+ * operations were sent in several updates, the exception carries the results of the updates that were answered.
+ * 
+ * @author  Ron Rickard
+ */
+public class NoResponseException extends DNSServerExecutorException {
+    
+    public static final long serialVersionUID = 1L;
+    private transient List<RecordOperationResult> recordOperationResults;
+    
+    /**
+     * Constructs a new exception with the specified message and cause.
+     *
+     * @param  message  the message.
+     * @param  cause    the cause.
+     */
+    public NoResponseException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+    
+    /**
+     * Constructs a new exception with the specified message, cause, and record operation results.
+     *
+     * @param  message                 the message.
+     * @param  cause                   the cause.
+     * @param  recordOperationResults  the record operation results, one for each record in the order of the records, 
+     *                                 with null for the records whose update was not answered or not sent.
+     */
+    public NoResponseException(final String message, final Throwable cause, final List<RecordOperationResult> recordOperationResults) {
+        super(message, cause);
+        this.recordOperationResults = recordOperationResults;
+    }
+    
+    /**
+     * Get the record operation results.
+     * 
+     * @return  the record operation results, with null for the records whose update was not answered or not sent, 
+     *          or null if none of the updates was answered.
+     */
+    public List<RecordOperationResult> getRecordOperationResults() {
+        return this.recordOperationResults;
+    }
+}
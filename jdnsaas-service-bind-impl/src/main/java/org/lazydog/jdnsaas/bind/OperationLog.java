@@ -0,0 +1,586 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.lazydog.jdnsaas.OperationLogDirectory;
+import org.lazydog.jdnsaas.bind.cache.Eager;
+import org.lazydog.jdnsaas.model.Operation;
+import org.lazydog.jdnsaas.model.OperationState;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.Zone;
+import org.lazydog.jdnsaas.spi.repository.JDNSaaSRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Operation log.
+ *
+ * A write-ahead log for record operations that are processed asynchronously.  Each operation is written to its own
+ * file in the operation log directory, and synced to disk, before it is acknowledged.  The record operations are then
+ * queued on the record operation dispatcher and the file is rewritten with the results once they are processed.
+ *
+ * On startup, the operations that were still pending are queued again in submission order.  Since the operation 
+ * may have reached the DNS server before the restart, its record operations may be applied a second time.  The 
+ * log only holds the add, delete, and replace record operations of clients, and applying one of them again leaves 
+ * its record set as the first time: adding a record that exists or deleting a record that does not exist has no 
+ * effect in a dynamic update, and a replace sets the record set again.  A record operation replayed after a later 
+ * change to the same record set, made outside the log before the restart, does overwrite that change.  The 
+ * conditional adds of address reservations are never logged; they are processed while the client waits.
+ *
+ * Finished operations are kept for the retention period so clients can poll their status.  Only the status of a 
+ * finished operation is kept in memory; its record operation results are read back from its file on request.
+ *
+ * @author  Ron Rickard
+ */
+@ApplicationScoped
+@Eager
+public class OperationLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationLog.class);
+    private static final String DEFAULT_DIRECTORY = System.getProperty("java.io.tmpdir") + File.separator + "jdnsaas-operations";
+    private static final String FILE_SUFFIX = ".operation";
+    private static final long PRUNE_INTERVAL = TimeUnit.HOURS.toMillis(1);
+    private static final long RETENTION = TimeUnit.DAYS.toMillis(1);
+    private static final Long SHUTDOWN_TIMEOUT = 30000L;
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private File directory;
+    private JDNSaaSRepository jdnsaasRepository;
+    private ConcurrentMap<String,Entry> entryMap = new ConcurrentHashMap<String,Entry>();
+    private ScheduledExecutorService prunePool;
+    private RecordOperationDispatcher recordOperationDispatcher;
+    private AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Complete the entry.
+     *
+     * @param  entry                   the entry.
+     * @param  state                   the final state.
+     * @param  recordOperationResults  the record operation results.
+     * @param  message                 the message.
+     */
+    private void complete(final Entry entry, final OperationState state, final List<RecordOperationResult> recordOperationResults, final String message) {
+
+        synchronized (entry) {
+            entry.getOperation().setCompleteDate(new Date());
+            entry.getOperation().setMessage(message);
+            entry.getOperation().setRecordOperationResults(recordOperationResults);
+            entry.getOperation().setState(state);
+            entry.setRecords(null);
+        }
+
+        try {
+            this.write(entry);
+
+            // Keep only the status in memory.
+            synchronized (entry) {
+                entry.getOperation().setRecordOperationResults(null);
+            }
+        } catch (IOException e) {
+            logger.error("Unable to write the operation {} to the operation log.", entry.getOperation().getId(), e);
+        }
+        logger.debug("Operation {} is {}.", entry.getOperation().getId(), state);
+    }
+
+    /**
+     * Copy the operation of the entry.
+     *
+     * @param  entry  the entry.
+     *
+     * @return  a copy of the operation.
+     */
+    private static Operation copy(final Entry entry) {
+
+        Operation operation = new Operation();
+
+        synchronized (entry) {
+            operation.setCompleteDate(entry.getOperation().getCompleteDate());
+            operation.setId(entry.getOperation().getId());
+            operation.setMessage(entry.getOperation().getMessage());
+            operation.setRecordOperationResults(entry.getOperation().getRecordOperationResults());
+            operation.setState(entry.getOperation().getState());
+            operation.setSubmitDate(entry.getOperation().getSubmitDate());
+            operation.setViewName(entry.getOperation().getViewName());
+            operation.setZoneName(entry.getOperation().getZoneName());
+        }
+
+        return operation;
+    }
+
+    /**
+     * Dispatch the record operations of the entry.
+     *
+     * @param  zone   the zone.
+     * @param  entry  the entry.
+     */
+    private void dispatch(final Zone zone, final Entry entry) {
+        this.recordOperationDispatcher.process(zone, entry.getRecords(), new RecordOperationDispatcher.Callback() {
+            @Override
+            public void completed(final List<RecordOperationResult> recordOperationResults) {
+
+                // Check if all the record operations are successful.
+                boolean success = true;
+                for (RecordOperationResult recordOperationResult : recordOperationResults) {
+                    success = success && recordOperationResult.isSuccess();
+                }
+
+                OperationLog.this.complete(entry, (success) ? OperationState.COMPLETED : OperationState.FAILED, recordOperationResults, null);
+            }
+
+            @Override
+            public void failed(final DNSServerExecutorException exception) {
+                OperationLog.this.complete(entry, OperationState.FAILED, new ArrayList<RecordOperationResult>(), exception.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Find the operation.
+     * The record operation results of a finished operation are read from the operation log.
+     *
+     * @param  operationId  the operation ID.
+     *
+     * @return  the operation, or null if the operation is not found.
+     */
+    public Operation find(final String operationId) {
+
+        Entry entry = (operationId != null) ? this.entryMap.get(operationId) : null;
+        Operation operation = (entry != null) ? copy(entry) : null;
+
+        // Check if the record operation results of a finished operation need to be read.
+        if (operation != null && operation.getCompleteDate() != null && operation.getRecordOperationResults() == null) {
+            try {
+                operation.setRecordOperationResults(read(this.getFile(operationId, FILE_SUFFIX)).getOperation().getRecordOperationResults());
+            } catch (Exception e) {
+                logger.error("Unable to read the operation {} from the operation log.", operationId, e);
+            }
+        }
+
+        return operation;
+    }
+
+    /**
+     * Get the file for the operation.
+     *
+     * @param  operationId  the operation ID.
+     * @param  suffix       the file suffix.
+     *
+     * @return  the file for the operation.
+     */
+    private File getFile(final String operationId, final String suffix) {
+        return new File(this.directory, operationId + suffix);
+    }
+
+    /**
+     * Is the entry expired?
+     *
+     * @param  entry  the entry.
+     * @param  now    the current time in milliseconds.
+     *
+     * @return  true if the operation finished more than the retention period ago, otherwise false.
+     */
+    private static boolean isExpired(final Entry entry, final long now) {
+        synchronized (entry) {
+            Date completeDate = entry.getOperation().getCompleteDate();
+            return completeDate != null && now - completeDate.getTime() > RETENTION;
+        }
+    }
+
+    /**
+     * Prune the expired operations.
+     */
+    private void prune() {
+
+        long now = System.currentTimeMillis();
+
+        for (Iterator<Entry> iterator = this.entryMap.values().iterator(); iterator.hasNext();) {
+            Entry entry = iterator.next();
+            if (isExpired(entry, now)) {
+                iterator.remove();
+                if (!this.getFile(entry.getOperation().getId(), FILE_SUFFIX).delete()) {
+                    logger.warn("Unable to delete the expired operation {} from the operation log.", entry.getOperation().getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the entry from the file.
+     *
+     * @param  file  the file.
+     *
+     * @return  the entry.
+     *
+     * @throws  ClassNotFoundException  if the entry cannot be deserialized.
+     * @throws  IOException             if unable to read the file.
+     */
+    private static Entry read(final File file) throws ClassNotFoundException, IOException {
+
+        ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+        try {
+            return (Entry)input.readObject();
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Recover the operations from the operation log and queue the pending operations again.
+     */
+    private void recover() {
+
+        List<Entry> entries = new ArrayList<Entry>();
+
+        // Remove the temporary files left by an interrupted write.
+        File[] temporaryFiles = this.directory.listFiles(new SuffixFilter(TEMPORARY_FILE_SUFFIX));
+        for (File temporaryFile : (temporaryFiles != null) ? temporaryFiles : new File[0]) {
+            temporaryFile.delete();
+        }
+
+        // Read the operation log.
+        File[] files = this.directory.listFiles(new SuffixFilter(FILE_SUFFIX));
+        for (File file : (files != null) ? files : new File[0]) {
+            try {
+                entries.add(read(file));
+            } catch (Exception e) {
+                logger.error("Unable to read the operation log file {}.", file, e);
+            }
+        }
+
+        // Sort the entries in submission order.
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(final Entry entry1, final Entry entry2) {
+                return (entry1.getSequence() < entry2.getSequence()) ? -1 : ((entry1.getSequence() == entry2.getSequence()) ? 0 : 1);
+            }
+        });
+
+        int pendingCount = 0;
+        for (Entry entry : entries) {
+
+            this.entryMap.put(entry.getOperation().getId(), entry);
+            this.sequence.set(Math.max(this.sequence.get(), entry.getSequence()));
+
+            // Check if the operation is still pending.
+            if (entry.getOperation().getState() != OperationState.PENDING) {
+                entry.getOperation().setRecordOperationResults(null);
+            } else {
+
+                pendingCount++;
+                try {
+                    Zone zone = this.jdnsaasRepository.findZone(entry.getOperation().getViewName(), entry.getOperation().getZoneName());
+                    if (zone == null) {
+                        this.complete(entry, OperationState.FAILED, new ArrayList<RecordOperationResult>(), "The zone " + entry.getOperation().getZoneName() + " for view " + entry.getOperation().getViewName() + " is not found.");
+                    } else {
+                        this.dispatch(zone, entry);
+                    }
+                } catch (Exception e) {
+                    this.complete(entry, OperationState.FAILED, new ArrayList<RecordOperationResult>(), e.getMessage());
+                }
+            }
+        }
+
+        logger.info("Recovered {} operations, {} pending, from the operation log.", entries.size(), pendingCount);
+    }
+
+    /**
+     * Set the directory.
+     *
+     * @param  directory  the operation log directory.
+     */
+    @Inject
+    public void setDirectory(@OperationLogDirectory final String directory) {
+        this.directory = new File((directory != null && !directory.isEmpty()) ? directory : DEFAULT_DIRECTORY);
+        logger.info("Set the operation log directory to {}.", this.directory);
+    }
+
+    /**
+     * Set the record operation dispatcher.
+     *
+     * @param  recordOperationDispatcher  the record operation dispatcher.
+     */
+    @Inject
+    public void setRecordOperationDispatcher(final RecordOperationDispatcher recordOperationDispatcher) {
+        this.recordOperationDispatcher = recordOperationDispatcher;
+    }
+
+    /**
+     * Set the repository.
+     *
+     * @param  repository  the repository.
+     */
+    @Inject
+    public void setRepository(final JDNSaaSRepository repository) {
+        this.jdnsaasRepository = repository;
+    }
+
+    /**
+     * Shutdown the operation log.
+     *
+     * @throws  InterruptedException  if interrupted while waiting for the prune to shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        logger.info("Stop the operation log ...");
+        this.prunePool.shutdownNow();
+        this.prunePool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        logger.info("Operation log stopped.");
+    }
+
+    /**
+     * Startup the operation log.
+     */
+    @PostConstruct
+    public void startup() {
+
+        logger.info("Start the operation log ...");
+
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            logger.error("Unable to create the operation log directory {}.", this.directory);
+        }
+
+        this.recover();
+
+        this.prunePool = Executors.newSingleThreadScheduledExecutor();
+        this.prunePool.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                OperationLog.this.prune();
+            }
+        }, 0, PRUNE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        logger.info("Operation log started.");
+    }
+
+    /**
+     * Submit the record operations.
+     * The operation is written to the operation log before the record operations are queued.
+     *
+     * @param  zone     the zone.
+     * @param  records  the records.
+     *
+     * @return  the pending operation.
+     *
+     * @throws  IOException  if unable to write the operation to the operation log.
+     */
+    public Operation submit(final Zone zone, final List<Record> records) throws IOException {
+
+        Operation operation = new Operation();
+        operation.setId(UUID.randomUUID().toString());
+        operation.setState(OperationState.PENDING);
+        operation.setSubmitDate(new Date());
+        operation.setViewName(zone.getViewName());
+        operation.setZoneName(zone.getName());
+
+        Entry entry = new Entry(this.sequence.incrementAndGet(), operation, new ArrayList<Record>(records));
+
+        // Write the operation to the operation log before acknowledging it.
+        this.write(entry);
+        this.entryMap.put(operation.getId(), entry);
+        this.dispatch(zone, entry);
+        logger.debug("Submitted operation {} with {} record operations.", operation.getId(), records.size());
+
+        return copy(entry);
+    }
+
+    /**
+     * Sync the operation log directory to disk so a rename in it survives a power failure.
+     * A directory can only be opened for syncing with the FileChannel.open method of Java 7, so the sync is skipped 
+     * on older runtimes and on platforms, such as Windows, that cannot open a directory.
+     *
+     * @throws  IOException  if unable to sync the directory.
+     */
+    private void syncDirectory() throws IOException {
+
+        FileChannel channel = null;
+
+        try {
+            Class<?> pathClass = Class.forName("java.nio.file.Path");
+            Object options = Array.newInstance(Class.forName("java.nio.file.OpenOption"), 1);
+            Array.set(options, 0, Class.forName("java.nio.file.StandardOpenOption").getField("READ").get(null));
+            channel = (FileChannel)FileChannel.class.getMethod("open", pathClass, options.getClass()).invoke(null, File.class.getMethod("toPath").invoke(this.directory), options);
+        } catch (InvocationTargetException e) {
+            logger.debug("Unable to open the operation log directory {} to sync it.", this.directory, e.getCause());
+        } catch (Exception e) {
+            logger.debug("Unable to sync the operation log directory {} on this runtime.", this.directory, e);
+        }
+
+        if (channel != null) {
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Write the entry to the operation log.
+     * The entry is written to a temporary file, synced to disk, and then renamed so a crash never leaves a partial entry.
+     * The directory is synced after the rename so the rename itself is durable.
+     *
+     * @param  entry  the entry.
+     *
+     * @throws  IOException  if unable to write the entry.
+     */
+    private void write(final Entry entry) throws IOException {
+
+        File temporaryFile = this.getFile(entry.getOperation().getId(), TEMPORARY_FILE_SUFFIX);
+        File file = this.getFile(entry.getOperation().getId(), FILE_SUFFIX);
+        FileOutputStream fileOutput = new FileOutputStream(temporaryFile);
+
+        try {
+            ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(fileOutput));
+            synchronized (entry) {
+                output.writeObject(entry);
+            }
+            output.flush();
+            fileOutput.getFD().sync();
+        } finally {
+            fileOutput.close();
+        }
+
+        // Replace the file.
+        if (!temporaryFile.renameTo(file) && !(file.delete() && temporaryFile.renameTo(file))) {
+            throw new IOException("Unable to rename " + temporaryFile + " to " + file + ".");
+        }
+        this.syncDirectory();
+    }
+
+    /**
+     * Entry.
+     */
+    private static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private Operation operation;
+        private List<Record> records;
+        private long sequence;
+
+        /**
+         * Create the entry.
+         *
+         * @param  sequence   the sequence.
+         * @param  operation  the operation.
+         * @param  records    the records.
+         */
+        public Entry(final long sequence, final Operation operation, final List<Record> records) {
+            this.operation = operation;
+            this.records = records;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Get the operation.
+         *
+         * @return  the operation.
+         */
+        public Operation getOperation() {
+            return this.operation;
+        }
+
+        /**
+         * Get the records.
+         *
+         * @return  the records.
+         */
+        public List<Record> getRecords() {
+            return this.records;
+        }
+
+        /**
+         * Get the sequence.
+         *
+         * @return  the sequence.
+         */
+        public long getSequence() {
+            return this.sequence;
+        }
+
+        /**
+         * Set the records.
+         *
+         * @param  records  the records.
+         */
+        public void setRecords(final List<Record> records) {
+            this.records = records;
+        }
+    }
+
+    /**
+     * Suffix filter.
+     */
+    private static class SuffixFilter implements FilenameFilter {
+
+        private String suffix;
+
+        /**
+         * Create the suffix filter.
+         *
+         * @param  suffix  the suffix.
+         */
+        public SuffixFilter(final String suffix) {
+            this.suffix = suffix;
+        }
+
+        /**
+         * Accept the file if its name ends with the suffix.
+         *
+         * @param  directory  the directory.
+         * @param  name       the file name.
+         *
+         * @return  true if the file name ends with the suffix, otherwise false.
+         */
+        @Override
+        public boolean accept(final File directory, final String name) {
+            return name.endsWith(this.suffix);
+        }
+    }
+}
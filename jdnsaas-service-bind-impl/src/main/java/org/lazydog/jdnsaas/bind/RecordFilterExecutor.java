@@ -0,0 +1,105 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.lazydog.jdnsaas.RecordFilterParallelThreshold;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.utility.RecordFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Record filter executor.
+ *
+ * Lists of records smaller than the parallel threshold are filtered on the calling thread.  Larger lists are split
+ * into one chunk per processor, filtered on a pool with one thread per processor, and merged in the original order.
+ *
+ * @author  Ron Rickard
+ */
+@ApplicationScoped
+public class RecordFilterExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordFilterExecutor.class);
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 100000;
+    private static final Long SHUTDOWN_TIMEOUT = 30000L;
+    private ExecutorService filterPool;
+    private int parallelThreshold;
+    private int processors;
+
+    /**
+     * Filter the records.
+     * 
+     * @param  recordFilter  the record filter.
+     * @param  records       the records.
+     * 
+     * @return  the filtered records.
+     * 
+     * @throws  ExecutionException    if unable to filter the records due to an exception.
+     * @throws  InterruptedException  if interrupted while filtering the records.
+     */
+    public List<Record> filter(final RecordFilter recordFilter, final List<Record> records) throws ExecutionException, InterruptedException {
+        return (this.processors > 1 && records.size() >= this.parallelThreshold) 
+                ? recordFilter.filter(records, this.filterPool, this.processors) 
+                : recordFilter.filter(records);
+    }
+
+    /**
+     * Set the parallel threshold.
+     * 
+     * @param  parallelThreshold  the parallel threshold.
+     */
+    @Inject
+    public void setParallelThreshold(@RecordFilterParallelThreshold final int parallelThreshold) {
+        this.parallelThreshold = (parallelThreshold > 0) ? parallelThreshold : DEFAULT_PARALLEL_THRESHOLD;
+        logger.info("Set the record filter parallel threshold to {}.", this.parallelThreshold);
+    }
+
+    /**
+     * Shutdown the record filter executor.
+     * 
+     * @throws  InterruptedException  if interrupted while waiting for the record filter executor to stop.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        logger.info("Stop the record filter executor ...");
+        this.filterPool.shutdown();
+        this.filterPool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        logger.info("Record filter executor stopped.");
+    }
+
+    /**
+     * Startup the record filter executor.
+     */
+    @PostConstruct
+    public void startup() {
+        logger.info("Start the record filter executor ...");
+        this.processors = Runtime.getRuntime().availableProcessors();
+        this.filterPool = Executors.newFixedThreadPool(this.processors);
+        logger.info("Record filter executor started.");
+    }
+}
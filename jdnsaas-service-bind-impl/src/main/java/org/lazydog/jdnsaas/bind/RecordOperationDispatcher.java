@@ -0,0 +1,900 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.lazydog.jdnsaas.RecordOperationBatchSize;
+import org.lazydog.jdnsaas.RecordOperationBatchWindow;
+import org.lazydog.jdnsaas.RecordOperationDispatcherThreads;
+import org.lazydog.jdnsaas.RecordOperationUpdateThreads;
+import org.lazydog.jdnsaas.bind.cache.ZoneCache;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.Resolver;
+import org.lazydog.jdnsaas.model.Zone;
+import org.lazydog.jdnsaas.model.ZoneUpdateMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Record operation dispatcher.
+ *
+ * Each zone has a queue of record operation requests that is drained by at most one thread at a time, so the
+ * record operations for a zone are sent to the DNS server one after another in arrival order while different
+ * zones are processed in parallel on a bounded pool.
+ *
+ * The queue of a zone is drained after the batch window, and everything waiting in it is group committed: the
+ * record operations are merged, in arrival order, into as few updates as the batch size allows.  Each caller waits
+ * for the update containing its record operations and receives its own results; if any record operation of a caller
+ * fails in a merged update, the record operations of that caller are retried in their own update so one caller
+ * cannot fail another.  A merged update is retried only when the DNS server rejected it or it was never sent; if the
+ * DNS server did not respond, the update may have been applied, so the callers fail rather than risk applying 
+ * their record operations twice.  When the merged record operations do not fit in one update, they are sent on 
+ * parallel lanes of the update pool, and only the callers with record operations on a lane that was not answered fail.
+ *
+ * Conditional adds, which only add records whose names do not exist, are never merged with the record operations
+ * of other callers since the prerequisite of the update would not see the records added earlier in the same update.
+ *
+ * Once the record operations are processed, the zone is updated in the zone cache from the resolver that accepted
+ * the updates before the callers are answered, so a caller that reads the zone back from the zone cache sees its own 
+ * writes even if the other resolvers have not received the updates yet.
+ *
+ * @author  Ron Rickard
+ */
+@ApplicationScoped
+public class RecordOperationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordOperationDispatcher.class);
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_THREADS = 10;
+    private static final int DEFAULT_UPDATE_THREADS = 4;
+    private static final Long REQUEST_TIMEOUT = 300000L;
+    private static final Long SHUTDOWN_TIMEOUT = 30000L;
+    private int batchSize;
+    private int batchWindow;
+    private ScheduledExecutorService dispatchPool;
+    @Inject private LookupCache lookupCache;
+    @Inject private ResolverMonitor resolverMonitor;
+    private int threads;
+    private ExecutorService updatePool;
+    private int updateThreads;
+    @Inject private ZoneCache zoneCache;
+    private ConcurrentMap<String,ZoneQueue> zoneQueueMap = new ConcurrentHashMap<String,ZoneQueue>();
+
+    /**
+     * Commit the requests.
+     *
+     * @param  zone      the zone.
+     * @param  requests  the requests.
+     *
+     * @return  the resolver that accepted the updates, or null if no update was accepted.
+     */
+    private Resolver commit(final Zone zone, final List<Request> requests) {
+
+        String key = getKey(zone);
+        logger.debug("Committing {} record operation requests for the zone {}.", requests.size(), key);
+        RecordOperationExecutor executor = this.newExecutor(zone);
+
+        // Loop through the requests grouped by update.
+        for (List<Request> group : this.group(requests)) {
+
+            // Check if there is only one request in the update.
+            if (group.size() == 1) {
+                this.commit(executor, group.get(0));
+            } else {
+
+                List<Record> records = new ArrayList<Record>();
+                for (Request request : group) {
+                    records.addAll(request.getRecords());
+                }
+
+                List<RecordOperationResult> recordOperationResults = null;
+                NoResponseException noResponseException = null;
+                try {
+                    recordOperationResults = executor.processRecordOperations(records, true, false);
+                } catch (NoResponseException e) {
+                    logger.warn("The DNS server did not respond to the merged record operations for the zone {}.", key, e);
+                    noResponseException = e;
+                    recordOperationResults = e.getRecordOperationResults();
+                } catch (DNSServerExecutorException e) {
+                    logger.warn("Unable to process the merged record operations for the zone {}.", key, e);
+                }
+
+                int offset = 0;
+                for (Request request : group) {
+
+                    List<RecordOperationResult> requestResults = (recordOperationResults != null) 
+                            ? recordOperationResults.subList(offset, offset + request.getRecords().size())
+                            : null;
+                    offset += request.getRecords().size();
+
+                    // Fail the request if an update carrying its record operations was not answered or not sent 
+                    // since the update may have been applied, so it cannot be retried safely.
+                    // Otherwise retry the request on its own if any of its record operations failed
+                    // since the failure may be caused by the record operations of another request.
+                    if (noResponseException != null && (requestResults == null || requestResults.contains(null))) {
+                        request.fail(noResponseException);
+                    } else if (isSuccess(requestResults)) {
+                        request.complete(new ArrayList<RecordOperationResult>(requestResults));
+                    } else {
+                        logger.info("Retrying the record operation request for the zone {} individually.", key);
+                        this.commit(executor, request);
+                    }
+                }
+            }
+        }
+
+        return executor.getUpdateResolver();
+    }
+
+    /**
+     * Commit the request in its own update.
+     * If a conditional add is rejected, each of its records is retried in its own update so only the records 
+     * whose names exist fail.  A conditional add can be retried safely since a record that was added is rejected 
+     * the second time.
+     *
+     * @param  executor  the record operation executor.
+     * @param  request   the request.
+     */
+    private void commit(final RecordOperationExecutor executor, final Request request) {
+        try {
+            
+            List<RecordOperationResult> recordOperationResults = executor.processRecordOperations(request.getRecords(), false, request.isIfAbsent());
+            
+            // Check if the conditional add must be retried record by record.
+            if (request.isIfAbsent() && request.getRecords().size() > 1 && !isSuccess(recordOperationResults)) {
+                logger.info("Retrying the conditional add record by record.");
+                recordOperationResults = new ArrayList<RecordOperationResult>();
+                for (Record record : request.getRecords()) {
+                    recordOperationResults.addAll(executor.processRecordOperations(Arrays.asList(record), false, true));
+                }
+            }
+            
+            request.complete(recordOperationResults);
+        } catch (DNSServerExecutorException e) {
+            request.fail(e);
+        }
+    }
+
+    /**
+     * Dispatch the requests waiting in the zone queue.
+     *
+     * @param  zoneQueue  the zone queue.
+     */
+    private void dispatch(final ZoneQueue zoneQueue) {
+
+        List<Request> requests = zoneQueue.drain();
+        Zone zone = zoneQueue.getZone();
+
+        try {
+            Resolver updateResolver = this.commit(zone, requests);
+
+            // Update the caches before answering so the callers read their own writes.
+            if (isAnySuccess(requests)) {
+                this.updateCaches(zone, updateResolver);
+            }
+        } catch (RuntimeException e) {
+
+            // Never leave a caller without a result.
+            for (Request request : requests) {
+                request.fail(new DNSServerExecutorException("Unable to commit the record operations.", e));
+            }
+        } finally {
+
+            // Answer the callers.
+            for (Request request : requests) {
+                request.finish();
+            }
+
+            // Dispatch the requests that arrived while committing.
+            if (zoneQueue.release()) {
+                this.schedule(zoneQueue, 0);
+            }
+        }
+    }
+
+    /**
+     * Get the key for the zone.
+     *
+     * @param  zone  the zone.
+     *
+     * @return  the key for the zone.
+     */
+    private static String getKey(final Zone zone) {
+        return zone.getViewName() + "/" + zone.getName();
+    }
+
+    /**
+     * Get the zone update metrics.
+     *
+     * @return  the zone update metrics for the zones that received record operations.
+     */
+    public List<ZoneUpdateMetrics> getMetrics() {
+
+        List<ZoneUpdateMetrics> metrics = new ArrayList<ZoneUpdateMetrics>();
+        for (ZoneQueue zoneQueue : this.zoneQueueMap.values()) {
+            metrics.add(zoneQueue.getMetrics());
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Get the zone queue for the zone.
+     *
+     * @param  zone  the zone.
+     *
+     * @return  the zone queue for the zone.
+     */
+    private ZoneQueue getZoneQueue(final Zone zone) {
+
+        String key = getKey(zone);
+        ZoneQueue zoneQueue = this.zoneQueueMap.get(key);
+
+        // Check if the zone does not have a queue yet.
+        if (zoneQueue == null) {
+            ZoneQueue newZoneQueue = new ZoneQueue(zone);
+            zoneQueue = this.zoneQueueMap.putIfAbsent(key, newZoneQueue);
+            if (zoneQueue == null) {
+                zoneQueue = newZoneQueue;
+            }
+        }
+
+        return zoneQueue;
+    }
+
+    /**
+     * Group the requests into updates.
+     * The requests are kept in arrival order and the record operations of one request are never split across groups.
+     * A conditional add is always in a group of its own.
+     *
+     * @param  requests  the requests.
+     *
+     * @return  the requests grouped by update.
+     */
+    private List<List<Request>> group(final List<Request> requests) {
+
+        List<List<Request>> groups = new ArrayList<List<Request>>();
+        List<Request> group = new ArrayList<Request>();
+        int groupSize = 0;
+
+        for (Request request : requests) {
+
+            // Start a new group if the request does not fit in the current group or is a conditional add,
+            // which is never merged with other requests.
+            if (!group.isEmpty() && (groupSize + request.getRecords().size() > this.batchSize || request.isIfAbsent() || group.get(0).isIfAbsent())) {
+                groups.add(group);
+                group = new ArrayList<Request>();
+                groupSize = 0;
+            }
+
+            group.add(request);
+            groupSize += request.getRecords().size();
+        }
+
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Is any request successful?
+     *
+     * @param  requests  the requests.
+     *
+     * @return  true if any record operation of the requests is successful, otherwise false.
+     */
+    private static boolean isAnySuccess(final List<Request> requests) {
+
+        boolean success = false;
+
+        for (Request request : requests) {
+            if (request.getRecordOperationResults() != null) {
+                for (RecordOperationResult recordOperationResult : request.getRecordOperationResults()) {
+                    success = success || recordOperationResult.isSuccess();
+                }
+            }
+        }
+
+        return success;
+    }
+
+    /**
+     * Are the record operations successful?
+     *
+     * @param  recordOperationResults  the record operation results.
+     *
+     * @return  true if all the record operations are successful, otherwise false.
+     */
+    private static boolean isSuccess(final List<RecordOperationResult> recordOperationResults) {
+
+        boolean success = (recordOperationResults != null);
+
+        if (success) {
+            for (RecordOperationResult recordOperationResult : recordOperationResults) {
+                success = success && recordOperationResult.isSuccess();
+            }
+        }
+
+        return success;
+    }
+
+    /**
+     * Create the record operation executor for the zone.
+     *
+     * @param  zone  the zone.
+     *
+     * @return  the record operation executor that sends the updates to the DNS server for the zone.
+     */
+    RecordOperationExecutor newExecutor(final Zone zone) {
+
+        final DNSServerExecutor executor = DNSServerExecutor.newInstance(zone, this.resolverMonitor, this.updatePool, this.updateThreads);
+
+        return new RecordOperationExecutor() {
+            @Override
+            public Resolver getUpdateResolver() {
+                return executor.getUpdateResolver();
+            }
+
+            @Override
+            public List<RecordOperationResult> processRecordOperations(final List<Record> records, final boolean failOnNoResponse, final boolean ifAbsent) throws DNSServerExecutorException {
+                return executor.processRecordOperations(records, failOnNoResponse, ifAbsent);
+            }
+        };
+    }
+
+    /**
+     * Create unsuccessful record operation results for the records.
+     *
+     * @param  records  the records.
+     * @param  message  the message.
+     *
+     * @return  an unsuccessful record operation result for each record in the order of the records.
+     */
+    static List<RecordOperationResult> newFailedResults(final List<Record> records, final String message) {
+
+        List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+        for (Record record : records) {
+            recordOperationResults.add(RecordOperationResult.newInstance(record, false, message));
+        }
+
+        return recordOperationResults;
+    }
+
+    /**
+     * Process the record operations.
+     * The calling thread waits until the update containing the record operations is processed.
+     *
+     * @param  zone     the zone.
+     * @param  records  the records.
+     *
+     * @return  the record operation results, one for each record in the order of the records.
+     *
+     * @throws  DNSServerExecutorException  if unable to process the record operations due to an exception.
+     * @throws  InterruptedException        if interrupted while waiting for the record operations to be processed.
+     */
+    public List<RecordOperationResult> process(final Zone zone, final List<Record> records) throws DNSServerExecutorException, InterruptedException {
+        return this.submit(zone, new Request(records, null)).await();
+    }
+
+    /**
+     * Process the record operations asynchronously.
+     * The record operations are queued behind the record operations already submitted for the zone 
+     * before this method returns, and the callback is notified once they are processed.
+     *
+     * @param  zone      the zone.
+     * @param  records   the records.
+     * @param  callback  the callback.
+     */
+    public void process(final Zone zone, final List<Record> records, final Callback callback) {
+        this.submit(zone, new Request(records, callback));
+    }
+
+    /**
+     * Process the record operations of the zones.
+     * The requests for all the zones are submitted before waiting, so the zones are dispatched in parallel 
+     * by the dispatch pool.  The calling thread waits until the record operations of every zone are processed.
+     *
+     * @param  zoneRecords  the records by zone.
+     *
+     * @return  the record operation results, one for each record in the order of the records, by zone.  The record 
+     *          operations of a zone that could not be processed have unsuccessful record operation results.
+     *
+     * @throws  InterruptedException  if interrupted while waiting for the record operations to be processed.
+     */
+    public Map<Zone,List<RecordOperationResult>> process(final Map<Zone,List<Record>> zoneRecords) throws InterruptedException {
+
+        Map<Zone,Request> requests = new LinkedHashMap<Zone,Request>();
+        Map<Zone,List<RecordOperationResult>> zoneRecordOperationResults = new LinkedHashMap<Zone,List<RecordOperationResult>>();
+
+        // Submit the requests.
+        for (Map.Entry<Zone,List<Record>> entry : zoneRecords.entrySet()) {
+            requests.put(entry.getKey(), this.submit(entry.getKey(), new Request(entry.getValue(), null)));
+        }
+
+        // Wait for the requests.
+        for (Map.Entry<Zone,Request> entry : requests.entrySet()) {
+            try {
+                zoneRecordOperationResults.put(entry.getKey(), entry.getValue().await());
+            } catch (DNSServerExecutorException e) {
+                logger.warn("Unable to process the record operations for the zone {}.", getKey(entry.getKey()), e);
+                zoneRecordOperationResults.put(entry.getKey(), newFailedResults(entry.getValue().getRecords(), e.getMessage()));
+            }
+        }
+
+        return zoneRecordOperationResults;
+    }
+
+    /**
+     * Add the records unless their names exist.
+     * The records are added in their own update, never merged with the record operations of other callers, 
+     * and if the update is rejected each record is retried on its own so only the records whose names exist fail.
+     * The calling thread waits until the records are processed.
+     *
+     * @param  zone     the zone.
+     * @param  records  the records.
+     *
+     * @return  the record operation results, one for each record in the order of the records.  The records 
+     *          that could not be added have unsuccessful record operation results.
+     *
+     * @throws  InterruptedException  if interrupted while waiting for the records to be processed.
+     */
+    public List<RecordOperationResult> processIfAbsent(final Zone zone, final List<Record> records) throws InterruptedException {
+
+        List<RecordOperationResult> recordOperationResults;
+
+        try {
+            recordOperationResults = this.submit(zone, new Request(records, null, true)).await();
+        } catch (DNSServerExecutorException e) {
+            logger.warn("Unable to add the records for the zone {}.", getKey(zone), e);
+            recordOperationResults = newFailedResults(records, e.getMessage());
+        }
+
+        return recordOperationResults;
+    }
+
+    /**
+     * Schedule the zone queue to be dispatched.
+     * If the dispatch pool is shut down, the requests waiting in the zone queue fail and the zone queue is released.
+     *
+     * @param  zoneQueue  the zone queue.
+     * @param  delay      the delay in milliseconds.
+     */
+    private void schedule(final ZoneQueue zoneQueue, final long delay) {
+        try {
+            this.dispatchPool.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    RecordOperationDispatcher.this.dispatch(zoneQueue);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+
+            logger.warn("Unable to dispatch the record operations for the zone {} since the dispatcher is shut down.", getKey(zoneQueue.getZone()));
+
+            // Answer the callers until no more requests arrive.
+            do {
+                for (Request request : zoneQueue.drain()) {
+                    request.fail(new DNSServerExecutorException("Unable to process the record operations since the record operation dispatcher is shut down.", e));
+                    request.finish();
+                }
+            } while (zoneQueue.release());
+        }
+    }
+
+    /**
+     * Set the batch size.
+     *
+     * @param  batchSize  the maximum number of records merged into one update.
+     */
+    @Inject
+    public void setBatchSize(@RecordOperationBatchSize final int batchSize) {
+        this.batchSize = (batchSize > 0) ? batchSize : DEFAULT_BATCH_SIZE;
+        logger.info("Set the record operation batch size to {}.", this.batchSize);
+    }
+
+    /**
+     * Set the batch window.
+     *
+     * @param  batchWindow  the batch window in milliseconds, or zero to dispatch without waiting.
+     */
+    @Inject
+    public void setBatchWindow(@RecordOperationBatchWindow final int batchWindow) {
+        this.batchWindow = (batchWindow > 0) ? batchWindow : 0;
+        logger.info("Set the record operation batch window to {}.", this.batchWindow);
+    }
+
+    /**
+     * Set the threads.
+     *
+     * @param  threads  the number of zones dispatched in parallel.
+     */
+    @Inject
+    public void setThreads(@RecordOperationDispatcherThreads final int threads) {
+        this.threads = (threads > 0) ? threads : DEFAULT_THREADS;
+        logger.info("Set the record operation dispatcher threads to {}.", this.threads);
+    }
+
+    /**
+     * Set the update threads.
+     *
+     * @param  updateThreads  the maximum number of updates sent in parallel for record operations that do not fit in one update.
+     */
+    @Inject
+    public void setUpdateThreads(@RecordOperationUpdateThreads final int updateThreads) {
+        this.updateThreads = (updateThreads > 0) ? updateThreads : DEFAULT_UPDATE_THREADS;
+        logger.info("Set the record operation update threads to {}.", this.updateThreads);
+    }
+
+    /**
+     * Shutdown the record operation dispatcher.
+     *
+     * @throws  InterruptedException  if interrupted while waiting for the zone queues to be dispatched.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        logger.info("Stop the record operation dispatcher ...");
+        this.dispatchPool.shutdown();
+        this.dispatchPool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        this.updatePool.shutdown();
+        this.updatePool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        logger.info("Record operation dispatcher stopped.");
+    }
+
+    /**
+     * Startup the record operation dispatcher.
+     */
+    @PostConstruct
+    public void startup() {
+        logger.info("Start the record operation dispatcher ...");
+        this.dispatchPool = Executors.newScheduledThreadPool(this.threads);
+        this.updatePool = Executors.newFixedThreadPool(this.updateThreads);
+        logger.info("Record operation dispatcher started.");
+    }
+
+    /**
+     * Submit the request to the zone queue.
+     *
+     * @param  zone     the zone.
+     * @param  request  the request.
+     *
+     * @return  the request.
+     */
+    private Request submit(final Zone zone, final Request request) {
+
+        ZoneQueue zoneQueue = this.getZoneQueue(zone);
+
+        // Add the request to the zone queue and schedule the zone queue if it is idle.
+        if (zoneQueue.offer(zone, request)) {
+            this.schedule(zoneQueue, this.batchWindow);
+        }
+
+        return request;
+    }
+
+    /**
+     * Update the caches for the zone.
+     *
+     * @param  zone            the zone.
+     * @param  updateResolver  the resolver that accepted the updates, or null if unknown.
+     */
+    void updateCaches(final Zone zone, final Resolver updateResolver) {
+        this.lookupCache.invalidate(zone);
+        this.zoneCache.updateZoneNow(zone, updateResolver);
+    }
+
+    /**
+     * Callback notified when asynchronous record operations are processed.
+     */
+    public interface Callback {
+
+        /**
+         * The record operations are processed.
+         *
+         * @param  recordOperationResults  the record operation results.
+         */
+        void completed(List<RecordOperationResult> recordOperationResults);
+
+        /**
+         * The record operations could not be processed.
+         *
+         * @param  exception  the exception.
+         */
+        void failed(DNSServerExecutorException exception);
+    }
+
+    /**
+     * Record operation executor.
+     */
+    interface RecordOperationExecutor {
+
+        /**
+         * Get the update resolver.
+         *
+         * @return  the resolver that accepted the last update, or null if no update was accepted.
+         */
+        Resolver getUpdateResolver();
+
+        /**
+         * Process the record operations.
+         *
+         * @param  records           the records.
+         * @param  failOnNoResponse  true if the record operations fail when the DNS server does not respond to an update, otherwise false.
+         * @param  ifAbsent          true if the records are only added when their names do not exist, otherwise false.
+         *
+         * @return  the record operation results, one for each record in the order of the records.
+         *
+         * @throws  DNSServerExecutorException  if unable to process the record operations due to an exception.
+         * @throws  NoResponseException         if the DNS server did not respond to an update and failOnNoResponse is true.
+         */
+        List<RecordOperationResult> processRecordOperations(List<Record> records, boolean failOnNoResponse, boolean ifAbsent) throws DNSServerExecutorException;
+    }
+
+    /**
+     * Request.
+     */
+    private static class Request {
+
+        private Callback callback;
+        private long createTime = System.nanoTime();
+        private DNSServerExecutorException exception;
+        private boolean ifAbsent;
+        private CountDownLatch latch = new CountDownLatch(1);
+        private List<RecordOperationResult> recordOperationResults;
+        private List<Record> records;
+
+        /**
+         * Create the request.
+         *
+         * @param  records   the records.
+         * @param  callback  the callback, or null if the caller waits for the request.
+         */
+        public Request(final List<Record> records, final Callback callback) {
+            this(records, callback, false);
+        }
+
+        /**
+         * Create the request.
+         *
+         * @param  records   the records.
+         * @param  callback  the callback, or null if the caller waits for the request.
+         * @param  ifAbsent  true if the records are only added when their names do not exist, otherwise false.
+         */
+        public Request(final List<Record> records, final Callback callback, final boolean ifAbsent) {
+            this.callback = callback;
+            this.ifAbsent = ifAbsent;
+            this.records = records;
+        }
+
+        /**
+         * Wait for the request to be processed.
+         *
+         * @return  the record operation results.
+         *
+         * @throws  DNSServerExecutorException  if unable to process the record operations due to an exception, or 
+         *                                      if the request is not processed before the request timeout.
+         * @throws  InterruptedException        if interrupted while waiting.
+         */
+        public List<RecordOperationResult> await() throws DNSServerExecutorException, InterruptedException {
+
+            if (!this.latch.await(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new DNSServerExecutorException("Timed out waiting for the record operations to be processed; they may still be applied.");
+            }
+            if (this.exception != null) {
+                throw this.exception;
+            }
+
+            return this.recordOperationResults;
+        }
+
+        /**
+         * Complete the request.
+         * The caller is answered once the request is finished.
+         *
+         * @param  recordOperationResults  the record operation results.
+         */
+        public void complete(final List<RecordOperationResult> recordOperationResults) {
+            this.recordOperationResults = recordOperationResults;
+        }
+
+        /**
+         * Fail the request unless it is already completed.
+         * The caller is answered once the request is finished.
+         *
+         * @param  exception  the exception.
+         */
+        public void fail(final DNSServerExecutorException exception) {
+            if (this.recordOperationResults == null && this.exception == null) {
+                this.exception = exception;
+            }
+        }
+
+        /**
+         * Finish the request and answer the caller.
+         */
+        public void finish() {
+            if (this.latch.getCount() > 0) {
+                this.latch.countDown();
+                if (this.callback != null && this.exception != null) {
+                    this.callback.failed(this.exception);
+                } else if (this.callback != null) {
+                    this.callback.completed(this.recordOperationResults);
+                }
+            }
+        }
+
+        /**
+         * Get the create time.
+         *
+         * @return  the create time in nanoseconds.
+         */
+        public long getCreateTime() {
+            return this.createTime;
+        }
+
+        /**
+         * Get the record operation results.
+         *
+         * @return  the record operation results, or null if the request is not completed.
+         */
+        public List<RecordOperationResult> getRecordOperationResults() {
+            return this.recordOperationResults;
+        }
+
+        /**
+         * Get the records.
+         *
+         * @return  the records.
+         */
+        public List<Record> getRecords() {
+            return this.records;
+        }
+
+        /**
+         * Is the request a conditional add?
+         *
+         * @return  true if the records are only added when their names do not exist, otherwise false.
+         */
+        public boolean isIfAbsent() {
+            return this.ifAbsent;
+        }
+    }
+
+    /**
+     * Zone queue.
+     */
+    private static class ZoneQueue {
+
+        private boolean active;
+        private int maximumQueueDepth;
+        private long maximumWaitTime;
+        private long processedCount;
+        private LinkedList<Request> requests = new LinkedList<Request>();
+        private long totalWaitTime;
+        private Zone zone;
+
+        /**
+         * Create the zone queue.
+         *
+         * @param  zone  the zone.
+         */
+        public ZoneQueue(final Zone zone) {
+            this.zone = zone;
+        }
+
+        /**
+         * Drain the requests waiting in the zone queue.
+         *
+         * @return  the requests in arrival order.
+         */
+        public synchronized List<Request> drain() {
+
+            List<Request> drainedRequests = new ArrayList<Request>(this.requests);
+            this.requests.clear();
+
+            // Record how long the requests waited.
+            long now = System.nanoTime();
+            for (Request request : drainedRequests) {
+                long waitTime = now - request.getCreateTime();
+                this.maximumWaitTime = Math.max(this.maximumWaitTime, waitTime);
+                this.totalWaitTime += waitTime;
+                this.processedCount++;
+            }
+
+            return drainedRequests;
+        }
+
+        /**
+         * Get the zone update metrics.
+         *
+         * @return  the zone update metrics.
+         */
+        public synchronized ZoneUpdateMetrics getMetrics() {
+
+            ZoneUpdateMetrics metrics = new ZoneUpdateMetrics();
+            metrics.setAverageWaitTime((this.processedCount > 0) ? TimeUnit.NANOSECONDS.toMillis(this.totalWaitTime / this.processedCount) : 0L);
+            metrics.setMaximumQueueDepth(this.maximumQueueDepth);
+            metrics.setMaximumWaitTime(TimeUnit.NANOSECONDS.toMillis(this.maximumWaitTime));
+            metrics.setProcessedCount(this.processedCount);
+            metrics.setQueueDepth(this.requests.size());
+            metrics.setViewName(this.zone.getViewName());
+            metrics.setZoneName(this.zone.getName());
+
+            return metrics;
+        }
+
+        /**
+         * Get the zone.
+         *
+         * @return  the zone.
+         */
+        public synchronized Zone getZone() {
+            return this.zone;
+        }
+
+        /**
+         * Offer the request to the zone queue.
+         *
+         * @param  zone     the zone, which replaces the zone of the queue so the latest configuration is used.
+         * @param  request  the request.
+         *
+         * @return  true if the zone queue was idle and must be scheduled, otherwise false.
+         */
+        public synchronized boolean offer(final Zone zone, final Request request) {
+
+            this.zone = zone;
+            this.requests.add(request);
+            this.maximumQueueDepth = Math.max(this.maximumQueueDepth, this.requests.size());
+
+            boolean schedule = !this.active;
+            this.active = true;
+
+            return schedule;
+        }
+
+        /**
+         * Release the zone queue after dispatching.
+         *
+         * @return  true if requests arrived while dispatching and the zone queue must be scheduled again, otherwise false.
+         */
+        public synchronized boolean release() {
+            this.active = !this.requests.isEmpty();
+            return this.active;
+        }
+    }
+}
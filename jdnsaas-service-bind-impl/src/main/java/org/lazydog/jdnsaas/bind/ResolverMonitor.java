@@ -0,0 +1,543 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.lazydog.jdnsaas.HedgedReadEnabled;
+import org.lazydog.jdnsaas.HedgedReadPercentile;
+import org.lazydog.jdnsaas.ResolverMonitorFailureThreshold;
+import org.lazydog.jdnsaas.ResolverMonitorProbeInterval;
+import org.lazydog.jdnsaas.ResolverMonitorRequestThreads;
+import org.lazydog.jdnsaas.model.Resolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.SimpleResolver;
+import org.xbill.DNS.Type;
+
+/**
+ * Resolver monitor.
+ *
+ * Tracks the health of each resolver (the latency and error rate as exponentially weighted moving averages)
+ * and opens a circuit for a resolver after consecutive failures.  Resolvers with an open circuit are skipped
+ * until a background probe receives a response from them.  A zone transfer counts as a response, but its
+ * duration is not a latency, so a zone transfer does not make a resolver look slow.  The latency of updates,
+ * which wait for the primary to commit, is averaged apart from the latency of lookups and only orders the
+ * resolvers for updates.
+ *
+ * The latency samples of lookups also determine the delay before a lookup is hedged,
+ * that is, sent to the next resolver while the first resolver has not answered yet.  Zone transfers
+ * are never hedged.
+ *
+ * @author  Ron Rickard
+ */
+@ApplicationScoped
+public class ResolverMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResolverMonitor.class);
+    private static final double DEFAULT_SMOOTHING_FACTOR = 0.2;
+    private static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    private static final long DEFAULT_HEDGE_DELAY = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAILURE_LATENCY = TimeUnit.SECONDS.toNanos(10);
+    private static final int DEFAULT_HEDGED_READ_PERCENTILE = 95;
+    private static final int DEFAULT_PROBE_INTERVAL = 30;
+    private static final int DEFAULT_REQUEST_THREADS = 20;
+    private static final int LATENCY_SAMPLE_SIZE = 128;
+    private static final int MINIMUM_LATENCY_SAMPLES = 16;
+    private static final Long SHUTDOWN_TIMEOUT = 30000L;
+    private int failureThreshold;
+    private ConcurrentMap<String,ResolverHealth> healthMap = new ConcurrentHashMap<String,ResolverHealth>();
+    private boolean hedgedReadEnabled;
+    private int hedgedReadPercentile;
+    private int probeInterval;
+    private ScheduledExecutorService probePool;
+    private ExecutorService requestPool;
+    private int requestThreads;
+
+    /**
+     * Get the health for the resolver.
+     *
+     * @param  resolver  the resolver.
+     *
+     * @return  the health for the resolver.
+     */
+    private ResolverHealth getHealth(final Resolver resolver) {
+
+        String key = getKey(resolver);
+        ResolverHealth health = this.healthMap.get(key);
+
+        // Check if the resolver is not being monitored yet.
+        if (health == null) {
+            ResolverHealth newHealth = new ResolverHealth(resolver);
+            health = this.healthMap.putIfAbsent(key, newHealth);
+            if (health == null) {
+                health = newHealth;
+            }
+        }
+
+        return health;
+    }
+
+    /**
+     * Get the hedge delay for the resolver.
+     * The hedge delay is the configured percentile of the recent latencies of the resolver.
+     * 
+     * @param  resolver  the resolver.
+     * 
+     * @return  the hedge delay in nanoseconds.
+     */
+    public long getHedgeDelay(final Resolver resolver) {
+        long hedgeDelay = this.getHealth(resolver).getLatencyPercentile(this.hedgedReadPercentile);
+        return (hedgeDelay > 0) ? hedgeDelay : DEFAULT_HEDGE_DELAY;
+    }
+
+    /**
+     * Get the key for the resolver.
+     *
+     * @param  resolver  the resolver.
+     *
+     * @return  the key for the resolver.
+     */
+    private static String getKey(final Resolver resolver) {
+        return resolver.getAddress() + "#" + resolver.getPort();
+    }
+
+    /**
+     * Get the request pool.
+     * 
+     * @return  the executor service used to send concurrent requests to the resolvers.
+     */
+    public ExecutorService getRequestPool() {
+        return this.requestPool;
+    }
+
+    /**
+     * Is the resolver available?
+     *
+     * @param  resolver  the resolver.
+     *
+     * @return  true if the circuit for the resolver is closed, otherwise false.
+     */
+    public boolean isAvailable(final Resolver resolver) {
+        return !this.getHealth(resolver).isCircuitOpen();
+    }
+
+    /**
+     * Is hedging of read requests enabled?
+     * 
+     * @return  true if hedging of read requests is enabled, otherwise false.
+     */
+    public boolean isHedgedReadEnabled() {
+        return this.hedgedReadEnabled;
+    }
+
+    /**
+     * Probe the resolvers with an open circuit.
+     */
+    private void probe() {
+
+        // Loop through the monitored resolvers.
+        for (ResolverHealth health : this.healthMap.values()) {
+
+            // Check if the circuit for the resolver is open.
+            if (health.isCircuitOpen()) {
+
+                try {
+
+                    // Any response, regardless of the response code, means the resolver is reachable.
+                    SimpleResolver simpleResolver = new SimpleResolver();
+                    simpleResolver.setAddress(new InetSocketAddress(health.getResolver().getAddress(), health.getResolver().getPort()));
+                    long startTime = System.nanoTime();
+                    simpleResolver.send(Message.newQuery(org.xbill.DNS.Record.newRecord(Name.root, Type.SOA, DClass.IN)));
+                    this.recordSuccess(health.getResolver(), System.nanoTime() - startTime);
+                    logger.info("The probe of the resolver {} succeeded; closed the circuit.", getKey(health.getResolver()));
+                } catch (Exception e) {
+                    logger.debug("The probe of the resolver {} failed; the circuit remains open.", getKey(health.getResolver()), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record a failed request to the resolver.
+     *
+     * @param  resolver  the resolver.
+     */
+    public void recordFailure(final Resolver resolver) {
+        if (this.getHealth(resolver).recordFailure(this.failureThreshold)) {
+            logger.warn("The resolver {} failed {} consecutive requests; opened the circuit.", getKey(resolver), this.failureThreshold);
+        }
+    }
+
+    /**
+     * Record a successful lookup to the resolver.
+     *
+     * @param  resolver  the resolver.
+     * @param  latency   the latency in nanoseconds.
+     */
+    public void recordSuccess(final Resolver resolver, final long latency) {
+        this.getHealth(resolver).recordSuccess(latency);
+    }
+
+    /**
+     * Record a successful zone transfer from the resolver.
+     * The duration of the zone transfer does not affect the latency of the resolver.
+     *
+     * @param  resolver  the resolver.
+     */
+    public void recordTransferSuccess(final Resolver resolver) {
+        this.getHealth(resolver).recordTransferSuccess();
+    }
+
+    /**
+     * Record a successful update to the resolver.
+     * The latency of the update does not affect the latency of lookups or the hedge delay.
+     *
+     * @param  resolver  the resolver.
+     * @param  latency   the latency in nanoseconds.
+     */
+    public void recordUpdateSuccess(final Resolver resolver, final long latency) {
+        this.getHealth(resolver).recordUpdateSuccess(latency);
+    }
+
+    /**
+     * Select the resolvers for lookups.
+     * The available resolvers are ordered by their expected latency, fastest first.  The expected latency 
+     * weighs the average latency of a resolver against its error rate, counting a failure as a timeout.
+     * If no resolver is available, all the resolvers are returned in their original order as a last resort.
+     *
+     * @param  resolvers  the resolvers.
+     *
+     * @return  the selected resolvers.
+     */
+    public List<Resolver> selectResolvers(final List<Resolver> resolvers) {
+        return this.selectResolvers(resolvers, false);
+    }
+
+    /**
+     * Select the resolvers.
+     *
+     * @param  resolvers  the resolvers.
+     * @param  update     true if the resolvers are ordered by their expected update latency, otherwise false.
+     *
+     * @return  the selected resolvers.
+     */
+    private List<Resolver> selectResolvers(final List<Resolver> resolvers, final boolean update) {
+
+        List<ResolverHealth> availableHealths = new ArrayList<ResolverHealth>();
+
+        // Loop through the resolvers.
+        for (Resolver resolver : resolvers) {
+
+            // Check if the resolver is available.
+            ResolverHealth health = this.getHealth(resolver);
+            if (!health.isCircuitOpen()) {
+                availableHealths.add(health);
+            }
+        }
+
+        List<Resolver> selectedResolvers = new ArrayList<Resolver>(resolvers);
+
+        // Check if there are available resolvers.
+        if (!availableHealths.isEmpty()) {
+
+            // Sort the available resolvers by their expected latency.
+            Collections.sort(availableHealths, new Comparator<ResolverHealth>() {
+                @Override
+                public int compare(final ResolverHealth health1, final ResolverHealth health2) {
+                    return Double.compare(health1.getExpectedLatency(update), health2.getExpectedLatency(update));
+                }
+            });
+
+            selectedResolvers.clear();
+            for (ResolverHealth health : availableHealths) {
+                selectedResolvers.add(health.getResolver());
+            }
+        } else {
+            logger.warn("No resolver is available; using all the resolvers {}.", resolvers);
+        }
+
+        return selectedResolvers;
+    }
+
+    /**
+     * Select the resolvers for updates.
+     * The available resolvers are ordered by their expected update latency, fastest first, the same way as 
+     * the resolvers for lookups are ordered by their expected latency.
+     *
+     * @param  resolvers  the resolvers.
+     *
+     * @return  the selected resolvers.
+     */
+    public List<Resolver> selectUpdateResolvers(final List<Resolver> resolvers) {
+        return this.selectResolvers(resolvers, true);
+    }
+
+    /**
+     * Set the failure threshold.
+     *
+     * @param  failureThreshold  the number of consecutive failures that open the circuit for a resolver.
+     */
+    @Inject
+    public void setFailureThreshold(@ResolverMonitorFailureThreshold final int failureThreshold) {
+        this.failureThreshold = (failureThreshold > 0) ? failureThreshold : DEFAULT_FAILURE_THRESHOLD;
+        logger.info("Set the resolver monitor failure threshold to {}.", this.failureThreshold);
+    }
+
+    /**
+     * Set hedged read enabled.
+     * 
+     * @param  hedgedReadEnabled  true if hedging of read requests is enabled, otherwise false.
+     */
+    @Inject
+    public void setHedgedReadEnabled(@HedgedReadEnabled final boolean hedgedReadEnabled) {
+        this.hedgedReadEnabled = hedgedReadEnabled;
+        logger.info("Set the hedged read enabled to {}.", this.hedgedReadEnabled);
+    }
+
+    /**
+     * Set the hedged read percentile.
+     * 
+     * @param  hedgedReadPercentile  the latency percentile after which a read request is hedged.
+     */
+    @Inject
+    public void setHedgedReadPercentile(@HedgedReadPercentile final int hedgedReadPercentile) {
+        this.hedgedReadPercentile = (hedgedReadPercentile > 0 && hedgedReadPercentile <= 100) ? hedgedReadPercentile : DEFAULT_HEDGED_READ_PERCENTILE;
+        logger.info("Set the hedged read percentile to {}.", this.hedgedReadPercentile);
+    }
+
+    /**
+     * Set the probe interval.
+     *
+     * @param  probeInterval  the interval, in seconds, between probes of the resolvers with an open circuit.
+     */
+    @Inject
+    public void setProbeInterval(@ResolverMonitorProbeInterval final int probeInterval) {
+        this.probeInterval = (probeInterval > 0) ? probeInterval : DEFAULT_PROBE_INTERVAL;
+        logger.info("Set the resolver monitor probe interval to {}.", this.probeInterval);
+    }
+
+    /**
+     * Set the request threads.
+     *
+     * @param  requestThreads  the number of requests sent concurrently to the resolvers on behalf of other requests.
+     */
+    @Inject
+    public void setRequestThreads(@ResolverMonitorRequestThreads final int requestThreads) {
+        this.requestThreads = (requestThreads > 0) ? requestThreads : DEFAULT_REQUEST_THREADS;
+        logger.info("Set the resolver monitor request threads to {}.", this.requestThreads);
+    }
+
+    /**
+     * Shutdown the resolver monitor.
+     *
+     * @throws  InterruptedException  if interrupted while waiting for the probe to shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        logger.info("Stop the resolver monitor ...");
+        this.probePool.shutdownNow();
+        this.requestPool.shutdownNow();
+        this.probePool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        this.requestPool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        logger.info("Resolver monitor stopped.");
+    }
+
+    /**
+     * Startup the resolver monitor.
+     */
+    @PostConstruct
+    public void startup() {
+        logger.info("Start the resolver monitor ...");
+        this.requestPool = Executors.newFixedThreadPool(this.requestThreads);
+        this.probePool = Executors.newSingleThreadScheduledExecutor();
+        this.probePool.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                ResolverMonitor.this.probe();
+            }
+        }, this.probeInterval, this.probeInterval, TimeUnit.SECONDS);
+        logger.info("Resolver monitor started.");
+    }
+
+    /**
+     * Resolver health.
+     */
+    private static class ResolverHealth {
+
+        private double averageLatency;
+        private double averageUpdateLatency;
+        private boolean circuitOpen;
+        private int consecutiveFailures;
+        private double errorRate;
+        private int latencySampleCount;
+        private int latencySampleIndex;
+        private long[] latencySamples = new long[LATENCY_SAMPLE_SIZE];
+        private Resolver resolver;
+
+        /**
+         * Create the resolver health.
+         *
+         * @param  resolver  the resolver.
+         */
+        public ResolverHealth(final Resolver resolver) {
+            this.resolver = resolver;
+        }
+
+        /**
+         * Get the expected latency.
+         * The expected latency is the average latency weighed against the error rate, counting a failure as a timeout.
+         *
+         * @param  update  true for the expected latency of updates, otherwise false for the expected latency of lookups.
+         *
+         * @return  the expected latency in nanoseconds.
+         */
+        public synchronized double getExpectedLatency(final boolean update) {
+            return (1 - this.errorRate) * ((update) ? this.averageUpdateLatency : this.averageLatency) + this.errorRate * FAILURE_LATENCY;
+        }
+
+        /**
+         * Get the latency percentile.
+         *
+         * @param  percentile  the percentile.
+         *
+         * @return  the latency percentile in nanoseconds, or zero if there are not enough latency samples.
+         */
+        public long getLatencyPercentile(final int percentile) {
+
+            long[] samples;
+
+            synchronized (this) {
+                if (this.latencySampleCount < MINIMUM_LATENCY_SAMPLES) {
+                    return 0;
+                }
+                samples = Arrays.copyOf(this.latencySamples, this.latencySampleCount);
+            }
+
+            Arrays.sort(samples);
+
+            return samples[Math.max(0, (int)Math.ceil(percentile / 100.0 * samples.length) - 1)];
+        }
+
+        /**
+         * Get the resolver.
+         *
+         * @return  the resolver.
+         */
+        public Resolver getResolver() {
+            return this.resolver;
+        }
+
+        /**
+         * Is the circuit open?
+         *
+         * @return  true if the circuit is open, otherwise false.
+         */
+        public synchronized boolean isCircuitOpen() {
+            return this.circuitOpen;
+        }
+
+        /**
+         * Record a failure.
+         *
+         * @param  failureThreshold  the number of consecutive failures that open the circuit.
+         *
+         * @return  true if the failure opened the circuit, otherwise false.
+         */
+        public synchronized boolean recordFailure(final int failureThreshold) {
+
+            this.errorRate = DEFAULT_SMOOTHING_FACTOR + (1 - DEFAULT_SMOOTHING_FACTOR) * this.errorRate;
+            this.consecutiveFailures++;
+
+            boolean opened = (!this.circuitOpen && this.consecutiveFailures >= failureThreshold);
+            if (opened) {
+                this.circuitOpen = true;
+            }
+
+            return opened;
+        }
+
+        /**
+         * Record a lookup success.
+         *
+         * @param  latency  the latency in nanoseconds.
+         */
+        public synchronized void recordSuccess(final long latency) {
+            this.averageLatency = (this.averageLatency == 0) ? latency : DEFAULT_SMOOTHING_FACTOR * latency + (1 - DEFAULT_SMOOTHING_FACTOR) * this.averageLatency;
+            this.latencySamples[this.latencySampleIndex] = latency;
+            this.latencySampleIndex = (this.latencySampleIndex + 1) % LATENCY_SAMPLE_SIZE;
+            this.latencySampleCount = Math.min(this.latencySampleCount + 1, LATENCY_SAMPLE_SIZE);
+            this.recordResponse();
+        }
+
+        /**
+         * Record a response.
+         * A response from the resolver lowers the error rate and closes the circuit.
+         */
+        private void recordResponse() {
+            this.errorRate = (1 - DEFAULT_SMOOTHING_FACTOR) * this.errorRate;
+            this.consecutiveFailures = 0;
+            this.circuitOpen = false;
+        }
+
+        /**
+         * Record a zone transfer success.
+         */
+        public synchronized void recordTransferSuccess() {
+            this.recordResponse();
+        }
+
+        /**
+         * Record an update success.
+         *
+         * @param  latency  the latency in nanoseconds.
+         */
+        public synchronized void recordUpdateSuccess(final long latency) {
+            this.averageUpdateLatency = (this.averageUpdateLatency == 0) ? latency : DEFAULT_SMOOTHING_FACTOR * latency + (1 - DEFAULT_SMOOTHING_FACTOR) * this.averageUpdateLatency;
+            this.recordResponse();
+        }
+
+        /**
+         * Get this object as a string.
+         *
+         * @return  this object as a string.
+         */
+        @Override
+        public synchronized String toString() {
+            return getKey(this.resolver) + "[averageLatency=" + this.averageLatency + ",averageUpdateLatency=" + this.averageUpdateLatency + ",errorRate=" + this.errorRate + ",circuitOpen=" + this.circuitOpen + "]";
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.Zone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Zone transfer coalescer.
+ *
+ * Coalesces concurrent full zone transfers for the same zone into one.  The first caller for a zone runs the 
+ * zone transfer; callers that arrive while it is in flight wait for it and share its records.  Once the zone 
+ * transfer finishes, the next caller starts a new one, so the records are never older than the call.
+ *
+ * The shared records are unmodifiable since every waiting caller receives the same list.
+ *
+ * @author  Ron Rickard
+ */
+@ApplicationScoped
+public class ZoneTransferCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZoneTransferCoalescer.class);
+    private ConcurrentMap<String,FutureTask<List<Record>>> inFlightMap = new ConcurrentHashMap<String,FutureTask<List<Record>>>();
+    private ResolverMonitor resolverMonitor;
+
+    /**
+     * Find the records with a full zone transfer.
+     *
+     * @param  zone  the zone.
+     *
+     * @return  the unmodifiable records.
+     *
+     * @throws  DNSServerExecutorException  if unable to find the records due to an exception.
+     */
+    public List<Record> findRecords(final Zone zone) throws DNSServerExecutorException {
+
+        String key = zone.getViewName() + "/" + zone.getName();
+        FutureTask<List<Record>> newTask = new FutureTask<List<Record>>(new Callable<List<Record>>() {
+            @Override
+            public List<Record> call() throws Exception {
+                return Collections.unmodifiableList(ZoneTransferCoalescer.this.transferZone(zone));
+            }
+        });
+        FutureTask<List<Record>> task = this.inFlightMap.putIfAbsent(key, newTask);
+
+        // Check if there is no zone transfer in flight for the zone.
+        if (task == null) {
+            task = newTask;
+            try {
+                task.run();
+            } finally {
+                this.inFlightMap.remove(key, task);
+            }
+        } else {
+            logger.debug("Joining the zone transfer in flight for the zone {}.", key);
+        }
+
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DNSServerExecutorException) {
+                throw (DNSServerExecutorException)e.getCause();
+            }
+            throw new DNSServerExecutorException("Unable to find the records for the zone " + key + ".", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DNSServerExecutorException("Interrupted while waiting for the zone transfer for the zone " + key + ".", e);
+        }
+    }
+
+    /**
+     * Set the resolver monitor.
+     *
+     * @param  resolverMonitor  the resolver monitor.
+     */
+    @Inject
+    public void setResolverMonitor(final ResolverMonitor resolverMonitor) {
+        this.resolverMonitor = resolverMonitor;
+    }
+
+    /**
+     * Transfer the records of the zone from DNS.
+     *
+     * @param  zone  the zone.
+     *
+     * @return  the records of the zone.
+     *
+     * @throws  DNSServerExecutorException  if unable to transfer the zone.
+     */
+    List<Record> transferZone(final Zone zone) throws DNSServerExecutorException {
+        return DNSServerExecutor.newInstance(zone, this.resolverMonitor).findRecords();
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.lazydog.jdnsaas.utility.Subnet;
+
+/**
+ * Address bitmap.
+ * 
+ * Each IPv4 reverse zone has a bitmap of the addresses in its subnet with one bit for each address.  A bit is set 
+ * when a cached PTR record or forward A record uses the address, or when the address is reserved, so the free 
+ * addresses in a range are found a 64-bit word at a time.
+ * 
+ * @author  Ron Rickard
+ */
+public final class AddressBitmap {
+
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BITS_PER_WORD = 64;
+    private static final int IPV4_ADDRESS_BITS = 32;
+    private static final int IPV4_ADDRESS_LENGTH = 4;
+    private static final int MINIMUM_HOSTS_PREFIX_LENGTH = 31;
+    private int network;
+    private int size;
+    private Subnet subnet;
+    private long[] words;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  subnet  the IPv4 subnet.
+     * 
+     * @throws  IllegalArgumentException  if the subnet is not an IPv4 subnet.
+     */
+    private AddressBitmap(final Subnet subnet) {
+        
+        // Check if the subnet is an IPv4 subnet.
+        if (subnet.getAddress().length != IPV4_ADDRESS_LENGTH) {
+            throw new IllegalArgumentException("The subnet " + subnet + " must be an IPv4 subnet.");
+        }
+        
+        this.network = toInt(subnet.getAddress());
+        this.size = 1 << (IPV4_ADDRESS_BITS - subnet.getPrefixLength());
+        this.subnet = subnet;
+        this.words = new long[(this.size + BITS_PER_WORD - 1) / BITS_PER_WORD];
+    }
+    
+    /**
+     * Clear the bit for the address.
+     * 
+     * @param  address  the address.
+     */
+    public synchronized void clear(final byte[] address) {
+        
+        // Check if the address is in the subnet.
+        if (this.contains(address)) {
+            int offset = toInt(address) - this.network;
+            this.words[offset / BITS_PER_WORD] &= ~(1L << (offset % BITS_PER_WORD));
+        }
+    }
+    
+    /**
+     * Does the subnet of the bitmap contain the address?
+     * 
+     * @param  address  the address.
+     * 
+     * @return  true if the subnet of the bitmap contains the address, otherwise false.
+     */
+    public boolean contains(final byte[] address) {
+        return (address.length == IPV4_ADDRESS_LENGTH && this.subnet.contains(address));
+    }
+    
+    /**
+     * Find the free addresses in the range.
+     * The network and broadcast addresses of the range are never free unless the range is a /31 or /32.
+     * 
+     * @param  range    the range, or null for the subnet of the bitmap.
+     * @param  count    the maximum number of free addresses.
+     * @param  reserve  true if the free addresses should be reserved, otherwise false.
+     * 
+     * @return  the free addresses in address order.
+     * 
+     * @throws  IllegalArgumentException  if the range is not in the subnet of the bitmap.
+     */
+    public synchronized List<String> findFreeAddresses(final Subnet range, final int count, final boolean reserve) {
+        
+        List<String> freeAddresses = new ArrayList<String>();
+        Subnet searchRange = (range != null) ? range : this.subnet;
+        
+        // Check if the range is in the subnet.
+        if (!this.subnet.contains(searchRange)) {
+            throw new IllegalArgumentException("The range " + searchRange + " must be in the subnet " + this.subnet + ".");
+        }
+        
+        // Get the offsets of the first and past the last usable address in the range.
+        int start = toInt(searchRange.getAddress()) - this.network;
+        int end = start + (1 << (IPV4_ADDRESS_BITS - searchRange.getPrefixLength()));
+        if (searchRange.getPrefixLength() < MINIMUM_HOSTS_PREFIX_LENGTH) {
+            start++;
+            end--;
+        }
+        
+        // Loop through the words in the range.
+        for (int wordIndex = start / BITS_PER_WORD; wordIndex <= (end - 1) / BITS_PER_WORD && freeAddresses.size() < count; wordIndex++) {
+            
+            // Mask off the bits outside the range.
+            long freeBits = ~this.words[wordIndex];
+            int wordStart = wordIndex * BITS_PER_WORD;
+            if (start > wordStart) {
+                freeBits &= -1L << (start - wordStart);
+            }
+            if (end < wordStart + BITS_PER_WORD) {
+                freeBits &= (1L << (end - wordStart)) - 1;
+            }
+            
+            // Loop through the free bits.
+            while (freeBits != 0 && freeAddresses.size() < count) {
+                
+                int offset = wordStart + Long.numberOfTrailingZeros(freeBits);
+                freeAddresses.add(Subnet.toIpAddress(toBytes(this.network + offset)));
+                if (reserve) {
+                    this.words[wordIndex] |= Long.lowestOneBit(freeBits);
+                }
+                freeBits &= freeBits - 1;
+            }
+        }
+        
+        return freeAddresses;
+    }
+    
+    /**
+     * Get the subnet.
+     * 
+     * @return  the subnet.
+     */
+    public Subnet getSubnet() {
+        return this.subnet;
+    }
+    
+    /**
+     * Is the bit for the address set?
+     * 
+     * @param  address  the address.
+     * 
+     * @return  true if the bit for the address is set, otherwise false.
+     */
+    public synchronized boolean isSet(final byte[] address) {
+        
+        boolean isSet = false;
+        
+        // Check if the address is in the subnet.
+        if (this.contains(address)) {
+            int offset = toInt(address) - this.network;
+            isSet = ((this.words[offset / BITS_PER_WORD] & (1L << (offset % BITS_PER_WORD))) != 0);
+        }
+        
+        return isSet;
+    }
+    
+    /**
+     * Create a new instance of the address bitmap class.
+     * 
+     * @param  subnet  the IPv4 subnet.
+     * 
+     * @return  a new instance of the address bitmap class.
+     * 
+     * @throws  IllegalArgumentException  if the subnet is not an IPv4 subnet.
+     */
+    public static AddressBitmap newInstance(final Subnet subnet) {
+        return new AddressBitmap(subnet);
+    }
+    
+    /**
+     * Set the bit for the address.
+     * 
+     * @param  address  the address.
+     */
+    public synchronized void set(final byte[] address) {
+        
+        // Check if the address is in the subnet.
+        if (this.contains(address)) {
+            int offset = toInt(address) - this.network;
+            this.words[offset / BITS_PER_WORD] |= 1L << (offset % BITS_PER_WORD);
+        }
+    }
+    
+    /**
+     * Convert the integer to an IPv4 address.
+     * 
+     * @param  value  the integer.
+     * 
+     * @return  the IPv4 address.
+     */
+    private static byte[] toBytes(final int value) {
+        
+        byte[] address = new byte[IPV4_ADDRESS_LENGTH];
+        
+        for (int index = 0; index < IPV4_ADDRESS_LENGTH; index++) {
+            address[index] = (byte)(value >>> (BITS_PER_BYTE * (IPV4_ADDRESS_LENGTH - 1 - index)));
+        }
+        
+        return address;
+    }
+    
+    /**
+     * Convert the IPv4 address to an integer.
+     * 
+     * @param  address  the IPv4 address.
+     * 
+     * @return  the integer.
+     */
+    private static int toInt(final byte[] address) {
+        
+        int value = 0;
+        
+        for (byte octet : address) {
+            value = (value << BITS_PER_BYTE) | (octet & 0xff);
+        }
+        
+        return value;
+    }
+}
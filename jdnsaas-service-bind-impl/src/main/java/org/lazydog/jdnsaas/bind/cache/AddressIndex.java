@@ -0,0 +1,392 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.utility.Subnet;
+import org.lazydog.jdnsaas.utility.ZoneUtility;
+
+/**
+ * Address index.
+ * 
+ * The records of a cached zone that have an address, the A and AAAA records and the PTR records of a reverse zone, 
+ * are indexed in a Patricia tree for each address family.  Each node of a tree stands for an address prefix and only 
+ * branches where the addresses below it differ, so the records in a subnet are found by walking down to the node 
+ * for the subnet and collecting everything below it, in address order.
+ * 
+ * @author  Ron Rickard
+ */
+public final class AddressIndex {
+
+    private static final int IPV4_ADDRESS_LENGTH = 4;
+    private static final int IPV6_ADDRESS_LENGTH = 16;
+    private static final int BITS_PER_BYTE = 8;
+    private Node ipv4Root = new Node(new byte[IPV4_ADDRESS_LENGTH], 0);
+    private Node ipv6Root = new Node(new byte[IPV6_ADDRESS_LENGTH], 0);
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ZoneUtility zoneUtility;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     */
+    private AddressIndex(final String zoneName, final List<Record> records) {
+        
+        this.zoneUtility = ZoneUtility.newInstance(zoneName);
+        
+        // Index the records.
+        for (Record record : records) {
+            this.addRecord(record);
+        }
+    }
+    
+    /**
+     * Add the record to the index.
+     * 
+     * @param  record  the record.
+     */
+    private void addRecord(final Record record) {
+        
+        byte[] address = Subnet.getAddress(this.zoneUtility, record);
+        
+        // Check if the record has an address.
+        if (address != null) {
+            
+            Node node = this.getRoot(address);
+            int bits = address.length * BITS_PER_BYTE;
+            
+            // Walk down the tree until the node for the address is found or created.
+            while (node.length < bits) {
+                
+                int bit = Subnet.getBit(address, node.length);
+                Node child = node.children[bit];
+                
+                if (child == null) {
+                    
+                    // Add a node for the address.
+                    child = new Node(address, bits);
+                    node.children[bit] = child;
+                } else {
+                    
+                    int commonLength = getCommonLength(child.address, address, Math.min(child.length, bits));
+                    
+                    // Split the child where the address branches off.
+                    if (commonLength < child.length) {
+                        Node branch = new Node(address, commonLength);
+                        branch.children[Subnet.getBit(child.address, commonLength)] = child;
+                        node.children[bit] = branch;
+                        child = branch;
+                    }
+                }
+                
+                node = child;
+            }
+            
+            node.records.add(record);
+        }
+    }
+    
+    /**
+     * Apply the zone delta to the index.
+     * 
+     * @param  zoneDelta  the zone delta.
+     */
+    public void apply(final ZoneDelta zoneDelta) {
+        
+        this.lock.writeLock().lock();
+        
+        try {
+            
+            // Loop through the changes in the order they were made.
+            for (int index = 0; index < zoneDelta.size(); index++) {
+                
+                if (zoneDelta.isAdded(index)) {
+                    this.addRecord(zoneDelta.getRecord(index));
+                } else {
+                    this.deleteRecord(zoneDelta.getRecord(index));
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Collect the addresses of the node and the nodes below it in address order.
+     * 
+     * @param  node       the node.
+     * @param  addresses  the addresses.
+     */
+    private static void collectAddresses(final Node node, final List<byte[]> addresses) {
+        
+        if (!node.records.isEmpty()) {
+            addresses.add(node.address);
+        }
+        
+        for (Node child : node.children) {
+            if (child != null) {
+                collectAddresses(child, addresses);
+            }
+        }
+    }
+    
+    /**
+     * Collect the records of the node and the nodes below it in address order.
+     * 
+     * @param  node     the node.
+     * @param  records  the records.
+     */
+    private static void collectRecords(final Node node, final List<Record> records) {
+        
+        records.addAll(node.records);
+        
+        for (Node child : node.children) {
+            if (child != null) {
+                collectRecords(child, records);
+            }
+        }
+    }
+    
+    /**
+     * Compact the node.
+     * A node without records is removed if it has no children and replaced by its child if it has one child.
+     * 
+     * @param  node  the node.
+     * 
+     * @return  the compacted node, or null if the node is removed.
+     */
+    private static Node compact(final Node node) {
+        
+        Node compactedNode = node;
+        
+        if (node.length > 0 && node.records.isEmpty()) {
+            
+            if (node.children[0] == null) {
+                compactedNode = node.children[1];
+            } else if (node.children[1] == null) {
+                compactedNode = node.children[0];
+            }
+        }
+        
+        return compactedNode;
+    }
+    
+    /**
+     * Delete the record from the index.
+     * 
+     * @param  record  the record.
+     */
+    private void deleteRecord(final Record record) {
+        
+        byte[] address = Subnet.getAddress(this.zoneUtility, record);
+        
+        // Check if the record has an address.
+        if (address != null) {
+            deleteRecord(this.getRoot(address), address, record);
+        }
+    }
+    
+    /**
+     * Delete the record from the node or the nodes below it.
+     * 
+     * @param  node     the node.
+     * @param  address  the address of the record.
+     * @param  record   the record.
+     * 
+     * @return  the node after the record is deleted, or null if the node is removed.
+     */
+    private static Node deleteRecord(final Node node, final byte[] address, final Record record) {
+        
+        int bits = address.length * BITS_PER_BYTE;
+        
+        if (node.length == bits) {
+            node.records.remove(record);
+        } else {
+            
+            int bit = Subnet.getBit(address, node.length);
+            Node child = node.children[bit];
+            
+            // Check if the address is below the child.
+            if (child != null && getCommonLength(child.address, address, Math.min(child.length, bits)) == child.length) {
+                node.children[bit] = deleteRecord(child, address, record);
+            }
+        }
+        
+        return compact(node);
+    }
+    
+    /**
+     * Find the addresses in use in the subnet.
+     * 
+     * @param  subnet  the subnet.
+     * 
+     * @return  the addresses in use in the subnet, in address order.
+     */
+    public List<byte[]> findAddresses(final Subnet subnet) {
+        
+        List<byte[]> addresses = new ArrayList<byte[]>();
+        
+        this.lock.readLock().lock();
+        
+        try {
+            
+            Node node = this.findNode(subnet);
+            
+            // Collect the addresses in the subnet.
+            if (node != null) {
+                collectAddresses(node, addresses);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        
+        return addresses;
+    }
+    
+    /**
+     * Find the node for the subnet.
+     * 
+     * @param  subnet  the subnet.
+     * 
+     * @return  the highest node in the subnet, or null if the subnet has no nodes.
+     */
+    private Node findNode(final Subnet subnet) {
+        
+        byte[] prefix = subnet.getAddress();
+        int prefixLength = subnet.getPrefixLength();
+        Node node = this.getRoot(prefix);
+        
+        // Walk down the tree to the node for the subnet.
+        while (node != null && node.length < prefixLength) {
+            
+            Node child = node.children[Subnet.getBit(prefix, node.length)];
+            int compareLength = (child != null) ? Math.min(child.length, prefixLength) : 0;
+            
+            // Check if the child is outside the subnet.
+            if (child != null && getCommonLength(child.address, prefix, compareLength) < compareLength) {
+                child = null;
+            }
+            
+            node = child;
+        }
+        
+        return node;
+    }
+    
+    /**
+     * Find the records in the subnet.
+     * 
+     * @param  subnet  the subnet.
+     * 
+     * @return  the records in the subnet, in address order.
+     */
+    public List<Record> findRecords(final Subnet subnet) {
+        
+        List<Record> records = new ArrayList<Record>();
+        
+        this.lock.readLock().lock();
+        
+        try {
+            
+            Node node = this.findNode(subnet);
+            
+            // Collect the records in the subnet.
+            if (node != null) {
+                collectRecords(node, records);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Get the length of the common prefix of the addresses.
+     * 
+     * @param  address1   the first address.
+     * @param  address2   the second address.
+     * @param  maxLength  the maximum length to compare.
+     * 
+     * @return  the length of the common prefix.
+     */
+    private static int getCommonLength(final byte[] address1, final byte[] address2, final int maxLength) {
+        
+        int commonLength = 0;
+        
+        while (commonLength < maxLength && Subnet.getBit(address1, commonLength) == Subnet.getBit(address2, commonLength)) {
+            commonLength++;
+        }
+        
+        return commonLength;
+    }
+    
+    /**
+     * Get the root of the tree for the address family of the address.
+     * 
+     * @param  address  the address.
+     * 
+     * @return  the root of the tree.
+     */
+    private Node getRoot(final byte[] address) {
+        return (address.length == IPV4_ADDRESS_LENGTH) ? this.ipv4Root : this.ipv6Root;
+    }
+    
+    /**
+     * Create a new instance of the address index class.
+     * 
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     * 
+     * @return  a new instance of the address index class.
+     */
+    public static AddressIndex newInstance(final String zoneName, final List<Record> records) {
+        return new AddressIndex(zoneName, records);
+    }
+    
+    /**
+     * Tree node.
+     */
+    private static final class Node {
+        
+        private byte[] address;
+        private Node[] children = new Node[2];
+        private int length;
+        private Set<Record> records = new LinkedHashSet<Record>();
+        
+        /**
+         * Create the node.
+         * 
+         * @param  address  an address with the prefix of the node.
+         * @param  length   the length of the prefix of the node.
+         */
+        private Node(final byte[] address, final int length) {
+            this.address = address;
+            this.length = length;
+        }
+    }
+}
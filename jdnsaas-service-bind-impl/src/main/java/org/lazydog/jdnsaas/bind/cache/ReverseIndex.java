@@ -0,0 +1,269 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.lazydog.jdnsaas.model.AAAARecord;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.MXRecord;
+import org.lazydog.jdnsaas.model.NSRecord;
+import org.lazydog.jdnsaas.model.PTRRecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.SRVRecord;
+import org.lazydog.jdnsaas.utility.ZoneUtility;
+
+/**
+ * Reverse index.
+ * 
+ * The records of a cached zone are indexed by their data: the addresses of the A and AAAA records and the targets 
+ * of the CNAME, MX, NS, PTR and SRV records.  Addresses are compared in their canonical form and targets are 
+ * absolutized and compared ignoring case, so the records pointing at an address or a target are found with a 
+ * single map lookup.
+ * 
+ * @author  Ron Rickard
+ */
+public final class ReverseIndex {
+
+    private static final Pattern IPV4_ADDRESS_PATTERN = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final String IPV6_ADDRESS_SEPARATOR = ":";
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String,Set<Record>> recordMap = new HashMap<String,Set<Record>>();
+    private ZoneUtility zoneUtility;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     */
+    private ReverseIndex(final String zoneName, final List<Record> records) {
+        
+        this.zoneUtility = ZoneUtility.newInstance(zoneName);
+        
+        // Index the records.
+        for (Record record : records) {
+            this.addRecord(record);
+        }
+    }
+    
+    /**
+     * Add the record to the index.
+     * 
+     * @param  record  the record.
+     */
+    private void addRecord(final Record record) {
+        
+        String key = this.getKey(record);
+        
+        // Check if the record has data to index.
+        if (key != null) {
+            
+            Set<Record> records = this.recordMap.get(key);
+            if (records == null) {
+                records = new LinkedHashSet<Record>();
+                this.recordMap.put(key, records);
+            }
+            records.add(record);
+        }
+    }
+    
+    /**
+     * Apply the zone delta to the index.
+     * 
+     * @param  zoneDelta  the zone delta.
+     */
+    public void apply(final ZoneDelta zoneDelta) {
+        
+        this.lock.writeLock().lock();
+        
+        try {
+            
+            // Loop through the changes in the order they were made.
+            for (int index = 0; index < zoneDelta.size(); index++) {
+                
+                if (zoneDelta.isAdded(index)) {
+                    this.addRecord(zoneDelta.getRecord(index));
+                } else {
+                    this.deleteRecord(zoneDelta.getRecord(index));
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Delete the record from the index.
+     * 
+     * @param  record  the record.
+     */
+    private void deleteRecord(final Record record) {
+        
+        String key = this.getKey(record);
+        
+        // Check if the record has data to index.
+        if (key != null) {
+            
+            Set<Record> records = this.recordMap.get(key);
+            if (records != null) {
+                records.remove(record);
+                if (records.isEmpty()) {
+                    this.recordMap.remove(key);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find the records pointing at the data.
+     * 
+     * @param  data  the address or the target.  A relative target is relative to the zone.
+     * 
+     * @return  the records pointing at the data.
+     */
+    public List<Record> findRecords(final String data) {
+        
+        List<Record> records = new ArrayList<Record>();
+        String key = (isAddress(data)) ? normalizeAddress(data) : normalizeTarget(this.zoneUtility, data);
+        
+        this.lock.readLock().lock();
+        
+        try {
+            
+            // Check if any record points at the data.
+            if (this.recordMap.containsKey(key)) {
+                records.addAll(this.recordMap.get(key));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Get the key of the record.
+     * 
+     * @param  record  the record.
+     * 
+     * @return  the key of the record, or null if the record has no data to index.
+     */
+    private String getKey(final Record record) {
+        
+        String key = null;
+        
+        switch(record.getType()) {
+            
+            case A:
+                key = normalizeAddress(((ARecord)record).getIpAddress());
+                break;
+            case AAAA:
+                key = normalizeAddress(((AAAARecord)record).getIpv6Address());
+                break;
+            case CNAME:
+                key = normalizeTarget(this.zoneUtility, ((CNAMERecord)record).getTarget());
+                break;
+            case MX:
+                key = normalizeTarget(this.zoneUtility, ((MXRecord)record).getTarget());
+                break;
+            case NS:
+                key = normalizeTarget(this.zoneUtility, ((NSRecord)record).getTarget());
+                break;
+            case PTR:
+                key = normalizeTarget(this.zoneUtility, ((PTRRecord)record).getTarget());
+                break;
+            case SRV:
+                key = normalizeTarget(this.zoneUtility, ((SRVRecord)record).getTarget());
+                break;
+        }
+        
+        return key;
+    }
+    
+    /**
+     * Is the data an IP (v4 or v6) address?
+     * 
+     * @param  data  the data.
+     * 
+     * @return  true if the data is an IP (v4 or v6) address, otherwise false.
+     */
+    private static boolean isAddress(final String data) {
+        return data.contains(IPV6_ADDRESS_SEPARATOR) || IPV4_ADDRESS_PATTERN.matcher(data).matches();
+    }
+    
+    /**
+     * Create a new instance of the reverse index class.
+     * 
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     * 
+     * @return  a new instance of the reverse index class.
+     */
+    public static ReverseIndex newInstance(final String zoneName, final List<Record> records) {
+        return new ReverseIndex(zoneName, records);
+    }
+    
+    /**
+     * Normalize the IP (v4 or v6) address.
+     * The address literal is parsed without a DNS lookup, so different spellings of an IPv6 address are the same.
+     * 
+     * @param  address  the IP (v4 or v6) address.
+     * 
+     * @return  the normalized IP (v4 or v6) address, or null if there is no address.
+     */
+    private static String normalizeAddress(final String address) {
+        
+        String normalizedAddress = null;
+        
+        if (address != null) {
+            
+            try {
+                normalizedAddress = (isAddress(address)) ? InetAddress.getByName(address).getHostAddress() : address.toLowerCase(Locale.ENGLISH);
+            } catch (UnknownHostException e) {
+                normalizedAddress = address.toLowerCase(Locale.ENGLISH);
+            }
+        }
+        
+        return normalizedAddress;
+    }
+    
+    /**
+     * Normalize the target.
+     * 
+     * @param  zoneUtility  the zone utility.
+     * @param  target       the target.
+     * 
+     * @return  the normalized target, or null if there is no target.
+     */
+    private static String normalizeTarget(final ZoneUtility zoneUtility, final String target) {
+        return (target != null) ? zoneUtility.absolutize(target).toLowerCase(Locale.ENGLISH) : null;
+    }
+}
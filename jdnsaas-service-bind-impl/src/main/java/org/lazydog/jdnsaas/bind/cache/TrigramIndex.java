@@ -0,0 +1,301 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.utility.RecordFilter;
+import org.lazydog.jdnsaas.utility.ZoneUtility;
+
+/**
+ * Trigram index.
+ * 
+ * Each search value of each record in a cached zone is broken into its trigrams, the three character substrings 
+ * ignoring case, and each trigram maps to a bitset of the ordinals of the records that contain it.  A record can 
+ * only match a search if it contains every trigram of every search token, so intersecting the bitsets of those 
+ * trigrams gives the candidate records, which still have to be matched by the record filter.
+ * 
+ * The candidate records are returned in zone cache order.  Each record is numbered when it is indexed, and as the 
+ * incremental zone transfer deltas delete records from and append records to the zone, the numbering follows.  
+ * Once more ordinals are deleted than are in use, the records are renumbered so the bitsets stay compact.
+ * 
+ * @author  Ron Rickard
+ */
+public final class TrigramIndex {
+
+    private static final int TRIGRAM_LENGTH = 3;
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Record,Integer> ordinalMap = new HashMap<Record,Integer>();
+    private Map<String,BitSet> postingMap = new HashMap<String,BitSet>();
+    private List<Record> records = new ArrayList<Record>();
+    private ZoneUtility zoneUtility;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     */
+    private TrigramIndex(final String zoneName, final List<Record> records) {
+        
+        this.zoneUtility = ZoneUtility.newInstance(zoneName);
+        
+        // Index the records.
+        for (Record record : records) {
+            this.addRecord(record);
+        }
+    }
+    
+    /**
+     * Add the ordinal of the record to the bitset of each trigram of the record.
+     * 
+     * @param  record   the record.
+     * @param  ordinal  the ordinal of the record.
+     */
+    private void addPostings(final Record record, final int ordinal) {
+        
+        // Loop through the trigrams of the record.
+        for (String trigram : this.getTrigrams(record)) {
+
+            BitSet postings = this.postingMap.get(trigram);
+            if (postings == null) {
+                postings = new BitSet();
+                this.postingMap.put(trigram, postings);
+            }
+            postings.set(ordinal);
+        }
+    }
+    
+    /**
+     * Add the record to the index.
+     * 
+     * @param  record  the record.
+     */
+    private void addRecord(final Record record) {
+        
+        // Check if the record is not indexed yet.
+        if (!this.ordinalMap.containsKey(record)) {
+            
+            int ordinal = this.records.size();
+            this.ordinalMap.put(record, ordinal);
+            this.records.add(record);
+            this.addPostings(record, ordinal);
+        }
+    }
+    
+    /**
+     * Apply the zone delta to the index.
+     * 
+     * @param  zoneDelta  the zone delta.
+     */
+    public void apply(final ZoneDelta zoneDelta) {
+        
+        this.lock.writeLock().lock();
+        
+        try {
+            
+            // Loop through the changes in the order they were made.
+            for (int index = 0; index < zoneDelta.size(); index++) {
+                
+                if (zoneDelta.isAdded(index)) {
+                    this.addRecord(zoneDelta.getRecord(index));
+                } else {
+                    this.deleteRecord(zoneDelta.getRecord(index));
+                }
+            }
+            
+            // Check if more ordinals are deleted than are in use.
+            if (this.records.size() - this.ordinalMap.size() > this.ordinalMap.size()) {
+                this.renumber();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Delete the record from the index.
+     * 
+     * @param  record  the record.
+     */
+    private void deleteRecord(final Record record) {
+        
+        Integer ordinal = this.ordinalMap.remove(record);
+        
+        // Check if the record is indexed.
+        if (ordinal != null) {
+            
+            this.records.set(ordinal, null);
+            
+            // Loop through the trigrams of the record.
+            for (String trigram : this.getTrigrams(record)) {
+                
+                BitSet postings = this.postingMap.get(trigram);
+                if (postings != null) {
+                    postings.clear(ordinal);
+                    if (postings.isEmpty()) {
+                        this.postingMap.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find the candidate records for the search tokens.
+     * 
+     * @param  searchTokens  the search tokens.
+     * 
+     * @return  the candidate records in zone cache order, or null if none of the search tokens is long enough to have a trigram.
+     */
+    public List<Record> findCandidateRecords(final List<String> searchTokens) {
+        
+        List<Record> candidateRecords = null;
+        Set<String> trigrams = new HashSet<String>();
+        
+        // Get the trigrams of the search tokens.
+        for (String searchToken : searchTokens) {
+            trigrams.addAll(getTrigrams(searchToken));
+        }
+        
+        // Check if there are trigrams to search for.
+        if (!trigrams.isEmpty()) {
+            
+            this.lock.readLock().lock();
+            
+            try {
+                
+                candidateRecords = new ArrayList<Record>();
+                BitSet candidateOrdinals = null;
+                
+                // Intersect the ordinals of the records containing each trigram.
+                for (String trigram : trigrams) {
+                    
+                    BitSet postings = this.postingMap.get(trigram);
+                    
+                    // No record can match if a trigram is not indexed.
+                    if (postings == null) {
+                        candidateOrdinals = null;
+                        break;
+                    }
+                    
+                    if (candidateOrdinals == null) {
+                        candidateOrdinals = (BitSet)postings.clone();
+                    } else {
+                        candidateOrdinals.and(postings);
+                    }
+                }
+                
+                // Get the candidate records in ordinal order, which is zone cache order.
+                if (candidateOrdinals != null) {
+                    for (int ordinal = candidateOrdinals.nextSetBit(0); ordinal >= 0; ordinal = candidateOrdinals.nextSetBit(ordinal + 1)) {
+                        candidateRecords.add(this.records.get(ordinal));
+                    }
+                }
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+        
+        return candidateRecords;
+    }
+    
+    /**
+     * Get the trigrams of the record.
+     * 
+     * @param  record  the record.
+     * 
+     * @return  the trigrams of the record.
+     */
+    private Set<String> getTrigrams(final Record record) {
+        
+        Set<String> trigrams = new HashSet<String>();
+        
+        // Loop through the search values of the record.
+        for (String searchValue : RecordFilter.getSearchValues(this.zoneUtility, record)) {
+            trigrams.addAll(getTrigrams(searchValue));
+        }
+        
+        return trigrams;
+    }
+    
+    /**
+     * Get the trigrams of the value.
+     * 
+     * @param  value  the value.
+     * 
+     * @return  the trigrams of the value.
+     */
+    private static Set<String> getTrigrams(final String value) {
+        
+        Set<String> trigrams = new HashSet<String>();
+        
+        // Check if the value exists.
+        if (value != null) {
+            
+            String lowerCaseValue = value.toLowerCase(Locale.ENGLISH);
+            for (int index = 0; index + TRIGRAM_LENGTH <= lowerCaseValue.length(); index++) {
+                trigrams.add(lowerCaseValue.substring(index, index + TRIGRAM_LENGTH));
+            }
+        }
+        
+        return trigrams;
+    }
+    
+    /**
+     * Create a new instance of the trigram index class.
+     * 
+     * @param  zoneName  the zone name.
+     * @param  records   the records.
+     * 
+     * @return  a new instance of the trigram index class.
+     */
+    public static TrigramIndex newInstance(final String zoneName, final List<Record> records) {
+        return new TrigramIndex(zoneName, records);
+    }
+    
+    /**
+     * Renumber the indexed records, in zone cache order, without the deleted ordinals.
+     */
+    private void renumber() {
+        
+        List<Record> indexedRecords = this.records;
+        
+        // Clear the index.
+        this.records = new ArrayList<Record>(this.ordinalMap.size());
+        this.ordinalMap.clear();
+        this.postingMap.clear();
+        
+        // Index the records again.
+        for (Record record : indexedRecords) {
+            if (record != null) {
+                this.addRecord(record);
+            }
+        }
+    }
+}
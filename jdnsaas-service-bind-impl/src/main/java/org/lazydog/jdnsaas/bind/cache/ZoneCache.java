@@ -21,14 +21,20 @@ package org.lazydog.jdnsaas.bind.cache;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
@@ -38,18 +44,33 @@ import org.lazydog.jdnsaas.NotifyMessageMonitorPort;
 import org.lazydog.jdnsaas.NotifyMessageMonitorThreads;
 import org.lazydog.jdnsaas.RefreshZoneSchedulerInitialDelay;
 import org.lazydog.jdnsaas.RefreshZoneSchedulerThreads;
+import org.lazydog.jdnsaas.ZoneIndexEnabled;
 import org.lazydog.jdnsaas.bind.DNSServerExecutor;
+import org.lazydog.jdnsaas.bind.DNSServerExecutorException;
+import org.lazydog.jdnsaas.bind.LookupCache;
+import org.lazydog.jdnsaas.bind.ResolverMonitor;
 import org.lazydog.jdnsaas.model.Record;
 import org.lazydog.jdnsaas.model.RecordType;
+import org.lazydog.jdnsaas.model.Resolver;
 import org.lazydog.jdnsaas.model.SOARecord;
 import org.lazydog.jdnsaas.model.Zone;
 import org.lazydog.jdnsaas.spi.repository.JDNSaaSRepository;
+import org.lazydog.jdnsaas.utility.Subnet;
+import org.lazydog.jdnsaas.utility.ZoneUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Zone cache.
  * 
+ * Each cached zone has an address index and a reverse index of its record data and, if the zone index is enabled, 
+ * a trigram index.
+ * Each cached IPv4 reverse zone also has a bitmap of the addresses in its subnet used by the cached zones of its view.
+ * The indexes are built when the zone is added and kept up to date with the incremental zone transfer deltas 
+ * applied to the zone.
+ * The records of a zone are never changed in place; an update replaces them with a new snapshot, and the last 
+ * few snapshots replaced are retained by serial number so paged queries stay consistent while the zone is updated.
+ * 
  * @author  Ron Rickard
  */
 @ApplicationScoped 
@@ -57,8 +78,12 @@ import org.slf4j.LoggerFactory;
 public class ZoneCache {
 
     private static final Logger logger = LoggerFactory.getLogger(ZoneCache.class);
+    private static final int RETAINED_SNAPSHOTS = 4;
     private static final Long SHUTDOWN_TIMEOUT = 30000L;
+    private ConcurrentMap<Zone,AddressBitmap> addressBitmapMap = new ConcurrentHashMap<Zone,AddressBitmap>();
+    private ConcurrentMap<Zone,AddressIndex> addressIndexMap = new ConcurrentHashMap<Zone,AddressIndex>();
     private boolean isAvailable;
+    private LookupCache lookupCache;
     private Runnable notifyMessageMonitor;
     private String notifyMessageMonitorAddress;
     private ExecutorService notifyMessageMonitorPool;
@@ -70,41 +95,186 @@ public class ZoneCache {
     private ExecutorService refreshZoneSchedulerPool;
     private int refreshZoneSchedulerThreads;
     private JDNSaaSRepository repository;
-    private ConcurrentMap<Zone,List<Record>> zoneMap = new ConcurrentHashMap<Zone,List<Record>>();
+    private ResolverMonitor resolverMonitor;
+    private ConcurrentMap<Zone,Map<Long,ZoneSnapshot>> retainedSnapshotMap = new ConcurrentHashMap<Zone,Map<Long,ZoneSnapshot>>();
+    private ConcurrentMap<Zone,ReverseIndex> reverseIndexMap = new ConcurrentHashMap<Zone,ReverseIndex>();
+    private ConcurrentMap<Zone,ReadWriteLock> snapshotLockMap = new ConcurrentHashMap<Zone,ReadWriteLock>();
+    private boolean zoneIndexEnabled;
+    private ConcurrentMap<Zone,TrigramIndex> zoneIndexMap = new ConcurrentHashMap<Zone,TrigramIndex>();
+    private ConcurrentMap<Zone,Object> zoneLockMap = new ConcurrentHashMap<Zone,Object>();
+    private ConcurrentMap<Zone,ZoneSnapshot> zoneMap = new ConcurrentHashMap<Zone,ZoneSnapshot>();
     private enum ZoneAction {
         ADD,
         DELETE,
         UPDATE;
     }
           
+    /**
+     * Add the addresses used by the zone to the address bitmaps of its view and, if the zone is an IPv4 reverse zone, 
+     * build its address bitmap from the addresses used by the cached zones of its view.
+     * 
+     * @param  zone          the zone.
+     * @param  addressIndex  the address index of the zone.
+     */
+    private void addAddressBitmap(final Zone zone, final AddressIndex addressIndex) {
+        
+        // Add the addresses used by the zone to the address bitmaps of its view.
+        for (Map.Entry<Zone,AddressBitmap> entry : this.addressBitmapMap.entrySet()) {
+            
+            if (entry.getKey().getViewName().equals(zone.getViewName())) {
+                for (byte[] address : addressIndex.findAddresses(entry.getValue().getSubnet())) {
+                    entry.getValue().set(address);
+                }
+            }
+        }
+        
+        Subnet subnet = ZoneUtility.newInstance(zone.getName()).getReverseZoneSubnet();
+        
+        // Check if the zone is an IPv4 reverse zone.
+        if (subnet != null) {
+            
+            AddressBitmap addressBitmap = AddressBitmap.newInstance(subnet);
+            
+            // Set the addresses used by the cached zones of the view.
+            for (Map.Entry<Zone,AddressIndex> entry : this.addressIndexMap.entrySet()) {
+                
+                if (entry.getKey().getViewName().equals(zone.getViewName())) {
+                    for (byte[] address : entry.getValue().findAddresses(subnet)) {
+                        addressBitmap.set(address);
+                    }
+                }
+            }
+            
+            this.addressBitmapMap.put(zone, addressBitmap);
+            logger.debug("Built the address bitmap for the zone {}.", zone);
+        }
+    }
+    
     /**
      * Add the zone to the zone cache.
      * 
      * @param  zone  the zone.
      */
-    private void addZone(final Zone zone) {
+    protected void addZone(final Zone zone) {
 
         try {
 
             // Add the zone to the zone cache.
-            List<Record> records = DNSServerExecutor.newInstance(zone).findRecords();
-            this.zoneMap.put(zone, records);
+            List<Record> records = this.transferZone(zone);
+            this.zoneMap.put(zone, ZoneSnapshot.newInstance(records));
             logger.debug("Added the zone {} with {} records to the zone cache.", zone, records.size());
+            
+            // Index the zone.
+            AddressIndex addressIndex = AddressIndex.newInstance(zone.getName(), records);
+            this.addressIndexMap.put(zone, addressIndex);
+            this.addAddressBitmap(zone, addressIndex);
+            this.reverseIndexMap.put(zone, ReverseIndex.newInstance(zone.getName(), records));
+            if (this.zoneIndexEnabled) {
+                this.zoneIndexMap.put(zone, TrigramIndex.newInstance(zone.getName(), records));
+                logger.debug("Indexed the zone {}.", zone);
+            }
         } catch (Exception e) {
             logger.warn("Unable to add the zone {} to the zone cache.", zone, e);
         }
     }
     
+    /**
+     * Clear the address in the address bitmap unless a cached zone of the view still uses it.
+     * 
+     * @param  viewName       the view name.
+     * @param  addressBitmap  the address bitmap.
+     * @param  address        the address.
+     */
+    private void clearAddress(final String viewName, final AddressBitmap addressBitmap, final byte[] address) {
+        
+        // Check and clear the address atomically with respect to the other changes to the address bitmap.
+        synchronized (addressBitmap) {
+            if (!this.isAddressUsed(viewName, address)) {
+                addressBitmap.clear(address);
+            }
+        }
+    }
+    
+    /**
+     * Delete the addresses used by the zone from the address bitmaps of its view.
+     * 
+     * @param  zone          the zone.
+     * @param  addressIndex  the address index of the zone.
+     */
+    private void deleteAddresses(final Zone zone, final AddressIndex addressIndex) {
+        
+        for (Map.Entry<Zone,AddressBitmap> entry : this.addressBitmapMap.entrySet()) {
+            
+            if (entry.getKey().getViewName().equals(zone.getViewName())) {
+                for (byte[] address : addressIndex.findAddresses(entry.getValue().getSubnet())) {
+                    this.clearAddress(zone.getViewName(), entry.getValue(), address);
+                }
+            }
+        }
+    }
+    
     /**
      * Delete the zone from the zone cache.
      * 
      * @param  zone  the zone.
      */
     private void deleteZone(final Zone zone) {
-        List<Record> records = this.zoneMap.remove(zone);
-        logger.debug("Deleted the zone {} with {} records from the zone cache.", zone, records.size());
+        ZoneSnapshot snapshot = this.zoneMap.remove(zone);
+        AddressIndex addressIndex = this.addressIndexMap.remove(zone);
+        this.addressBitmapMap.remove(zone);
+        this.retainedSnapshotMap.remove(zone);
+        if (addressIndex != null) {
+            this.deleteAddresses(zone, addressIndex);
+        }
+        this.reverseIndexMap.remove(zone);
+        this.zoneIndexMap.remove(zone);
+        this.zoneLockMap.remove(zone);
+        this.snapshotLockMap.remove(zone);
+        logger.debug("Deleted the zone {} with {} records from the zone cache.", zone, snapshot.getRecords().size());
     }
 
+    /**
+     * Find the candidate records for the search tokens with the zone index.
+     * 
+     * @param  zone          the zone.
+     * @param  searchTokens  the search tokens.
+     * 
+     * @return  the candidate records, or null if the zone is not indexed or the search tokens are too short to use the zone index.
+     */
+    public List<Record> findCandidateRecords(final Zone zone, final List<String> searchTokens) {
+        
+        List<Record> candidateRecords = null;
+        ReadWriteLock snapshotLock = this.getSnapshotLock(zone);
+        
+        // Find the candidate records in the same snapshot as the records of the zone.
+        snapshotLock.readLock().lock();
+        try {
+            TrigramIndex zoneIndex = this.zoneIndexMap.get(zone);
+            candidateRecords = (zoneIndex != null) ? zoneIndex.findCandidateRecords(searchTokens) : null;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        
+        return candidateRecords;
+    }
+    
+    /**
+     * Find the free addresses in the range with the address bitmap.
+     * 
+     * @param  zone     the IPv4 reverse zone.
+     * @param  range    the range, or null for the subnet of the zone.
+     * @param  count    the maximum number of free addresses.
+     * @param  reserve  true if the free addresses should be reserved until they are used or released, otherwise false.
+     * 
+     * @return  the free addresses in address order, or null if the zone does not have an address bitmap.
+     * 
+     * @throws  IllegalArgumentException  if the range is not in the subnet of the zone.
+     */
+    public List<String> findFreeAddresses(final Zone zone, final Subnet range, final int count, final boolean reserve) {
+        AddressBitmap addressBitmap = this.addressBitmapMap.get(zone);
+        return (addressBitmap != null) ? addressBitmap.findFreeAddresses(range, count, reserve) : null;
+    }
+    
     /**
      * Find the records.
      * 
@@ -122,7 +292,7 @@ public class ZoneCache {
             
             // Check if the cached zone is the desired zone.
             if (cachedZone.equals(zone)) {
-                records.addAll(this.zoneMap.get(cachedZone));
+                records.addAll(this.zoneMap.get(cachedZone).getRecords());
                 break;
             }
         }
@@ -130,6 +300,120 @@ public class ZoneCache {
         return records;
     }
     
+    /**
+     * Find the records pointing at the data in each cached zone of the view.
+     * 
+     * @param  viewName  the view name.
+     * @param  data      the IP (v4 or v6) address or the target.  A relative target is relative to each zone.
+     * 
+     * @return  the records pointing at the data, by zone name.
+     */
+    public Map<String,List<Record>> findReferringRecords(final String viewName, final String data) {
+        
+        Map<String,List<Record>> referringRecords = new TreeMap<String,List<Record>>();
+        
+        // Loop through the reverse indexes.
+        for (Map.Entry<Zone,ReverseIndex> entry : this.reverseIndexMap.entrySet()) {
+            
+            // Check if the zone is in the view.
+            if (entry.getKey().getViewName().equals(viewName)) {
+                
+                List<Record> records = entry.getValue().findRecords(data);
+                if (!records.isEmpty()) {
+                    referringRecords.put(entry.getKey().getName(), records);
+                }
+            }
+        }
+        
+        return referringRecords;
+    }
+    
+    /**
+     * Find the records in the subnet with the address index.
+     * 
+     * @param  zone    the zone.
+     * @param  subnet  the subnet.
+     * 
+     * @return  the records in the subnet in address order, or null if the zone is not indexed.
+     */
+    public List<Record> findRecordsInSubnet(final Zone zone, final Subnet subnet) {
+        
+        List<Record> subnetRecords = null;
+        ReadWriteLock snapshotLock = this.getSnapshotLock(zone);
+        
+        // Find the records in the same snapshot as the records of the zone.
+        snapshotLock.readLock().lock();
+        try {
+            AddressIndex addressIndex = this.addressIndexMap.get(zone);
+            subnetRecords = (addressIndex != null) ? addressIndex.findRecords(subnet) : null;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        
+        return subnetRecords;
+    }
+    
+    /**
+     * Find the records in the subnet in each cached zone of the view.
+     * 
+     * @param  viewName  the view name.
+     * @param  subnet    the subnet.
+     * 
+     * @return  the records in the subnet, by zone name.
+     */
+    public Map<String,List<Record>> findRecordsInSubnet(final String viewName, final Subnet subnet) {
+        
+        Map<String,List<Record>> subnetRecords = new TreeMap<String,List<Record>>();
+        
+        // Loop through the address indexes.
+        for (Map.Entry<Zone,AddressIndex> entry : this.addressIndexMap.entrySet()) {
+            
+            // Check if the zone is in the view.
+            if (entry.getKey().getViewName().equals(viewName)) {
+                
+                List<Record> records = entry.getValue().findRecords(subnet);
+                if (!records.isEmpty()) {
+                    subnetRecords.put(entry.getKey().getName(), records);
+                }
+            }
+        }
+        
+        return subnetRecords;
+    }
+    
+    /**
+     * Find the snapshot of the records with the serial number.
+     * 
+     * @param  zone          the zone.
+     * @param  serialNumber  the serial number, or null for the current snapshot.
+     * 
+     * @return  the snapshot, or null if the zone is not cached or the snapshot is no longer retained.
+     */
+    public ZoneSnapshot findSnapshot(final Zone zone, final Long serialNumber) {
+        
+        ZoneSnapshot snapshot = this.zoneMap.get(zone);
+        
+        // Check if an earlier snapshot is requested.
+        if (snapshot != null && serialNumber != null && snapshot.getSerialNumber() != serialNumber.longValue()) {
+            Map<Long,ZoneSnapshot> retainedSnapshots = this.retainedSnapshotMap.get(zone);
+            snapshot = (retainedSnapshots != null) ? retainedSnapshots.get(serialNumber) : null;
+        }
+        
+        return snapshot;
+    }
+    
+    /**
+     * Find the SOA record of the zone.
+     * 
+     * @param  zone  the zone.
+     * 
+     * @return  the SOA record, or null if the zone is not cached.
+     */
+    public SOARecord findSOARecord(final Zone zone) {
+        ZoneSnapshot snapshot = this.zoneMap.get(zone);
+        return (snapshot != null) ? snapshot.getSOARecord() : null;
+    }
+    
     /**
      * Flag the zone for a refresh.
      * 
@@ -170,19 +454,9 @@ public class ZoneCache {
      */
     private long getRefreshInterval(final Zone zone) {
         
-        long refreshInterval = 0L;
-
-        List<Record> records = this.zoneMap.get(zone);
-        
-        for (Record record : records) {
-            
-            if (record.getType() == RecordType.SOA) {
-                refreshInterval = ((SOARecord)record).getRefreshInterval();
-                break;
-            }
-        }
+        SOARecord soaRecord = this.zoneMap.get(zone).getSOARecord();
         
-        return refreshInterval;
+        return (soaRecord != null) ? soaRecord.getRefreshInterval() : 0L;
     }
 
     /**
@@ -193,36 +467,24 @@ public class ZoneCache {
      * @return  the serial number.
      */
     private long getSerialNumberFromCache(final Zone zone) {
-        
-        long serialNumber = 0L;
-        
-        List<Record> records = this.zoneMap.get(zone);
-        
-        for (Record record : records) {
-            
-            if (record.getType() == RecordType.SOA) {
-                serialNumber = ((SOARecord)record).getSerialNumber();
-                break;
-            }
-        }
-        
-        return serialNumber;
+        return this.zoneMap.get(zone).getSerialNumber();
     }
     
     /**
      * Get the serial number for the zone from DNS.
      * 
-     * @param  zone  the zone.
+     * @param  zone      the zone.
+     * @param  resolver  the resolver to ask, or null to select the resolvers of the view.
      * 
      * @return  the serial number.
      */
-    private long getSerialNumberFromDNS(final Zone zone) {
+    protected long getSerialNumberFromDNS(final Zone zone, final Resolver resolver) {
         
         long serialNumber = 0L;
         
         try {
 
-            List<Record> soaRecords = DNSServerExecutor.newInstance(zone).findRecords(RecordType.SOA, "@");
+            List<Record> soaRecords = this.newExecutor(zone, resolver).findRecords(RecordType.SOA, "@");
 
             if (soaRecords.size() > 0) {
                 serialNumber = ((SOARecord)soaRecords.get(0)).getSerialNumber();
@@ -235,6 +497,79 @@ public class ZoneCache {
         return serialNumber;
     }
 
+    /**
+     * Get the snapshot lock for the zone.
+     * The records of the zone and its indexes are replaced together under the write lock, 
+     * so a reader holding the read lock never sees the indexes of a different snapshot.
+     * 
+     * @param  zone  the zone.
+     * 
+     * @return  the snapshot lock for the zone.
+     */
+    private ReadWriteLock getSnapshotLock(final Zone zone) {
+        
+        ReadWriteLock snapshotLock = this.snapshotLockMap.get(zone);
+        
+        // Check if the zone does not have a snapshot lock yet.
+        if (snapshotLock == null) {
+            ReadWriteLock newSnapshotLock = new ReentrantReadWriteLock();
+            snapshotLock = this.snapshotLockMap.putIfAbsent(zone, newSnapshotLock);
+            if (snapshotLock == null) {
+                snapshotLock = newSnapshotLock;
+            }
+        }
+        
+        return snapshotLock;
+    }
+    
+    /**
+     * Get the lock for the zone.
+     * 
+     * @param  zone  the zone.
+     * 
+     * @return  the lock for the zone.
+     */
+    private Object getZoneLock(final Zone zone) {
+        
+        Object zoneLock = this.zoneLockMap.get(zone);
+        
+        // Check if the zone does not have a lock yet.
+        if (zoneLock == null) {
+            Object newZoneLock = new Object();
+            zoneLock = this.zoneLockMap.putIfAbsent(zone, newZoneLock);
+            if (zoneLock == null) {
+                zoneLock = newZoneLock;
+            }
+        }
+        
+        return zoneLock;
+    }
+
+    /**
+     * Is the address used by a cached zone of the view?
+     * 
+     * @param  viewName  the view name.
+     * @param  address   the address.
+     * 
+     * @return  true if the address is used by a cached zone of the view, otherwise false.
+     */
+    private boolean isAddressUsed(final String viewName, final byte[] address) {
+        
+        boolean isAddressUsed = false;
+        Subnet subnet = Subnet.newInstance(Subnet.toIpAddress(address));
+        
+        // Loop through the address indexes.
+        for (Map.Entry<Zone,AddressIndex> entry : this.addressIndexMap.entrySet()) {
+            
+            if (entry.getKey().getViewName().equals(viewName) && !entry.getValue().findAddresses(subnet).isEmpty()) {
+                isAddressUsed = true;
+                break;
+            }
+        }
+        
+        return isAddressUsed;
+    }
+    
     /**
      * Is the zone cache available?
      * 
@@ -308,7 +643,7 @@ public class ZoneCache {
                 for (Zone zone : this.refreshZoneMap.get(ZoneAction.UPDATE)) {
 
                     // Update the zone in the cache.
-                    this.updateZone(zone);
+                    this.updateZone(zone, null);
                     
                     // Rechedule a refresh for the zone.
                     ((RefreshZoneScheduler)this.refreshZoneScheduler).reschedule(zone, this.getRefreshInterval(zone));
@@ -320,6 +655,36 @@ public class ZoneCache {
         }
     }
     
+    /**
+     * Create a DNS server executor for the zone.
+     * 
+     * @param  zone      the zone.
+     * @param  resolver  the only resolver to send the requests to, or null to select the resolvers of the view.
+     * 
+     * @return  the DNS server executor.
+     */
+    private DNSServerExecutor newExecutor(final Zone zone, final Resolver resolver) {
+        return (resolver != null) ? DNSServerExecutor.newInstance(zone, this.resolverMonitor, resolver) : DNSServerExecutor.newInstance(zone, this.resolverMonitor);
+    }
+    
+    /**
+     * Release the reserved addresses that are not used by a cached zone of the view.
+     * 
+     * @param  zone       the IPv4 reverse zone.
+     * @param  addresses  the IPv4 addresses.
+     */
+    public void releaseAddresses(final Zone zone, final List<String> addresses) {
+        
+        AddressBitmap addressBitmap = this.addressBitmapMap.get(zone);
+        
+        // Check if the zone has an address bitmap.
+        if (addressBitmap != null) {
+            for (String address : addresses) {
+                this.clearAddress(zone.getViewName(), addressBitmap, Subnet.toAddress(address));
+            }
+        }
+    }
+    
     /**
      * Refresh the zone cache and make it available.
      */
@@ -328,6 +693,43 @@ public class ZoneCache {
         this.isAvailable = true;
     }
 
+    /**
+     * Retain the snapshot replaced by an update so paged queries on it can finish.
+     * 
+     * @param  zone      the zone.
+     * @param  snapshot  the snapshot.
+     */
+    private void retainSnapshot(final Zone zone, final ZoneSnapshot snapshot) {
+        
+        Map<Long,ZoneSnapshot> retainedSnapshots = this.retainedSnapshotMap.get(zone);
+        
+        // Check if the zone does not have retained snapshots yet.
+        if (retainedSnapshots == null) {
+            retainedSnapshots = Collections.synchronizedMap(new LinkedHashMap<Long,ZoneSnapshot>() {
+                
+                private static final long serialVersionUID = 1L;
+                
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Long,ZoneSnapshot> eldest) {
+                    return this.size() > RETAINED_SNAPSHOTS;
+                }
+            });
+            this.retainedSnapshotMap.put(zone, retainedSnapshots);
+        }
+        
+        retainedSnapshots.put(snapshot.getSerialNumber(), snapshot);
+    }
+    
+    /**
+     * Set the lookup cache.
+     * 
+     * @param  lookupCache  the lookup cache.
+     */
+    @Inject
+    public void setLookupCache(final LookupCache lookupCache) {
+        this.lookupCache = lookupCache;
+    }
+
     /**
      * Set the repository.
      * 
@@ -338,6 +740,16 @@ public class ZoneCache {
         this.repository = repository;
     }
     
+    /**
+     * Set the resolver monitor.
+     * 
+     * @param  resolverMonitor  the resolver monitor.
+     */
+    @Inject
+    public void setResolverMonitor(final ResolverMonitor resolverMonitor) {
+        this.resolverMonitor = resolverMonitor;
+    }
+    
     /**
      * Set the notify message monitor address.
      * 
@@ -393,6 +805,17 @@ public class ZoneCache {
         logger.info("Set the refresh zone scheduler threads to {}.", refreshZoneSchedulerThreads);
     }
     
+    /**
+     * Set the zone index enabled flag.
+     * 
+     * @param  zoneIndexEnabled  true if the zone index is enabled, otherwise false.
+     */
+    @Inject 
+    public void setZoneIndexEnabled(@ZoneIndexEnabled final boolean zoneIndexEnabled) {
+        this.zoneIndexEnabled = zoneIndexEnabled;
+        logger.info("Set the zone index enabled to {}.", zoneIndexEnabled);
+    }
+    
     /**
      * Shutdown the zone cache.
      */
@@ -441,29 +864,141 @@ public class ZoneCache {
     }  
     
     /**
-     * Update the zone in the zone cache.
+     * Transfer the records of the zone from DNS.
      * 
      * @param  zone  the zone.
+     * 
+     * @return  the records of the zone.
+     * 
+     * @throws  DNSServerExecutorException  if unable to transfer the zone.
      */
-    private void updateZone(final Zone zone) {
+    protected List<Record> transferZone(final Zone zone) throws DNSServerExecutorException {
+        return DNSServerExecutor.newInstance(zone, this.resolverMonitor).findRecords();
+    }
+    
+    /**
+     * Transfer the changes to the zone from DNS and apply them to the records.
+     * 
+     * @param  zone       the zone.
+     * @param  resolver   the resolver to transfer the changes from, or null to select the resolvers of the view.
+     * @param  records    the records of the zone.
+     * @param  zoneDelta  the zone delta that is told about each record deleted from or added to the records.
+     * 
+     * @return  the new serial number of the SOA record in the records.
+     * 
+     * @throws  DNSServerExecutorException  if unable to transfer the changes.
+     */
+    protected long transferZoneChanges(final Zone zone, final Resolver resolver, final List<Record> records, final ZoneDelta zoneDelta) throws DNSServerExecutorException {
+        return this.newExecutor(zone, resolver).updateRecords(records, zoneDelta);
+    }
+    
+    /**
+     * Update the address bitmaps of the view of the zone with the zone delta.
+     * 
+     * @param  zone       the zone.
+     * @param  zoneDelta  the zone delta.
+     */
+    private void updateAddresses(final Zone zone, final ZoneDelta zoneDelta) {
+        
+        ZoneUtility zoneUtility = ZoneUtility.newInstance(zone.getName());
+        
+        // Loop through the changes in the order they were made.
+        for (int index = 0; index < zoneDelta.size(); index++) {
+            
+            byte[] address = Subnet.getAddress(zoneUtility, zoneDelta.getRecord(index));
+            
+            // Check if the record has an address.
+            if (address != null) {
+                
+                for (Map.Entry<Zone,AddressBitmap> entry : this.addressBitmapMap.entrySet()) {
+                    
+                    if (entry.getKey().getViewName().equals(zone.getViewName()) && entry.getValue().contains(address)) {
+                        if (zoneDelta.isAdded(index)) {
+                            entry.getValue().set(address);
+                        } else {
+                            this.clearAddress(zone.getViewName(), entry.getValue(), address);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Update the zone in the zone cache.
+     * 
+     * @param  zone      the zone.
+     * @param  resolver  the resolver to update the zone from, or null to select the resolvers of the view.
+     */
+    private void updateZone(final Zone zone, final Resolver resolver) {
  
-        try {
+        // Serialize the updates for the zone.
+        synchronized (this.getZoneLock(zone)) {
             
-            // Get the DNS and cache serial numbers for the zone.
-            long dnsSerialNumber = getSerialNumberFromDNS(zone);
-            long cacheSerialNumber = getSerialNumberFromCache(zone);
+            try {
 
-            logger.debug("Comparing the DNS serial number {} to the zone cache serial number {} for the zone {}.", dnsSerialNumber, cacheSerialNumber, zone);
-            if (dnsSerialNumber > cacheSerialNumber) {
-                logger.debug("{} records in the zone {} prior to the zone cache update.", this.zoneMap.get(zone).size(), zone);
+                // Get the DNS and cache serial numbers for the zone.
+                long dnsSerialNumber = getSerialNumberFromDNS(zone, resolver);
+                long cacheSerialNumber = getSerialNumberFromCache(zone);
 
-                // Update the zone in the zone cache.
-                cacheSerialNumber = DNSServerExecutor.newInstance(zone).updateRecords(this.zoneMap.get(zone));
-                logger.debug("{} records in the zone {} after the zone cache update.", this.zoneMap.get(zone).size(), zone);
-                logger.debug("The DNS serial number is {} and the zone cache serial number is {} for the zone {}.", dnsSerialNumber, cacheSerialNumber, zone);
+                logger.debug("Comparing the DNS serial number {} to the zone cache serial number {} for the zone {}.", dnsSerialNumber, cacheSerialNumber, zone);
+                if (dnsSerialNumber > cacheSerialNumber) {
+                    logger.debug("{} records in the zone {} prior to the zone cache update.", this.zoneMap.get(zone).getRecords().size(), zone);
+
+                    // The cached lookups for the zone are stale.
+                    this.lookupCache.invalidate(zone);
+
+                    // Update a copy of the records and then replace the records so readers never see a partial update.
+                    ZoneDelta zoneDelta = ZoneDelta.newInstance();
+                    ZoneSnapshot snapshot = this.zoneMap.get(zone);
+                    List<Record> records = new ArrayList<Record>(snapshot.getRecords());
+                    cacheSerialNumber = this.transferZoneChanges(zone, resolver, records, zoneDelta);
+                    this.retainSnapshot(zone, snapshot);
+                    
+                    // Replace the records and apply the same deltas to the indexes and the address bitmaps as one snapshot.
+                    ReadWriteLock snapshotLock = this.getSnapshotLock(zone);
+                    snapshotLock.writeLock().lock();
+                    try {
+                        this.zoneMap.replace(zone, ZoneSnapshot.newInstance(records));
+                        AddressIndex addressIndex = this.addressIndexMap.get(zone);
+                        if (addressIndex != null) {
+                            addressIndex.apply(zoneDelta);
+                            this.updateAddresses(zone, zoneDelta);
+                        }
+                        ReverseIndex reverseIndex = this.reverseIndexMap.get(zone);
+                        if (reverseIndex != null) {
+                            reverseIndex.apply(zoneDelta);
+                        }
+                        TrigramIndex zoneIndex = this.zoneIndexMap.get(zone);
+                        if (zoneIndex != null) {
+                            zoneIndex.apply(zoneDelta);
+                        }
+                    } finally {
+                        snapshotLock.writeLock().unlock();
+                    }
+                    logger.debug("{} records in the zone {} after the zone cache update.", records.size(), zone);
+                    logger.debug("The DNS serial number is {} and the zone cache serial number is {} for the zone {}.", dnsSerialNumber, cacheSerialNumber, zone);
+                }
+            } catch (Exception e) {
+                logger.warn("Unable to update the zone {} in the zone cache.", zone, e);
             }
-        } catch (Exception e) {
-            logger.warn("Unable to update the zone {} in the zone cache.", zone, e);
+        }
+    }
+
+    /**
+     * Update the zone in the zone cache immediately.
+     * This is called after record operations are processed for the zone so the zone cache reflects 
+     * the record operations before the caller reads the records back.  The zone is updated from the 
+     * resolver that accepted the record operations since the other resolvers may not have them yet.
+     * 
+     * @param  zone            the zone.
+     * @param  updateResolver  the resolver that accepted the record operations, or null if unknown.
+     */
+    public void updateZoneNow(final Zone zone, final Resolver updateResolver) {
+        
+        // Check if the zone is cached.
+        if (this.isAvailable && this.zoneMap.containsKey(zone)) {
+            this.updateZone(zone, updateResolver);
         }
     }
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.lazydog.jdnsaas.bind.DNSServerExecutor;
+import org.lazydog.jdnsaas.model.Record;
+
+/**
+ * Zone delta.
+ * 
+ * The records deleted and added by the incremental zone transfer deltas are collected in order, 
+ * so they can be applied to the zone indexes all at once after the zone is updated.
+ * 
+ * @author  Ron Rickard
+ */
+public final class ZoneDelta implements DNSServerExecutor.DeltaListener {
+
+    private List<Boolean> additions = new ArrayList<Boolean>();
+    private List<Record> records = new ArrayList<Record>();
+
+    /**
+     * Hide the constructor.
+     */
+    private ZoneDelta() {
+    }
+
+    /**
+     * Get the record at the index.
+     * 
+     * @param  index  the index.
+     * 
+     * @return  the record at the index.
+     */
+    public Record getRecord(final int index) {
+        return this.records.get(index);
+    }
+
+    /**
+     * Is the record at the index added?
+     * 
+     * @param  index  the index.
+     * 
+     * @return  true if the record at the index is added, false if it is deleted.
+     */
+    public boolean isAdded(final int index) {
+        return this.additions.get(index);
+    }
+
+    /**
+     * Create a new instance of the zone delta class.
+     * 
+     * @return  a new instance of the zone delta class.
+     */
+    public static ZoneDelta newInstance() {
+        return new ZoneDelta();
+    }
+
+    /**
+     * The record was added.
+     * 
+     * @param  record  the record.
+     */
+    @Override
+    public void recordAdded(final Record record) {
+        this.additions.add(true);
+        this.records.add(record);
+    }
+
+    /**
+     * The record was deleted.
+     * 
+     * @param  record  the record.
+     */
+    @Override
+    public void recordDeleted(final Record record) {
+        this.additions.add(false);
+        this.records.add(record);
+    }
+
+    /**
+     * Get the number of records deleted and added.
+     * 
+     * @return  the number of records deleted and added.
+     */
+    public int size() {
+        return this.records.size();
+    }
+}
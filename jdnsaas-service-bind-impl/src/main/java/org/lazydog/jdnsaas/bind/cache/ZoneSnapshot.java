@@ -0,0 +1,94 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.List;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordType;
+import org.lazydog.jdnsaas.model.SOARecord;
+
+/**
+ * Zone snapshot.
+ * 
+ * The records of a cached zone at one serial number.  The SOA record is found once, when the snapshot is created, 
+ * so the serial number of a snapshot never costs a scan of its records.
+ * 
+ * @author  Ron Rickard
+ */
+public final class ZoneSnapshot {
+
+    private List<Record> records;
+    private SOARecord soaRecord;
+
+    /**
+     * Hide the constructor.
+     * 
+     * @param  records  the records.
+     */
+    private ZoneSnapshot(final List<Record> records) {
+        
+        this.records = records;
+        
+        // Find the SOA record.
+        for (Record record : records) {
+            if (record.getType() == RecordType.SOA) {
+                this.soaRecord = (SOARecord)record;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get the records.
+     * 
+     * @return  the records.
+     */
+    public List<Record> getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Get the serial number.
+     * 
+     * @return  the serial number of the SOA record, or zero if there is no SOA record.
+     */
+    public long getSerialNumber() {
+        return (this.soaRecord != null) ? this.soaRecord.getSerialNumber() : 0L;
+    }
+
+    /**
+     * Get the SOA record.
+     * 
+     * @return  the SOA record, or null if there is no SOA record.
+     */
+    public SOARecord getSOARecord() {
+        return this.soaRecord;
+    }
+
+    /**
+     * Create a new instance of the zone snapshot class.
+     * 
+     * @param  records  the records.
+     * 
+     * @return  a new instance of the zone snapshot class.
+     */
+    public static ZoneSnapshot newInstance(final List<Record> records) {
+        return new ZoneSnapshot(records);
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.lazydog.jdnsaas.CursorExpiredException;
+import org.lazydog.jdnsaas.bind.cache.StubZoneCache;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperation;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.RecordPage;
+import org.lazydog.jdnsaas.model.RecordType;
+import org.lazydog.jdnsaas.model.Resolver;
+import org.lazydog.jdnsaas.model.View;
+import org.lazydog.jdnsaas.model.Zone;
+import org.lazydog.jdnsaas.spi.repository.JDNSaaSRepository;
+import org.lazydog.jdnsaas.utility.RecordFilter;
+
+/**
+ * DNS service implementation test.
+ * 
+ * @author  Ron Rickard
+ */
+public class DNSServiceImplTest {
+
+    private static final Zone ZONE = newZone("internal", "example.com");
+    private static final Zone ZONE2 = newZone("internal", "example.org");
+    private DNSServiceImpl dnsService;
+    private RecordOperationDispatcher recordOperationDispatcher;
+    private Record record1;
+    private Record record2;
+    private RecordFilter recordFilter;
+    private StubZoneCache zoneCache;
+
+    private static Zone newZone(final String viewName, final String zoneName) {
+        View view = new View();
+        view.setName(viewName);
+        Zone zone = new Zone();
+        zone.setName(zoneName);
+        zone.setView(view);
+        return zone;
+    }
+
+    @Before
+    public void beforeTest() throws Exception {
+        this.record1 = Record.newInstance(ARecord.class, "www", new Long(0), "10.20.30.40");
+        this.record2 = Record.newInstance(ARecord.class, "mail", new Long(0), "10.20.30.41");
+        this.recordFilter = RecordFilter.newInstance(ZONE.getName(), Arrays.asList(RecordType.A), "");
+        this.zoneCache = new StubZoneCache();
+        this.zoneCache.add(ZONE, 1, this.record1, this.record2);
+        this.dnsService = new DNSServiceImpl();
+        this.dnsService.setRepository((JDNSaaSRepository)Proxy.newProxyInstance(JDNSaaSRepository.class.getClassLoader(), new Class<?>[] {JDNSaaSRepository.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                Zone zone = null;
+                if ("findZone".equals(method.getName()) && ZONE.getName().equalsIgnoreCase((String)args[1])) {
+                    zone = ZONE;
+                } else if ("findZone".equals(method.getName()) && ZONE2.getName().equals(args[1])) {
+                    zone = ZONE2;
+                }
+                return zone;
+            }
+        }));
+        this.dnsService.setZoneCache(this.zoneCache);
+    }
+
+    /**
+     * Start a record operation dispatcher with a stub DNS server that refuses the records named bad.
+     */
+    private void startupRecordOperationDispatcher() {
+        this.recordOperationDispatcher = new RecordOperationDispatcher() {
+            @Override
+            RecordOperationExecutor newExecutor(final Zone zone) {
+                return new RecordOperationExecutor() {
+                    @Override
+                    public Resolver getUpdateResolver() {
+                        return null;
+                    }
+
+                    @Override
+                    public List<RecordOperationResult> processRecordOperations(final List<Record> records, final boolean failOnNoResponse, final boolean ifAbsent) {
+                        List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+                        for (Record record : records) {
+                            boolean success = !"bad".equals(record.getName());
+                            recordOperationResults.add(RecordOperationResult.newInstance(record, success, (success) ? "NOERROR" : "REFUSED"));
+                        }
+                        return recordOperationResults;
+                    }
+                };
+            }
+
+            @Override
+            void updateCaches(final Zone zone, final Resolver updateResolver) {
+            }
+        };
+        this.recordOperationDispatcher.setBatchSize(500);
+        this.recordOperationDispatcher.setBatchWindow(0);
+        this.recordOperationDispatcher.setThreads(2);
+        this.recordOperationDispatcher.setUpdateThreads(2);
+        this.recordOperationDispatcher.startup();
+        this.dnsService.setRecordOperationDispatcher(this.recordOperationDispatcher);
+    }
+
+    @After
+    public void afterTest() throws InterruptedException {
+        if (this.recordOperationDispatcher != null) {
+            this.recordOperationDispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testFindRecordsPage() throws Exception {
+        RecordPage recordPage1 = this.dnsService.findRecords(ZONE.getViewName(), ZONE.getName(), this.recordFilter, null, 1);
+        RecordPage recordPage2 = this.dnsService.findRecords(ZONE.getViewName(), ZONE.getName(), this.recordFilter, recordPage1.getNextCursor(), 1);
+        assertEquals(Arrays.asList(this.record1), recordPage1.getRecords());
+        assertEquals(Arrays.asList(this.record2), recordPage2.getRecords());
+    }
+
+    @Test
+    public void testFindRecordsPageRetainedSnapshot() throws Exception {
+        RecordPage recordPage1 = this.dnsService.findRecords(ZONE.getViewName(), ZONE.getName(), this.recordFilter, null, 1);
+        this.zoneCache.setDnsRecords(ZONE, 2, this.record1);
+        this.zoneCache.updateZoneNow(ZONE, null);
+        RecordPage recordPage2 = this.dnsService.findRecords(ZONE.getViewName(), ZONE.getName(), this.recordFilter, recordPage1.getNextCursor(), 1);
+        assertEquals(Arrays.asList(this.record2), recordPage2.getRecords());
+    }
+
+    @Test(expected = CursorExpiredException.class)
+    public void testFindRecordsPageCursorExpired() throws Exception {
+        RecordPage recordPage = this.dnsService.findRecords(ZONE.getViewName(), ZONE.getName(), this.recordFilter, null, 1);
+        for (long serialNumber = 2; serialNumber <= 6; serialNumber++) {
+            this.zoneCache.setDnsRecords(ZONE, serialNumber, this.record1);
+            this.zoneCache.updateZoneNow(ZONE, null);
+        }
+        this.dnsService.findRecords(ZONE.getViewName(), ZONE.getName(), this.recordFilter, recordPage.getNextCursor(), 1);
+    }
+
+    @Test
+    public void testWriteZoneFile() throws Exception {
+        StringWriter writer = new StringWriter();
+        this.dnsService.writeZoneFile(ZONE.getViewName(), ZONE.getName(), true, writer);
+        String[] lines = writer.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].matches("example\\.com\\.\\s+3600\\s+IN\\s+SOA\\s+ns1\\.example\\.com\\. hostmaster\\.example\\.com\\. 1 3600 600 86400 300"));
+        assertTrue(lines[1].matches("www\\.example\\.com\\.\\s+0\\s+IN\\s+A\\s+10\\.20\\.30\\.40"));
+        assertTrue(lines[2].matches("mail\\.example\\.com\\.\\s+0\\s+IN\\s+A\\s+10\\.20\\.30\\.41"));
+    }
+
+    @Test
+    public void testWriteZoneFileWithoutCache() throws Exception {
+        final List<Record> records = new ArrayList<Record>(this.zoneCache.findSnapshot(ZONE, null).getRecords());
+        records.add(records.remove(0));
+        this.dnsService.setZoneTransferCoalescer(new ZoneTransferCoalescer() {
+            @Override
+            List<Record> transferZone(final Zone zone) {
+                return records;
+            }
+        });
+        StringWriter writer = new StringWriter();
+        this.dnsService.writeZoneFile(ZONE.getViewName(), ZONE.getName(), false, writer);
+        String[] lines = writer.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("SOA"));
+        assertTrue(lines[1].startsWith("www."));
+        assertTrue(lines[2].startsWith("mail."));
+    }
+
+    @Test
+    public void testProcessRecordOperations() throws Exception {
+        this.startupRecordOperationDispatcher();
+        Map<String,List<Record>> zoneRecords = new LinkedHashMap<String,List<Record>>();
+        zoneRecords.put(ZONE.getName(), Arrays.asList(this.newRecord("a1"), this.newRecord("bad")));
+        zoneRecords.put(ZONE2.getName(), Arrays.asList(this.newRecord("b1")));
+        Map<String,Map<String,List<Record>>> viewZoneRecords = new LinkedHashMap<String,Map<String,List<Record>>>();
+        viewZoneRecords.put(ZONE.getViewName(), zoneRecords);
+        Map<String,List<RecordOperationResult>> zoneRecordOperationResults = this.dnsService.processRecordOperations(viewZoneRecords).get(ZONE.getViewName());
+        assertEquals(Arrays.asList(ZONE.getName(), ZONE2.getName()), new ArrayList<String>(zoneRecordOperationResults.keySet()));
+        assertTrue(zoneRecordOperationResults.get(ZONE.getName()).get(0).isSuccess());
+        assertFalse(zoneRecordOperationResults.get(ZONE.getName()).get(1).isSuccess());
+        assertTrue(zoneRecordOperationResults.get(ZONE2.getName()).get(0).isSuccess());
+    }
+
+    @Test
+    public void testProcessRecordOperationsZoneNotFound() throws Exception {
+        this.startupRecordOperationDispatcher();
+        Map<String,List<Record>> zoneRecords = new LinkedHashMap<String,List<Record>>();
+        zoneRecords.put("example.net", Arrays.asList(this.newRecord("a1")));
+        zoneRecords.put(ZONE.getName(), Arrays.asList(this.newRecord("b1")));
+        Map<String,Map<String,List<Record>>> viewZoneRecords = new LinkedHashMap<String,Map<String,List<Record>>>();
+        viewZoneRecords.put(ZONE.getViewName(), zoneRecords);
+        Map<String,List<RecordOperationResult>> zoneRecordOperationResults = this.dnsService.processRecordOperations(viewZoneRecords).get(ZONE.getViewName());
+        assertEquals(Arrays.asList("example.net", ZONE.getName()), new ArrayList<String>(zoneRecordOperationResults.keySet()));
+        assertFalse(zoneRecordOperationResults.get("example.net").get(0).isSuccess());
+        assertTrue(zoneRecordOperationResults.get("example.net").get(0).getMessage().contains("is not found"));
+        assertTrue(zoneRecordOperationResults.get(ZONE.getName()).get(0).isSuccess());
+    }
+
+    @Test
+    public void testProcessRecordOperationsDuplicateZone() throws Exception {
+        this.startupRecordOperationDispatcher();
+        Map<String,List<Record>> zoneRecords = new LinkedHashMap<String,List<Record>>();
+        zoneRecords.put(ZONE.getName(), Arrays.asList(this.newRecord("a1")));
+        zoneRecords.put(ZONE.getName().toUpperCase(), Arrays.asList(this.newRecord("b1")));
+        Map<String,Map<String,List<Record>>> viewZoneRecords = new LinkedHashMap<String,Map<String,List<Record>>>();
+        viewZoneRecords.put(ZONE.getViewName(), zoneRecords);
+        Map<String,List<RecordOperationResult>> zoneRecordOperationResults = this.dnsService.processRecordOperations(viewZoneRecords).get(ZONE.getViewName());
+        assertEquals(Arrays.asList(ZONE.getName(), ZONE.getName().toUpperCase()), new ArrayList<String>(zoneRecordOperationResults.keySet()));
+        assertTrue(zoneRecordOperationResults.get(ZONE.getName()).get(0).isSuccess());
+        assertFalse(zoneRecordOperationResults.get(ZONE.getName().toUpperCase()).get(0).isSuccess());
+        assertTrue(zoneRecordOperationResults.get(ZONE.getName().toUpperCase()).get(0).getMessage().contains("already in the request"));
+    }
+
+    private Record newRecord(final String name) throws Exception {
+        Record record = Record.newInstance(ARecord.class, name, new Long(0), "10.0.0.1");
+        record.setOperation(RecordOperation.ADD);
+        return record;
+    }
+}
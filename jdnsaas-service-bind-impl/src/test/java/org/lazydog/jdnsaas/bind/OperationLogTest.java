@@ -0,0 +1,174 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Operation;
+import org.lazydog.jdnsaas.model.OperationState;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperation;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.View;
+import org.lazydog.jdnsaas.model.Zone;
+import org.lazydog.jdnsaas.spi.repository.JDNSaaSRepository;
+
+/**
+ * Operation log test.
+ * 
+ * @author  Ron Rickard
+ */
+public class OperationLogTest {
+
+    private static final Zone ZONE = newZone("internal", "example.com");
+    private List<RecordOperationDispatcher.Callback> callbacks = new ArrayList<RecordOperationDispatcher.Callback>();
+    private List<List<Record>> dispatchedRecords = new ArrayList<List<Record>>();
+    private OperationLog operationLog;
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ARecord newRecord(final String name) throws Exception {
+        ARecord record = Record.newInstance(ARecord.class, name, new Long(0), "10.0.0.1");
+        record.setOperation(RecordOperation.ADD);
+        return record;
+    }
+
+    private static Zone newZone(final String viewName, final String zoneName) {
+        View view = new View();
+        view.setName(viewName);
+        Zone zone = new Zone();
+        zone.setName(zoneName);
+        zone.setView(view);
+        return zone;
+    }
+
+    /**
+     * Start an operation log on the temporary folder with a record operation dispatcher that holds the record 
+     * operations until they are completed by the test, like a server that stops before the DNS server answers.
+     */
+    private void startup() {
+        this.callbacks.clear();
+        this.dispatchedRecords.clear();
+        this.operationLog = new OperationLog();
+        this.operationLog.setDirectory(this.temporaryFolder.getRoot().getPath());
+        this.operationLog.setRecordOperationDispatcher(new RecordOperationDispatcher() {
+            @Override
+            public void process(final Zone zone, final List<Record> records, final Callback callback) {
+                OperationLogTest.this.dispatchedRecords.add(records);
+                OperationLogTest.this.callbacks.add(callback);
+            }
+        });
+        this.operationLog.setRepository((JDNSaaSRepository)Proxy.newProxyInstance(JDNSaaSRepository.class.getClassLoader(), new Class<?>[] {JDNSaaSRepository.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return ("findZone".equals(method.getName()) && ZONE.getName().equals(args[1])) ? ZONE : null;
+            }
+        }));
+        this.operationLog.startup();
+    }
+
+    private void restart() throws InterruptedException {
+        this.operationLog.shutdown();
+        this.startup();
+    }
+
+    private void complete(final int index) {
+        List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+        for (Record record : this.dispatchedRecords.get(index)) {
+            recordOperationResults.add(RecordOperationResult.newInstance(record, true, "NOERROR"));
+        }
+        this.callbacks.get(index).completed(recordOperationResults);
+    }
+
+    @After
+    public void afterTest() throws InterruptedException {
+        this.operationLog.shutdown();
+    }
+
+    @Test
+    public void testRecoverPending() throws Exception {
+        this.startup();
+        Operation operation1 = this.operationLog.submit(ZONE, Arrays.<Record>asList(newRecord("a1"), newRecord("a2")));
+        Operation operation2 = this.operationLog.submit(ZONE, Arrays.<Record>asList(newRecord("b1")));
+        this.restart();
+        assertEquals(Arrays.asList(Arrays.<Record>asList(newRecord("a1"), newRecord("a2")), Arrays.<Record>asList(newRecord("b1"))), this.dispatchedRecords);
+        assertEquals(OperationState.PENDING, this.operationLog.find(operation1.getId()).getState());
+        this.complete(0);
+        this.complete(1);
+        assertEquals(OperationState.COMPLETED, this.operationLog.find(operation1.getId()).getState());
+        assertEquals(OperationState.COMPLETED, this.operationLog.find(operation2.getId()).getState());
+    }
+
+    @Test
+    public void testRecoverCompleted() throws Exception {
+        this.startup();
+        Operation operation1 = this.operationLog.submit(ZONE, Arrays.<Record>asList(newRecord("a1")));
+        Operation operation2 = this.operationLog.submit(ZONE, Arrays.<Record>asList(newRecord("b1")));
+        this.complete(0);
+        this.restart();
+        assertEquals(Arrays.asList(Arrays.<Record>asList(newRecord("b1"))), this.dispatchedRecords);
+        Operation operation = this.operationLog.find(operation1.getId());
+        assertEquals(OperationState.COMPLETED, operation.getState());
+        assertEquals(1, operation.getRecordOperationResults().size());
+        assertEquals(newRecord("a1"), operation.getRecordOperationResults().get(0).getRecord());
+        assertEquals(OperationState.PENDING, this.operationLog.find(operation2.getId()).getState());
+    }
+
+    @Test
+    public void testRecoverCorruptEntry() throws Exception {
+        this.startup();
+        Operation operation1 = this.operationLog.submit(ZONE, Arrays.<Record>asList(newRecord("a1")));
+
+        // Leave a truncated entry and the temporary file of an interrupted write.
+        File corruptFile = new File(this.temporaryFolder.getRoot(), "corrupt.operation");
+        FileOutputStream output = new FileOutputStream(corruptFile);
+        output.write(new byte[] {(byte)0xac, (byte)0xed, 0x00, 0x05, 0x73});
+        output.close();
+        File temporaryFile = new File(this.temporaryFolder.getRoot(), operation1.getId() + ".tmp");
+        temporaryFile.createNewFile();
+
+        this.restart();
+        assertEquals(Arrays.asList(Arrays.<Record>asList(newRecord("a1"))), this.dispatchedRecords);
+        assertEquals(OperationState.PENDING, this.operationLog.find(operation1.getId()).getState());
+        assertNull(this.operationLog.find("corrupt"));
+        assertFalse(temporaryFile.exists());
+    }
+
+    @Test
+    public void testRecoverZoneNotFound() throws Exception {
+        this.startup();
+        Operation operation1 = this.operationLog.submit(newZone("internal", "missing.com"), Arrays.<Record>asList(newRecord("a1")));
+        this.restart();
+        assertEquals(0, this.dispatchedRecords.size());
+        assertEquals(OperationState.FAILED, this.operationLog.find(operation1.getId()).getState());
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.RecordOperation;
+import org.lazydog.jdnsaas.model.RecordOperationResult;
+import org.lazydog.jdnsaas.model.Resolver;
+import org.lazydog.jdnsaas.model.View;
+import org.lazydog.jdnsaas.model.Zone;
+
+/**
+ * Record operation dispatcher test.
+ * 
+ * @author  Ron Rickard
+ */
+public class RecordOperationDispatcherTest {
+
+    private static final Zone ZONE = newZone("internal", "example.com");
+    private List<List<Record>> updates = Collections.synchronizedList(new ArrayList<List<Record>>());
+    private List<Boolean> conditionalUpdates = Collections.synchronizedList(new ArrayList<Boolean>());
+    private AtomicInteger activeUpdates = new AtomicInteger();
+    private AtomicInteger maximumActiveUpdates = new AtomicInteger();
+    private CountDownLatch updateStarted = new CountDownLatch(1);
+    private CountDownLatch updateReleased = new CountDownLatch(0);
+    private RecordOperationDispatcher recordOperationDispatcher;
+
+    private static ARecord newRecord(final String name) throws Exception {
+        ARecord record = Record.newInstance(ARecord.class, name, new Long(0), "10.0.0.1");
+        record.setOperation(RecordOperation.ADD);
+        return record;
+    }
+
+    private static Zone newZone(final String viewName, final String zoneName) {
+        View view = new View();
+        view.setName(viewName);
+        Zone zone = new Zone();
+        zone.setName(zoneName);
+        zone.setView(view);
+        return zone;
+    }
+
+    /**
+     * Start the record operation dispatcher with a stub DNS server.
+     * An update fails as a whole if it contains a record named bad, and is not answered if it contains a record named timeout.
+     * A record named lost is sent on a lane of its own that is not answered.
+     */
+    private void startup(final int batchWindow) {
+        this.recordOperationDispatcher = new RecordOperationDispatcher() {
+            @Override
+            RecordOperationExecutor newExecutor(final Zone zone) {
+                return new RecordOperationExecutor() {
+                    @Override
+                    public Resolver getUpdateResolver() {
+                        return null;
+                    }
+
+                    @Override
+                    public List<RecordOperationResult> processRecordOperations(final List<Record> records, final boolean failOnNoResponse, final boolean ifAbsent) throws DNSServerExecutorException {
+                        return RecordOperationDispatcherTest.this.update(records, failOnNoResponse, ifAbsent);
+                    }
+                };
+            }
+
+            @Override
+            void updateCaches(final Zone zone, final Resolver updateResolver) {
+            }
+        };
+        this.recordOperationDispatcher.setBatchSize(500);
+        this.recordOperationDispatcher.setBatchWindow(batchWindow);
+        this.recordOperationDispatcher.setThreads(2);
+        this.recordOperationDispatcher.setUpdateThreads(2);
+        this.recordOperationDispatcher.startup();
+    }
+
+    private List<RecordOperationResult> update(final List<Record> records, final boolean failOnNoResponse, final boolean ifAbsent) throws DNSServerExecutorException {
+
+        this.maximumActiveUpdates.set(Math.max(this.maximumActiveUpdates.get(), this.activeUpdates.incrementAndGet()));
+        this.updates.add(new ArrayList<Record>(records));
+        this.conditionalUpdates.add(ifAbsent);
+        this.updateStarted.countDown();
+
+        try {
+            this.updateReleased.await();
+        } catch (InterruptedException e) {
+            throw new DNSServerExecutorException(e);
+        } finally {
+            this.activeUpdates.decrementAndGet();
+        }
+
+        boolean success = true;
+        boolean response = true;
+        boolean laneResponse = true;
+        for (Record record : records) {
+            success = success && !"bad".equals(record.getName()) && !"timeout".equals(record.getName());
+            response = response && !"timeout".equals(record.getName());
+            laneResponse = laneResponse && !"lost".equals(record.getName());
+        }
+        if (!response && failOnNoResponse) {
+            throw new NoResponseException("timeout", null);
+        }
+
+        List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+        for (Record record : records) {
+            recordOperationResults.add(("lost".equals(record.getName())) ? null : RecordOperationResult.newInstance(record, success, (success) ? "NOERROR" : "REFUSED"));
+        }
+        if (!laneResponse && failOnNoResponse) {
+            throw new NoResponseException("lost", null, recordOperationResults);
+        }
+
+        return recordOperationResults;
+    }
+
+    @After
+    public void afterTest() throws InterruptedException {
+        this.recordOperationDispatcher.shutdown();
+    }
+
+    @Test
+    public void testProcessGroupCommit() throws Exception {
+        this.startup(200);
+        Result result1 = this.submit(newRecord("a1"), newRecord("a2"));
+        Result result2 = this.submit(newRecord("b1"));
+        Result result3 = this.submit(newRecord("c1"));
+        assertEquals(Arrays.asList("a1", "a2"), result1.await());
+        assertEquals(Arrays.asList("b1"), result2.await());
+        assertEquals(Arrays.asList("c1"), result3.await());
+        assertEquals(1, this.updates.size());
+        assertEquals(Arrays.asList(newRecord("a1"), newRecord("a2"), newRecord("b1"), newRecord("c1")), this.updates.get(0));
+    }
+
+    @Test
+    public void testProcessQueueHandoff() throws Exception {
+        this.updateReleased = new CountDownLatch(1);
+        this.startup(0);
+        Result result1 = this.submit(newRecord("a1"));
+        assertTrue(this.updateStarted.await(5, TimeUnit.SECONDS));
+        Result result2 = this.submit(newRecord("b1"));
+        Result result3 = this.submit(newRecord("c1"));
+        this.updateReleased.countDown();
+        assertEquals(Arrays.asList("a1"), result1.await());
+        assertEquals(Arrays.asList("b1"), result2.await());
+        assertEquals(Arrays.asList("c1"), result3.await());
+        assertEquals(Arrays.asList(Arrays.<Record>asList(newRecord("a1")), Arrays.<Record>asList(newRecord("b1"), newRecord("c1"))), this.updates);
+        assertEquals(1, this.maximumActiveUpdates.get());
+    }
+
+    @Test
+    public void testProcessRetryIndividually() throws Exception {
+        this.startup(200);
+        Result result1 = this.submit(newRecord("a1"));
+        Result result2 = this.submit(newRecord("bad"));
+        Result result3 = this.submit(newRecord("c1"));
+        assertEquals(Arrays.asList("a1"), result1.await());
+        assertEquals(Arrays.asList("bad"), result2.await());
+        assertEquals(Arrays.asList("c1"), result3.await());
+        assertTrue(result1.isSuccess());
+        assertFalse(result2.isSuccess());
+        assertTrue(result3.isSuccess());
+        assertEquals(Arrays.asList(
+                Arrays.<Record>asList(newRecord("a1"), newRecord("bad"), newRecord("c1")),
+                Arrays.<Record>asList(newRecord("a1")),
+                Arrays.<Record>asList(newRecord("bad")),
+                Arrays.<Record>asList(newRecord("c1"))), this.updates);
+    }
+
+    @Test
+    public void testProcessNoResponse() throws Exception {
+        this.startup(200);
+        Result result1 = this.submit(newRecord("a1"));
+        Result result2 = this.submit(newRecord("timeout"));
+        Result result3 = this.submit(newRecord("c1"));
+        result1.await();
+        result2.await();
+        result3.await();
+        assertTrue(result1.isFailed());
+        assertTrue(result2.isFailed());
+        assertTrue(result3.isFailed());
+        assertEquals(Arrays.asList(Arrays.<Record>asList(newRecord("a1"), newRecord("timeout"), newRecord("c1"))), this.updates);
+    }
+
+    @Test
+    public void testProcessNoResponseOnOneLane() throws Exception {
+        this.startup(200);
+        Result result1 = this.submit(newRecord("a1"));
+        Result result2 = this.submit(newRecord("lost"));
+        Result result3 = this.submit(newRecord("c1"));
+        assertEquals(Arrays.asList("a1"), result1.await());
+        result2.await();
+        assertEquals(Arrays.asList("c1"), result3.await());
+        assertTrue(result1.isSuccess());
+        assertTrue(result2.isFailed());
+        assertTrue(result3.isSuccess());
+        assertEquals(Arrays.asList(Arrays.<Record>asList(newRecord("a1"), newRecord("lost"), newRecord("c1"))), this.updates);
+    }
+
+    @Test
+    public void testProcessIfAbsent() throws Exception {
+        this.startup(200);
+        Result result = this.submit(newRecord("a1"));
+        List<RecordOperationResult> recordOperationResults = this.recordOperationDispatcher.processIfAbsent(ZONE, Arrays.<Record>asList(newRecord("b1"), newRecord("bad"), newRecord("c1")));
+        assertEquals(Arrays.asList("a1"), result.await());
+        assertEquals(3, recordOperationResults.size());
+        assertTrue(recordOperationResults.get(0).isSuccess());
+        assertFalse(recordOperationResults.get(1).isSuccess());
+        assertTrue(recordOperationResults.get(2).isSuccess());
+        assertEquals(Arrays.asList(
+                Arrays.<Record>asList(newRecord("a1")),
+                Arrays.<Record>asList(newRecord("b1"), newRecord("bad"), newRecord("c1")),
+                Arrays.<Record>asList(newRecord("b1")),
+                Arrays.<Record>asList(newRecord("bad")),
+                Arrays.<Record>asList(newRecord("c1"))), this.updates);
+        assertEquals(Arrays.asList(false, true, true, true, true), this.conditionalUpdates);
+    }
+
+    @Test
+    public void testProcessAfterShutdown() throws Exception {
+        this.startup(0);
+        this.recordOperationDispatcher.shutdown();
+        Result result1 = this.submit(newRecord("a1"));
+        Result result2 = this.submit(newRecord("b1"));
+        result1.await();
+        result2.await();
+        assertTrue(result1.isFailed());
+        assertTrue(result2.isFailed());
+        assertTrue(this.updates.isEmpty());
+    }
+
+    private Result submit(final Record... records) {
+        Result result = new Result();
+        this.recordOperationDispatcher.process(ZONE, Arrays.<Record>asList(records), result);
+        return result;
+    }
+
+    /**
+     * Result of an asynchronous request.
+     */
+    private static class Result implements RecordOperationDispatcher.Callback {
+
+        private boolean failed;
+        private CountDownLatch latch = new CountDownLatch(1);
+        private List<RecordOperationResult> recordOperationResults = new ArrayList<RecordOperationResult>();
+
+        /**
+         * Wait for the result.
+         *
+         * @return  the names of the records in the record operation results.
+         */
+        public List<String> await() throws InterruptedException {
+            assertTrue(this.latch.await(5, TimeUnit.SECONDS));
+            List<String> names = new ArrayList<String>();
+            for (RecordOperationResult recordOperationResult : this.recordOperationResults) {
+                names.add(recordOperationResult.getRecord().getName());
+            }
+            return names;
+        }
+
+        public boolean isFailed() {
+            return this.failed;
+        }
+
+        public boolean isSuccess() {
+            boolean success = true;
+            for (RecordOperationResult recordOperationResult : this.recordOperationResults) {
+                success = success && recordOperationResult.isSuccess();
+            }
+            return success;
+        }
+
+        @Override
+        public void completed(final List<RecordOperationResult> recordOperationResults) {
+            this.recordOperationResults = recordOperationResults;
+            this.latch.countDown();
+        }
+
+        @Override
+        public void failed(final DNSServerExecutorException exception) {
+            this.failed = true;
+            this.latch.countDown();
+        }
+    }
+}
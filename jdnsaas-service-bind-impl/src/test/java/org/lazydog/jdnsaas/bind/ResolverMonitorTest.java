@@ -0,0 +1,159 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.Resolver;
+
+/**
+ * Resolver monitor test.
+ * 
+ * @author  Ron Rickard
+ */
+public class ResolverMonitorTest {
+
+    private ResolverMonitor resolverMonitor;
+    private Resolver resolver1;
+    private Resolver resolver2;
+
+    @Before
+    public void beforeTest() {
+        this.resolverMonitor = new ResolverMonitor();
+        this.resolverMonitor.setFailureThreshold(3);
+        this.resolver1 = newResolver("10.0.0.1");
+        this.resolver2 = newResolver("10.0.0.2");
+    }
+
+    private static Resolver newResolver(final String address) {
+        Resolver resolver = new Resolver();
+        resolver.setAddress(address);
+        resolver.setPort(53);
+        return resolver;
+    }
+
+    @Test
+    public void testCircuitBreaker() {
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordFailure(this.resolver1);
+        assertTrue(this.resolverMonitor.isAvailable(this.resolver1));
+        this.resolverMonitor.recordFailure(this.resolver1);
+        assertFalse(this.resolverMonitor.isAvailable(this.resolver1));
+        assertEquals(Arrays.asList(this.resolver2), this.resolverMonitor.selectResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+        this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(this.resolverMonitor.isAvailable(this.resolver1));
+    }
+
+    @Test
+    public void testCircuitBreakerResetBySuccess() {
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(5));
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordFailure(this.resolver1);
+        assertTrue(this.resolverMonitor.isAvailable(this.resolver1));
+    }
+
+    @Test
+    public void testCircuitBreakerClosedByTransfer() {
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordFailure(this.resolver1);
+        assertFalse(this.resolverMonitor.isAvailable(this.resolver1));
+        this.resolverMonitor.recordTransferSuccess(this.resolver1);
+        assertTrue(this.resolverMonitor.isAvailable(this.resolver1));
+    }
+
+    @Test
+    public void testGetHedgeDelay() {
+        this.resolverMonitor.setHedgedReadPercentile(95);
+        for (int latency = 1; latency <= 200; latency++) {
+            this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(latency));
+        }
+        this.resolverMonitor.recordTransferSuccess(this.resolver1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(194), this.resolverMonitor.getHedgeDelay(this.resolver1));
+    }
+
+    @Test
+    public void testGetHedgeDelayIgnoresUpdateLatency() {
+        this.resolverMonitor.setHedgedReadPercentile(95);
+        for (int latency = 1; latency <= 200; latency++) {
+            this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(latency));
+            this.resolverMonitor.recordUpdateSuccess(this.resolver1, TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(194), this.resolverMonitor.getHedgeDelay(this.resolver1));
+    }
+
+    @Test
+    public void testSelectResolversByErrorRate() {
+        this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(5));
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordSuccess(this.resolver2, TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(Arrays.asList(this.resolver2, this.resolver1), this.resolverMonitor.selectResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+    }
+
+    @Test
+    public void testSelectResolversByLatency() {
+        this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(50));
+        this.resolverMonitor.recordSuccess(this.resolver2, TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(Arrays.asList(this.resolver2, this.resolver1), this.resolverMonitor.selectResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+    }
+
+    @Test
+    public void testSelectResolversIgnoresTransferDuration() {
+        this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(5));
+        this.resolverMonitor.recordTransferSuccess(this.resolver1);
+        this.resolverMonitor.recordSuccess(this.resolver2, TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(Arrays.asList(this.resolver1, this.resolver2), this.resolverMonitor.selectResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+    }
+
+    @Test
+    public void testSelectResolversNoneAvailable() {
+        for (int count = 0; count < 3; count++) {
+            this.resolverMonitor.recordFailure(this.resolver1);
+            this.resolverMonitor.recordFailure(this.resolver2);
+        }
+        assertEquals(Arrays.asList(this.resolver1, this.resolver2), this.resolverMonitor.selectResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+    }
+
+    @Test
+    public void testSelectResolversIgnoresUpdateLatency() {
+        this.resolverMonitor.recordSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(5));
+        this.resolverMonitor.recordUpdateSuccess(this.resolver1, TimeUnit.SECONDS.toNanos(1));
+        this.resolverMonitor.recordSuccess(this.resolver2, TimeUnit.MILLISECONDS.toNanos(10));
+        this.resolverMonitor.recordUpdateSuccess(this.resolver2, TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(Arrays.asList(this.resolver1, this.resolver2), this.resolverMonitor.selectResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+        assertEquals(Arrays.asList(this.resolver2, this.resolver1), this.resolverMonitor.selectUpdateResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+    }
+
+    @Test
+    public void testSelectUpdateResolversByErrorRate() {
+        this.resolverMonitor.recordUpdateSuccess(this.resolver1, TimeUnit.MILLISECONDS.toNanos(5));
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordFailure(this.resolver1);
+        this.resolverMonitor.recordUpdateSuccess(this.resolver2, TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(Arrays.asList(this.resolver2, this.resolver1), this.resolverMonitor.selectUpdateResolvers(Arrays.asList(this.resolver1, this.resolver2)));
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.View;
+import org.lazydog.jdnsaas.model.Zone;
+
+/**
+ * Zone transfer coalescer test.
+ * 
+ * @author  Ron Rickard
+ */
+public class ZoneTransferCoalescerTest {
+
+    private static final int CALLERS = 4;
+    private static final Zone ZONE = newZone("internal", "example.com");
+    private boolean fail;
+    private List<Record> records;
+    private CountDownLatch transferReleased;
+    private CountDownLatch transferStarted;
+    private AtomicInteger transfers;
+    private ZoneTransferCoalescer zoneTransferCoalescer;
+
+    private static Zone newZone(final String viewName, final String zoneName) {
+        View view = new View();
+        view.setName(viewName);
+        Zone zone = new Zone();
+        zone.setName(zoneName);
+        zone.setView(view);
+        return zone;
+    }
+
+    /**
+     * Create a zone transfer coalescer with a stub zone transfer that waits until it is released by the test.
+     */
+    @Before
+    public void beforeTest() throws Exception {
+        this.fail = false;
+        this.records = Arrays.<Record>asList(Record.newInstance(ARecord.class, "www", new Long(0), "10.20.30.40"));
+        this.transferReleased = new CountDownLatch(1);
+        this.transferStarted = new CountDownLatch(1);
+        this.transfers = new AtomicInteger();
+        this.zoneTransferCoalescer = new ZoneTransferCoalescer() {
+            @Override
+            List<Record> transferZone(final Zone zone) throws DNSServerExecutorException {
+                ZoneTransferCoalescerTest.this.transfers.incrementAndGet();
+                ZoneTransferCoalescerTest.this.transferStarted.countDown();
+                try {
+                    ZoneTransferCoalescerTest.this.transferReleased.await();
+                } catch (InterruptedException e) {
+                    throw new DNSServerExecutorException(e);
+                }
+                if (ZoneTransferCoalescerTest.this.fail) {
+                    throw new DNSServerExecutorException("failed");
+                }
+                return ZoneTransferCoalescerTest.this.records;
+            }
+        };
+    }
+
+    /**
+     * Start the callers, the first one alone so it runs the zone transfer, and release the zone transfer 
+     * once the others wait for it.
+     */
+    private List<Caller> call() throws Exception {
+
+        List<Caller> callers = new ArrayList<Caller>();
+        for (int count = 0; count < CALLERS; count++) {
+            callers.add(new Caller());
+        }
+
+        callers.get(0).start();
+        assertTrue(this.transferStarted.await(5, TimeUnit.SECONDS));
+        for (Caller caller : callers.subList(1, CALLERS)) {
+            caller.start();
+        }
+        for (Caller caller : callers.subList(1, CALLERS)) {
+            while (caller.getState() != Thread.State.WAITING) {
+                assertTrue(caller.isAlive());
+                Thread.sleep(1);
+            }
+        }
+        this.transferReleased.countDown();
+        for (Caller caller : callers) {
+            caller.join(5000);
+        }
+
+        return callers;
+    }
+
+    @Test
+    public void testFindRecords() throws Exception {
+        List<Caller> callers = this.call();
+        assertEquals(1, this.transfers.get());
+        for (Caller caller : callers) {
+            assertEquals(this.records, caller.records);
+            assertSame(callers.get(0).records, caller.records);
+        }
+    }
+
+    @Test
+    public void testFindRecordsFailure() throws Exception {
+        this.fail = true;
+        List<Caller> callers = this.call();
+        assertEquals(1, this.transfers.get());
+        for (Caller caller : callers) {
+            assertEquals("failed", caller.exception.getMessage());
+        }
+    }
+
+    @Test
+    public void testFindRecordsAfterTransfer() throws Exception {
+        this.transferReleased.countDown();
+        this.zoneTransferCoalescer.findRecords(ZONE);
+        this.zoneTransferCoalescer.findRecords(ZONE);
+        assertEquals(2, this.transfers.get());
+    }
+
+    /**
+     * Caller that finds the records on a thread of its own.
+     */
+    private class Caller extends Thread {
+
+        private DNSServerExecutorException exception;
+        private List<Record> records;
+
+        @Override
+        public void run() {
+            try {
+                this.records = ZoneTransferCoalescerTest.this.zoneTransferCoalescer.findRecords(ZONE);
+            } catch (DNSServerExecutorException e) {
+                this.exception = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.lazydog.jdnsaas.utility.Subnet;
+import org.lazydog.jdnsaas.utility.ZoneUtility;
+
+/**
+ * Address bitmap test.
+ * 
+ * @author  Ron Rickard
+ */
+public class AddressBitmapTest {
+
+    @Test
+    public void testFindFreeAddresses() {
+        AddressBitmap addressBitmap = AddressBitmap.newInstance(ZoneUtility.newInstance("16.172.in-addr.arpa").getReverseZoneSubnet());
+        addressBitmap.set(Subnet.toAddress("172.16.1.1"));
+        addressBitmap.set(Subnet.toAddress("172.16.1.3"));
+        assertEquals(Arrays.asList("172.16.1.2", "172.16.1.4"), addressBitmap.findFreeAddresses(Subnet.newInstance("172.16.1.0/24"), 2, false));
+        assertEquals(Arrays.asList("172.16.0.1"), addressBitmap.findFreeAddresses(null, 1, false));
+        assertEquals(Arrays.asList("172.16.1.64", "172.16.1.65"), addressBitmap.findFreeAddresses(Subnet.newInstance("172.16.1.64/31"), 4, false));
+    }
+
+    @Test
+    public void testFindFreeAddressesFull() {
+        AddressBitmap addressBitmap = AddressBitmap.newInstance(Subnet.newInstance("10.4.0.0/16"));
+        for (int index = 1; index < 255; index++) {
+            addressBitmap.set(Subnet.toAddress("10.4.8." + index));
+        }
+        assertTrue(addressBitmap.findFreeAddresses(Subnet.newInstance("10.4.8.0/24"), 10, false).isEmpty());
+        addressBitmap.clear(Subnet.toAddress("10.4.8.200"));
+        assertEquals(Arrays.asList("10.4.8.200"), addressBitmap.findFreeAddresses(Subnet.newInstance("10.4.8.0/24"), 10, false));
+    }
+
+    @Test
+    public void testFindFreeAddressesReserve() {
+        AddressBitmap addressBitmap = AddressBitmap.newInstance(Subnet.newInstance("10.4.0.0/16"));
+        assertEquals(Arrays.asList("10.4.0.1", "10.4.0.2"), addressBitmap.findFreeAddresses(null, 2, true));
+        assertTrue(addressBitmap.isSet(Subnet.toAddress("10.4.0.2")));
+        assertFalse(addressBitmap.isSet(Subnet.toAddress("10.4.0.3")));
+        assertEquals(Arrays.asList("10.4.0.3"), addressBitmap.findFreeAddresses(null, 1, true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindFreeAddressesOutsideSubnet() {
+        AddressBitmap.newInstance(Subnet.newInstance("10.4.0.0/16")).findFreeAddresses(Subnet.newInstance("10.5.0.0/24"), 1, false);
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.AAAARecord;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.utility.Subnet;
+
+/**
+ * Address index test.
+ * 
+ * @author  Ron Rickard
+ */
+public class AddressIndexTest {
+
+    private static List<Record> records;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        records = Arrays.<Record>asList(
+                Record.newInstance(ARecord.class, "c", new Long(0), "10.4.2.1"),
+                Record.newInstance(ARecord.class, "a", new Long(0), "10.4.0.1"),
+                Record.newInstance(ARecord.class, "b", new Long(0), "10.5.0.1"),
+                Record.newInstance(AAAARecord.class, "d", new Long(0), "2001:db8::1"));
+    }
+
+    @Test
+    public void testFindRecords() {
+        AddressIndex addressIndex = AddressIndex.newInstance("example.com", records);
+        assertEquals(Arrays.asList(records.get(1), records.get(0)), addressIndex.findRecords(Subnet.newInstance("10.4.0.0/16")));
+        assertEquals(Arrays.asList(records.get(1), records.get(0), records.get(2)), addressIndex.findRecords(Subnet.newInstance("10.0.0.0/8")));
+        assertEquals(Arrays.asList(records.get(3)), addressIndex.findRecords(Subnet.newInstance("2001:db8::/32")));
+    }
+
+    @Test
+    public void testApply() {
+        AddressIndex addressIndex = AddressIndex.newInstance("example.com", records);
+        ZoneDelta zoneDelta = ZoneDelta.newInstance();
+        zoneDelta.recordDeleted(records.get(1));
+        addressIndex.apply(zoneDelta);
+        assertEquals(Arrays.asList(records.get(0)), addressIndex.findRecords(Subnet.newInstance("10.4.0.0/16")));
+        assertEquals(Arrays.asList(records.get(0)), addressIndex.findRecords(Subnet.newInstance("10.4.2.1")));
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.AAAARecord;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.Record;
+
+/**
+ * Reverse index test.
+ * 
+ * @author  Ron Rickard
+ */
+public class ReverseIndexTest {
+
+    private static List<Record> records;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        records = Arrays.<Record>asList(
+                Record.newInstance(ARecord.class, "www", new Long(0), "10.20.30.40"),
+                Record.newInstance(ARecord.class, "mail", new Long(0), "10.20.30.41"),
+                Record.newInstance(AAAARecord.class, "www", new Long(0), "2001:db8:0:0:0:0:0:1"),
+                Record.newInstance(CNAMERecord.class, "web", new Long(0), "lb1"),
+                Record.newInstance(CNAMERecord.class, "api", new Long(0), "LB1.example.com."));
+    }
+
+    @Test
+    public void testFindRecordsIpv4Address() {
+        ReverseIndex reverseIndex = ReverseIndex.newInstance("example.com", records);
+        assertEquals(Arrays.asList(records.get(0)), reverseIndex.findRecords("10.20.30.40"));
+    }
+
+    @Test
+    public void testFindRecordsIpv6Address() {
+        ReverseIndex reverseIndex = ReverseIndex.newInstance("example.com", records);
+        assertEquals(Arrays.asList(records.get(2)), reverseIndex.findRecords("2001:DB8::1"));
+    }
+
+    @Test
+    public void testFindRecordsTarget() {
+        ReverseIndex reverseIndex = ReverseIndex.newInstance("example.com", records);
+        assertEquals(Arrays.asList(records.get(3), records.get(4)), reverseIndex.findRecords("lb1"));
+    }
+
+    @Test
+    public void testApply() {
+        ReverseIndex reverseIndex = ReverseIndex.newInstance("example.com", records);
+        ZoneDelta zoneDelta = ZoneDelta.newInstance();
+        zoneDelta.recordDeleted(records.get(0));
+        reverseIndex.apply(zoneDelta);
+        assertTrue(reverseIndex.findRecords("10.20.30.40").isEmpty());
+    }
+}
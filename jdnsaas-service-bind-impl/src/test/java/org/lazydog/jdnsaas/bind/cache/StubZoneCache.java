@@ -0,0 +1,121 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.lazydog.jdnsaas.bind.LookupCache;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.Resolver;
+import org.lazydog.jdnsaas.model.SOARecord;
+import org.lazydog.jdnsaas.model.Zone;
+
+/**
+ * Zone cache that transfers the zones from records held in memory instead of DNS.
+ * 
+ * @author  Ron Rickard
+ */
+public class StubZoneCache extends ZoneCache {
+
+    private Map<Zone,List<Record>> dnsZoneMap = new ConcurrentHashMap<Zone,List<Record>>();
+
+    /**
+     * Create the zone cache.
+     */
+    public StubZoneCache() {
+        this.setLookupCache(new LookupCache());
+    }
+
+    /**
+     * Add the zone to the zone cache and make the zone cache available.
+     * 
+     * @param  zone          the zone.
+     * @param  serialNumber  the serial number of the zone in DNS.
+     * @param  records       the records of the zone in DNS, without the SOA record.
+     */
+    public void add(final Zone zone, final long serialNumber, final Record... records) {
+        this.setDnsRecords(zone, serialNumber, records);
+        this.addZone(zone);
+        this.resume();
+    }
+
+    @Override
+    protected long getSerialNumberFromDNS(final Zone zone, final Resolver resolver) {
+        return ((SOARecord)this.dnsZoneMap.get(zone).get(0)).getSerialNumber();
+    }
+
+    @Override
+    protected void refresh() {
+    }
+
+    /**
+     * Set the records of the zone in DNS.
+     * 
+     * @param  zone          the zone.
+     * @param  serialNumber  the serial number of the zone in DNS.
+     * @param  records       the records of the zone in DNS, without the SOA record.
+     */
+    public void setDnsRecords(final Zone zone, final long serialNumber, final Record... records) {
+
+        SOARecord soaRecord = new SOARecord();
+        soaRecord.setName("@");
+        soaRecord.setTimeToLive(3600L);
+        soaRecord.setMasterNameServer("ns1");
+        soaRecord.setEmailAddress("hostmaster.example.com.");
+        soaRecord.setSerialNumber(serialNumber);
+        soaRecord.setRefreshInterval(3600L);
+        soaRecord.setRetryInterval(600L);
+        soaRecord.setExpireInterval(86400L);
+        soaRecord.setMinimumTimeToLive(300L);
+
+        List<Record> dnsRecords = new ArrayList<Record>();
+        dnsRecords.add(soaRecord);
+        dnsRecords.addAll(Arrays.asList(records));
+        this.dnsZoneMap.put(zone, dnsRecords);
+    }
+
+    @Override
+    protected List<Record> transferZone(final Zone zone) {
+        return new ArrayList<Record>(this.dnsZoneMap.get(zone));
+    }
+
+    @Override
+    protected long transferZoneChanges(final Zone zone, final Resolver resolver, final List<Record> records, final ZoneDelta zoneDelta) {
+
+        List<Record> dnsRecords = this.dnsZoneMap.get(zone);
+
+        for (Record record : records) {
+            if (!dnsRecords.contains(record)) {
+                zoneDelta.recordDeleted(record);
+            }
+        }
+        for (Record record : dnsRecords) {
+            if (!records.contains(record)) {
+                zoneDelta.recordAdded(record);
+            }
+        }
+        records.clear();
+        records.addAll(dnsRecords);
+
+        return this.getSerialNumberFromDNS(zone, resolver);
+    }
+}
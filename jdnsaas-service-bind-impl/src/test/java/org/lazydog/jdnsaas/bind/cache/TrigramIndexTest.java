@@ -0,0 +1,85 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.CNAMERecord;
+import org.lazydog.jdnsaas.model.Record;
+
+/**
+ * Trigram index test.
+ * 
+ * @author  Ron Rickard
+ */
+public class TrigramIndexTest {
+
+    private static List<Record> records;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        records = Arrays.<Record>asList(
+                Record.newInstance(ARecord.class, "db1-prod", new Long(0), "10.0.0.1"),
+                Record.newInstance(ARecord.class, "db1-test", new Long(0), "10.0.0.2"),
+                Record.newInstance(ARecord.class, "web-prod", new Long(0), "10.0.0.3"),
+                Record.newInstance(CNAMERecord.class, "db", new Long(0), "db1-prod"));
+    }
+
+    @Test
+    public void testFindCandidateRecords() {
+        TrigramIndex trigramIndex = TrigramIndex.newInstance("example.com", records);
+        assertEquals(Arrays.asList(records.get(0), records.get(3)), trigramIndex.findCandidateRecords(Arrays.asList("DB1", "prod")));
+    }
+
+    @Test
+    public void testFindCandidateRecordsShortSearchTokens() {
+        TrigramIndex trigramIndex = TrigramIndex.newInstance("example.com", records);
+        assertNull(trigramIndex.findCandidateRecords(Arrays.asList("db")));
+    }
+
+    @Test
+    public void testApply() throws Exception {
+        TrigramIndex trigramIndex = TrigramIndex.newInstance("example.com", records);
+        Record record = Record.newInstance(ARecord.class, "db2-prod", new Long(0), "10.0.0.4");
+        ZoneDelta zoneDelta = ZoneDelta.newInstance();
+        zoneDelta.recordDeleted(records.get(0));
+        zoneDelta.recordAdded(record);
+        trigramIndex.apply(zoneDelta);
+        assertEquals(Arrays.asList(records.get(2), records.get(3), record), trigramIndex.findCandidateRecords(Arrays.asList("prod")));
+    }
+
+    @Test
+    public void testApplyRenumber() throws Exception {
+        TrigramIndex trigramIndex = TrigramIndex.newInstance("example.com", records);
+        Record record = Record.newInstance(ARecord.class, "db2-prod", new Long(0), "10.0.0.4");
+        ZoneDelta zoneDelta = ZoneDelta.newInstance();
+        zoneDelta.recordDeleted(records.get(0));
+        zoneDelta.recordDeleted(records.get(1));
+        zoneDelta.recordDeleted(records.get(2));
+        zoneDelta.recordAdded(record);
+        trigramIndex.apply(zoneDelta);
+        assertEquals(Arrays.asList(records.get(3), record), trigramIndex.findCandidateRecords(Arrays.asList("prod")));
+        assertEquals(Arrays.asList(record), trigramIndex.findCandidateRecords(Arrays.asList("10.0.0.4")));
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2013 lazydog.org.
+ *
+ * This file is part of JDNSaaS.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lazydog.jdnsaas.bind.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.lazydog.jdnsaas.model.ARecord;
+import org.lazydog.jdnsaas.model.Record;
+import org.lazydog.jdnsaas.model.View;
+import org.lazydog.jdnsaas.model.Zone;
+
+/**
+ * Zone cache test.
+ * 
+ * @author  Ron Rickard
+ */
+public class ZoneCacheTest {
+
+    private Record record1;
+    private Record record2;
+    private StubZoneCache zoneCache;
+    private Zone zone;
+
+    @Before
+    public void beforeTest() throws Exception {
+        View view = new View();
+        view.setName("internal");
+        this.zone = new Zone();
+        this.zone.setName("example.com");
+        this.zone.setView(view);
+        this.record1 = Record.newInstance(ARecord.class, "www", new Long(0), "10.20.30.40");
+        this.record2 = Record.newInstance(ARecord.class, "mail", new Long(0), "10.20.30.41");
+        this.zoneCache = new StubZoneCache();
+        this.zoneCache.add(this.zone, 1, this.record1);
+    }
+
+    @Test
+    public void testFindSnapshot() {
+        ZoneSnapshot snapshot = this.zoneCache.findSnapshot(this.zone, null);
+        assertEquals(1, snapshot.getSerialNumber());
+        assertEquals(2, snapshot.getRecords().size());
+        assertTrue(snapshot.getRecords().contains(this.record1));
+        assertEquals(snapshot, this.zoneCache.findSnapshot(this.zone, 1L));
+    }
+
+    @Test
+    public void testUpdateZoneNow() {
+        this.zoneCache.setDnsRecords(this.zone, 2, this.record1, this.record2);
+        this.zoneCache.updateZoneNow(this.zone, null);
+        ZoneSnapshot snapshot = this.zoneCache.findSnapshot(this.zone, null);
+        assertEquals(2, snapshot.getSerialNumber());
+        assertEquals(3, snapshot.getRecords().size());
+        assertTrue(snapshot.getRecords().contains(this.record2));
+    }
+
+    @Test
+    public void testUpdateZoneNowSerialNumberNotIncreased() {
+        this.zoneCache.setDnsRecords(this.zone, 1, this.record1, this.record2);
+        this.zoneCache.updateZoneNow(this.zone, null);
+        ZoneSnapshot snapshot = this.zoneCache.findSnapshot(this.zone, null);
+        assertEquals(1, snapshot.getSerialNumber());
+        assertEquals(2, snapshot.getRecords().size());
+    }
+
+    @Test
+    public void testFindSnapshotRetained() {
+        this.zoneCache.setDnsRecords(this.zone, 2, this.record1, this.record2);
+        this.zoneCache.updateZoneNow(this.zone, null);
+        ZoneSnapshot snapshot = this.zoneCache.findSnapshot(this.zone, 1L);
+        assertEquals(1, snapshot.getSerialNumber());
+        assertEquals(2, snapshot.getRecords().size());
+        assertTrue(snapshot.getRecords().contains(this.record1));
+        assertEquals(2, this.zoneCache.findSnapshot(this.zone, 2L).getSerialNumber());
+    }
+
+    @Test
+    public void testFindSnapshotEvicted() {
+        for (long serialNumber = 2; serialNumber <= 6; serialNumber++) {
+            this.zoneCache.setDnsRecords(this.zone, serialNumber, this.record1);
+            this.zoneCache.updateZoneNow(this.zone, null);
+        }
+        assertEquals(6, this.zoneCache.findSnapshot(this.zone, null).getSerialNumber());
+        assertNull(this.zoneCache.findSnapshot(this.zone, 1L));
+        for (long serialNumber = 2; serialNumber <= 5; serialNumber++) {
+            assertEquals(serialNumber, this.zoneCache.findSnapshot(this.zone, serialNumber).getSerialNumber());
+        }
+    }
+
+    @Test
+    public void testFindSnapshotZoneNotCached() {
+        Zone zone = new Zone();
+        zone.setName("example.org");
+        zone.setView(this.zone.getView());
+        assertNull(this.zoneCache.findSnapshot(zone, null));
+    }
+}